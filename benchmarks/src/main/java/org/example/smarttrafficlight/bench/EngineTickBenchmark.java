@@ -0,0 +1,56 @@
+package org.example.smarttrafficlight.bench;
+
+import org.example.smarttrafficlight.eventlog.LogLevel;
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one SimulationEngine.runSimulationStep() at a steady queue depth.
+// Every departing vehicle is immediately re-queued on the same approach, so the depth stays put.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineTickBenchmark {
+
+    @Param({"0", "16", "1024", "65536"})
+    public int queueDepth; // Vehicles per approach
+
+    private ManualClock clock;
+    private SimulationEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimulationEventLog.get().setLevel(LogLevel.OFF); // Measure the step, not the logging
+        clock = new ManualClock();
+        Intersection intersection = new Intersection(clock);
+        engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+        engine.setConsoleOutput(false);
+        engine.setDepartureListener((dir, id, type, arrivalTime) ->
+                intersection.addVehicle(id, type, dir, clock.currentTimeMillis()));
+
+        VehicleType[] regular = {VehicleType.CAR, VehicleType.BUS, VehicleType.TRUCK, VehicleType.MOTORCYCLE};
+        for (Direction dir : Direction.values()) {
+            for (int i = 0; i < queueDepth; i++) {
+                intersection.addVehicle(regular[i % regular.length], dir);
+            }
+        }
+        engine.startSimulation();
+    }
+
+    @Benchmark
+    public void tick() {
+        clock.advance(1000);
+        engine.runSimulationStep();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.smarttrafficlight.bench;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Intersection.addVehicle / getNextVehicle, uncontended and with several producers
+// (GUI, generators) racing the engine on the same approach. In the contended group the producers
+// outpace the consumer, so they also poll once the queue is deeper than MAX_DEPTH: the queue stays
+// bounded and the numbers measure lock contention, not ring growth and GC.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class IntersectionQueueBenchmark {
+
+    private static final int MAX_DEPTH = 4096; // Contended group only; above the largest prefill
+
+    @Param({"0", "1024"})
+    public int prefill; // Vehicles already queued before measuring
+
+    private Intersection intersection;
+    private final DepartureListener sink = (dir, id, type, arrivalTime) -> { };
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        intersection = new Intersection(new ManualClock());
+        for (int i = 0; i < prefill; i++) {
+            intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        }
+    }
+
+    // --- Single thread: add then remove ---
+
+    @Benchmark
+    @Group("uncontended")
+    public Vehicle addThenPoll() {
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        return intersection.getNextVehicle(Direction.NORTH).orElse(null);
+    }
+
+    @Benchmark
+    @Group("uncontendedPrimitive")
+    public boolean addThenPollPrimitive() {
+        intersection.addVehicle(Vehicle.nextId(), VehicleType.CAR, Direction.NORTH, 0L);
+        return intersection.pollNextVehicle(Direction.NORTH, sink);
+    }
+
+    // --- Three producers against one consumer on the same approach ---
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void producer(Blackhole blackhole) {
+        intersection.addVehicle(Vehicle.nextId(), VehicleType.CAR, Direction.NORTH, 0L);
+        if (intersection.getQueueSize(Direction.NORTH) > MAX_DEPTH) {
+            blackhole.consume(intersection.pollNextVehicle(Direction.NORTH, sink));
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void consumer(Blackhole blackhole) {
+        blackhole.consume(intersection.pollNextVehicle(Direction.NORTH, sink));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.smarttrafficlight.bench;
+
+import org.example.smarttrafficlight.kinematics.IdmParameters;
+import org.example.smarttrafficlight.kinematics.LaneKinematics;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One 100 ms IDM update of a long lane, against the red light (queue building up and standing)
+// and on green (platoon moving and discharging). Divide by vehicles for the per-vehicle cost;
+// run with -prof perfasm to check the acceleration and integration loops got vectorised.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LaneKinematicsBenchmark {
+
+    @Param({"64", "1024"})
+    public int vehicles;
+
+    @Param({"RED", "GREEN"})
+    public TrafficLightState signal;
+
+    private LaneKinematics lane;
+    private int nextId;
+    private final DepartureListener sink = (dir, id, type, arrivalTime) -> { };
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        lane = new LaneKinematics(Direction.NORTH, vehicles * 30.0, IdmParameters.URBAN);
+        for (int i = 0; i < vehicles; i++) {
+            lane.enter(nextId++, VehicleType.CAR, 0L);
+        }
+        lane.setSignal(signal);
+    }
+
+    @Benchmark
+    public int advance() {
+        int crossed = lane.advance(0.1, sink);
+        for (int i = 0; i < crossed; i++) {
+            lane.enter(nextId++, VehicleType.CAR, 0L); // Keep the lane at the same load
+        }
+        return crossed;
+    }
+}
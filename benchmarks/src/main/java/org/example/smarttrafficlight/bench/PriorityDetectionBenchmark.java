@@ -0,0 +1,55 @@
+package org.example.smarttrafficlight.bench;
+
+import org.example.smarttrafficlight.eventlog.LogLevel;
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.PreemptionScheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Emergency detection as the engine runs it at the start of every step: PreemptionScheduler.refresh()
+// against the intersection's emergency index, then next() to pick the approach to serve.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriorityDetectionBenchmark {
+
+    @Param({"NONE", "WEST_HEAD"})
+    public String emergency; // Where an emergency vehicle is queued, if anywhere
+
+    @Param({"16", "4096"})
+    public int queueDepth;
+
+    private Intersection intersection;
+    private PreemptionScheduler preemptions;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimulationEventLog.get().setLevel(LogLevel.OFF); // Detection events would otherwise be logged
+        intersection = new Intersection(new ManualClock());
+        preemptions = new PreemptionScheduler();
+        for (Direction dir : Direction.values()) {
+            for (int i = 0; i < queueDepth; i++) {
+                intersection.addVehicle(VehicleType.CAR, dir);
+            }
+        }
+        if (emergency.equals("WEST_HEAD")) {
+            intersection.addVehicle(VehicleType.AMBULANCE, Direction.WEST); // Last in Direction order; found through the emergency index, not a queue scan
+        }
+    }
+
+    @Benchmark
+    public Direction refreshAndSelect() {
+        preemptions.refresh(intersection, now++); // Only the first call reports the request as new
+        return preemptions.next(Direction.NORTH);
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.smarttrafficlight.bench;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Intersection.getQueuePreview(), called by the GUI for every approach on every update.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueuePreviewBenchmark {
+
+    @Param({"5", "1024", "65536"})
+    public int queueDepth;
+
+    @Param({"5"})
+    public int previewCount; // What the GUI shows
+
+    private Intersection intersection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        intersection = new Intersection(new ManualClock());
+        VehicleType[] types = VehicleType.values();
+        for (int i = 0; i < queueDepth; i++) {
+            intersection.addVehicle(types[i % types.length], Direction.NORTH);
+        }
+    }
+
+    @Benchmark
+    public List<Vehicle> getQueuePreview() {
+        return intersection.getQueuePreview(Direction.NORTH, previewCount);
+    }
+}
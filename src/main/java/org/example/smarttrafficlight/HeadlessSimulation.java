@@ -0,0 +1,158 @@
+package org.example.smarttrafficlight;
+
+import org.example.smarttrafficlight.journal.JournalWriter;
+import org.example.smarttrafficlight.kinematics.IdmParameters;
+import org.example.smarttrafficlight.kinematics.LaneKinematics;
+import org.example.smarttrafficlight.kinematics.MicroscopicSimulation;
+import org.example.smarttrafficlight.metrics.TrafficMetrics;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Entry point for running the simulation without JavaFX (batch servers, scenario sweeps).
+// "step" mode advances simulated time in fixed steps as fast as the engine can go;
+// "des" mode jumps from event to event and skips idle ticks altogether;
+// "micro" mode drives every vehicle along a 200 m approach lane (MicroscopicSimulation).
+// With a journal path, the run is recorded for JournalReplay.
+//
+// Usage: HeadlessSimulation [ticks] [stepMillis] [seed] [step|des|micro] [journal]
+public class HeadlessSimulation {
+
+    public static void main(String[] args) throws IOException {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 3600;   // One simulated hour by default
+        long stepMillis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        String mode = args.length > 3 ? args[3] : "step";
+        Path journal = args.length > 4 ? Paths.get(args[4]) : null;
+
+        if (mode.equals("des")) {
+            runEventDriven(ticks, stepMillis, seed, journal);
+        } else if (mode.equals("micro")) {
+            runMicroscopic(ticks, stepMillis, seed, journal);
+        } else {
+            runStepped(ticks, stepMillis, seed, journal);
+        }
+    }
+
+    private static void runStepped(long ticks, long stepMillis, long seed, Path journal) throws IOException {
+        ManualClock clock = new ManualClock();
+        Intersection intersection = new Intersection(clock);
+        JournalWriter journalWriter = journal != null ? JournalWriter.attach(intersection, journal, stepMillis) : null;
+        TrafficMetrics metrics = TrafficMetrics.attach(intersection);
+        SimulationEngine engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+
+        // Feed a simple random arrival stream: each tick's arrival joins its queue before that tick's step
+        // (the engine's tick hook runs after the step, which would delay every vehicle by one tick)
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        VehicleType[] types = VehicleType.values();
+
+        long wallStart = System.nanoTime();
+        engine.startSimulation(); // Returns right away with an external driver
+        for (long tick = 1; tick <= ticks; tick++) {
+            clock.advance(stepMillis);
+            if (random.nextInt(4) == 0) {
+                intersection.addVehicle(types[random.nextInt(types.length)], directions[random.nextInt(directions.length)]);
+            }
+            engine.runSimulationStep();
+        }
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+
+        System.out.println("Headless run finished: " + ticks + " ticks, "
+                + clock.currentTimeMillis() + " ms simulated in " + wallMillis + " ms wall time.");
+        System.out.println("Remaining queues: " + intersection.getAllQueueSizes());
+        System.out.print(metrics.report(clock.currentTimeMillis()));
+        printStageProfile(engine);
+    }
+
+    private static void runEventDriven(long ticks, long stepMillis, long seed, Path journal) throws IOException {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(stepMillis);
+        JournalWriter journalWriter = journal != null
+                ? JournalWriter.attach(simulation.getIntersection(), journal, stepMillis) : null;
+        TrafficMetrics metrics = TrafficMetrics.attach(simulation.getIntersection());
+
+        // Same arrival pattern as the stepped run, scheduled up front
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        VehicleType[] types = VehicleType.values();
+        for (long tick = 1; tick <= ticks; tick++) {
+            if (random.nextInt(4) == 0) {
+                simulation.scheduleArrival(tick * stepMillis, types[random.nextInt(types.length)],
+                        directions[random.nextInt(directions.length)]);
+            }
+        }
+
+        long wallStart = System.nanoTime();
+        simulation.run(ticks * stepMillis);
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+
+        System.out.println("Event-driven run finished: " + simulation.getEventsProcessed() + " events, "
+                + simulation.getStepsRun() + " engine steps, " + simulation.getClock().currentTimeMillis()
+                + " ms simulated in " + wallMillis + " ms wall time.");
+        System.out.println("Remaining queues: " + simulation.getIntersection().getAllQueueSizes());
+        System.out.print(metrics.report(simulation.getClock().currentTimeMillis()));
+        printStageProfile(simulation.getEngine());
+    }
+
+    private static void runMicroscopic(long ticks, long stepMillis, long seed, Path journal) throws IOException {
+        // Kinematic sub-steps of at most 250 ms, whatever the engine tick
+        int subSteps = (int) Math.max(1, (stepMillis + 249) / 250);
+        MicroscopicSimulation simulation = new MicroscopicSimulation(stepMillis, subSteps, 200.0, IdmParameters.URBAN);
+        JournalWriter journalWriter = journal != null
+                ? JournalWriter.attach(simulation.getIntersection(), journal, stepMillis) : null;
+        TrafficMetrics metrics = TrafficMetrics.attach(simulation.getIntersection());
+
+        // Same random draws as the stepped run, one per tick after the step (vehicles enter 200 m upstream)
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        VehicleType[] types = VehicleType.values();
+        simulation.start();
+        long wallStart = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            simulation.step();
+            if (random.nextInt(4) == 0) {
+                simulation.addVehicle(types[random.nextInt(types.length)], directions[random.nextInt(directions.length)]);
+            }
+        }
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+
+        System.out.println("Microscopic run finished: " + simulation.getStepsRun() + " steps x " + subSteps
+                + " sub-steps, " + simulation.getCrossings() + " stop-line crossings, "
+                + simulation.getClock().currentTimeMillis() + " ms simulated in " + wallMillis + " ms wall time.");
+        System.out.println("Remaining queues: " + simulation.getIntersection().getAllQueueSizes());
+        for (Direction dir : directions) {
+            LaneKinematics lane = simulation.getLane(dir);
+            System.out.printf("  %-5s lane: %d moving, %d stopped, %d waiting to enter, mean speed %.1f m/s%n", dir,
+                    lane.getVehicleCount() - lane.countSlowerThan(0.5), lane.countSlowerThan(0.5),
+                    lane.getWaitingCount(), lane.getMeanSpeed());
+        }
+        System.out.print(metrics.report(simulation.getClock().currentTimeMillis()));
+        printStageProfile(simulation.getEngine());
+    }
+
+    // Only with -Dtraffic.profile.stages=true
+    private static void printStageProfile(SimulationEngine engine) {
+        if (engine.getProfiler() != null) {
+            System.out.println("Engine step: us " + engine.getStepDurations());
+            System.out.print(engine.getProfiler().report());
+        }
+    }
+}
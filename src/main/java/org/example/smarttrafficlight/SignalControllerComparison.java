@@ -0,0 +1,76 @@
+package org.example.smarttrafficlight;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.control.ActuatedController;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.example.smarttrafficlight.service.control.SignalController;
+
+import java.util.List;
+import java.util.Random;
+
+// Runs the same seeded arrival trace through each signal controller (event-driven, headless)
+// and prints throughput and average wait, so strategies can be compared like for like.
+//
+// Usage: SignalControllerComparison [hours] [seed] [northSouthPerMinute] [eastWestPerMinute]
+public class SignalControllerComparison {
+
+    public static void main(String[] args) {
+        long hours = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        double northSouthPerMinute = args.length > 2 ? Double.parseDouble(args[2]) : 24; // Per approach
+        double eastWestPerMinute = args.length > 3 ? Double.parseDouble(args[3]) : 8;
+        long durationMs = hours * 3_600_000L;
+
+        List<SignalController> controllers = List.of(
+                new FixedTimeController(),
+                new ActuatedController(5_000, 40_000),
+                new MaxPressureController(5_000, 40_000));
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-28s %12s %14s%n", "controller", "veh/hour", "avg wait (s)"));
+        for (SignalController controller : controllers) {
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(1000);
+            simulation.getEngine().setSignalController(controller);
+            scheduleTrace(simulation, new Random(seed), durationMs, northSouthPerMinute, eastWestPerMinute);
+
+            long[] departed = new long[1];
+            long[] totalWaitMs = new long[1];
+            simulation.getEngine().setDepartureListener((dir, id, type, arrivalTime) -> {
+                departed[0]++;
+                totalWaitMs[0] += simulation.getClock().currentTimeMillis() - arrivalTime;
+            });
+            simulation.run(durationMs);
+
+            double perHour = departed[0] * 3_600_000.0 / durationMs;
+            double avgWaitSeconds = departed[0] == 0 ? 0 : totalWaitMs[0] / 1000.0 / departed[0];
+            report.append(String.format("%-28s %12.0f %14.1f%n", controller.getName(), perHour, avgWaitSeconds));
+        }
+        System.out.print(report); // Printed last so it is not buried in the engine's own logging
+    }
+
+    // Poisson arrivals per approach, about 2% emergency vehicles
+    private static void scheduleTrace(DiscreteEventSimulation simulation, Random random, long durationMs,
+                                      double northSouthPerMinute, double eastWestPerMinute) {
+        VehicleType[] regular = {VehicleType.CAR, VehicleType.CAR, VehicleType.CAR, VehicleType.BUS,
+                VehicleType.TRUCK, VehicleType.MOTORCYCLE};
+        VehicleType[] emergency = {VehicleType.AMBULANCE, VehicleType.FIRE_TRUCK, VehicleType.POLICE};
+        for (Direction dir : Direction.values()) {
+            double perMinute = (dir == Direction.NORTH || dir == Direction.SOUTH) ? northSouthPerMinute : eastWestPerMinute;
+            double meanGapMs = 60_000.0 / perMinute;
+            double time = 0;
+            while (true) {
+                time += -Math.log(1 - random.nextDouble()) * meanGapMs;
+                if (time >= durationMs) {
+                    break;
+                }
+                VehicleType type = random.nextInt(50) == 0
+                        ? emergency[random.nextInt(emergency.length)]
+                        : regular[random.nextInt(regular.length)];
+                simulation.scheduleArrival((long) time, type, dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.smarttrafficlight;
+
+import org.example.smarttrafficlight.tuning.GridSearch;
+import org.example.smarttrafficlight.tuning.HillClimbingSearch;
+import org.example.smarttrafficlight.tuning.ParameterSpace;
+import org.example.smarttrafficlight.tuning.RandomSearch;
+import org.example.smarttrafficlight.tuning.Scenario;
+import org.example.smarttrafficlight.tuning.ScenarioSweep;
+import org.example.smarttrafficlight.tuning.SearchStrategy;
+import org.example.smarttrafficlight.tuning.SurrogateSearch;
+import org.example.smarttrafficlight.tuning.SweepResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Searches signal timings and controllers over seeded traffic scenarios, on all cores, and
+// prints the best candidates ranked by wait-time score (see SweepResult).
+// "poisson" traffic has constant rates per approach pair; "rush-hour" traffic follows the weekday
+// profile from 07:00 with northSouthPerMinute as the base car rate on every approach.
+//
+// Usage: TimingSweep [grid|random|hill|surrogate] [budget] [hours] [scenarios] [northSouthPerMinute] [eastWestPerMinute] [poisson|rush-hour]
+public class TimingSweep {
+
+    public static void main(String[] args) {
+        String strategyName = args.length > 0 ? args[0] : "surrogate";
+        int budget = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double hours = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        int scenarioCount = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        double northSouthPerMinute = args.length > 4 ? Double.parseDouble(args[4]) : 24; // Per approach
+        double eastWestPerMinute = args.length > 5 ? Double.parseDouble(args[5]) : 8;
+        String traffic = args.length > 6 ? args[6] : "poisson";
+
+        long durationMs = (long) (hours * 3_600_000L);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < scenarioCount; i++) {
+            switch (traffic) {
+                case "poisson":
+                    scenarios.add(Scenario.poisson(42L + i, durationMs, northSouthPerMinute, eastWestPerMinute));
+                    break;
+                case "rush-hour":
+                    scenarios.add(Scenario.rushHour(42L + i, 7 * 3_600_000L, durationMs, northSouthPerMinute));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown traffic: " + traffic + " (poisson|rush-hour)");
+            }
+        }
+
+        ParameterSpace space = ParameterSpace.defaults();
+        SearchStrategy strategy;
+        switch (strategyName) {
+            case "grid":
+                strategy = new GridSearch(space);
+                break;
+            case "random":
+                strategy = new RandomSearch(space, 1);
+                break;
+            case "hill":
+                strategy = new HillClimbingSearch(space, 1);
+                break;
+            case "surrogate":
+                strategy = new SurrogateSearch(space, 1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategyName + " (grid|random|hill|surrogate)");
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Sweep: " + strategy.getName() + ", budget " + budget + ", " + scenarios.size()
+                + " scenario(s) of " + hours + " h, " + threads + " thread(s)");
+        long wallStart = System.nanoTime();
+        List<SweepResult> ranked;
+        try (ScenarioSweep sweep = new ScenarioSweep(scenarios, threads)) {
+            ranked = sweep.search(strategy, budget);
+        }
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        long runs = (long) ranked.size() * scenarios.size();
+        System.out.println(ranked.size() + " candidates, " + runs + " simulations in " + wallMillis + " ms ("
+                + String.format("%.1f", runs * 1000.0 / Math.max(1, wallMillis)) + " simulations/s)");
+        System.out.print(ScenarioSweep.formatTable(ranked, 15));
+    }
+}
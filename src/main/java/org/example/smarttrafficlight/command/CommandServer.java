@@ -0,0 +1,262 @@
+package org.example.smarttrafficlight.command;
+
+import org.example.smarttrafficlight.metrics.TrafficMetrics;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.notification.Notifier;
+import org.example.smarttrafficlight.service.IntersectionSnapshot;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Answers operator chat commands about a running simulation:
+//   /status            lights and queue sizes
+//   /queues <dir>      head of one approach's queue
+//   /metrics           departures, green share, override latency
+//   /override <dir>    serve that direction's pair next (SimulationEngine.requestPhase)
+//
+// Only operator chats (the configured chat and its allowlist) get answers. Messages from any other
+// chat are dropped without a reply (only counted), so a stranger who finds the bot can neither read
+// the junction's state nor switch its signals, nor make the bot send anything: replies share the
+// outbox with emergency alerts, and a flood of answers to strangers could push those out.
+//
+// submit() only hands the message to an executor and returns, so the caller (Telegram's update
+// thread, a LocalUpdateSource) is never held up. Every command runs on its own thread, virtual
+// where the JVM has them (see CommandThreads), and reads only state that is published lock-free:
+// the intersection's IntersectionSnapshot, the atomics in TrafficMetrics and the engine counters.
+// Nothing here takes a queue lock or waits for the tick thread, so a flood of requests costs the
+// simulation nothing; beyond maxInFlight concurrent commands, new ones are rejected.
+//
+//   CommandServer commands = new CommandServer(engine, metrics, notifier, config.getOperatorChatIds());
+//   telegramBot.setCommandServer(commands);
+public final class CommandServer implements AutoCloseable {
+
+    public static final String BUSY_REPLY = "Too many requests, please try again in a moment.";
+    // What submit() and handle() return for a chat that is not an operator chat; never sent to it
+    public static final String NOT_AUTHORISED_REPLY = "Not authorised: this chat may not send operator commands.";
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+    private static final int PLATFORM_THREADS = 16; // Without virtual threads; replies block on the network
+
+    private final SimulationEngine engine;
+    private final TrafficMetrics metrics; // May be null
+    private final Notifier replies;
+    private final Set<Long> operatorChats;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore inFlight;
+
+    // --- Counters ---
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong unauthorised = new AtomicLong();
+
+    public CommandServer(SimulationEngine engine, TrafficMetrics metrics, Notifier replies, Set<Long> operatorChats) {
+        this(engine, metrics, replies, operatorChats, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    // Replies are sent through 'replies' from the command's thread: an AsyncNotifier in front of
+    // Telegram coalesces and rate-limits them per chat
+    public CommandServer(SimulationEngine engine, TrafficMetrics metrics, Notifier replies, Set<Long> operatorChats,
+                         int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.engine = engine;
+        this.metrics = metrics;
+        this.replies = replies;
+        this.operatorChats = Set.copyOf(operatorChats);
+        this.inFlight = new Semaphore(maxInFlight);
+        ExecutorService virtual = CommandThreads.newVirtualThreadPerTaskExecutor("command-");
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : CommandThreads.newPlatformPool("command-", PLATFORM_THREADS);
+    }
+
+    // Handles the message on its own thread and sends the reply to the chat. Never blocks: when
+    // maxInFlight commands are already running, the message is rejected (counted, no reply sent).
+    // The future completes with the reply text, or BUSY_REPLY when rejected. Messages from chats
+    // that are not operator chats are dropped right here: no thread, no reply, NOT_AUTHORISED_REPLY.
+    public CompletableFuture<String> submit(long chatId, String text) {
+        if (!operatorChats.contains(chatId)) {
+            unauthorised.incrementAndGet();
+            return CompletableFuture.completedFuture(NOT_AUTHORISED_REPLY);
+        }
+        if (!inFlight.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.completedFuture(BUSY_REPLY);
+        }
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    String answer = handle(chatId, text);
+                    if (replies != null) {
+                        replies.sendMessage(chatId, answer);
+                    }
+                    handled.incrementAndGet();
+                    reply.complete(answer);
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    reply.completeExceptionally(e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) { // Closed
+            inFlight.release();
+            rejected.incrementAndGet();
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
+
+    // Reply to one message from chatId, computed on the calling thread (NOT_AUTHORISED_REPLY for
+    // any message from a chat that is not an operator chat)
+    public String handle(long chatId, String text) {
+        if (!operatorChats.contains(chatId)) {
+            unauthorised.incrementAndGet();
+            return NOT_AUTHORISED_REPLY;
+        }
+        String[] words = text.trim().split("\\s+");
+        String command = words[0];
+        int botSuffix = command.indexOf('@'); // Group chats send "/status@SomeBot"
+        if (botSuffix > 0) {
+            command = command.substring(0, botSuffix);
+        }
+        String argument = words.length > 1 ? words[1] : null;
+        command = command.toLowerCase(Locale.ROOT);
+
+        switch (command) {
+            case "/start":
+            case "/help":
+                return help();
+            case "/status":
+                return status(engine.getLatestSnapshot());
+            case "/queues":
+                Direction queueDirection = parseDirection(argument);
+                return queueDirection == null ? "Usage: /queues <north|south|east|west>"
+                        : queue(engine.getLatestSnapshot(), queueDirection);
+            case "/metrics":
+                return metrics(engine.getLatestSnapshot().getTime());
+            case "/override":
+                Direction overrideDirection = parseDirection(argument);
+                if (overrideDirection == null) {
+                    return "Usage: /override <north|south|east|west>";
+                }
+                engine.requestPhase(overrideDirection);
+                return "Override requested: " + overrideDirection + " pair goes green after the current phase's yellow"
+                        + " (emergency overrides still come first).";
+            default:
+                return "Unknown command: " + command + "\n" + help();
+        }
+    }
+
+    private static String help() {
+        return "Smart Traffic Light Bot. Commands:\n"
+                + "/status - lights and queue sizes\n"
+                + "/queues <dir> - vehicles waiting on one approach\n"
+                + "/metrics - departures, green share, override latency\n"
+                + "/override <dir> - give that direction's pair green next\n"
+                + "Emergencies and phase changes are reported here automatically.";
+    }
+
+    private static String status(IntersectionSnapshot snapshot) {
+        StringBuilder text = new StringBuilder("Time ").append(formatTimeOfDay(snapshot.getTime()))
+                .append(" (state v").append(snapshot.getVersion()).append(")");
+        for (Direction dir : Direction.values()) {
+            text.append(String.format("%n%-5s %-6s queue %d", dir, snapshot.getLightState(dir), snapshot.getQueueSize(dir)));
+        }
+        return text.toString();
+    }
+
+    private static String queue(IntersectionSnapshot snapshot, Direction direction) {
+        IntersectionSnapshot.Approach approach = snapshot.getApproach(direction);
+        StringBuilder text = new StringBuilder(direction.toString()).append(": ").append(approach.getLightState())
+                .append(", ").append(approach.getQueueSize()).append(" waiting");
+        List<Vehicle> head = approach.getPreview();
+        for (Vehicle vehicle : head) {
+            text.append("\n  ").append(vehicle.getType()).append(" #").append(vehicle.getId())
+                    .append(", waiting ").append((snapshot.getTime() - vehicle.getArrivalTime()) / 1000).append(" s");
+        }
+        if (approach.getQueueSize() > head.size()) {
+            text.append("\n  ... and ").append(approach.getQueueSize() - head.size()).append(" more");
+        }
+        return text.toString();
+    }
+
+    private String metrics(long now) {
+        StringBuilder text = new StringBuilder("Engine: ").append(engine.getStepsRun()).append(" steps, ")
+                .append(engine.getOverridesStarted()).append(" emergency overrides");
+        if (metrics == null) {
+            return text.append("\nTraffic metrics are not enabled.").toString();
+        }
+        for (Direction dir : Direction.values()) {
+            text.append(String.format("%n%-5s departed %d (last minute %d), green %.0f%%", dir,
+                    metrics.getDepartures(dir), metrics.getDeparturesInMinute(now, dir), metrics.getGreenShare(dir, now) * 100));
+        }
+        text.append("\nOverride latency (ms): ").append(metrics.getOverrideLatency());
+        return text.toString();
+    }
+
+    // Accepts full names and first letters, in any case; null if not a direction
+    static Direction parseDirection(String argument) {
+        if (argument == null || argument.isEmpty()) {
+            return null;
+        }
+        String name = argument.toUpperCase(Locale.ROOT);
+        for (Direction dir : Direction.values()) {
+            if (dir.name().equals(name) || (name.length() == 1 && dir.name().charAt(0) == name.charAt(0))) {
+                return dir;
+            }
+        }
+        return null;
+    }
+
+    // hh:mm:ss of the clock's day: UTC for the system clock, from the start for virtual clocks
+    private static String formatTimeOfDay(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%02d:%02d:%02d", seconds / 3600 % 24, seconds / 60 % 60, seconds % 60);
+    }
+
+    // True when commands run on virtual threads, false on the platform-thread fallback
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getHandled() {
+        return handled.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    // Messages dropped because the chat is not an operator chat
+    public long getUnauthorised() {
+        return unauthorised.get();
+    }
+
+    // Stops accepting commands and waits briefly for running ones to send their replies
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
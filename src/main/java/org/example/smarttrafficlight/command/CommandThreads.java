@@ -0,0 +1,43 @@
+package org.example.smarttrafficlight.command;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executors for command handling: one virtual thread per task where the JVM has them (Java 21+),
+// a fixed pool of daemon platform threads where it does not.
+//
+// The build targets an older release, so virtual threads are looked up reflectively rather than
+// compiled against. On Java 19/20 they are a preview feature: without --enable-preview the
+// lookup fails and callers fall back to the platform pool.
+final class CommandThreads {
+
+    private CommandThreads() {
+    }
+
+    // Fixed pool of daemon platform threads, for JVMs without virtual threads
+    static ExecutorService newPlatformPool(String namePrefix, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory()), or null
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null; // Older JVM, or preview features disabled
+        }
+    }
+}
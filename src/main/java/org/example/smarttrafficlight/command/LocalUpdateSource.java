@@ -0,0 +1,53 @@
+package org.example.smarttrafficlight.command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Local stand-in for Telegram's update polling: feeds chat messages into a CommandServer the way
+// TelegramBotHandler does, without a network or bot token. Pair it with a RecordingNotifier as
+// the server's reply sink to see what each chat was sent. Useful in tests and headless runs.
+//
+//   RecordingNotifier replies = new RecordingNotifier();
+//   LocalUpdateSource chat = new LocalUpdateSource(new CommandServer(engine, metrics, replies, Set.of(1L)));
+//   chat.send(1, "/status").join();
+public final class LocalUpdateSource {
+
+    private final CommandServer server;
+
+    public LocalUpdateSource(CommandServer server) {
+        this.server = server;
+    }
+
+    // One message from one chat; the future completes with the reply
+    public CompletableFuture<String> send(long chatId, String text) {
+        return server.submit(chatId, text);
+    }
+
+    // 'count' messages at once, from chats firstChatId, firstChatId + 1, ... (a burst of users; only
+    // the server's operator chats among them are answered, the others get NOT_AUTHORISED_REPLY
+    // back here and nothing in the reply sink)
+    public List<CompletableFuture<String>> flood(long firstChatId, String text, int count) {
+        List<CompletableFuture<String>> replies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            replies.add(server.submit(firstChatId + i, text));
+        }
+        return replies;
+    }
+
+    // Sends every line of the reader as a message from chatId, e.g. commands typed on stdin, and
+    // waits for each reply before reading the next line. Returns the number of messages sent.
+    public int pump(BufferedReader lines, long chatId) throws IOException {
+        int sent = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.isBlank()) {
+                send(chatId, line).join();
+                sent++;
+            }
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.smarttrafficlight.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Reloads a TrafficConfig whenever its file changes, using NIO's WatchService on the file's
+// directory and one daemon thread that sleeps until the OS reports a change.
+//
+// Editors often save in several writes (truncate, write, rename), so after the first event the
+// watcher waits for DEBOUNCE_MS of quiet before reading. A file that does not parse is reported to
+// the error handler and ignored: the running configuration stays until a valid one is saved.
+// Environment overrides are re-applied on every reload, so they always win over the file.
+//
+//   ConfigWatcher watcher = ConfigWatcher.start(path, System.getenv(), config -> config.applyTo(engine),
+//           error -> System.err.println(error));
+public final class ConfigWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MS = 200;
+
+    private final Path file;
+    private final Map<String, String> environment;
+    private final Consumer<TrafficConfig> listener;
+    private final Consumer<String> errorHandler;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile TrafficConfig current;
+    private volatile boolean running = true;
+
+    private ConfigWatcher(Path file, Map<String, String> environment, TrafficConfig initial,
+                          Consumer<TrafficConfig> listener, Consumer<String> errorHandler) throws IOException {
+        this.file = file;
+        this.environment = environment;
+        this.current = initial;
+        this.listener = listener;
+        this.errorHandler = errorHandler;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watchLoop, "config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Loads the file now (throwing if it is invalid) and then watches it. The listener is only
+    // called for later changes, on the watcher thread, with configs that parsed successfully.
+    public static ConfigWatcher start(Path file, Map<String, String> environment, Consumer<TrafficConfig> listener,
+                                      Consumer<String> errorHandler) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        TrafficConfig initial = TrafficConfig.load(absolute, environment);
+        return new ConfigWatcher(absolute, environment, initial, listener, errorHandler);
+    }
+
+    // The configuration in effect (the last one that loaded)
+    public TrafficConfig getCurrent() {
+        return current;
+    }
+
+    private void watchLoop() {
+        Path fileName = file.getFileName();
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = containsFile(key, fileName);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // Let the writer finish: keep swallowing events until the directory is quiet
+                WatchKey more;
+                while ((more = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reload();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                found = true; // Overflow: events were lost, check anyway
+            }
+        }
+        return found;
+    }
+
+    private void reload() {
+        TrafficConfig loaded;
+        try {
+            loaded = TrafficConfig.load(file, environment);
+        } catch (IOException | IllegalArgumentException e) {
+            errorHandler.accept("Configuration " + file + " not applied: " + e.getMessage());
+            return;
+        }
+        current = loaded;
+        try {
+            listener.accept(loaded);
+        } catch (RuntimeException e) {
+            errorHandler.accept("Applying configuration " + file + " failed: " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        thread.interrupt();
+    }
+}
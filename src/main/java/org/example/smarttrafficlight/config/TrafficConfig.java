@@ -0,0 +1,293 @@
+package org.example.smarttrafficlight.config;
+
+import org.example.smarttrafficlight.service.DischargeModel;
+import org.example.smarttrafficlight.service.SignalTimings;
+import org.example.smarttrafficlight.service.SimulationEngine;
+import org.example.smarttrafficlight.service.control.ActuatedController;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.example.smarttrafficlight.service.control.SignalController;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+// Settings that used to be constants in the code: Telegram credentials, signal timings, the
+// signal controller, the discharge model and the metrics port. Immutable; a reload builds a new one.
+//
+// Read from a properties file, then overridden by environment variables: each key maps to
+// TRAFFIC_ + the key in upper case with dots and camel-case humps as underscores, e.g.
+// telegram.botToken -> TRAFFIC_TELEGRAM_BOT_TOKEN. Keep credentials in the environment (or in a
+// file outside version control). Missing keys keep the built-in defaults:
+//
+//   telegram.botUsername / telegram.botToken / telegram.chatId   (empty = Telegram off)
+//   telegram.operatorChatIds=  (more chats, comma-separated, allowed to send commands besides chatId)
+//   timing.greenMs=10000  timing.yellowMs=2000  timing.priorityMs=8000
+//   controller.type=fixed|actuated|max-pressure  controller.minGreenMs=5000  controller.maxGreenMs=30000
+//   discharge.saturationFlowPerHour=1800  discharge.startupLostTimeMs=2000  (saturationFlowPerHour=0: one per step)
+//   metrics.port=9464  (0 = off)
+public final class TrafficConfig {
+
+    public static final String ENV_PREFIX = "TRAFFIC_";
+
+    private static final String[] KEYS = {
+            "telegram.botUsername", "telegram.botToken", "telegram.chatId", "telegram.operatorChatIds",
+            "timing.greenMs", "timing.yellowMs", "timing.priorityMs",
+            "controller.type", "controller.minGreenMs", "controller.maxGreenMs",
+            "discharge.saturationFlowPerHour", "discharge.startupLostTimeMs",
+            "metrics.port"
+    };
+
+    public static final TrafficConfig DEFAULT = fromProperties(new Properties());
+
+    private final String botUsername;
+    private final String botToken;
+    private final String chatId;
+    private final Set<Long> operatorChatIds; // chatId and the allowlist
+    private final SignalTimings timings;
+    private final String controllerType;
+    private final long minGreenMs;
+    private final long maxGreenMs;
+    private final DischargeModel dischargeModel;
+    private final int metricsPort;
+
+    private TrafficConfig(String botUsername, String botToken, String chatId, Set<Long> operatorChatIds,
+                          SignalTimings timings, String controllerType, long minGreenMs, long maxGreenMs,
+                          DischargeModel dischargeModel, int metricsPort) {
+        this.botUsername = botUsername;
+        this.botToken = botToken;
+        this.chatId = chatId;
+        this.operatorChatIds = operatorChatIds;
+        this.timings = timings;
+        this.controllerType = controllerType;
+        this.minGreenMs = minGreenMs;
+        this.maxGreenMs = maxGreenMs;
+        this.dischargeModel = dischargeModel;
+        this.metricsPort = metricsPort;
+    }
+
+    // The file (if it exists) with the environment's overrides on top. Throws
+    // IllegalArgumentException naming the key when a value is invalid.
+    public static TrafficConfig load(Path file, Map<String, String> environment) throws IOException {
+        Properties properties = new Properties();
+        if (file != null && Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        for (String key : KEYS) {
+            String value = environment.get(environmentName(key));
+            if (value != null) {
+                properties.setProperty(key, value);
+            }
+        }
+        return fromProperties(properties);
+    }
+
+    public static TrafficConfig fromProperties(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (!isKnownKey(key)) {
+                throw new IllegalArgumentException("Unknown configuration key: " + key);
+            }
+        }
+        long greenMs = getLong(properties, "timing.greenMs", SignalTimings.DEFAULT.getNormalGreenTimeMs());
+        long yellowMs = getLong(properties, "timing.yellowMs", SignalTimings.DEFAULT.getYellowTimeMs());
+        long priorityMs = getLong(properties, "timing.priorityMs", SignalTimings.DEFAULT.getPriorityOverrideTimeMs());
+        SignalTimings timings;
+        try {
+            timings = new SignalTimings(greenMs, yellowMs, priorityMs);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid timing.*: " + e.getMessage(), e);
+        }
+
+        String controllerType = properties.getProperty("controller.type", "fixed").trim().toLowerCase(Locale.ROOT);
+        if (!controllerType.equals("fixed") && !controllerType.equals("actuated") && !controllerType.equals("max-pressure")) {
+            throw new IllegalArgumentException("Invalid controller.type: " + controllerType + " (fixed|actuated|max-pressure)");
+        }
+        long minGreenMs = getLong(properties, "controller.minGreenMs", 5000);
+        long maxGreenMs = getLong(properties, "controller.maxGreenMs", 30000);
+        if (minGreenMs <= 0 || maxGreenMs < minGreenMs) {
+            throw new IllegalArgumentException("Invalid controller.minGreenMs/maxGreenMs: " + minGreenMs + "/" + maxGreenMs);
+        }
+
+        double saturationFlow = getDouble(properties, "discharge.saturationFlowPerHour", 1800);
+        long lostTimeMs = getLong(properties, "discharge.startupLostTimeMs", 2000);
+        DischargeModel dischargeModel;
+        try {
+            dischargeModel = saturationFlow == 0 ? DischargeModel.ONE_PER_STEP
+                    : DischargeModel.saturationFlow(saturationFlow, lostTimeMs);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid discharge.*: " + e.getMessage(), e);
+        }
+
+        long metricsPort = getLong(properties, "metrics.port", 9464);
+        if (metricsPort < 0 || metricsPort > 65535) {
+            throw new IllegalArgumentException("Invalid metrics.port: " + metricsPort);
+        }
+
+        String chatId = properties.getProperty("telegram.chatId", "").trim();
+        Set<Long> operatorChatIds = new LinkedHashSet<>();
+        if (!chatId.isEmpty()) {
+            operatorChatIds.add(parseChatId("telegram.chatId", chatId));
+        }
+        for (String id : properties.getProperty("telegram.operatorChatIds", "").split(",")) {
+            if (!id.isBlank()) {
+                operatorChatIds.add(parseChatId("telegram.operatorChatIds", id.trim()));
+            }
+        }
+
+        return new TrafficConfig(
+                properties.getProperty("telegram.botUsername", "").trim(),
+                properties.getProperty("telegram.botToken", "").trim(),
+                chatId, Set.copyOf(operatorChatIds),
+                timings, controllerType, minGreenMs, maxGreenMs, dischargeModel, (int) metricsPort);
+    }
+
+    private static long parseChatId(String key, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": '" + value + "' is not a chat id");
+        }
+    }
+
+    // telegram.botToken -> TRAFFIC_TELEGRAM_BOT_TOKEN
+    public static String environmentName(String key) {
+        StringBuilder name = new StringBuilder(ENV_PREFIX);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' || c == '-') {
+                name.append('_');
+            } else if (Character.isUpperCase(c)) {
+                name.append('_').append(c);
+            } else {
+                name.append(Character.toUpperCase(c));
+            }
+        }
+        return name.toString();
+    }
+
+    private static boolean isKnownKey(String key) {
+        for (String known : KEYS) {
+            if (known.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": '" + value + "' is not a whole number");
+        }
+    }
+
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": '" + value + "' is not a number");
+        }
+    }
+
+    // --- Applying ---
+
+    // Hands timings, controller and discharge model to the engine; they take over together at
+    // its next phase boundary (SimulationEngine.reconfigure)
+    public void applyTo(SimulationEngine engine) {
+        engine.reconfigure(timings, newController(), dischargeModel);
+    }
+
+    // A new controller with the configured type and green limits
+    public SignalController newController() {
+        switch (controllerType) {
+            case "actuated":
+                return new ActuatedController(minGreenMs, maxGreenMs);
+            case "max-pressure":
+                return new MaxPressureController(minGreenMs, maxGreenMs);
+            default:
+                return new FixedTimeController();
+        }
+    }
+
+    // True if switching from 'other' to this config needs a restart to take full effect (the
+    // settings that are only read at startup: credentials, operator chats and the metrics port)
+    public boolean needsRestartComparedTo(TrafficConfig other) {
+        return !botUsername.equals(other.botUsername) || !botToken.equals(other.botToken)
+                || !chatId.equals(other.chatId) || !operatorChatIds.equals(other.operatorChatIds)
+                || metricsPort != other.metricsPort;
+    }
+
+    // --- Getters ---
+
+    public boolean hasTelegramCredentials() {
+        return !botUsername.isEmpty() && !botToken.isEmpty() && !chatId.isEmpty();
+    }
+
+    public String getBotUsername() {
+        return botUsername;
+    }
+
+    public String getBotToken() {
+        return botToken;
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    // Chats whose commands CommandServer accepts: chatId plus telegram.operatorChatIds
+    public Set<Long> getOperatorChatIds() {
+        return operatorChatIds;
+    }
+
+    public SignalTimings getTimings() {
+        return timings;
+    }
+
+    public String getControllerType() {
+        return controllerType;
+    }
+
+    public long getMinGreenMs() {
+        return minGreenMs;
+    }
+
+    public long getMaxGreenMs() {
+        return maxGreenMs;
+    }
+
+    public DischargeModel getDischargeModel() {
+        return dischargeModel;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    // Never prints the token
+    @Override
+    public String toString() {
+        return "TrafficConfig[" + timings + ", controller=" + controllerType
+                + (controllerType.equals("fixed") ? "" : " " + minGreenMs + "-" + maxGreenMs + "ms")
+                + ", " + dischargeModel + ", metricsPort=" + metricsPort
+                + ", telegram=" + (hasTelegramCredentials() ? botUsername : "off") + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.smarttrafficlight.eventlog;
+
+import org.example.smarttrafficlight.model.Direction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Writes events as fixed-width 19-byte big-endian records, no formatting at all:
+//   long time, byte type, byte direction, byte detail, int vehicleId, int value
+public class BinaryEventSink implements EventSink {
+
+    public static final int RECORD_SIZE = 19;
+
+    private final DataOutputStream out;
+
+    public BinaryEventSink(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+    }
+
+    @Override
+    public void onEvent(long timeMillis, SimulationEventType type, Direction direction, int detail, int vehicleId, int value) {
+        try {
+            out.writeLong(timeMillis);
+            out.writeByte(type.ordinal());
+            out.writeByte(direction.ordinal());
+            out.writeByte(detail);
+            out.writeInt(vehicleId);
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
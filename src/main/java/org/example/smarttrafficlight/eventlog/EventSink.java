@@ -0,0 +1,13 @@
+package org.example.smarttrafficlight.eventlog;
+
+import org.example.smarttrafficlight.model.Direction;
+
+// Receives drained events, one call per event, on the log's drainer thread.
+public interface EventSink {
+
+    void onEvent(long timeMillis, SimulationEventType type, Direction direction, int detail, int vehicleId, int value);
+
+    // Called after each drained batch
+    default void flush() {
+    }
+}
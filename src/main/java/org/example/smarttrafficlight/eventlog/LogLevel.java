@@ -0,0 +1,8 @@
+package org.example.smarttrafficlight.eventlog;
+
+// Verbosity of the simulation event log. An event is recorded if its level is <= the log's level.
+public enum LogLevel {
+    OFF,   // Nothing is recorded
+    INFO,  // Light changes and emergency detection
+    DEBUG  // Also every vehicle arrival, pass and block
+}
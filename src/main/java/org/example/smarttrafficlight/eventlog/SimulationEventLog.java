@@ -0,0 +1,264 @@
+package org.example.smarttrafficlight.eventlog;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Structured, allocation-free event log for the simulation hot path.
+//
+// Events are stored as primitive fields in preallocated ring-buffer columns. Producers (engine,
+// GUI, generators) claim a slot with a CAS, write the fields and publish the slot; nothing is
+// formatted or printed on their thread. A background drainer hands events to an EventSink (text or
+// binary) in order. If the drainer falls behind and the ring is full, new events are dropped and
+// counted rather than blocking the simulation.
+//
+// Cost control on the producer side:
+//   - the level check is one volatile read; with the level below an event's level nothing else happens
+//   - per-vehicle events can be sampled: only vehicles whose id has the low 'sampleShift' bits clear
+//     are recorded (1 in 2^sampleShift), which needs no shared counter
+//
+// Nothing is recorded while no drainer runs: without a consumer the ring would fill up after
+// 'capacity' events and every later one would only bump the shared drop counter. Headless, network
+// and benchmark runs that never start a drainer therefore pay only the level check.
+//
+// The process-wide instance is configured with -Dtraffic.eventlog.level=OFF|INFO|DEBUG (default INFO)
+// and -Dtraffic.eventlog.sampleShift=N (default 0, i.e. every vehicle).
+public final class SimulationEventLog {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final SimulationEventType[] TYPES = SimulationEventType.values();
+
+    private static final SimulationEventLog GLOBAL = new SimulationEventLog(1 << 16,
+            LogLevel.valueOf(System.getProperty("traffic.eventlog.level", "INFO")),
+            Integer.getInteger("traffic.eventlog.sampleShift", 0));
+
+    private final int mask;
+    // --- Ring columns ---
+    private final long[] times;
+    private final byte[] types;
+    private final byte[] directions;
+    private final byte[] details;
+    private final int[] vehicleIds;
+    private final int[] values;
+    private final AtomicLongArray published; // Sequence stored in a slot once its fields are written
+
+    private final AtomicLong claimed = new AtomicLong();   // Next sequence to hand to a producer
+    private final AtomicLong consumed = new AtomicLong();  // Next sequence the drainer will read
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sinkFailures = new AtomicLong();
+
+    private volatile LogLevel level;
+    private volatile int levelOrdinal; // Level in effect: OFF while no drainer runs
+    private volatile int sampleMask;
+    private Thread drainer;
+    private volatile boolean draining;
+
+    public SimulationEventLog(int capacity, LogLevel level, int sampleShift) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.times = new long[capacity];
+        this.types = new byte[capacity];
+        this.directions = new byte[capacity];
+        this.details = new byte[capacity];
+        this.vehicleIds = new int[capacity];
+        this.values = new int[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        setLevel(level);
+        setSampleShift(sampleShift);
+    }
+
+    public static SimulationEventLog get() {
+        return GLOBAL;
+    }
+
+    // A private log that records nothing, for simulations that must stay out of the global one
+    public static SimulationEventLog disabled() {
+        return new SimulationEventLog(1, LogLevel.OFF, 0);
+    }
+
+    // --- Configuration ---
+
+    // Takes effect once a drainer runs (right away if one already does)
+    public synchronized void setLevel(LogLevel level) {
+        this.level = level;
+        this.levelOrdinal = draining ? level.ordinal() : LogLevel.OFF.ordinal();
+    }
+
+    // The configured level; events are only recorded at it while a drainer runs
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public void setSampleShift(int sampleShift) {
+        if (sampleShift < 0 || sampleShift > 30) {
+            throw new IllegalArgumentException("Sample shift must be between 0 and 30");
+        }
+        this.sampleMask = (1 << sampleShift) - 1;
+    }
+
+    public boolean isEnabled(SimulationEventType type) {
+        return type.getLevel().ordinal() <= levelOrdinal;
+    }
+
+    // --- Typed Producers (hot path) ---
+
+    public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+        if (isEnabled(SimulationEventType.LIGHT_CHANGED)) {
+            record(timeMillis, SimulationEventType.LIGHT_CHANGED, direction, state.ordinal(), -1, 0);
+        }
+    }
+
+    public void priorityDetected(long timeMillis, Direction direction, VehicleType type) {
+        if (isEnabled(SimulationEventType.PRIORITY_DETECTED)) {
+            record(timeMillis, SimulationEventType.PRIORITY_DETECTED, direction, type.ordinal(), -1, 0);
+        }
+    }
+
+    public void vehicleAdded(long timeMillis, Direction direction, int vehicleId, VehicleType type, int queueSize) {
+        if (isEnabled(SimulationEventType.VEHICLE_ADDED) && (vehicleId & sampleMask) == 0) {
+            record(timeMillis, SimulationEventType.VEHICLE_ADDED, direction, type.ordinal(), vehicleId, queueSize);
+        }
+    }
+
+    public void vehiclesAdded(long timeMillis, Direction direction, int count) {
+        if (isEnabled(SimulationEventType.VEHICLES_ADDED)) {
+            record(timeMillis, SimulationEventType.VEHICLES_ADDED, direction, 0, -1, count);
+        }
+    }
+
+    public void vehiclePassed(long timeMillis, Direction direction, int vehicleId, VehicleType type, boolean priority) {
+        SimulationEventType eventType = priority ? SimulationEventType.PRIORITY_VEHICLE_PASSED : SimulationEventType.VEHICLE_PASSED;
+        if (isEnabled(eventType) && (vehicleId & sampleMask) == 0) {
+            record(timeMillis, eventType, direction, type.ordinal(), vehicleId, 0);
+        }
+    }
+
+    public void emergencyBlocked(long timeMillis, Direction direction, VehicleType type) {
+        if (isEnabled(SimulationEventType.EMERGENCY_BLOCKED)) {
+            record(timeMillis, SimulationEventType.EMERGENCY_BLOCKED, direction, type.ordinal(), -1, 0);
+        }
+    }
+
+    private void record(long timeMillis, SimulationEventType type, Direction direction, int detail, int vehicleId, int value) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.incrementAndGet(); // Ring full: never block the simulation for logging
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        times[slot] = timeMillis;
+        types[slot] = (byte) type.ordinal();
+        directions[slot] = (byte) direction.ordinal();
+        details[slot] = (byte) detail;
+        vehicleIds[slot] = vehicleId;
+        values[slot] = value;
+        published.lazySet(slot, sequence); // Release: the fields above become visible with it
+    }
+
+    // --- Consumer ---
+
+    // Hands every published event to the sink, in sequence order; returns how many. Synchronized because a
+    // stopped drainer that outlived its join can still be flushing when the next one starts.
+    // An event counts as consumed before the sink sees it, so if the sink throws, that event is skipped
+    // (not offered again) and the exception reaches drainSafely().
+    private synchronized int drainTo(EventSink sink) {
+        long next = consumed.get();
+        int drained = 0;
+        while (true) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break; // Not yet published (or nothing left)
+            }
+            long time = times[slot];
+            SimulationEventType type = TYPES[types[slot]];
+            Direction direction = DIRECTIONS[directions[slot]];
+            int detail = details[slot] & 0xFF;
+            int vehicleId = vehicleIds[slot];
+            int value = values[slot];
+            next++;
+            drained++;
+            consumed.lazySet(next); // Frees the slot for producers
+            sink.onEvent(time, type, direction, detail, vehicleId, value);
+        }
+        if (drained > 0) {
+            sink.flush();
+        }
+        return drained;
+    }
+
+    // Starts a daemon thread that keeps draining into the sink. A sink that throws costs the event
+    // it was handed (counted in getSinkFailures()); the failure is reported and draining goes on.
+    public synchronized void startDrainer(EventSink sink) {
+        if (drainer != null) {
+            throw new IllegalStateException("Event log drainer already running");
+        }
+        draining = true;
+        levelOrdinal = level.ordinal(); // Start recording
+        drainer = new Thread(() -> {
+            while (draining) {
+                if (drainSafely(sink) == 0) {
+                    LockSupport.parkNanos(1_000_000); // Idle: check again in a millisecond
+                }
+            }
+            while (drainSafely(sink) > 0) {
+                // Final flush, past any event the sink fails on (those are consumed, so this ends)
+            }
+        }, "event-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private int drainSafely(EventSink sink) {
+        try {
+            return drainTo(sink);
+        } catch (RuntimeException e) {
+            sinkFailures.incrementAndGet();
+            System.err.println("Event log sink failed, event skipped: " + e);
+            LockSupport.parkNanos(100_000_000); // A sink that keeps failing reports at most ten times a second
+            return 1;
+        }
+    }
+
+    public void stopDrainer() {
+        Thread thread;
+        synchronized (this) {
+            thread = drainer;
+            drainer = null;
+            draining = false;
+            levelOrdinal = LogLevel.OFF.ordinal(); // Nobody consumes any more: stop recording
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Events lost because the drainer's sink threw
+    public long getSinkFailures() {
+        return sinkFailures.get();
+    }
+
+    public long getRecordedCount() {
+        return claimed.get();
+    }
+}
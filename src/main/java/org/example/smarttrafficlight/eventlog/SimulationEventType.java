@@ -0,0 +1,25 @@
+package org.example.smarttrafficlight.eventlog;
+
+// Kinds of events in the simulation event log, with the level they are recorded at.
+// The meaning of the generic fields per type:
+//   detail   - TrafficLightState ordinal for LIGHT_CHANGED, VehicleType ordinal otherwise
+//   value    - queue size after the event (VEHICLE_ADDED) or batch size (VEHICLES_ADDED)
+public enum SimulationEventType {
+    LIGHT_CHANGED(LogLevel.INFO),
+    PRIORITY_DETECTED(LogLevel.INFO),
+    VEHICLE_ADDED(LogLevel.DEBUG),
+    VEHICLES_ADDED(LogLevel.DEBUG),
+    VEHICLE_PASSED(LogLevel.DEBUG),
+    PRIORITY_VEHICLE_PASSED(LogLevel.DEBUG),
+    EMERGENCY_BLOCKED(LogLevel.DEBUG);
+
+    private final LogLevel level;
+
+    SimulationEventType(LogLevel level) {
+        this.level = level;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.smarttrafficlight.eventlog;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.io.PrintStream;
+
+// Formats events as the human-readable lines the simulation used to print directly.
+public class TextEventSink implements EventSink {
+
+    private static final TrafficLightState[] STATES = TrafficLightState.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private final PrintStream out;
+    private final StringBuilder line = new StringBuilder(128); // Reused, drainer thread only
+
+    public TextEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onEvent(long timeMillis, SimulationEventType type, Direction direction, int detail, int vehicleId, int value) {
+        line.setLength(0);
+        switch (type) {
+            case LIGHT_CHANGED:
+                line.append("Light ").append(direction).append(" changed to ").append(STATES[detail]);
+                break;
+            case PRIORITY_DETECTED:
+                line.append("PRIORITY: Emergency vehicle detected in ").append(direction).append(" queue: ").append(TYPES[detail]);
+                break;
+            case VEHICLE_ADDED:
+                line.append("Added ");
+                appendVehicle(detail, vehicleId, direction);
+                line.append(" to ").append(direction).append(" queue. Size: ").append(value);
+                break;
+            case VEHICLES_ADDED:
+                line.append("Added ").append(value).append(" vehicles to ").append(direction).append(" queue.");
+                break;
+            case VEHICLE_PASSED:
+                line.append("NORMAL PASS: Allowing ");
+                appendVehicle(detail, vehicleId, direction);
+                break;
+            case PRIORITY_VEHICLE_PASSED:
+                line.append("PRIORITY PASS: Allowing ");
+                appendVehicle(detail, vehicleId, direction);
+                break;
+            case EMERGENCY_BLOCKED:
+                line.append("NORMAL BLOCK: Emergency vehicle ").append(TYPES[detail]).append(" detected at GREEN light ")
+                        .append(direction).append(", waiting for priority trigger.");
+                break;
+        }
+        out.println(line);
+    }
+
+    private void appendVehicle(int typeOrdinal, int vehicleId, Direction direction) {
+        line.append(TYPES[typeOrdinal]).append('#').append(vehicleId).append(" (from ").append(direction).append(')');
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
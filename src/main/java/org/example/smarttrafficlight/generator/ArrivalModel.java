@@ -0,0 +1,15 @@
+package org.example.smarttrafficlight.generator;
+
+import java.util.SplittableRandom;
+
+// Describes when vehicles of one stream (one direction + vehicle type) arrive.
+// A model is a stateless description; start() creates the stateful process for one stream.
+public interface ArrivalModel {
+
+    Process start(long startTimeMs, SplittableRandom random);
+
+    // Successive arrival times of one stream, non-decreasing
+    interface Process {
+        long next();
+    }
+}
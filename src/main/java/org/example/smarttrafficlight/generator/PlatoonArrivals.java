@@ -0,0 +1,54 @@
+package org.example.smarttrafficlight.generator;
+
+import java.util.SplittableRandom;
+
+// Bursty arrivals: platoons (e.g. released by an upstream signal) start at Poisson times and
+// consist of a random number of vehicles following each other at a fixed headway.
+public class PlatoonArrivals implements ArrivalModel {
+
+    private final double meanPlatoonGapMs;
+    private final int minSize;
+    private final int maxSize;
+    private final long headwayMs;
+
+    public PlatoonArrivals(double platoonsPerMinute, int minSize, int maxSize, long headwayMs) {
+        if (platoonsPerMinute <= 0 || minSize <= 0 || maxSize < minSize || headwayMs < 0) {
+            throw new IllegalArgumentException("Invalid platoon parameters");
+        }
+        this.meanPlatoonGapMs = 60_000.0 / platoonsPerMinute;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.headwayMs = headwayMs;
+    }
+
+    @Override
+    public Process start(long startTimeMs, SplittableRandom random) {
+        return new Process() {
+            private double platoonStart = startTimeMs;
+            private long lastArrival = startTimeMs;
+            private boolean started;
+            private int remaining;
+            private int position;
+
+            @Override
+            public long next() {
+                if (remaining == 0) {
+                    // Next platoon starts after the previous one has passed, at least one headway behind its last vehicle
+                    long earliest = started ? lastArrival + headwayMs : lastArrival;
+                    platoonStart = Math.max(platoonStart + PoissonArrivals.exponential(random, meanPlatoonGapMs), earliest);
+                    started = true;
+                    remaining = minSize + random.nextInt(maxSize - minSize + 1);
+                    position = 0;
+                }
+                remaining--;
+                lastArrival = (long) platoonStart + position++ * headwayMs;
+                return lastArrival;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Platoons(" + (60_000.0 / meanPlatoonGapMs) + "/min, " + minSize + "-" + maxSize + " vehicles)";
+    }
+}
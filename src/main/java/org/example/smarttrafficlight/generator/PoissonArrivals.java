@@ -0,0 +1,34 @@
+package org.example.smarttrafficlight.generator;
+
+import java.util.SplittableRandom;
+
+// Homogeneous Poisson arrivals: exponentially distributed gaps with a constant mean.
+public class PoissonArrivals implements ArrivalModel {
+
+    private final double meanGapMs;
+
+    public PoissonArrivals(double vehiclesPerMinute) {
+        if (vehiclesPerMinute <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        this.meanGapMs = 60_000.0 / vehiclesPerMinute;
+    }
+
+    @Override
+    public Process start(long startTimeMs, SplittableRandom random) {
+        double[] time = {startTimeMs}; // Fractional time, so sub-millisecond gaps don't get lost to rounding
+        return () -> {
+            time[0] += exponential(random, meanGapMs);
+            return (long) time[0];
+        };
+    }
+
+    static double exponential(SplittableRandom random, double mean) {
+        return -Math.log(1.0 - random.nextDouble()) * mean;
+    }
+
+    @Override
+    public String toString() {
+        return "Poisson(" + (60_000.0 / meanGapMs) + "/min)";
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.smarttrafficlight.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Non-homogeneous Poisson arrivals whose rate follows a 24-hour profile (one factor per hour of day),
+// e.g. morning and evening rush hours. Sampled by thinning: candidates are drawn at the peak rate
+// and kept with probability rate(t) / peakRate.
+public class TimeOfDayArrivals implements ArrivalModel {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    // Typical urban weekday: quiet night, morning peak at 8h, evening peak at 17h
+    public static final double[] WEEKDAY_PROFILE = {
+            0.15, 0.10, 0.08, 0.08, 0.15, 0.40, 0.80, 1.40, 1.80, 1.20, 0.90, 0.90,
+            1.00, 0.95, 0.90, 1.00, 1.40, 1.80, 1.50, 1.00, 0.70, 0.50, 0.35, 0.25
+    };
+
+    private final double baseVehiclesPerMinute;
+    private final double[] hourlyFactors;
+    private final double peakFactor;
+
+    public TimeOfDayArrivals(double baseVehiclesPerMinute, double[] hourlyFactors) {
+        if (hourlyFactors.length != 24) {
+            throw new IllegalArgumentException("Need exactly 24 hourly factors, got " + hourlyFactors.length);
+        }
+        this.baseVehiclesPerMinute = baseVehiclesPerMinute;
+        this.hourlyFactors = hourlyFactors.clone();
+        this.peakFactor = Arrays.stream(hourlyFactors).max().orElse(0);
+        if (baseVehiclesPerMinute <= 0 || peakFactor <= 0) {
+            throw new IllegalArgumentException("Rate profile must have a positive peak");
+        }
+    }
+
+    @Override
+    public Process start(long startTimeMs, SplittableRandom random) {
+        double peakMeanGapMs = 60_000.0 / (baseVehiclesPerMinute * peakFactor);
+        double[] time = {startTimeMs};
+        return () -> {
+            while (true) {
+                time[0] += PoissonArrivals.exponential(random, peakMeanGapMs);
+                int hour = (int) (((long) time[0] / HOUR_MS) % 24);
+                if (random.nextDouble() * peakFactor < hourlyFactors[hour]) {
+                    return (long) time[0];
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "TimeOfDay(" + baseVehiclesPerMinute + "/min base)";
+    }
+}
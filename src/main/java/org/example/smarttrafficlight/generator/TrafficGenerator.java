@@ -0,0 +1,189 @@
+package org.example.smarttrafficlight.generator;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.Intersection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Synthetic traffic for load tests: any number of arrival streams, one per (direction, vehicle type,
+// arrival model), all derived from a single seed. Each stream gets its own SplittableRandom split off
+// the root in the order streams are added, so the same seed and setup always produce the same traffic.
+//
+// Arrivals are produced in windows: generate up to a time, then hand the whole window over at once.
+// Per approach the window is sorted by time and inserted with Intersection.addVehicles(), i.e. one
+// id reservation and one queue lock per approach per window instead of one per vehicle. A generator
+// is single-threaded and shares nothing; use one generator (with its own seed) per thread.
+public class TrafficGenerator {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] EMERGENCY_TYPES = {VehicleType.AMBULANCE, VehicleType.FIRE_TRUCK, VehicleType.POLICE};
+
+    private final SplittableRandom root;
+    private final long startTimeMs;
+    private final List<Stream> streams = new ArrayList<>();
+
+    // Per-direction window buffers, reused between windows: (time << 8 | type ordinal), sorted as primitives
+    private final long[][] packed = new long[DIRECTIONS.length][];
+    private final int[] counts = new int[DIRECTIONS.length];
+    private VehicleType[] typeBuffer = new VehicleType[1024];
+    private long[] timeBuffer = new long[1024];
+
+    private long generatedUntil;
+    private long totalGenerated;
+
+    public TrafficGenerator(long seed) {
+        this(seed, 0L);
+    }
+
+    public TrafficGenerator(long seed, long startTimeMs) {
+        this.root = new SplittableRandom(seed);
+        this.startTimeMs = startTimeMs;
+        this.generatedUntil = startTimeMs;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            packed[d] = new long[1024];
+        }
+    }
+
+    // --- Setup ---
+
+    public TrafficGenerator addStream(Direction direction, VehicleType type, ArrivalModel model) {
+        streams.add(new Stream(direction, type, model.start(generatedUntil, root.split())));
+        return this;
+    }
+
+    // Emergency vehicles on every approach, type chosen per stream in a fixed rotation
+    public TrafficGenerator addEmergencyInjection(double vehiclesPerHourPerApproach) {
+        for (Direction dir : DIRECTIONS) {
+            for (VehicleType type : EMERGENCY_TYPES) {
+                addStream(dir, type, new PoissonArrivals(vehiclesPerHourPerApproach / EMERGENCY_TYPES.length / 60.0));
+            }
+        }
+        return this;
+    }
+
+    // Weekday rush-hour mix on all four approaches: time-of-day cars, bursty buses/trucks, motorcycles
+    // and a few emergency vehicles. 'carsPerMinute' is the base rate per approach.
+    public static TrafficGenerator rushHour(long seed, double carsPerMinute) {
+        return rushHour(seed, carsPerMinute, 0L);
+    }
+
+    // Same, starting at 'startTimeMs' (time of day counts from 0 = midnight, e.g. 7 h for the morning peak)
+    public static TrafficGenerator rushHour(long seed, double carsPerMinute, long startTimeMs) {
+        TrafficGenerator generator = new TrafficGenerator(seed, startTimeMs);
+        for (Direction dir : DIRECTIONS) {
+            generator.addStream(dir, VehicleType.CAR, new TimeOfDayArrivals(carsPerMinute, TimeOfDayArrivals.WEEKDAY_PROFILE));
+            generator.addStream(dir, VehicleType.MOTORCYCLE, new PoissonArrivals(carsPerMinute * 0.1));
+            generator.addStream(dir, VehicleType.BUS, new PlatoonArrivals(carsPerMinute * 0.02, 1, 3, 3000));
+            generator.addStream(dir, VehicleType.TRUCK, new PlatoonArrivals(carsPerMinute * 0.03, 2, 6, 2500));
+        }
+        return generator.addEmergencyInjection(2.0);
+    }
+
+    // --- Generation ---
+
+    // Queues every arrival up to (excluding) untilMs directly on the intersection; returns how many
+    public long generateInto(Intersection intersection, long untilMs) {
+        long generated = fillWindow(untilMs);
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int count = unpack(d);
+            intersection.addVehicles(DIRECTIONS[d], typeBuffer, timeBuffer, count);
+        }
+        return generated;
+    }
+
+    // Schedules every arrival up to (excluding) untilMs as events of a discrete-event run
+    public long scheduleInto(DiscreteEventSimulation simulation, long untilMs) {
+        return generateInto((time, type, direction) -> simulation.scheduleArrival(time, type, direction), untilMs);
+    }
+
+    // Hands every arrival up to (excluding) untilMs to the sink, approach by approach and in time
+    // order within an approach (e.g. to record a trace, see tuning.Scenario)
+    public long generateInto(ArrivalSink sink, long untilMs) {
+        long generated = fillWindow(untilMs);
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int count = unpack(d);
+            for (int i = 0; i < count; i++) {
+                sink.arrival(timeBuffer[i], typeBuffer[i], DIRECTIONS[d]);
+            }
+        }
+        return generated;
+    }
+
+    public long getGeneratedUntil() {
+        return generatedUntil;
+    }
+
+    public long getTotalGenerated() {
+        return totalGenerated;
+    }
+
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    // Runs every stream up to untilMs into the per-direction buffers, then sorts each buffer by time
+    private long fillWindow(long untilMs) {
+        Arrays.fill(counts, 0);
+        long generated = 0;
+        for (Stream stream : streams) {
+            int d = stream.direction.ordinal();
+            long typeOrdinal = stream.type.ordinal();
+            while (stream.nextArrival < untilMs) {
+                if (counts[d] == packed[d].length) {
+                    packed[d] = Arrays.copyOf(packed[d], packed[d].length * 2);
+                }
+                packed[d][counts[d]++] = (stream.nextArrival << 8) | typeOrdinal;
+                stream.nextArrival = stream.process.next();
+                generated++;
+            }
+        }
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            Arrays.sort(packed[d], 0, counts[d]); // Time order; type ordinal breaks ties deterministically
+        }
+        generatedUntil = Math.max(generatedUntil, untilMs);
+        totalGenerated += generated;
+        return generated;
+    }
+
+    // Splits direction d's packed window into the shared type/time buffers; returns the count
+    private int unpack(int d) {
+        int count = counts[d];
+        if (typeBuffer.length < count) {
+            int capacity = Integer.highestOneBit(count) << 1;
+            typeBuffer = new VehicleType[capacity];
+            timeBuffer = new long[capacity];
+        }
+        long[] window = packed[d];
+        for (int i = 0; i < count; i++) {
+            typeBuffer[i] = TYPES[(int) (window[i] & 0xFF)];
+            timeBuffer[i] = window[i] >>> 8;
+        }
+        return count;
+    }
+
+    // Receives generated arrivals one at a time
+    public interface ArrivalSink {
+        void arrival(long time, VehicleType type, Direction direction);
+    }
+
+    // One arrival stream and the time of its next (not yet emitted) arrival
+    private static final class Stream {
+        final Direction direction;
+        final VehicleType type;
+        final ArrivalModel.Process process;
+        long nextArrival;
+
+        Stream(Direction direction, VehicleType type, ArrivalModel.Process process) {
+            this.direction = direction;
+            this.type = type;
+            this.process = process;
+            this.nextArrival = process.next();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.smarttrafficlight.gui;
+
+import org.example.smarttrafficlight.service.TickDriver;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+// Tick driver backed by a JavaFX Timeline. Ticks run on the FX Application Thread,
+// which is what the GUI needs; headless runs use the drivers in the service package instead.
+public class FxTimelineTickDriver implements TickDriver {
+
+    private final Duration period;
+    private Timeline timeline;
+
+    public FxTimelineTickDriver(Duration period) {
+        this.period = period;
+    }
+
+    @Override
+    public void start(Runnable tick) {
+        if (timeline != null) {
+            return; // Already running
+        }
+        timeline = new Timeline(new KeyFrame(period, event -> tick.run()));
+        timeline.setCycleCount(Timeline.INDEFINITE);
+        timeline.play();
+    }
+
+    @Override
+    public void stop() {
+        if (timeline != null) {
+            timeline.stop();
+            timeline = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return timeline != null;
+    }
+}
@@ -1,18 +1,36 @@
 package org.example.smarttrafficlight.gui;
 
+import org.example.smarttrafficlight.command.CommandServer;
+import org.example.smarttrafficlight.config.ConfigWatcher;
+import org.example.smarttrafficlight.config.TrafficConfig;
+import org.example.smarttrafficlight.eventlog.LogLevel;
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.eventlog.TextEventSink;
+import org.example.smarttrafficlight.metrics.PrometheusExporter;
+import org.example.smarttrafficlight.metrics.TrafficMetrics;
 import org.example.smarttrafficlight.model.*;
+import org.example.smarttrafficlight.notification.AsyncNotifier;
 import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.IntersectionSnapshot;
 import org.example.smarttrafficlight.service.SimulationEngine;
 import org.example.smarttrafficlight.service.TelegramBotHandler; // Import the bot
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.collections.FXCollections;
-
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 public class MainController {
@@ -37,31 +55,103 @@ public class MainController {
     private Intersection intersection;
     private SimulationEngine simulationEngine;
     private TelegramBotHandler telegramBot; // Add bot reference
+    private AsyncNotifier notifier; // Outbox in front of the bot, so sends never block the FX thread
+    private PrometheusExporter metricsExporter; // Serves /metrics for monitoring; null if disabled
+    private CommandServer commandServer; // Answers chat commands; null without Telegram
+    private ConfigWatcher configWatcher; // Reloads the config file on change; null if it did not load
+    private TrafficConfig startupConfig; // Credentials and port in use (they need a restart to change)
+
+    // --- Rendering ---
+    // Widgets per direction, so a changed approach can be redrawn on its own
+    private final Map<Direction, Circle[]> lightCircles = new EnumMap<>(Direction.class); // Red, yellow, green
+    private final Map<Direction, Label> queueCountLabels = new EnumMap<>(Direction.class);
+    private final Map<Direction, ListView<String>> queueLists = new EnumMap<>(Direction.class);
+    private final Map<Direction, TrafficLightState> drawnLights = new EnumMap<>(Direction.class);
+    private long renderedVersion; // Snapshot version on screen, 0 before the first render
+
+    // Draws once per pulse (~60 fps) from the newest snapshot the engine published, however many
+    // steps ran since the last frame; frames where nothing changed cost one volatile read
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            render(simulationEngine.getLatestSnapshot());
+        }
+    };
 
     // --- Initialization ---
     @FXML
     public void initialize() {
-        // *** IMPORTANT: Replace with your actual bot credentials and Chat ID ***
-        String botUsername = "j**********ot"; // e.g., MyTrafficSimBot
-        String botToken = "7***********************************************jU"; // The token from BotFather
-        String chatId = "6***********************1";         // The chat ID where messages should be sent
+        // Credentials, timings and controller come from the config file (-Dtraffic.config, default
+        // traffic.properties) with TRAFFIC_* environment variables on top, see TrafficConfig
+        Path configFile = Paths.get(System.getProperty("traffic.config", "traffic.properties"));
+        try {
+            this.configWatcher = ConfigWatcher.start(configFile, System.getenv(), this::configChanged,
+                    error -> Platform.runLater(() -> logTextArea.appendText(error + "\n")));
+            this.startupConfig = configWatcher.getCurrent();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Configuration " + configFile + " not loaded, using defaults: " + e.getMessage());
+            showAlert(Alert.AlertType.WARNING, "Configuration Error", "Could not load " + configFile + ":\n" + e.getMessage());
+            this.startupConfig = TrafficConfig.DEFAULT;
+        }
 
-        if (botUsername.isEmpty() || botToken.isEmpty() || chatId.isEmpty()) {
+        if (!startupConfig.hasTelegramCredentials()) {
             System.err.println("Telegram Bot credentials are missing!");
             telegramBot = null;
             showAlert(Alert.AlertType.WARNING, "Telegram Not Configured",
-                    "Please set your Bot Username, Token, and Chat ID in MainController.java to enable Telegram features.");
+                    "Set telegram.botUsername, telegram.botToken and telegram.chatId in " + configFile
+                            + " (or TRAFFIC_TELEGRAM_BOT_USERNAME, TRAFFIC_TELEGRAM_BOT_TOKEN, TRAFFIC_TELEGRAM_CHAT_ID) to enable Telegram features.");
         } else {
-            this.telegramBot = new TelegramBotHandler(botUsername, botToken, chatId);
+            this.telegramBot = new TelegramBotHandler(startupConfig.getBotUsername(), startupConfig.getBotToken(),
+                    startupConfig.getChatId());
             this.telegramBot.registerBot();
+            this.notifier = new AsyncNotifier(telegramBot);
         }
 
+        // Simulation events go to a ring buffer; a background thread prints them to the console.
+        // Per-vehicle events are DEBUG: the GUI shows them like it always did unless a level is set.
+        if (System.getProperty("traffic.eventlog.level") == null) {
+            SimulationEventLog.get().setLevel(LogLevel.DEBUG);
+        }
+        SimulationEventLog.get().startDrainer(new TextEventSink(System.out));
+
         this.intersection = new Intersection();
-        // Pass the bot instance to the engine
-        this.simulationEngine = new SimulationEngine(intersection, this.telegramBot);
+        TrafficMetrics trafficMetrics = TrafficMetrics.attach(intersection);
+        // Pass the bot instance to the engine; the GUI ticks once per second on the FX thread
+        this.simulationEngine = new SimulationEngine(intersection, this.notifier,
+                new FxTimelineTickDriver(Duration.seconds(1)));
+        startupConfig.applyTo(simulationEngine); // Takes effect when the simulation starts
+
+        // Prometheus endpoint, e.g. curl -s localhost:9464/metrics (metrics.port=0 or -Dtraffic.metrics.port=0 disables it)
+        int metricsPort = Integer.getInteger("traffic.metrics.port", startupConfig.getMetricsPort());
+        if (metricsPort > 0) {
+            try {
+                this.metricsExporter = PrometheusExporter.start(metricsPort, simulationEngine, trafficMetrics, notifier);
+            } catch (IOException e) {
+                System.err.println("Metrics endpoint not started on port " + metricsPort + ": " + e.getMessage());
+            }
+        }
+
+        // Chat commands (/status, /queues, /metrics, /override) read published state, replies go through the outbox;
+        // only the configured chat and telegram.operatorChatIds get answers, other chats are ignored
+        if (telegramBot != null) {
+            this.commandServer = new CommandServer(simulationEngine, trafficMetrics, notifier,
+                    startupConfig.getOperatorChatIds());
+            telegramBot.setCommandServer(commandServer);
+        }
 
-        // Set up the controller as the listener for simulation updates
-        this.simulationEngine.setUpdateListener(this::updateUI);
+        // No per-step update listener: the renderer polls the engine's latest snapshot every frame
+        lightCircles.put(Direction.NORTH, new Circle[]{lightNorthRed, lightNorthYellow, lightNorthGreen});
+        lightCircles.put(Direction.SOUTH, new Circle[]{lightSouthRed, lightSouthYellow, lightSouthGreen});
+        lightCircles.put(Direction.EAST, new Circle[]{lightEastRed, lightEastYellow, lightEastGreen});
+        lightCircles.put(Direction.WEST, new Circle[]{lightWestRed, lightWestYellow, lightWestGreen});
+        queueCountLabels.put(Direction.NORTH, queueNorthCount);
+        queueCountLabels.put(Direction.SOUTH, queueSouthCount);
+        queueCountLabels.put(Direction.EAST, queueEastCount);
+        queueCountLabels.put(Direction.WEST, queueWestCount);
+        queueLists.put(Direction.NORTH, queueNorthList);
+        queueLists.put(Direction.SOUTH, queueSouthList);
+        queueLists.put(Direction.EAST, queueEastList);
+        queueLists.put(Direction.WEST, queueWestList);
 
         // Populate ComboBoxes
         vehicleTypeCombo.setItems(FXCollections.observableArrayList(VehicleType.values()));
@@ -70,7 +160,8 @@ public class MainController {
         directionCombo.setValue(Direction.NORTH); // Default selection
 
         // Initialize UI elements
-        updateUI(intersection); // Initial UI state
+        render(simulationEngine.getLatestSnapshot()); // Initial UI state
+        renderer.start();
         stopButton.setDisable(true);
         startButton.setDisable(false);
 
@@ -102,12 +193,11 @@ public class MainController {
         Direction dir = directionCombo.getValue();
 
         if (type != null && dir != null) {
-            Vehicle vehicle = new Vehicle(type, dir);
-            intersection.addVehicle(vehicle);
+            Vehicle vehicle = intersection.addVehicle(type, dir);
             logTextArea.appendText("Manually added: " + vehicle + "\n");
-            updateUI(intersection); // Update UI immediately after adding
-            if (vehicle.isEmergencyVehicle() && telegramBot != null) {
-                telegramBot.sendMessage("Manual Add: 🚨 " + vehicle + " added to " + dir + " queue.");
+            intersection.publishQueueChanges(); // Shows up in the next frame, even while stopped
+            if (vehicle.isEmergencyVehicle() && notifier != null) {
+                notifier.sendMessage("Manual Add: 🚨 " + vehicle + " added to " + dir + " queue.");
             }
 
         } else {
@@ -116,58 +206,55 @@ public class MainController {
     }
 
     // --- UI Update Logic ---
-    private void updateUI(Intersection currentIntersectionState) {
-        if (currentIntersectionState == null) return; // Safety check
-
-        // Update Traffic Lights
-        updateLightCircle(currentIntersectionState.getLight(Direction.NORTH), lightNorthRed, lightNorthYellow, lightNorthGreen);
-        updateLightCircle(currentIntersectionState.getLight(Direction.SOUTH), lightSouthRed, lightSouthYellow, lightSouthGreen);
-        updateLightCircle(currentIntersectionState.getLight(Direction.EAST), lightEastRed, lightEastYellow, lightEastGreen);
-        updateLightCircle(currentIntersectionState.getLight(Direction.WEST), lightWestRed, lightWestYellow, lightWestGreen);
-
-        // Update Queue Counts and Lists
-        updateQueueDisplay(Direction.NORTH, queueNorthCount, queueNorthList, currentIntersectionState);
-        updateQueueDisplay(Direction.SOUTH, queueSouthCount, queueSouthList, currentIntersectionState);
-        updateQueueDisplay(Direction.EAST, queueEastCount, queueEastList, currentIntersectionState);
-        updateQueueDisplay(Direction.WEST, queueWestCount, queueWestList, currentIntersectionState);
-
-        // Could add more info to logTextArea if needed, e.g., current simulation time/mode
+    private void render(IntersectionSnapshot snapshot) {
+        if (snapshot.getVersion() == renderedVersion) {
+            return; // Nothing new since the last frame
+        }
+        for (Direction dir : Direction.values()) {
+            IntersectionSnapshot.Approach approach = snapshot.getApproach(dir);
+            if (approach.isChangedSince(renderedVersion)) {
+                updateLightCircles(dir, approach.getLightState());
+                updateQueueDisplay(dir, approach);
+            }
+        }
+        renderedVersion = snapshot.getVersion();
     }
 
-
-    private void updateLightCircle(TrafficLight light, Circle red, Circle yellow, Circle green) {
-        red.setFill(Color.DARKGREY);
-        yellow.setFill(Color.DARKGREY);
-        green.setFill(Color.DARKGREY);
-
-        switch (light.getState()) {
-            case RED:
-                red.setFill(Color.RED);
-                break;
-            case YELLOW:
-                yellow.setFill(Color.YELLOW);
-                break;
-            case GREEN:
-                green.setFill(Color.LIMEGREEN); // Use a bright green
-                break;
+    private void updateLightCircles(Direction dir, TrafficLightState state) {
+        TrafficLightState drawn = drawnLights.put(dir, state);
+        if (drawn == state) {
+            return; // Only the queue changed
         }
+        Circle[] circles = lightCircles.get(dir); // Red, yellow, green
+        circles[0].setFill(state == TrafficLightState.RED ? Color.RED : Color.DARKGREY);
+        circles[1].setFill(state == TrafficLightState.YELLOW ? Color.YELLOW : Color.DARKGREY);
+        circles[2].setFill(state == TrafficLightState.GREEN ? Color.LIMEGREEN : Color.DARKGREY); // Use a bright green
     }
 
-    private void updateQueueDisplay(Direction dir, Label countLabel, ListView<String> listView, Intersection state) {
-        int queueSize = state.getQueueSize(dir);
-        countLabel.setText("Count: " + queueSize);
-
-        // Get first few vehicles for display (limit for performance)
-        int previewCount = 5; // Show top 5 vehicles in the list
-        var vehiclePreview = state.getQueuePreview(dir, previewCount)
-                .stream()
-                .map(Vehicle::toString) // Convert Vehicle to String
-                .collect(Collectors.toList());
+    private void updateQueueDisplay(Direction dir, IntersectionSnapshot.Approach approach) {
+        queueCountLabels.get(dir).setText("Count: " + approach.getQueueSize());
 
-        listView.setItems(FXCollections.observableArrayList(vehiclePreview));
+        // First few vehicles for display (IntersectionSnapshot.PREVIEW_LENGTH), replaced in place
+        List<String> preview = new ArrayList<>(approach.getPreviewSize());
+        for (Vehicle vehicle : approach.getPreview()) {
+            preview.add(vehicle.toString());
+        }
+        queueLists.get(dir).getItems().setAll(preview);
     }
 
     // --- Helper Methods ---
+    // Config file saved (watcher thread): the engine switches to the new timings and controller at
+    // its next phase boundary, without stopping the simulation
+    private void configChanged(TrafficConfig config) {
+        Platform.runLater(() -> {
+            config.applyTo(simulationEngine);
+            logTextArea.appendText("Configuration reloaded, applying at the next phase change: " + config + "\n");
+            if (config.needsRestartComparedTo(startupConfig)) {
+                logTextArea.appendText("Telegram credentials and metrics port changes take effect after a restart.\n");
+            }
+        });
+    }
+
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -179,6 +266,20 @@ public class MainController {
     // Optional: Call this when the application closes to stop the bot gracefully
     public void shutdown() {
         stopSimulation(); // Stop the simulation loop
+        renderer.stop();
+        if (configWatcher != null) {
+            configWatcher.close();
+        }
+        if (commandServer != null) {
+            commandServer.close(); // Let running commands queue their replies
+        }
+        if (notifier != null) {
+            notifier.close(); // Flush pending notifications
+        }
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+        SimulationEventLog.get().stopDrainer(); // Print whatever is still in the event log
         // You might need to explicitly shutdown the bot's threads if necessary,
         // though DefaultBotSession often handles this. Consult telegrambots docs if needed.
         System.out.println("Application shutting down.");
@@ -0,0 +1,39 @@
+package org.example.smarttrafficlight.journal;
+
+// On-disk layout of a journal file. All values big-endian.
+//
+// Header (32 bytes):
+//   0  int   magic "STLJ"
+//   4  short format version
+//   6  short record size
+//   8  long  simulation time at which recording started
+//   16 long  engine tick length in ms (0 = unknown)
+//   24 long  reserved
+//
+// Records (16 bytes each, back to back after the header):
+//   0  long  simulation time
+//   8  int   vehicle id (-1 for light changes)
+//   12 byte  record type code (0 = end of data)
+//   13 byte  Direction ordinal
+//   14 byte  VehicleType or TrafficLightState ordinal
+//   15 byte  reserved
+final class JournalFormat {
+
+    static final int MAGIC = 0x53544C4A; // "STLJ"
+    static final short VERSION = 1;
+
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 16;
+
+    static final int HEADER_START_TIME = 8;
+    static final int HEADER_TICK_MILLIS = 16;
+
+    static final int RECORD_TIME = 0;
+    static final int RECORD_VEHICLE_ID = 8;
+    static final int RECORD_TYPE = 12;
+    static final int RECORD_DIRECTION = 13;
+    static final int RECORD_VALUE = 14;
+
+    private JournalFormat() {
+    }
+}
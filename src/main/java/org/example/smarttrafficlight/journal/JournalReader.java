@@ -0,0 +1,151 @@
+package org.example.smarttrafficlight.journal;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Sequential cursor over a journal written by JournalWriter. Maps the file read-only and decodes
+// records in place: next() moves to the following record and the getters read its fields, so a
+// full pass over a journal allocates nothing per record.
+//
+//   try (JournalReader reader = new JournalReader(path)) {
+//       while (reader.next()) { ... reader.getType() ... reader.getTime() ... }
+//   }
+public final class JournalReader implements Closeable {
+
+    // Largest chunk mapped at once (a MappedByteBuffer is int-indexed); a multiple of the record size
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final TrafficLightState[] LIGHT_STATES = TrafficLightState.values();
+
+    private final FileChannel channel;
+    private final long startTime;
+    private final long tickMillis;
+    private final long fileSize;
+
+    private MappedByteBuffer chunk;
+    private long chunkEnd; // File offset just past the current chunk
+    private long recordsRead;
+    private boolean finished;
+
+    // Current record
+    private JournalRecordType type;
+    private long time;
+    private int vehicleId;
+    private int direction;
+    private int value;
+
+    public JournalReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(JournalFormat.HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != JournalFormat.MAGIC) {
+                throw new IOException("Not a traffic journal: " + path);
+            }
+            if (header.getShort(4) != JournalFormat.VERSION || header.getShort(6) != JournalFormat.RECORD_BYTES) {
+                throw new IOException("Unsupported journal version " + header.getShort(4) + " in " + path);
+            }
+            this.startTime = header.getLong(JournalFormat.HEADER_START_TIME);
+            this.tickMillis = header.getLong(JournalFormat.HEADER_TICK_MILLIS);
+            this.chunkEnd = JournalFormat.HEADER_BYTES;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Moves to the next record; false once the journal is exhausted
+    public boolean next() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (chunk == null || chunk.remaining() < JournalFormat.RECORD_BYTES) {
+            long remaining = fileSize - chunkEnd;
+            long length = Math.min(CHUNK_BYTES, remaining - remaining % JournalFormat.RECORD_BYTES);
+            if (length <= 0) {
+                finished = true;
+                return false;
+            }
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkEnd, length);
+            chunkEnd += length;
+        }
+        int base = chunk.position();
+        JournalRecordType recordType = JournalRecordType.fromCode(chunk.get(base + JournalFormat.RECORD_TYPE));
+        if (recordType == null) {
+            finished = true; // Unwritten tail of a journal that was not closed cleanly
+            return false;
+        }
+        type = recordType;
+        time = chunk.getLong(base + JournalFormat.RECORD_TIME);
+        vehicleId = chunk.getInt(base + JournalFormat.RECORD_VEHICLE_ID);
+        direction = chunk.get(base + JournalFormat.RECORD_DIRECTION);
+        value = chunk.get(base + JournalFormat.RECORD_VALUE);
+        chunk.position(base + JournalFormat.RECORD_BYTES);
+        recordsRead++;
+        return true;
+    }
+
+    // --- Current Record ---
+
+    public JournalRecordType getType() {
+        return type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    // -1 for light changes
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public Direction getDirection() {
+        return DIRECTIONS[direction];
+    }
+
+    // Only meaningful for ARRIVAL and DEPARTURE records
+    public VehicleType getVehicleType() {
+        return VEHICLE_TYPES[value];
+    }
+
+    // Only meaningful for LIGHT_CHANGE records
+    public TrafficLightState getLightState() {
+        return LIGHT_STATES[value];
+    }
+
+    // --- Header ---
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    // Tick length the recorded engine ran with, or 0 if unknown
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunk = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.smarttrafficlight.journal;
+
+// Kind of a journal record. Stored as code(), never 0: a zero code marks the unwritten
+// tail of a journal file (e.g. after a crash), so readers know where the data stops.
+public enum JournalRecordType {
+    ARRIVAL,      // A vehicle joined a queue; value = VehicleType ordinal
+    DEPARTURE,    // A vehicle left the intersection; value = VehicleType ordinal
+    LIGHT_CHANGE; // A light switched state; value = TrafficLightState ordinal, no vehicle id
+
+    private static final JournalRecordType[] BY_CODE = values();
+
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    // Record type for a stored code, or null for an unwritten/unknown slot
+    static JournalRecordType fromCode(int code) {
+        return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+    }
+}
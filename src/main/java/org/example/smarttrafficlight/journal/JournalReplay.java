@@ -0,0 +1,187 @@
+package org.example.smarttrafficlight.journal;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+import org.example.smarttrafficlight.service.control.ActuatedController;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.example.smarttrafficlight.service.control.SignalController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Feeds the arrivals of a recorded journal back through a SimulationEngine, event-driven on a
+// virtual clock (as fast as the CPU allows), and compares the replayed departures with the
+// recorded ones. Vehicles keep their recorded ids, so the first divergence points at the exact
+// vehicle where the replayed controller decided differently.
+//
+// Usage: JournalReplay <journal> [fixed|actuated|max-pressure] [tickMillis]
+public final class JournalReplay {
+
+    private JournalReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalReplay <journal> [fixed|actuated|max-pressure] [tickMillis]");
+            System.exit(1);
+        }
+        SignalController controller = args.length > 1 ? controllerByName(args[1]) : new FixedTimeController();
+        long tickMillis = args.length > 2 ? Long.parseLong(args[2]) : 0; // 0 = as recorded
+
+        Result result = replay(Paths.get(args[0]), controller, tickMillis);
+        System.out.println(result);
+    }
+
+    private static SignalController controllerByName(String name) {
+        switch (name) {
+            case "fixed":
+                return new FixedTimeController();
+            case "actuated":
+                return new ActuatedController(5_000, 40_000);
+            case "max-pressure":
+                return new MaxPressureController(5_000, 40_000);
+            default:
+                throw new IllegalArgumentException("Unknown controller: " + name);
+        }
+    }
+
+    // Replays the journal with the given controller. tickMillis <= 0 uses the recorded tick length
+    // (1 s if the journal does not know it).
+    public static Result replay(Path journal, SignalController controller, long tickMillis) throws IOException {
+        long wallStart = System.nanoTime();
+        try (JournalReader reader = new JournalReader(journal)) {
+            long tick = tickMillis > 0 ? tickMillis : (reader.getTickMillis() > 0 ? reader.getTickMillis() : 1000);
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(reader.getStartTime(), tick);
+            simulation.getEngine().setSignalController(controller);
+
+            Result result = new Result(controller.getName());
+            result.replayedLightChanges = Direction.values().length; // Recordings open with every light's state
+            long lastTime = reader.getStartTime();
+            while (reader.next()) {
+                lastTime = Math.max(lastTime, reader.getTime());
+                switch (reader.getType()) {
+                    case ARRIVAL:
+                        simulation.scheduleArrival(reader.getTime(), reader.getVehicleId(),
+                                reader.getVehicleType(), reader.getDirection());
+                        result.arrivals++;
+                        break;
+                    case DEPARTURE:
+                        result.recordedDepartures = append(result.recordedDepartures, result.recordedDepartureCount++,
+                                reader.getVehicleId());
+                        break;
+                    case LIGHT_CHANGE:
+                        result.recordedLightChanges++;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            simulation.getIntersection().addObserver(new IntersectionObserver() {
+                @Override
+                public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId,
+                                            VehicleType type, long arrivalTime) {
+                    result.replayedDepartures = append(result.replayedDepartures, result.replayedDepartureCount++,
+                            vehicleId);
+                    result.totalWaitMillis += timeMillis - arrivalTime;
+                }
+
+                @Override
+                public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+                    result.replayedLightChanges++;
+                }
+            });
+            simulation.run(lastTime - reader.getStartTime());
+
+            result.simulatedMillis = lastTime - reader.getStartTime();
+            result.wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+            return result;
+        }
+    }
+
+    private static int[] append(int[] ids, int index, int id) {
+        if (index == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(1024, ids.length * 2));
+        }
+        ids[index] = id;
+        return ids;
+    }
+
+    // Outcome of one replay
+    public static final class Result {
+
+        private final String controllerName;
+        private long arrivals;
+        private int[] recordedDepartures = new int[0];
+        private int recordedDepartureCount;
+        private int[] replayedDepartures = new int[0];
+        private int replayedDepartureCount;
+        private long recordedLightChanges;
+        private long replayedLightChanges;
+        private long totalWaitMillis;
+        private long simulatedMillis;
+        private long wallMillis;
+
+        private Result(String controllerName) {
+            this.controllerName = controllerName;
+        }
+
+        public long getArrivals() {
+            return arrivals;
+        }
+
+        public int getRecordedDepartures() {
+            return recordedDepartureCount;
+        }
+
+        public int getReplayedDepartures() {
+            return replayedDepartureCount;
+        }
+
+        public long getRecordedLightChanges() {
+            return recordedLightChanges;
+        }
+
+        public long getReplayedLightChanges() {
+            return replayedLightChanges;
+        }
+
+        // Average wait of the replayed departures
+        public double getAverageWaitSeconds() {
+            return replayedDepartureCount == 0 ? 0 : totalWaitMillis / 1000.0 / replayedDepartureCount;
+        }
+
+        // Index of the first departure whose vehicle differs between recording and replay, or -1
+        // if the replay departed exactly the recorded vehicles in the recorded order
+        public int getFirstDivergence() {
+            int common = Math.min(recordedDepartureCount, replayedDepartureCount);
+            for (int i = 0; i < common; i++) {
+                if (recordedDepartures[i] != replayedDepartures[i]) {
+                    return i;
+                }
+            }
+            return recordedDepartureCount == replayedDepartureCount ? -1 : common;
+        }
+
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        @Override
+        public String toString() {
+            int divergence = getFirstDivergence();
+            return "Replay with " + controllerName + ": " + arrivals + " arrivals, "
+                    + replayedDepartureCount + " departures (recorded " + recordedDepartureCount + "), "
+                    + replayedLightChanges + " light changes (recorded " + recordedLightChanges + "), "
+                    + String.format("avg wait %.1f s, ", getAverageWaitSeconds())
+                    + (divergence < 0 ? "identical departure order" : "first divergence at departure #" + divergence)
+                    + "; " + simulatedMillis + " ms simulated in " + wallMillis + " ms wall time.";
+        }
+    }
+}
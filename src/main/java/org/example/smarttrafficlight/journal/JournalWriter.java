@@ -0,0 +1,153 @@
+package org.example.smarttrafficlight.journal;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Append-only journal of everything that happens at one intersection: arrivals, departures and
+// light transitions, as fixed-width binary records (see JournalFormat).
+//
+// The file is memory-mapped in large segments, so appending a record is a handful of buffer puts
+// with no system call and no encoding. The OS writes the pages back in the background; because
+// unwritten slots stay zero, a journal cut short by a crash is still readable up to its last record.
+//
+// Usage: JournalWriter journal = JournalWriter.attach(intersection, path, tickMillis); ... journal.close();
+public final class JournalWriter implements IntersectionObserver, Closeable {
+
+    // Mapped at a time; a multiple of the record size so records never straddle two segments
+    static final long SEGMENT_BYTES = 8L << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart; // File offset of the current segment
+    private long records;
+    private Intersection attachedTo;
+    private boolean closed;
+
+    public JournalWriter(Path path, long startTimeMillis, long tickMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        segment.putInt(0, JournalFormat.MAGIC);
+        segment.putShort(4, JournalFormat.VERSION);
+        segment.putShort(6, (short) JournalFormat.RECORD_BYTES);
+        segment.putLong(JournalFormat.HEADER_START_TIME, startTimeMillis);
+        segment.putLong(JournalFormat.HEADER_TICK_MILLIS, tickMillis);
+        segment.position(JournalFormat.HEADER_BYTES);
+    }
+
+    // Starts journaling the intersection: records the current light states, then every change.
+    // Closing the writer detaches it again.
+    public static JournalWriter attach(Intersection intersection, Path path, long tickMillis) throws IOException {
+        long now = intersection.getClock().currentTimeMillis();
+        JournalWriter writer = new JournalWriter(path, now, tickMillis);
+        synchronized (writer) {
+            for (Direction dir : Direction.values()) {
+                writer.lightChanged(now, dir, intersection.getLight(dir).getState());
+            }
+            writer.attachedTo = intersection;
+        }
+        intersection.addObserver(writer);
+        return writer;
+    }
+
+    // --- IntersectionObserver ---
+
+    @Override
+    public void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+        append(timeMillis, vehicleId, JournalRecordType.ARRIVAL, direction, type.ordinal());
+    }
+
+    @Override
+    public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+        append(timeMillis, vehicleId, JournalRecordType.DEPARTURE, direction, type.ordinal());
+    }
+
+    @Override
+    public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+        append(timeMillis, -1, JournalRecordType.LIGHT_CHANGE, direction, state.ordinal());
+    }
+
+    // --- Writing ---
+
+    // Arrivals (GUI thread) and departures (tick thread) may come from different threads
+    private synchronized void append(long timeMillis, int vehicleId, JournalRecordType type,
+                                     Direction direction, int value) {
+        if (closed) {
+            return; // Late event racing with close(): the journal is already sealed
+        }
+        try {
+            if (segment.remaining() < JournalFormat.RECORD_BYTES) {
+                nextSegment();
+            }
+        } catch (IOException e) {
+            System.err.println("Journal: cannot grow file, recording stopped: " + e.getMessage());
+            closed = true;
+            return;
+        }
+        segment.putLong(timeMillis);
+        segment.putInt(vehicleId);
+        segment.put(type.code());
+        segment.put((byte) direction.ordinal());
+        segment.put((byte) value);
+        segment.put((byte) 0);
+        records++;
+    }
+
+    private void nextSegment() throws IOException {
+        segment.force();
+        segmentStart += SEGMENT_BYTES;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, SEGMENT_BYTES);
+    }
+
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    // Pushes written records to disk (they survive a JVM crash anyway, this covers power loss)
+    public synchronized void flush() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+
+    // Detaches from the intersection, flushes and trims the preallocated tail off the file
+    @Override
+    public void close() throws IOException {
+        Intersection intersection;
+        synchronized (this) {
+            intersection = attachedTo;
+            attachedTo = null;
+        }
+        if (intersection != null) {
+            intersection.removeObserver(this);
+        }
+        synchronized (this) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            closed = true;
+            segment.force();
+            segment = null;
+            try {
+                channel.truncate(JournalFormat.HEADER_BYTES + records * JournalFormat.RECORD_BYTES);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.smarttrafficlight.kinematics;
+
+// Parameters of the Intelligent Driver Model (Treiber et al.), the car-following law used by
+// LaneKinematics. Immutable, like SignalTimings. SI units: metres, seconds, m/s, m/s^2.
+//
+//   acceleration = a * (1 - (v / v0)^4 - (s* / s)^2)
+//   s* = s0 + max(0, v * T + v * dv / (2 * sqrt(a * b)))
+// with s the gap to the vehicle ahead and dv the speed difference to it (positive when closing in).
+public final class IdmParameters {
+
+    // Urban driving: 50 km/h, 1.5 s headway, 2 m standstill gap
+    public static final IdmParameters URBAN = new IdmParameters(50 / 3.6, 1.5, 2.0, 1.5, 2.0);
+
+    private final double desiredSpeed;       // v0
+    private final double timeHeadway;        // T
+    private final double minimumGap;         // s0
+    private final double maxAcceleration;    // a
+    private final double comfortableDecel;   // b
+
+    public IdmParameters(double desiredSpeed, double timeHeadway, double minimumGap,
+                         double maxAcceleration, double comfortableDecel) {
+        if (desiredSpeed <= 0 || timeHeadway < 0 || minimumGap < 0 || maxAcceleration <= 0 || comfortableDecel <= 0) {
+            throw new IllegalArgumentException("Invalid IDM parameters: v0=" + desiredSpeed + ", T=" + timeHeadway
+                    + ", s0=" + minimumGap + ", a=" + maxAcceleration + ", b=" + comfortableDecel);
+        }
+        this.desiredSpeed = desiredSpeed;
+        this.timeHeadway = timeHeadway;
+        this.minimumGap = minimumGap;
+        this.maxAcceleration = maxAcceleration;
+        this.comfortableDecel = comfortableDecel;
+    }
+
+    public double getDesiredSpeed() {
+        return desiredSpeed;
+    }
+
+    public double getTimeHeadway() {
+        return timeHeadway;
+    }
+
+    public double getMinimumGap() {
+        return minimumGap;
+    }
+
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+
+    public double getComfortableDecel() {
+        return comfortableDecel;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IDM[v0=%.1fm/s, T=%.1fs, s0=%.1fm, a=%.1f, b=%.1f]",
+                desiredSpeed, timeHeadway, minimumGap, maxAcceleration, comfortableDecel);
+    }
+}
@@ -0,0 +1,389 @@
+package org.example.smarttrafficlight.kinematics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+
+import java.util.Arrays;
+
+// One approach lane at vehicle level: where every vehicle is, how fast it goes and how hard it
+// accelerates, advanced in small time steps with the Intelligent Driver Model (IdmParameters).
+//
+// Positions run from the lane's upstream end (0) to the stop line (getLength()); a vehicle's
+// position is its front bumper. Vehicles cross the stop line when the signal lets them, and are
+// then handed to the DepartureListener. A red signal (or a yellow the vehicle can still stop for)
+// acts on the front vehicle like a standing vehicle at the stop line.
+//
+// Layout: the vehicles on the lane are primitive columns (position, velocity, acceleration,
+// length, id, type, arrival time), front vehicle first, in [head, tail). The update is split into
+// straight loops over those columns, one for accelerations and one for integration, with no
+// branches, calls or allocation inside. Each iteration only reads the previous vehicle's old
+// state, so there is no loop-carried dependency and the JIT can vectorise them (C2 superword).
+// Departures advance 'head' instead of shifting the columns. Vehicles that arrive while the lane
+// is full up to its upstream end wait in a primitive FIFO and enter when there is room.
+//
+// Not thread-safe: one thread (the tick thread) owns a lane.
+public final class LaneKinematics {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final double[] VEHICLE_LENGTHS = new double[TYPES.length]; // Metres, by type ordinal
+    private static final double FREE_ROAD_GAP = 1.0e6; // Gap of a leader with nothing ahead
+    private static final double MIN_GAP = 0.1;         // Keeps s*/s finite if bumpers touch numerically
+    private static final int INITIAL_CAPACITY = 64;
+
+    static {
+        for (VehicleType type : TYPES) {
+            VEHICLE_LENGTHS[type.ordinal()] = lengthOf(type);
+        }
+    }
+
+    private final Direction direction;
+    private final double length;
+    private final IdmParameters idm;
+    // IDM terms that do not change per vehicle
+    private final double maxAcceleration;
+    private final double inverseDesiredSpeed;
+    private final double minimumGap;
+    private final double timeHeadway;
+    private final double inverseTwoSqrtAb;
+
+    private TrafficLightState signal = TrafficLightState.RED;
+
+    // --- Vehicles on the lane, front first: [head, tail) ---
+    private double[] positions = new double[INITIAL_CAPACITY];
+    private double[] velocities = new double[INITIAL_CAPACITY];
+    private double[] accelerations = new double[INITIAL_CAPACITY];
+    private double[] lengths = new double[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] arrivalTimes = new long[INITIAL_CAPACITY];
+    private int head;
+    private int tail;
+
+    // --- Arrived, waiting for room at the upstream end: [waitingHead, waitingTail) ---
+    private int[] waitingIds = new int[INITIAL_CAPACITY];
+    private byte[] waitingTypes = new byte[INITIAL_CAPACITY];
+    private long[] waitingArrivals = new long[INITIAL_CAPACITY];
+    private int waitingHead;
+    private int waitingTail;
+
+    public LaneKinematics(Direction direction, double lengthMetres, IdmParameters idm) {
+        if (lengthMetres <= 0) {
+            throw new IllegalArgumentException("Lane length must be positive: " + lengthMetres);
+        }
+        this.direction = direction;
+        this.length = lengthMetres;
+        this.idm = idm;
+        this.maxAcceleration = idm.getMaxAcceleration();
+        this.inverseDesiredSpeed = 1.0 / idm.getDesiredSpeed();
+        this.minimumGap = idm.getMinimumGap();
+        this.timeHeadway = idm.getTimeHeadway();
+        this.inverseTwoSqrtAb = 1.0 / (2.0 * Math.sqrt(idm.getMaxAcceleration() * idm.getComfortableDecel()));
+    }
+
+    // Typical vehicle lengths in metres
+    private static double lengthOf(VehicleType type) {
+        switch (type) {
+            case MOTORCYCLE:
+                return 2.2;
+            case BUS:
+                return 12.0;
+            case TRUCK:
+                return 10.0;
+            case FIRE_TRUCK:
+                return 9.0;
+            case AMBULANCE:
+            case POLICE:
+                return 5.5;
+            default:
+                return 4.5;
+        }
+    }
+
+    // --- Input ---
+
+    public void setSignal(TrafficLightState state) {
+        this.signal = state;
+    }
+
+    // A vehicle reaches the lane's upstream end; it enters as soon as there is room
+    public void enter(int vehicleId, VehicleType type, long arrivalTime) {
+        if (waitingTail == waitingIds.length) {
+            compactWaiting();
+        }
+        waitingIds[waitingTail] = vehicleId;
+        waitingTypes[waitingTail] = (byte) type.ordinal();
+        waitingArrivals[waitingTail] = arrivalTime;
+        waitingTail++;
+        admitWaiting();
+    }
+
+    // Takes the vehicle off the lane (or out of the waiting line) without it driving over the stop
+    // line, e.g. the engine let it through on its own. The vehicles behind it close up on the next
+    // update. Returns false if no vehicle has that id.
+    public boolean remove(int vehicleId) {
+        for (int i = head; i < tail; i++) {
+            if (ids[i] == vehicleId) {
+                int behind = tail - i - 1;
+                System.arraycopy(positions, i + 1, positions, i, behind);
+                System.arraycopy(velocities, i + 1, velocities, i, behind);
+                System.arraycopy(accelerations, i + 1, accelerations, i, behind);
+                System.arraycopy(lengths, i + 1, lengths, i, behind);
+                System.arraycopy(ids, i + 1, ids, i, behind);
+                System.arraycopy(types, i + 1, types, i, behind);
+                System.arraycopy(arrivalTimes, i + 1, arrivalTimes, i, behind);
+                tail--;
+                if (head == tail) {
+                    head = 0;
+                    tail = 0;
+                }
+                return true;
+            }
+        }
+        for (int i = waitingHead; i < waitingTail; i++) {
+            if (waitingIds[i] == vehicleId) {
+                int behind = waitingTail - i - 1;
+                System.arraycopy(waitingIds, i + 1, waitingIds, i, behind);
+                System.arraycopy(waitingTypes, i + 1, waitingTypes, i, behind);
+                System.arraycopy(waitingArrivals, i + 1, waitingArrivals, i, behind);
+                waitingTail--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Update ---
+
+    // Moves every vehicle forward by dtSeconds. Vehicles that cross the stop line are removed and
+    // reported to the listener, front first. Returns how many crossed.
+    public int advance(double dtSeconds, DepartureListener listener) {
+        admitWaiting();
+        if (head == tail) {
+            return 0;
+        }
+        computeAccelerations();
+        integrate(dtSeconds);
+        return dischargeCrossed(listener);
+    }
+
+    private void computeAccelerations() {
+        // Front vehicle: follows the stop line while it has to stop, otherwise drives freely
+        int front = head;
+        double frontGap = FREE_ROAD_GAP;
+        double frontDv = 0;
+        if (mustStop(front)) {
+            frontGap = length - positions[front];
+            frontDv = velocities[front]; // The stop line does not move
+        }
+        accelerations[front] = acceleration(velocities[front], Math.max(frontGap, MIN_GAP), frontDv);
+
+        // Everybody else follows the vehicle ahead; straight-line code for the JIT to vectorise
+        double a = maxAcceleration;
+        double inverseV0 = inverseDesiredSpeed;
+        double s0 = minimumGap;
+        double headway = timeHeadway;
+        double brakingTerm = inverseTwoSqrtAb;
+        double[] x = positions;
+        double[] v = velocities;
+        double[] len = lengths;
+        double[] acc = accelerations;
+        for (int i = front + 1; i < tail; i++) {
+            double speed = v[i];
+            double gap = Math.max(x[i - 1] - len[i - 1] - x[i], MIN_GAP);
+            double closing = speed - v[i - 1];
+            double desiredGap = s0 + Math.max(0.0, speed * headway + speed * closing * brakingTerm);
+            double relativeSpeed = speed * inverseV0;
+            double speedTerm = relativeSpeed * relativeSpeed;
+            double gapTerm = desiredGap / gap;
+            acc[i] = a * (1.0 - speedTerm * speedTerm - gapTerm * gapTerm);
+        }
+    }
+
+    private double acceleration(double speed, double gap, double closing) {
+        double desiredGap = minimumGap + Math.max(0.0, speed * timeHeadway + speed * closing * inverseTwoSqrtAb);
+        double relativeSpeed = speed * inverseDesiredSpeed;
+        double speedTerm = relativeSpeed * relativeSpeed;
+        double gapTerm = desiredGap / gap;
+        return maxAcceleration * (1.0 - speedTerm * speedTerm - gapTerm * gapTerm);
+    }
+
+    // Red: stop. Yellow: stop unless too close to stop comfortably (the dilemma zone). Green: go.
+    private boolean mustStop(int index) {
+        switch (signal) {
+            case GREEN:
+                return false;
+            case YELLOW:
+                double distance = length - positions[index];
+                double speed = velocities[index];
+                return speed * speed <= 2.0 * idm.getComfortableDecel() * distance;
+            default:
+                return true;
+        }
+    }
+
+    // Ballistic update; speeds never go negative (a braking vehicle stops, it does not reverse)
+    private void integrate(double dt) {
+        double halfDt = 0.5 * dt;
+        double[] x = positions;
+        double[] v = velocities;
+        double[] acc = accelerations;
+        for (int i = head; i < tail; i++) {
+            double speed = v[i];
+            double newSpeed = Math.max(0.0, speed + acc[i] * dt);
+            x[i] += (speed + newSpeed) * halfDt;
+            v[i] = newSpeed;
+        }
+    }
+
+    private int dischargeCrossed(DepartureListener listener) {
+        int crossed = 0;
+        while (head < tail && positions[head] >= length) {
+            int index = head++;
+            crossed++;
+            if (listener != null) {
+                listener.vehicleDeparted(direction, ids[index], TYPES[types[index]], arrivalTimes[index]);
+            }
+        }
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return crossed;
+    }
+
+    // Lets waiting vehicles onto the lane while the last one has moved far enough in
+    private void admitWaiting() {
+        while (waitingHead < waitingTail) {
+            double entrySpeed = idm.getDesiredSpeed();
+            if (head < tail) {
+                int last = tail - 1;
+                double gap = positions[last] - lengths[last] - VEHICLE_LENGTHS[waitingTypes[waitingHead]];
+                if (gap < minimumGap) {
+                    return; // Backed up to the upstream end
+                }
+                // Enter no faster than the gap allows, and no faster than the vehicle ahead
+                double safeSpeed = timeHeadway > 0 ? (gap - minimumGap) / timeHeadway : entrySpeed;
+                entrySpeed = Math.min(Math.min(entrySpeed, velocities[last]), safeSpeed);
+            }
+            if (tail == positions.length) {
+                compactLane();
+            }
+            byte type = waitingTypes[waitingHead];
+            positions[tail] = VEHICLE_LENGTHS[type]; // Whole vehicle on the lane
+            velocities[tail] = entrySpeed;
+            accelerations[tail] = 0;
+            lengths[tail] = VEHICLE_LENGTHS[type];
+            ids[tail] = waitingIds[waitingHead];
+            types[tail] = type;
+            arrivalTimes[tail] = waitingArrivals[waitingHead];
+            tail++;
+            waitingHead++;
+        }
+        waitingHead = 0;
+        waitingTail = 0;
+    }
+
+    // Moves [head, tail) to the front of the columns, growing them first if more than half full
+    private void compactLane() {
+        int count = tail - head;
+        if (count * 2 > positions.length) {
+            int capacity = positions.length * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            velocities = Arrays.copyOf(velocities, capacity);
+            accelerations = Arrays.copyOf(accelerations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+        }
+        System.arraycopy(positions, head, positions, 0, count);
+        System.arraycopy(velocities, head, velocities, 0, count);
+        System.arraycopy(accelerations, head, accelerations, 0, count);
+        System.arraycopy(lengths, head, lengths, 0, count);
+        System.arraycopy(ids, head, ids, 0, count);
+        System.arraycopy(types, head, types, 0, count);
+        System.arraycopy(arrivalTimes, head, arrivalTimes, 0, count);
+        head = 0;
+        tail = count;
+    }
+
+    private void compactWaiting() {
+        int count = waitingTail - waitingHead;
+        if (count * 2 > waitingIds.length) {
+            int capacity = waitingIds.length * 2;
+            waitingIds = Arrays.copyOf(waitingIds, capacity);
+            waitingTypes = Arrays.copyOf(waitingTypes, capacity);
+            waitingArrivals = Arrays.copyOf(waitingArrivals, capacity);
+        }
+        System.arraycopy(waitingIds, waitingHead, waitingIds, 0, count);
+        System.arraycopy(waitingTypes, waitingHead, waitingTypes, 0, count);
+        System.arraycopy(waitingArrivals, waitingHead, waitingArrivals, 0, count);
+        waitingHead = 0;
+        waitingTail = count;
+    }
+
+    // --- State ---
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    public TrafficLightState getSignal() {
+        return signal;
+    }
+
+    // Vehicles on the lane (not counting those waiting to enter)
+    public int getVehicleCount() {
+        return tail - head;
+    }
+
+    // Vehicles that arrived but could not enter yet because the lane is full
+    public int getWaitingCount() {
+        return waitingTail - waitingHead;
+    }
+
+    // k = 0 is the front vehicle
+    public double getPosition(int k) {
+        return positions[head + k];
+    }
+
+    public double getVelocity(int k) {
+        return velocities[head + k];
+    }
+
+    public double getAcceleration(int k) {
+        return accelerations[head + k];
+    }
+
+    public int getVehicleId(int k) {
+        return ids[head + k];
+    }
+
+    // Vehicles on the lane slower than thresholdSpeed (m/s): the physical queue
+    public int countSlowerThan(double thresholdSpeed) {
+        int count = 0;
+        for (int i = head; i < tail; i++) {
+            if (velocities[i] < thresholdSpeed) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double getMeanSpeed() {
+        if (head == tail) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = head; i < tail; i++) {
+            sum += velocities[i];
+        }
+        return sum / (tail - head);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.smarttrafficlight.kinematics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+import org.example.smarttrafficlight.service.DischargeModel;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+// Single intersection with vehicle-level approaches: the engine still runs the signals, but
+// instead of a DischargeModel deciding how many vehicles leave a green queue, every approach is a
+// LaneKinematics lane and a vehicle leaves when it actually drives over the stop line. Start-up
+// lost time, saturation headways and yellow-light dilemmas come out of the car-following model.
+//
+// The lanes follow the intersection through IntersectionObserver: arrivals enter the lane and
+// light changes set its signal. One lane per approach, in arrival order. The engine's queue is in
+// priority order instead, so a crossing releases that very vehicle from the queue
+// (SimulationEngine.releaseVehicle), not the queue's head: waits, departures and emergency
+// overrides follow the vehicle that actually crossed. A vehicle the engine removes on its own (an
+// emergency vehicle still queued when its override times out) is taken off the lane as well.
+//
+// Runs on a virtual clock: each step() is one engine tick followed by subSteps kinematic updates.
+public class MicroscopicSimulation implements IntersectionObserver {
+
+    private final ManualClock clock;
+    private final Intersection intersection;
+    private final SimulationEngine engine;
+    private final long tickMillis;
+    private final int subSteps;
+    private final double subStepSeconds;
+    private final LaneKinematics[] lanes; // Indexed by Direction.ordinal()
+    private final DepartureListener crossing = this::vehicleCrossed;
+
+    private boolean crossingInProgress; // Departure caused by a lane, already off that lane
+    private long crossings;
+    private long stepsRun;
+
+    public MicroscopicSimulation(long tickMillis, int subSteps, double laneLengthMetres, IdmParameters idm) {
+        if (tickMillis <= 0 || subSteps <= 0) {
+            throw new IllegalArgumentException("Tick length and sub-steps must be positive: tick="
+                    + tickMillis + ", subSteps=" + subSteps);
+        }
+        this.clock = new ManualClock();
+        this.intersection = new Intersection(clock);
+        this.engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+        this.engine.setDischargeModel(DischargeModel.EXTERNAL);
+        this.tickMillis = tickMillis;
+        this.subSteps = subSteps;
+        this.subStepSeconds = tickMillis / 1000.0 / subSteps;
+        this.lanes = new LaneKinematics[Direction.values().length];
+        for (Direction dir : Direction.values()) {
+            lanes[dir.ordinal()] = new LaneKinematics(dir, laneLengthMetres, idm);
+        }
+        syncSignals();
+        intersection.addObserver(this);
+    }
+
+    // Resets the signal cycle; call once before stepping
+    public void start() {
+        engine.startSimulation(); // Returns right away with an external driver
+        syncSignals();
+    }
+
+    // One engine tick, then the lanes move for the same amount of time
+    public void step() {
+        clock.advance(tickMillis);
+        engine.runSimulationStep();
+        for (int s = 0; s < subSteps; s++) {
+            for (LaneKinematics lane : lanes) {
+                lane.advance(subStepSeconds, crossing);
+            }
+        }
+        stepsRun++;
+    }
+
+    // Steps until durationMillis of simulated time have passed
+    public void run(long durationMillis) {
+        long end = clock.currentTimeMillis() + durationMillis;
+        while (clock.currentTimeMillis() + tickMillis <= end) {
+            step();
+        }
+    }
+
+    public void addVehicle(VehicleType type, Direction direction) {
+        intersection.addVehicle(type, direction); // Reaches the lane through vehicleArrived
+    }
+
+    private void syncSignals() {
+        for (Direction dir : Direction.values()) {
+            lanes[dir.ordinal()].setSignal(intersection.getLight(dir).getState());
+        }
+    }
+
+    // The lane's front vehicle drove over the stop line: it leaves the engine's queue too
+    private void vehicleCrossed(Direction dir, int vehicleId, VehicleType type, long arrivalTime) {
+        crossings++;
+        crossingInProgress = true;
+        try {
+            engine.releaseVehicle(dir, vehicleId);
+        } finally {
+            crossingInProgress = false;
+        }
+    }
+
+    // --- IntersectionObserver ---
+
+    @Override
+    public void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+        lanes[direction.ordinal()].enter(vehicleId, type, timeMillis);
+    }
+
+    @Override
+    public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+        if (!crossingInProgress) {
+            lanes[direction.ordinal()].remove(vehicleId);
+        }
+    }
+
+    @Override
+    public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+        lanes[direction.ordinal()].setSignal(state);
+    }
+
+    // --- Accessors ---
+
+    public LaneKinematics getLane(Direction direction) {
+        return lanes[direction.ordinal()];
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public Intersection getIntersection() {
+        return intersection;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    // Vehicles that drove over a stop line
+    public long getCrossings() {
+        return crossings;
+    }
+
+    public long getStepsRun() {
+        return stepsRun;
+    }
+}
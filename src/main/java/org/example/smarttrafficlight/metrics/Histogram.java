@@ -0,0 +1,124 @@
+package org.example.smarttrafficlight.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-memory histogram of non-negative long values (HDR style, log-linear buckets).
+//
+// Values below 128 get a bucket each; above that, every power of two is split into 64 buckets,
+// so any recorded value is reported within 1.6% of its true value. Values up to 2^32 (about
+// 50 days in ms) are tracked; larger ones are clamped to the top bucket. 1728 buckets, ~14 KB.
+//
+// record() is a few atomic adds: lock-free, allocation-free and safe from any number of threads.
+// Reads are not atomic snapshots, but each counter is exact, which is all a dashboard needs.
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;  // 128 exact values at the bottom
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;   // Buckets per power of two above that
+    private static final int MAX_VALUE_BITS = 32;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0; // Clock skew between threads; a negative wait is a zero wait
+        }
+        counts.incrementAndGet(bucketOf(Math.min(value, MAX_VALUE)));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1); // >= 1
+        int top = (int) (value >>> shift); // 64..127
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (top - HALF_SUB_BUCKETS);
+    }
+
+    // Largest value that falls into the bucket
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long top = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    // Empties the histogram for reuse. Not atomic: only call it while nobody is recording.
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // --- Reads ---
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    // Value at or below which 'percentile' percent (0-100) of the recorded values fall; 0 when empty
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target) {
+                return Math.min(highestValueIn(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Number of recorded values <= value, to bucket precision (cumulative exports such as Prometheus)
+    public long getCountAtOrBelow(long value) {
+        if (value < 0) {
+            return 0;
+        }
+        int last = bucketOf(Math.min(value, MAX_VALUE));
+        long count = 0;
+        for (int bucket = 0; bucket <= last; bucket++) {
+            count += counts.get(bucket);
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.0f p50=%d p95=%d p99=%d max=%d", getCount(), getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(95), getValueAtPercentile(99), getMax());
+    }
+}
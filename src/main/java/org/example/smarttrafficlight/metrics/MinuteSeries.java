@@ -0,0 +1,92 @@
+package org.example.smarttrafficlight.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-minute time series for a fixed number of keys (e.g. one per Direction), keeping the last
+// 'minutes' minutes in a ring. Each slot is either a sum (add) or a running maximum (recordMax).
+// Slots are recycled lazily when a new minute starts; lock-free and allocation-free.
+//
+// A value recorded by one thread exactly while another thread starts a new minute in the same
+// slot can be lost. That is a single sample at a minute boundary, acceptable for a dashboard.
+public final class MinuteSeries {
+
+    private static final long MINUTE_MS = 60_000;
+
+    private final int keys;
+    private final int minutes;
+    private final AtomicLongArray slotMinute; // Which minute each slot currently holds
+    private final AtomicLongArray values;
+
+    public MinuteSeries(int keys, int minutes) {
+        if (keys <= 0 || minutes <= 0) {
+            throw new IllegalArgumentException("Keys and minutes must be positive");
+        }
+        this.keys = keys;
+        this.minutes = minutes;
+        this.slotMinute = new AtomicLongArray(keys * minutes);
+        this.values = new AtomicLongArray(keys * minutes);
+        for (int i = 0; i < slotMinute.length(); i++) {
+            slotMinute.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public void add(long timeMillis, int key, long delta) {
+        long minute = Math.floorDiv(timeMillis, MINUTE_MS);
+        int slot = slotFor(key, minute);
+        if (slot >= 0) {
+            values.addAndGet(slot, delta);
+        }
+    }
+
+    public void recordMax(long timeMillis, int key, long value) {
+        long minute = Math.floorDiv(timeMillis, MINUTE_MS);
+        int slot = slotFor(key, minute);
+        if (slot < 0) {
+            return;
+        }
+        long current = values.get(slot);
+        while (value > current && !values.compareAndSet(slot, current, value)) {
+            current = values.get(slot);
+        }
+    }
+
+    // Value for the minute containing timeMillis, or 0 if nothing was recorded (or it has rolled off)
+    public long get(long timeMillis, int key) {
+        long minute = Math.floorDiv(timeMillis, MINUTE_MS);
+        int slot = slot(key, minute);
+        return slotMinute.get(slot) == minute ? values.get(slot) : 0;
+    }
+
+    // The last 'count' minutes up to and including the one containing timeMillis, oldest first
+    public long[] lastMinutes(long timeMillis, int key, int count) {
+        int n = Math.min(count, minutes);
+        long[] series = new long[n];
+        for (int i = 0; i < n; i++) {
+            series[i] = get(timeMillis - (long) (n - 1 - i) * MINUTE_MS, key);
+        }
+        return series;
+    }
+
+    private int slot(int key, long minute) {
+        return key * minutes + (int) Math.floorMod(minute, (long) minutes);
+    }
+
+    // Slot for the minute, claiming and clearing it first if it still holds an older minute;
+    // -1 if the minute is so old its slot already holds a newer one
+    private int slotFor(int key, long minute) {
+        int slot = slot(key, minute);
+        long held = slotMinute.get(slot);
+        while (held < minute) {
+            if (slotMinute.compareAndSet(slot, held, minute)) {
+                values.set(slot, 0);
+                break;
+            }
+            held = slotMinute.get(slot);
+        }
+        return held > minute ? -1 : slot;
+    }
+
+    public int getKeys() {
+        return keys;
+    }
+}
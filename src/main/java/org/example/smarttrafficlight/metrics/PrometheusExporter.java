@@ -0,0 +1,208 @@
+package org.example.smarttrafficlight.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.notification.AsyncNotifier;
+import org.example.smarttrafficlight.profiling.TickProfiler;
+import org.example.smarttrafficlight.profiling.TickStage;
+import org.example.smarttrafficlight.service.IntersectionSnapshot;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves engine and traffic metrics at http://<host>:<port>/metrics in the Prometheus text
+// exposition format, using the JDK's built-in HTTP server (no extra dependency).
+//
+// A scrape only reads counters that are already aggregated in atomics (engine counters,
+// Histogram buckets, TrafficMetrics, AsyncNotifier counters, the published IntersectionSnapshot).
+// It never takes a queue lock or waits for the tick thread, so scraping cannot slow the simulation down.
+//
+//   PrometheusExporter exporter = PrometheusExporter.start(9464, engine, metrics, notifier);
+//   curl -s localhost:9464/metrics
+public final class PrometheusExporter implements AutoCloseable {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SimulationEngine engine;
+    private final TrafficMetrics metrics; // May be null
+    private final AsyncNotifier notifier; // May be null
+
+    // Previous scrape, for the ticks-per-second gauge
+    private long lastScrapeNanos;
+    private long lastScrapeSteps;
+
+    private PrometheusExporter(HttpServer server, SimulationEngine engine, TrafficMetrics metrics, AsyncNotifier notifier) {
+        this.server = server;
+        this.engine = engine;
+        this.metrics = metrics;
+        this.notifier = notifier;
+        this.lastScrapeNanos = System.nanoTime();
+        this.lastScrapeSteps = engine.getStepsRun();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+    }
+
+    // Binds to all interfaces on the given port (0 = any free port) and starts serving
+    public static PrometheusExporter start(int port, SimulationEngine engine, TrafficMetrics metrics,
+                                           AsyncNotifier notifier) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        PrometheusExporter exporter = new PrometheusExporter(server, engine, metrics, notifier);
+        server.start();
+        System.out.println("Metrics available at http://localhost:" + exporter.getPort() + "/metrics");
+        return exporter;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // The full exposition text. Only called from the single HTTP thread.
+    String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        long steps = engine.getStepsRun();
+        long nowNanos = System.nanoTime();
+        double seconds = (nowNanos - lastScrapeNanos) / 1e9;
+        double stepsPerSecond = seconds > 0 ? (steps - lastScrapeSteps) / seconds : 0;
+        lastScrapeNanos = nowNanos;
+        lastScrapeSteps = steps;
+
+        header(out, "traffic_engine_ticks_total", "counter", "Engine steps run.");
+        sample(out, "traffic_engine_ticks_total", null, steps);
+        header(out, "traffic_engine_ticks_per_second", "gauge", "Engine steps per wall-clock second since the previous scrape.");
+        sample(out, "traffic_engine_ticks_per_second", null, stepsPerSecond);
+        summary(out, "traffic_engine_tick_duration_seconds", "Wall-clock time spent in one engine step.",
+                null, engine.getStepDurations(), 1e-6);
+        TickProfiler profiler = engine.getProfiler();
+        if (profiler != null) {
+            header(out, "traffic_engine_stage_duration_seconds", "summary", "Wall-clock time per engine step stage.");
+            for (TickStage stage : TickStage.values()) {
+                summaryValues(out, "traffic_engine_stage_duration_seconds",
+                        "stage=\"" + stage.name() + "\"", profiler.getStageNanos(stage), 1e-9);
+            }
+        }
+        IntersectionSnapshot snapshot = engine.getLatestSnapshot(); // Lock-free, consistent light states
+        header(out, "traffic_light_green", "gauge", "1 while the approach's light is green.");
+        for (Direction dir : Direction.values()) {
+            sample(out, "traffic_light_green", label(dir), snapshot.getLightState(dir) == TrafficLightState.GREEN ? 1 : 0);
+        }
+        header(out, "traffic_emergency_overrides_total", "counter", "Emergency overrides started.");
+        sample(out, "traffic_emergency_overrides_total", null, engine.getOverridesStarted());
+        header(out, "traffic_emergency_override_active", "gauge", "1 while an emergency override is in progress.");
+        sample(out, "traffic_emergency_override_active", null, engine.isPriorityOverrideActive() ? 1 : 0);
+
+        if (metrics != null) {
+            header(out, "traffic_queue_depth", "gauge", "Vehicles waiting per approach.");
+            for (Direction dir : Direction.values()) {
+                sample(out, "traffic_queue_depth", label(dir), metrics.getQueueLength(dir));
+            }
+            header(out, "traffic_departures_total", "counter", "Vehicles that left the intersection per approach.");
+            for (Direction dir : Direction.values()) {
+                sample(out, "traffic_departures_total", label(dir), metrics.getDepartures(dir));
+            }
+            header(out, "traffic_wait_seconds", "summary", "Wait from arrival to departure.");
+            for (Direction dir : Direction.values()) {
+                for (VehicleType type : VehicleType.values()) {
+                    Histogram waits = metrics.getWaitTimes(dir, type);
+                    if (waits.getCount() > 0) {
+                        summaryValues(out, "traffic_wait_seconds",
+                                label(dir) + ",type=\"" + type.name() + "\"", waits, 1e-3);
+                    }
+                }
+            }
+            summary(out, "traffic_override_latency_seconds", "Emergency detection until its light is green.",
+                    null, metrics.getOverrideLatency(), 1e-3);
+        }
+
+        if (notifier != null) {
+            header(out, "traffic_notifier_outbox_depth", "gauge", "Notifications waiting to be sent.");
+            sample(out, "traffic_notifier_outbox_depth", null, notifier.getQueueDepth());
+            header(out, "traffic_notifier_messages_total", "counter", "Notifications by outcome.");
+            sample(out, "traffic_notifier_messages_total", "outcome=\"accepted\"", notifier.getAcceptedCount());
+            sample(out, "traffic_notifier_messages_total", "outcome=\"delivered\"", notifier.getDeliveredCount());
+            sample(out, "traffic_notifier_messages_total", "outcome=\"dropped\"", notifier.getDroppedCount());
+            sample(out, "traffic_notifier_messages_total", "outcome=\"failed\"", notifier.getFailedCount());
+        }
+        return out.toString();
+    }
+
+    private static String label(Direction dir) {
+        return "direction=\"" + dir.name() + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String help, String labels,
+                                Histogram histogram, double unitSeconds) {
+        header(out, name, "summary", help);
+        summaryValues(out, name, labels, histogram, unitSeconds);
+    }
+
+    // Quantiles, _sum and _count of a histogram recorded in units of 'unitSeconds'
+    private static void summaryValues(StringBuilder out, String name, String labels,
+                                      Histogram histogram, double unitSeconds) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            sample(out, name, prefix + "quantile=\"" + quantile + "\"",
+                    histogram.getValueAtPercentile(quantile * 100) * unitSeconds);
+        }
+        sample(out, name + "_sum", labels, histogram.getSum() * unitSeconds);
+        sample(out, name + "_count", labels, histogram.getCount());
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value); // Locale independent, and Prometheus parses the "1.5E-4" form
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.smarttrafficlight.metrics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Wait-time and throughput metrics for one intersection, fed by its IntersectionObserver callbacks:
+//  - wait time (arrival to departure) histograms per Direction and VehicleType, recorded on departure
+//  - departures per minute and max queue length per minute, per Direction (last two hours)
+//  - emergency override latency: detection until the emergency vehicle's light is green
+//  - phase utilization: time each light spent GREEN / YELLOW / RED
+//
+// Every callback only does atomic adds on preallocated arrays, so recording is lock-free and
+// allocation-free on the tick thread. Times come from the intersection's clock (virtual in
+// headless runs), so the numbers mean the same in a one-second replay as in a live day.
+//
+// Usage: TrafficMetrics metrics = TrafficMetrics.attach(intersection); ... metrics.report(now)
+public final class TrafficMetrics implements IntersectionObserver {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final TrafficLightState[] STATES = TrafficLightState.values();
+    private static final int SERIES_MINUTES = 120;
+
+    private final Intersection intersection;
+    private final Histogram[] waitTimes = new Histogram[DIRECTIONS.length * TYPES.length];
+    private final Histogram overrideLatency = new Histogram();
+    private final AtomicLongArray departures = new AtomicLongArray(DIRECTIONS.length);
+    private final MinuteSeries departuresPerMinute = new MinuteSeries(DIRECTIONS.length, SERIES_MINUTES);
+    private final MinuteSeries queueLengthPerMinute = new MinuteSeries(DIRECTIONS.length, SERIES_MINUTES);
+    private final AtomicIntegerArray queueLengths = new AtomicIntegerArray(DIRECTIONS.length);
+
+    // Emergency detections waiting for their green, per direction (Long.MIN_VALUE = none)
+    private final AtomicLongArray pendingDetections = new AtomicLongArray(DIRECTIONS.length);
+
+    // Phase utilization: ms spent per direction and state, plus the current state and since when
+    private final AtomicLongArray stateMillis = new AtomicLongArray(DIRECTIONS.length * STATES.length);
+    private final AtomicIntegerArray currentStates = new AtomicIntegerArray(DIRECTIONS.length);
+    private final AtomicLongArray stateSince = new AtomicLongArray(DIRECTIONS.length);
+
+    private TrafficMetrics(Intersection intersection) {
+        this.intersection = intersection;
+        for (int i = 0; i < waitTimes.length; i++) {
+            waitTimes[i] = new Histogram();
+        }
+        long now = intersection.getClock().currentTimeMillis();
+        for (Direction dir : DIRECTIONS) {
+            int d = dir.ordinal();
+            queueLengths.set(d, intersection.getQueueSize(dir));
+            pendingDetections.set(d, Long.MIN_VALUE);
+            currentStates.set(d, intersection.getLight(dir).getState().ordinal());
+            stateSince.set(d, now);
+        }
+    }
+
+    // Creates the metrics and starts observing the intersection
+    public static TrafficMetrics attach(Intersection intersection) {
+        TrafficMetrics metrics = new TrafficMetrics(intersection);
+        intersection.addObserver(metrics);
+        return metrics;
+    }
+
+    public void detach() {
+        intersection.removeObserver(this);
+    }
+
+    // --- IntersectionObserver ---
+
+    @Override
+    public void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+        int length = queueLengths.incrementAndGet(direction.ordinal());
+        queueLengthPerMinute.recordMax(timeMillis, direction.ordinal(), length);
+    }
+
+    @Override
+    public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+        int d = direction.ordinal();
+        waitTimes[d * TYPES.length + type.ordinal()].record(timeMillis - arrivalTime);
+        departures.incrementAndGet(d);
+        departuresPerMinute.add(timeMillis, d, 1);
+        int length = Math.max(0, queueLengths.decrementAndGet(d));
+        queueLengthPerMinute.recordMax(timeMillis, d, length);
+    }
+
+    @Override
+    public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+        int d = direction.ordinal();
+        int previous = currentStates.getAndSet(d, state.ordinal());
+        long since = stateSince.getAndSet(d, timeMillis);
+        stateMillis.addAndGet(d * STATES.length + previous, Math.max(0, timeMillis - since));
+
+        if (state == TrafficLightState.GREEN) {
+            long detectedAt = pendingDetections.getAndSet(d, Long.MIN_VALUE);
+            if (detectedAt != Long.MIN_VALUE) {
+                overrideLatency.record(timeMillis - detectedAt);
+            }
+        }
+    }
+
+    @Override
+    public void priorityDetected(long timeMillis, Direction direction, VehicleType type) {
+        if (intersection.getLight(direction).getState() == TrafficLightState.GREEN) {
+            overrideLatency.record(0); // Already green: no light change will follow
+        } else {
+            pendingDetections.compareAndSet(direction.ordinal(), Long.MIN_VALUE, timeMillis);
+        }
+    }
+
+    // --- Reads ---
+
+    public Histogram getWaitTimes(Direction direction, VehicleType type) {
+        return waitTimes[direction.ordinal() * TYPES.length + type.ordinal()];
+    }
+
+    public Histogram getOverrideLatency() {
+        return overrideLatency;
+    }
+
+    // Vehicles waiting, as counted from arrivals and departures (no queue lock involved)
+    public int getQueueLength(Direction direction) {
+        return Math.max(0, queueLengths.get(direction.ordinal()));
+    }
+
+    public long getDepartures(Direction direction) {
+        return departures.get(direction.ordinal());
+    }
+
+    public long getDeparturesInMinute(long timeMillis, Direction direction) {
+        return departuresPerMinute.get(timeMillis, direction.ordinal());
+    }
+
+    // Departures per minute, oldest first, for the last 'minutes' minutes up to timeMillis
+    public long[] getDeparturesPerMinute(long timeMillis, Direction direction, int minutes) {
+        return departuresPerMinute.lastMinutes(timeMillis, direction.ordinal(), minutes);
+    }
+
+    // Longest queue seen in each of the last 'minutes' minutes (sampled on arrivals/departures)
+    public long[] getMaxQueueLengthPerMinute(long timeMillis, Direction direction, int minutes) {
+        return queueLengthPerMinute.lastMinutes(timeMillis, direction.ordinal(), minutes);
+    }
+
+    // Time the light has spent in the given state, including the current stretch up to 'now'
+    public long getStateMillis(Direction direction, TrafficLightState state, long now) {
+        int d = direction.ordinal();
+        long total = stateMillis.get(d * STATES.length + state.ordinal());
+        if (currentStates.get(d) == state.ordinal()) {
+            total += Math.max(0, now - stateSince.get(d));
+        }
+        return total;
+    }
+
+    // Share (0-1) of the observed time the light was green
+    public double getGreenShare(Direction direction, long now) {
+        long total = 0;
+        for (TrafficLightState state : STATES) {
+            total += getStateMillis(direction, state, now);
+        }
+        return total == 0 ? 0 : (double) getStateMillis(direction, TrafficLightState.GREEN, now) / total;
+    }
+
+    // Human-readable summary (waits in ms)
+    public String report(long now) {
+        StringBuilder report = new StringBuilder();
+        for (Direction dir : DIRECTIONS) {
+            report.append(String.format("%-6s departures=%d green=%.0f%% last-minute=%d%n", dir, getDepartures(dir),
+                    getGreenShare(dir, now) * 100, getDeparturesInMinute(now, dir)));
+            for (VehicleType type : TYPES) {
+                Histogram waits = getWaitTimes(dir, type);
+                if (waits.getCount() > 0) {
+                    report.append(String.format("    %-11s wait %s%n", type, waits));
+                }
+            }
+        }
+        report.append("Emergency override latency: ").append(overrideLatency).append(System.lineSeparator());
+        return report.toString();
+    }
+}
@@ -2,7 +2,7 @@ package org.example.smarttrafficlight.model;
 
 public class TrafficLight {
     private final Direction direction; // The direction this light controls
-    private TrafficLightState state;
+    private volatile TrafficLightState state; // Written by the engine, read by GUI / metrics / bot threads
 
     public TrafficLight(Direction direction) {
         this.direction = direction;
@@ -17,9 +17,9 @@ public class TrafficLight {
         return state;
     }
 
+    // The owning Intersection logs the change, stamped with its clock
     public void setState(TrafficLightState state) {
         this.state = state;
-        System.out.println("Light " + direction + " changed to " + state); // Simple logging
     }
 
     @Override
@@ -12,10 +12,56 @@ public class Vehicle implements Comparable<Vehicle> {
     private final long arrivalTime; // Simulation time when it arrived at the queue
 
     public Vehicle(VehicleType type, Direction originDirection) {
-        this.id = idCounter.incrementAndGet();
+        this(type, originDirection, System.currentTimeMillis()); // Wall-clock arrival
+    }
+
+    // Arrival stamped by the caller, e.g. from a simulation clock
+    public Vehicle(VehicleType type, Direction originDirection, long arrivalTime) {
+        this.id = nextId();
         this.type = Objects.requireNonNull(type, "Vehicle type cannot be null");
         this.originDirection = Objects.requireNonNull(originDirection, "Origin direction cannot be null");
-        this.arrivalTime = System.currentTimeMillis(); // Or use a simulation clock
+        this.arrivalTime = arrivalTime;
+    }
+
+    private Vehicle(int id, VehicleType type, Direction originDirection, long arrivalTime) {
+        this.id = id;
+        this.type = type;
+        this.originDirection = originDirection;
+        this.arrivalTime = arrivalTime;
+    }
+
+    // Allocates a new vehicle id, for code that queues vehicles without creating Vehicle objects
+    public static int nextId() {
+        return idCounter.incrementAndGet();
+    }
+
+    // Reserves 'count' consecutive ids and returns the first one (bulk arrivals: one atomic update per batch)
+    public static int reserveIds(int count) {
+        return idCounter.getAndAdd(count) + 1;
+    }
+
+    // Last id handed out so far (checkpoints)
+    public static int lastIssuedId() {
+        return idCounter.get();
+    }
+
+    // Makes sure ids issued from now on are greater than 'id', e.g. after restoring a checkpoint.
+    // Never moves the counter back, so ids stay unique within the JVM.
+    public static void ensureIdsAbove(int id) {
+        idCounter.accumulateAndGet(id, Math::max);
+    }
+
+    // Rebuilds a vehicle that already has an id, e.g. one received from another simulation process
+    public static Vehicle withId(int id, VehicleType type, Direction originDirection, long arrivalTime) {
+        return new Vehicle(id,
+                Objects.requireNonNull(type, "Vehicle type cannot be null"),
+                Objects.requireNonNull(originDirection, "Origin direction cannot be null"),
+                arrivalTime);
+    }
+
+    // Same vehicle (same id) joining another queue, e.g. the next junction downstream
+    public Vehicle arrivingAt(long newArrivalTime) {
+        return new Vehicle(id, type, originDirection, newArrivalTime);
     }
 
     public int getId() {
@@ -35,20 +81,24 @@ public class Vehicle implements Comparable<Vehicle> {
     }
 
     public boolean isEmergencyVehicle() {
-        return type == VehicleType.AMBULANCE || type == VehicleType.FIRE_TRUCK || type == VehicleType.POLICE;
+        return type.isEmergency();
     }
 
     // --- Comparable Implementation for PriorityQueue ---
     // Higher priorityLevel means it comes *earlier* in the queue (higher priority).
     // If priorities are equal, the one that arrived earlier gets higher priority.
+    // Same arrival time (common with a virtual clock) falls back to id, i.e. creation order,
+    // so the ordering is total and runs are deterministic.
     @Override
     public int compareTo(Vehicle other) {
         if (this.type.getPriorityLevel() != other.type.getPriorityLevel()) {
             // Descending order of priority level (higher number is "smaller" for PQ)
             return Integer.compare(other.type.getPriorityLevel(), this.type.getPriorityLevel());
-        } else {
+        } else if (this.arrivalTime != other.arrivalTime) {
             // Ascending order of arrival time (earlier time is "smaller" for PQ)
             return Long.compare(this.arrivalTime, other.arrivalTime);
+        } else {
+            return Integer.compare(this.id, other.id);
         }
     }
     // --- End Comparable ---
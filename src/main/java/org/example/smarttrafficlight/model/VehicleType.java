@@ -18,4 +18,8 @@ public enum VehicleType {
     public int getPriorityLevel() {
         return priorityLevel;
     }
+
+    public boolean isEmergency() {
+        return this == AMBULANCE || this == FIRE_TRUCK || this == POLICE;
+    }
 }
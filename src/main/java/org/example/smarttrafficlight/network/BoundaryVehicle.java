@@ -0,0 +1,78 @@
+package org.example.smarttrafficlight.network;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// A vehicle crossing from one partition of the grid into another, addressed by the
+// global coordinates of the junction it is heading for. Fixed-width on the wire (10 bytes).
+public final class BoundaryVehicle {
+
+    // Coordinates travel as unsigned shorts, so a grid side may not exceed this many junctions
+    public static final int MAX_GRID_SIZE = 1 << 16;
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int targetRow;
+    private final int targetCol;
+    private final int vehicleId;
+    private final VehicleType type;
+    private final Direction originDirection;
+
+    public BoundaryVehicle(int targetRow, int targetCol, Vehicle vehicle) {
+        this(targetRow, targetCol, vehicle.getId(), vehicle.getType(), vehicle.getOriginDirection());
+        if (targetRow < 0 || targetRow >= MAX_GRID_SIZE || targetCol < 0 || targetCol >= MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Junction [" + targetRow + "," + targetCol + "] does not fit the wire format");
+        }
+    }
+
+    private BoundaryVehicle(int targetRow, int targetCol, int vehicleId, VehicleType type, Direction originDirection) {
+        this.targetRow = targetRow;
+        this.targetCol = targetCol;
+        this.vehicleId = vehicleId;
+        this.type = type;
+        this.originDirection = originDirection;
+    }
+
+    public int getTargetRow() {
+        return targetRow;
+    }
+
+    public int getTargetCol() {
+        return targetCol;
+    }
+
+    // The vehicle as it joins the target junction's queue at the given time
+    Vehicle toVehicle(long arrivalTime) {
+        return Vehicle.withId(vehicleId, type, originDirection, arrivalTime);
+    }
+
+    // --- Wire Format ---
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(targetRow);
+        out.writeShort(targetCol);
+        out.writeInt(vehicleId);
+        out.writeByte(type.ordinal());
+        out.writeByte(originDirection.ordinal());
+    }
+
+    public static BoundaryVehicle readFrom(DataInput in) throws IOException {
+        int row = in.readUnsignedShort();
+        int col = in.readUnsignedShort();
+        int id = in.readInt();
+        VehicleType type = TYPES[in.readUnsignedByte()];
+        Direction origin = DIRECTIONS[in.readUnsignedByte()];
+        return new BoundaryVehicle(row, col, id, type, origin);
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + vehicleId + " (from " + originDirection + ") -> [" + targetRow + "," + targetCol + "]";
+    }
+}
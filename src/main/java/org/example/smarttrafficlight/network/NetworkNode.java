@@ -0,0 +1,66 @@
+package org.example.smarttrafficlight.network;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.SimulationClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One junction of a TrafficNetwork: an intersection, its engine, and the vehicles
+// that left it during the current tick and still have to be handed downstream.
+public class NetworkNode {
+
+    private final int row;
+    private final int col;
+    private final Intersection intersection;
+    private final SimulationEngine engine;
+
+    // Filled by the engine's departure listener while the node steps (one thread per node at a time),
+    // drained by the network at the tick boundary
+    private final List<Vehicle> outbound = new ArrayList<>();
+
+    // Downstream junction per travel direction, indexed by the vehicle's origin Direction (null = not local)
+    final NetworkNode[] downstream = new NetworkNode[Direction.values().length];
+    // True where the downstream junction exists but belongs to another partition
+    final boolean[] crossesPartition = new boolean[Direction.values().length];
+
+    NetworkNode(int row, int col, SimulationClock clock) {
+        this.row = row;
+        this.col = col;
+        this.intersection = new Intersection(clock);
+        this.engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+        // Phase messages from every junction would serialise the fork/join workers on System.out
+        this.engine.setConsoleOutput(false);
+        this.engine.setDepartureListener((dir, id, type, arrivalTime) ->
+                outbound.add(Vehicle.withId(id, type, dir, arrivalTime)));
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public Intersection getIntersection() {
+        return intersection;
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    List<Vehicle> getOutbound() {
+        return outbound;
+    }
+
+    @Override
+    public String toString() {
+        return "Node[" + row + "," + col + "]";
+    }
+}
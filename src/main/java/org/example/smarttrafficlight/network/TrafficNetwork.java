@@ -0,0 +1,272 @@
+package org.example.smarttrafficlight.network;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// A rows x cols grid of junctions sharing one virtual clock.
+//
+// Each tick runs in two phases:
+//  1. every junction steps its own engine, in parallel on a ForkJoinPool. Junctions share no
+//     mutable state during this phase; departures go into the node's own outbound buffer.
+//  2. at the tick boundary, outbound vehicles are handed to their downstream junctions on one
+//     thread, in node order and departure order, so results do not depend on thread scheduling.
+//
+// Vehicles drive straight through: a vehicle from NORTH continues south and joins the next
+// junction's NORTH queue. Vehicles leaving the edge of the grid exit the network.
+//
+// A network can also be one horizontal stripe (a partition) of a larger grid. Vehicles heading
+// for a row owned by another partition are collected in the boundary outbox instead, and the
+// vehicles other partitions send here are accepted at the tick boundary.
+public class TrafficNetwork {
+
+    // Nodes per fork/join leaf task: enough work per task to amortize the fork overhead
+    private static final int NODES_PER_TASK = 4;
+
+    private final int rows;
+    private final int cols;
+    private final int rowFrom; // First local row (inclusive)
+    private final int rowTo;   // Last local row (exclusive)
+    private final long tickMillis;
+    private final ManualClock clock;
+    private final NetworkNode[] nodes; // Row-major
+    private final ForkJoinPool pool;
+    private final List<BoundaryVehicle> boundaryOutbox = new ArrayList<>();
+
+    // --- Statistics (only touched at tick boundaries) ---
+    private long ticks;
+    private long handoffs;
+    private long exits;
+
+    public TrafficNetwork(int rows, int cols, long tickMillis, ForkJoinPool pool) {
+        this(rows, cols, 0, rows, tickMillis, pool);
+    }
+
+    // Partition owning rows [rowFrom, rowTo) of a rows x cols grid
+    public TrafficNetwork(int rows, int cols, int rowFrom, int rowTo, long tickMillis, ForkJoinPool pool) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid must have at least one row and one column");
+        }
+        if (rows > BoundaryVehicle.MAX_GRID_SIZE || cols > BoundaryVehicle.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Grid is limited to " + BoundaryVehicle.MAX_GRID_SIZE + " rows and columns");
+        }
+        if (rowFrom < 0 || rowTo > rows || rowFrom >= rowTo) {
+            throw new IllegalArgumentException("Invalid partition rows [" + rowFrom + ", " + rowTo + ") for " + rows + " rows");
+        }
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowFrom = rowFrom;
+        this.rowTo = rowTo;
+        this.tickMillis = tickMillis;
+        this.pool = pool;
+        this.clock = new ManualClock();
+        this.nodes = new NetworkNode[(rowTo - rowFrom) * cols];
+
+        for (int r = rowFrom; r < rowTo; r++) {
+            for (int c = 0; c < cols; c++) {
+                nodes[(r - rowFrom) * cols + c] = new NetworkNode(r, c, clock);
+            }
+        }
+        for (NetworkNode node : nodes) {
+            for (Direction origin : Direction.values()) {
+                int targetRow = downstreamRow(node.getRow(), origin);
+                int targetCol = downstreamCol(node.getCol(), origin);
+                if (targetRow < 0 || targetRow >= rows || targetCol < 0 || targetCol >= cols) {
+                    continue; // Leaves the grid
+                }
+                if (isLocalRow(targetRow)) {
+                    node.downstream[origin.ordinal()] = getNode(targetRow, targetCol);
+                } else {
+                    node.crossesPartition[origin.ordinal()] = true;
+                }
+            }
+        }
+    }
+
+    // Grid stepped on the common pool (all cores)
+    public static TrafficNetwork grid(int rows, int cols, long tickMillis) {
+        return new TrafficNetwork(rows, cols, tickMillis, ForkJoinPool.commonPool());
+    }
+
+    // --- Simulation Control ---
+
+    public void start() {
+        for (NetworkNode node : nodes) {
+            node.getEngine().startSimulation(); // External driver: just resets engine state
+        }
+    }
+
+    public void step() {
+        clock.advance(tickMillis);
+        pool.invoke(new StepTask(0, nodes.length));
+        mergeHandoffs();
+        ticks++;
+    }
+
+    public void run(long tickCount) {
+        for (long i = 0; i < tickCount; i++) {
+            step();
+        }
+    }
+
+    // Tick-boundary merge. Single-threaded and in fixed order, which keeps runs deterministic.
+    private void mergeHandoffs() {
+        long now = clock.currentTimeMillis();
+        for (NetworkNode node : nodes) {
+            List<Vehicle> outbound = node.getOutbound();
+            for (int i = 0; i < outbound.size(); i++) {
+                Vehicle vehicle = outbound.get(i);
+                int origin = vehicle.getOriginDirection().ordinal();
+                NetworkNode target = node.downstream[origin];
+                if (target != null) {
+                    target.getIntersection().addVehicle(vehicle.arrivingAt(now));
+                    handoffs++;
+                } else if (node.crossesPartition[origin]) {
+                    boundaryOutbox.add(new BoundaryVehicle(
+                            downstreamRow(node.getRow(), vehicle.getOriginDirection()),
+                            downstreamCol(node.getCol(), vehicle.getOriginDirection()),
+                            vehicle));
+                } else {
+                    exits++;
+                }
+            }
+            outbound.clear();
+        }
+    }
+
+    // --- Partition Boundary Exchange ---
+
+    // Vehicles that left this partition during the last tick, in deterministic order. Clears the outbox.
+    public List<BoundaryVehicle> drainBoundaryOutbox() {
+        List<BoundaryVehicle> drained = new ArrayList<>(boundaryOutbox);
+        boundaryOutbox.clear();
+        return drained;
+    }
+
+    // Queues vehicles sent by other partitions. Call between steps, never during one.
+    public void acceptBoundaryVehicles(List<BoundaryVehicle> inbound) {
+        long now = clock.currentTimeMillis();
+        for (BoundaryVehicle incoming : inbound) {
+            if (!isLocalRow(incoming.getTargetRow())) {
+                throw new IllegalArgumentException("Row " + incoming.getTargetRow() + " is not owned by this partition");
+            }
+            getNode(incoming.getTargetRow(), incoming.getTargetCol()).getIntersection()
+                    .addVehicle(incoming.toVehicle(now));
+            handoffs++;
+        }
+    }
+
+    public boolean isLocalRow(int row) {
+        return row >= rowFrom && row < rowTo;
+    }
+
+    // Coming from the north means heading south (row + 1), from the east means heading west (col - 1), etc.
+    private static int downstreamRow(int row, Direction origin) {
+        switch (origin) {
+            case NORTH:
+                return row + 1;
+            case SOUTH:
+                return row - 1;
+            default:
+                return row;
+        }
+    }
+
+    private static int downstreamCol(int col, Direction origin) {
+        switch (origin) {
+            case EAST:
+                return col - 1;
+            case WEST:
+                return col + 1;
+            default:
+                return col;
+        }
+    }
+
+    // Steps a contiguous range of nodes, splitting until the range is small enough
+    private class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= NODES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    nodes[i].getEngine().runSimulationStep();
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StepTask(from, mid), new StepTask(mid, to));
+            }
+        }
+    }
+
+    // --- Accessors ---
+
+    // Global coordinates; the row must be local to this partition
+    public NetworkNode getNode(int row, int col) {
+        return nodes[(row - rowFrom) * cols + col];
+    }
+
+    public List<NetworkNode> getNodes() {
+        return List.of(nodes);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRowFrom() {
+        return rowFrom;
+    }
+
+    public int getRowTo() {
+        return rowTo;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getHandoffs() {
+        return handoffs;
+    }
+
+    public long getExits() {
+        return exits;
+    }
+
+    public long getTotalQueued() {
+        long total = 0;
+        for (NetworkNode node : nodes) {
+            for (Direction dir : Direction.values()) {
+                total += node.getIntersection().getQueueSize(dir);
+            }
+        }
+        return total;
+    }
+}
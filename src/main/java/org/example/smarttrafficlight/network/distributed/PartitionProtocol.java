@@ -0,0 +1,69 @@
+package org.example.smarttrafficlight.network.distributed;
+
+import org.example.smarttrafficlight.network.BoundaryVehicle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Wire protocol between the coordinator and partition workers (plain TCP, big-endian Data streams).
+//
+//   coordinator -> worker   CONFIG  once after connect
+//   coordinator -> worker   TICK    tick number + vehicles entering the worker's partition
+//   worker -> coordinator   DONE    vehicles leaving the partition + local queue total   (the barrier)
+//   coordinator -> worker   STOP    end of run
+//   worker -> coordinator   STATS   final counters, then the worker exits
+final class PartitionProtocol {
+
+    static final int MAGIC = 0x54524146; // "TRAF"
+
+    static final byte CONFIG = 1;
+    static final byte TICK = 2;
+    static final byte DONE = 3;
+    static final byte STOP = 4;
+    static final byte STATS = 5;
+
+    // Vehicle ids: worker i issues ids in (i << ID_RANGE_BITS, ((i + 1) << ID_RANGE_BITS) - 1], so a vehicle
+    // handed over from another partition (which keeps its id) never shares one with a local vehicle.
+    // 2^24 ids per worker, up to MAX_WORKERS workers within the positive int range.
+    static final int ID_RANGE_BITS = 24;
+    static final int MAX_WORKERS = 1 << (31 - ID_RANGE_BITS);
+
+    private PartitionProtocol() {
+    }
+
+    // Ids of worker i start above this one
+    static int idRangeStart(int workerIndex) {
+        return workerIndex << ID_RANGE_BITS;
+    }
+
+    // Last id worker i may issue
+    static int idRangeEnd(int workerIndex) {
+        return (int) ((((long) workerIndex + 1) << ID_RANGE_BITS) - 1);
+    }
+
+    static void writeVehicles(DataOutputStream out, List<BoundaryVehicle> vehicles) throws IOException {
+        out.writeInt(vehicles.size());
+        for (BoundaryVehicle vehicle : vehicles) {
+            vehicle.writeTo(out);
+        }
+    }
+
+    static List<BoundaryVehicle> readVehicles(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<BoundaryVehicle> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(BoundaryVehicle.readFrom(in));
+        }
+        return vehicles;
+    }
+
+    static void expect(DataInputStream in, byte expected) throws IOException {
+        byte actual = in.readByte();
+        if (actual != expected) {
+            throw new IOException("Protocol error: expected message " + expected + " but got " + actual);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.smarttrafficlight.network.distributed;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.network.BoundaryVehicle;
+import org.example.smarttrafficlight.network.NetworkNode;
+import org.example.smarttrafficlight.network.TrafficNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// One process owning a stripe of grid rows. Connects to the coordinator, receives its partition,
+// then for every tick: accepts the inbound boundary vehicles, injects local arrivals, steps its
+// own TrafficNetwork and reports the vehicles that left the stripe. Vehicles created here get ids
+// from the worker's own range (PartitionProtocol.ID_RANGE_BITS), unique across all workers.
+//
+// Usage: PartitionWorker <coordinatorHost> <coordinatorPort>
+public class PartitionWorker {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PartitionWorker <coordinatorHost> <coordinatorPort>");
+            System.exit(1);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            socket.setTcpNoDelay(true); // Small messages, once per tick: latency matters more than batching
+            new PartitionWorker().serve(socket);
+        }
+    }
+
+    void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        out.writeInt(PartitionProtocol.MAGIC);
+        out.flush();
+
+        // --- Partition assignment ---
+        PartitionProtocol.expect(in, PartitionProtocol.CONFIG);
+        int workerIndex = in.readInt();
+        int rows = in.readInt();
+        int cols = in.readInt();
+        int rowFrom = in.readInt();
+        int rowTo = in.readInt();
+        long tickMillis = in.readLong();
+        long seed = in.readLong();
+        int arrivalPercent = in.readInt();
+
+        // This JVM's ids come from the worker's own range; handed-over vehicles keep theirs
+        Vehicle.ensureIdsAbove(PartitionProtocol.idRangeStart(workerIndex));
+        int lastVehicleId = PartitionProtocol.idRangeEnd(workerIndex);
+
+        TrafficNetwork network = new TrafficNetwork(rows, cols, rowFrom, rowTo, tickMillis, ForkJoinPool.commonPool());
+        network.start();
+        Random random = new Random(seed * 31 + workerIndex); // Independent, reproducible stream per worker
+        System.out.println("Worker " + workerIndex + " owns rows [" + rowFrom + ", " + rowTo + ") of " + rows + "x" + cols);
+
+        // --- Tick loop ---
+        while (true) {
+            byte message = in.readByte();
+            if (message == PartitionProtocol.STOP) {
+                break;
+            }
+            if (message != PartitionProtocol.TICK) {
+                throw new IOException("Protocol error: unexpected message " + message);
+            }
+            in.readLong(); // Tick number (informational)
+            List<BoundaryVehicle> inbound = PartitionProtocol.readVehicles(in);
+
+            network.acceptBoundaryVehicles(inbound);
+            injectArrivals(network, random, arrivalPercent);
+            if (Vehicle.lastIssuedId() > lastVehicleId) {
+                throw new IllegalStateException("Worker " + workerIndex + " used up its vehicle id range");
+            }
+            network.step();
+
+            out.writeByte(PartitionProtocol.DONE);
+            PartitionProtocol.writeVehicles(out, network.drainBoundaryOutbox());
+            out.writeLong(network.getTotalQueued());
+            out.flush();
+        }
+
+        out.writeByte(PartitionProtocol.STATS);
+        out.writeLong(network.getTicks());
+        out.writeLong(network.getHandoffs());
+        out.writeLong(network.getExits());
+        out.writeLong(network.getTotalQueued());
+        out.flush();
+    }
+
+    private static void injectArrivals(TrafficNetwork network, Random random, int arrivalPercent) {
+        for (NetworkNode node : network.getNodes()) {
+            if (random.nextInt(100) < arrivalPercent) {
+                node.getIntersection().addVehicle(TYPES[random.nextInt(TYPES.length)],
+                        DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.smarttrafficlight.network.distributed;
+
+import org.example.smarttrafficlight.network.BoundaryVehicle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits a rows x cols grid into horizontal stripes, one per worker JVM, and keeps the workers
+// in lock-step: every tick it sends each worker its inbound boundary vehicles, waits until all of
+// them report back (the barrier), then routes the vehicles they emitted to the owning partitions
+// for the next tick. Routing happens in worker order, so runs are reproducible.
+//
+// Usage: SimulationCoordinator <port> <workers> <rows> <cols> <ticks> [tickMillis] [seed] [arrivalPercent] [--spawn]
+//   --spawn starts the worker JVMs on this machine with the current classpath.
+public class SimulationCoordinator {
+
+    private final int rows;
+    private final int cols;
+    private final long tickMillis;
+    private final long seed;
+    private final int arrivalPercent;
+
+    private final List<Socket> sockets = new ArrayList<>();
+    private final List<DataInputStream> inputs = new ArrayList<>();
+    private final List<DataOutputStream> outputs = new ArrayList<>();
+    private int[] rowFrom;
+    private int[] rowTo;
+
+    public SimulationCoordinator(int rows, int cols, long tickMillis, long seed, int arrivalPercent) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tickMillis = tickMillis;
+        this.seed = seed;
+        this.arrivalPercent = arrivalPercent;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage: SimulationCoordinator <port> <workers> <rows> <cols> <ticks> "
+                    + "[tickMillis] [seed] [arrivalPercent] [--spawn]");
+            System.exit(1);
+        }
+        int port = Integer.parseInt(args[0]);
+        int workers = Integer.parseInt(args[1]);
+        int rows = Integer.parseInt(args[2]);
+        int cols = Integer.parseInt(args[3]);
+        long ticks = Long.parseLong(args[4]);
+        long tickMillis = args.length > 5 && !args[5].startsWith("--") ? Long.parseLong(args[5]) : 1000;
+        long seed = args.length > 6 && !args[6].startsWith("--") ? Long.parseLong(args[6]) : 42L;
+        int arrivalPercent = args.length > 7 && !args[7].startsWith("--") ? Integer.parseInt(args[7]) : 20;
+        boolean spawn = args[args.length - 1].equals("--spawn");
+
+        if (rows > BoundaryVehicle.MAX_GRID_SIZE || cols > BoundaryVehicle.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Grid is limited to " + BoundaryVehicle.MAX_GRID_SIZE + " rows and columns");
+        }
+        if (workers > rows) {
+            throw new IllegalArgumentException("Cannot split " + rows + " rows across " + workers + " workers");
+        }
+        if (workers > PartitionProtocol.MAX_WORKERS) {
+            throw new IllegalArgumentException("At most " + PartitionProtocol.MAX_WORKERS + " workers (vehicle id ranges)");
+        }
+
+        SimulationCoordinator coordinator = new SimulationCoordinator(rows, cols, tickMillis, seed, arrivalPercent);
+        try (ServerSocket server = new ServerSocket(port, workers, InetAddress.getLoopbackAddress())) {
+            List<Process> processes = spawn ? spawnWorkers(workers, server.getLocalPort()) : List.of();
+            coordinator.acceptWorkers(server, workers);
+            coordinator.run(ticks);
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    // --- Setup ---
+
+    void acceptWorkers(ServerSocket server, int workers) throws IOException {
+        rowFrom = new int[workers];
+        rowTo = new int[workers];
+        System.out.println("Coordinator waiting for " + workers + " workers on port " + server.getLocalPort() + "...");
+
+        for (int i = 0; i < workers; i++) {
+            Socket socket = server.accept();
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != PartitionProtocol.MAGIC) {
+                socket.close();
+                throw new IOException("Unexpected client on coordinator port");
+            }
+            sockets.add(socket);
+            inputs.add(in);
+            outputs.add(out);
+
+            // Even horizontal stripes, in connection order
+            rowFrom[i] = i * rows / workers;
+            rowTo[i] = (i + 1) * rows / workers;
+            out.writeByte(PartitionProtocol.CONFIG);
+            out.writeInt(i);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeInt(rowFrom[i]);
+            out.writeInt(rowTo[i]);
+            out.writeLong(tickMillis);
+            out.writeLong(seed);
+            out.writeInt(arrivalPercent);
+            out.flush();
+            System.out.println("Worker " + i + " connected from " + socket.getRemoteSocketAddress());
+        }
+    }
+
+    // --- Lock-step Run ---
+
+    void run(long ticks) throws IOException {
+        int workers = sockets.size();
+        List<List<BoundaryVehicle>> inbound = newInboxes(workers);
+        long exchanged = 0;
+        long wallStart = System.nanoTime();
+
+        for (long tick = 0; tick < ticks; tick++) {
+            for (int w = 0; w < workers; w++) {
+                DataOutputStream out = outputs.get(w);
+                out.writeByte(PartitionProtocol.TICK);
+                out.writeLong(tick);
+                PartitionProtocol.writeVehicles(out, inbound.get(w));
+                out.flush();
+            }
+
+            // Barrier: collect every worker's result before anyone starts the next tick
+            List<List<BoundaryVehicle>> next = newInboxes(workers);
+            long queued = 0;
+            for (int w = 0; w < workers; w++) {
+                DataInputStream in = inputs.get(w);
+                PartitionProtocol.expect(in, PartitionProtocol.DONE);
+                for (BoundaryVehicle vehicle : PartitionProtocol.readVehicles(in)) {
+                    next.get(ownerOf(vehicle.getTargetRow())).add(vehicle);
+                    exchanged++;
+                }
+                queued += in.readLong();
+            }
+            inbound = next;
+
+            if ((tick + 1) % 600 == 0) {
+                System.out.println("Tick " + (tick + 1) + ": " + queued + " vehicles queued, " + exchanged + " boundary crossings so far");
+            }
+        }
+
+        long handoffs = 0, exits = 0, queued = 0;
+        for (int w = 0; w < workers; w++) {
+            outputs.get(w).writeByte(PartitionProtocol.STOP);
+            outputs.get(w).flush();
+        }
+        for (int w = 0; w < workers; w++) {
+            DataInputStream in = inputs.get(w);
+            PartitionProtocol.expect(in, PartitionProtocol.STATS);
+            in.readLong(); // Ticks
+            handoffs += in.readLong();
+            exits += in.readLong();
+            queued += in.readLong();
+        }
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        System.out.println("Distributed run finished: " + ticks + " ticks on " + workers + " workers in " + wallMillis
+                + " ms. Handoffs: " + handoffs + ", boundary crossings: " + exchanged + ", exits: " + exits
+                + ", still queued: " + queued);
+    }
+
+    private int ownerOf(int row) {
+        for (int w = 0; w < rowFrom.length; w++) {
+            if (row >= rowFrom[w] && row < rowTo[w]) {
+                return w;
+            }
+        }
+        throw new IllegalArgumentException("No partition owns row " + row);
+    }
+
+    private static List<List<BoundaryVehicle>> newInboxes(int workers) {
+        List<List<BoundaryVehicle>> inboxes = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            inboxes.add(new ArrayList<>());
+        }
+        return inboxes;
+    }
+
+    void close() {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close worker connection: " + e.getMessage());
+            }
+        }
+    }
+
+    // Starts worker JVMs on this machine with the same java binary and classpath
+    private static List<Process> spawnWorkers(int workers, int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", classpath, PartitionWorker.class.getName(),
+                    "localhost", String.valueOf(port))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD) // Engine logging is per vehicle; keep the console readable
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+        return processes;
+    }
+}
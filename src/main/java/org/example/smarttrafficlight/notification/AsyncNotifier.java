@@ -0,0 +1,251 @@
+package org.example.smarttrafficlight.notification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Puts a bounded outbox and a dedicated sender thread in front of a (slow, network-bound) Notifier,
+// so callers such as the simulation tick only pay for a queue offer.
+//
+//  - Coalescing: after the first message arrives the sender waits up to coalesceWindowMs for more;
+//    several messages for the same chat are sent as one digest.
+//  - Rate limiting: a token bucket per chat; the sender waits for a token, callers never do.
+//  - Overflow: when the outbox is full the OverflowPolicy decides (drop newest, drop oldest, or
+//    block the caller - only use BLOCK where back-pressure is acceptable, never on the tick thread).
+public class AsyncNotifier implements Notifier, AutoCloseable {
+
+    public enum OverflowPolicy { DROP_NEWEST, DROP_OLDEST, BLOCK }
+
+    private static final long DEFAULT_CHAT = Long.MIN_VALUE; // Marker for sendMessage(String)
+    private static final int MAX_MESSAGE_LENGTH = 4000;      // Telegram rejects messages over 4096 chars
+
+    private final Notifier delegate;
+    private final BlockingQueue<Outgoing> outbox;
+    private final OverflowPolicy overflowPolicy;
+    private final long coalesceWindowMs;
+    private final double messagesPerSecondPerChat;
+    private final double burstPerChat;
+    private final Map<Long, TokenBucket> buckets = new HashMap<>(); // Sender thread only
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    // --- Counters ---
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong(); // Messages actually handed to the delegate
+    private final AtomicLong failed = new AtomicLong();
+
+    public AsyncNotifier(Notifier delegate) {
+        // Telegram allows about one message per second per chat
+        this(delegate, 1024, OverflowPolicy.DROP_OLDEST, 500, 1.0, 3);
+    }
+
+    public AsyncNotifier(Notifier delegate, int capacity, OverflowPolicy overflowPolicy, long coalesceWindowMs,
+                         double messagesPerSecondPerChat, int burstPerChat) {
+        if (capacity <= 0 || messagesPerSecondPerChat <= 0 || burstPerChat <= 0 || coalesceWindowMs < 0) {
+            throw new IllegalArgumentException("Invalid notifier settings");
+        }
+        this.delegate = delegate;
+        this.outbox = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.messagesPerSecondPerChat = messagesPerSecondPerChat;
+        this.burstPerChat = burstPerChat;
+        this.sender = new Thread(this::sendLoop, "notification-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    // --- Notifier (called from any thread, never blocks unless the policy is BLOCK) ---
+
+    @Override
+    public void sendMessage(String text) {
+        enqueue(new Outgoing(DEFAULT_CHAT, text));
+    }
+
+    @Override
+    public void sendMessage(long chatId, String text) {
+        enqueue(new Outgoing(chatId, text));
+    }
+
+    private void enqueue(Outgoing message) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                if (!outbox.offer(message)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+            case DROP_OLDEST:
+                while (!outbox.offer(message)) {
+                    if (outbox.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    outbox.put(message);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+        }
+        accepted.incrementAndGet();
+    }
+
+    // --- Sender Thread ---
+
+    private void sendLoop() {
+        List<Outgoing> batch = new ArrayList<>();
+        while (running || !outbox.isEmpty()) {
+            try {
+                Outgoing first = outbox.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (coalesceWindowMs > 0 && running) {
+                    Thread.sleep(coalesceWindowMs); // Let a burst accumulate
+                }
+                outbox.drainTo(batch);
+                sendBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return; // Only happens if someone interrupts the sender directly; close() does not
+            }
+        }
+    }
+
+    // Groups the batch per chat (keeping order) and sends one message or digest per chat
+    private void sendBatch(List<Outgoing> batch) throws InterruptedException {
+        Map<Long, List<String>> perChat = new LinkedHashMap<>();
+        for (Outgoing message : batch) {
+            perChat.computeIfAbsent(message.chatId, k -> new ArrayList<>()).add(message.text);
+        }
+        for (Map.Entry<Long, List<String>> entry : perChat.entrySet()) {
+            for (String text : toDigests(entry.getValue())) {
+                acquireToken(entry.getKey());
+                deliver(entry.getKey(), text);
+            }
+        }
+    }
+
+    private static List<String> toDigests(List<String> texts) {
+        if (texts.size() == 1) {
+            return texts;
+        }
+        List<String> digests = new ArrayList<>();
+        StringBuilder digest = new StringBuilder();
+        int inDigest = 0;
+        for (String text : texts) {
+            if (inDigest > 0 && digest.length() + text.length() + 3 > MAX_MESSAGE_LENGTH) {
+                digests.add(digest.toString());
+                digest.setLength(0);
+                inDigest = 0;
+            }
+            if (inDigest == 0) {
+                digest.append("Simulation updates:");
+            }
+            digest.append("\n• ").append(text);
+            inDigest++;
+        }
+        digests.add(digest.toString());
+        return digests;
+    }
+
+    private void deliver(long chatId, String text) {
+        try {
+            if (chatId == DEFAULT_CHAT) {
+                delegate.sendMessage(text);
+            } else {
+                delegate.sendMessage(chatId, text);
+            }
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Failed to deliver notification: " + e.getMessage());
+        }
+    }
+
+    private void acquireToken(long chatId) throws InterruptedException {
+        TokenBucket bucket = buckets.computeIfAbsent(chatId, k -> new TokenBucket(burstPerChat));
+        long waitNanos = bucket.reserve(messagesPerSecondPerChat, burstPerChat, System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // --- Lifecycle and Stats ---
+
+    // Stops accepting messages and gives the sender a few seconds to flush what is queued
+    @Override
+    public void close() {
+        running = false;
+        try {
+            sender.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueueDepth() {
+        return outbox.size();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private static final class Outgoing {
+        final long chatId;
+        final String text;
+
+        Outgoing(long chatId, String text) {
+            this.chatId = chatId;
+            this.text = text;
+        }
+    }
+
+    // Classic token bucket; refills continuously at 'rate' tokens per second up to 'burst'
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        TokenBucket(double initialTokens) {
+            this.tokens = initialTokens;
+        }
+
+        // Takes one token; returns how long to wait first (0 if one was available)
+        long reserve(double rate, double burst, long nowNanos) {
+            tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) / 1e9 * rate);
+            lastRefillNanos = nowNanos;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9);
+        }
+    }
+}
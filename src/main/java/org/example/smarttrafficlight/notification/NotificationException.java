@@ -0,0 +1,12 @@
+package org.example.smarttrafficlight.notification;
+
+// A Notifier could not send a message (network error, rejected by the service...). Unchecked so the
+// Notifier interface stays simple; AsyncNotifier catches it and counts the message as failed.
+public class NotificationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
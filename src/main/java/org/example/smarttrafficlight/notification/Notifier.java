@@ -0,0 +1,13 @@
+package org.example.smarttrafficlight.notification;
+
+// Where simulation events (emergencies, phase changes...) are reported: Telegram in production,
+// a RecordingNotifier in tests, an AsyncNotifier in front of either to keep the tick loop fast.
+// Implementations that talk to a service throw NotificationException when a message does not go out.
+public interface Notifier {
+
+    // Sends to the default (configured) chat
+    void sendMessage(String text);
+
+    // Sends to a specific chat, e.g. a reply to a command
+    void sendMessage(long chatId, String text);
+}
@@ -0,0 +1,52 @@
+package org.example.smarttrafficlight.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Local stand-in for Telegram: keeps every message in memory, optionally after a simulated
+// network delay. Useful in tests and headless runs.
+public class RecordingNotifier implements Notifier {
+
+    // Chat id recorded for messages sent to the default chat
+    public static final long DEFAULT_CHAT = 0L;
+
+    private final long simulatedLatencyMs;
+    private final List<String> messages = new ArrayList<>();
+    private final List<Long> chatIds = new ArrayList<>();
+
+    public RecordingNotifier() {
+        this(0);
+    }
+
+    public RecordingNotifier(long simulatedLatencyMs) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
+    @Override
+    public void sendMessage(String text) {
+        sendMessage(DEFAULT_CHAT, text);
+    }
+
+    @Override
+    public void sendMessage(long chatId, String text) {
+        if (simulatedLatencyMs > 0) {
+            try {
+                Thread.sleep(simulatedLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            messages.add(text);
+            chatIds.add(chatId);
+        }
+    }
+
+    public synchronized List<String> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public synchronized List<Long> getChatIds() {
+        return new ArrayList<>(chatIds);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.smarttrafficlight.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for every traffic light state change, so phase timing can be lined up with engine
+// stages and GC pauses on the same timeline in Mission Control.
+@Name("org.example.smarttrafficlight.LightTransition")
+@Label("Light Transition")
+@Category({"Smart Traffic Light", "Signals"})
+@Description("A traffic light changed state")
+@StackTrace(false)
+public class LightTransitionEvent extends jdk.jfr.Event {
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Simulation Time")
+    @Description("Simulation clock at the transition (ms)")
+    public long simulationTime;
+}
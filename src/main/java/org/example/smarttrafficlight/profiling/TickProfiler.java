@@ -0,0 +1,71 @@
+package org.example.smarttrafficlight.profiling;
+
+import jdk.jfr.EventType;
+import org.example.smarttrafficlight.metrics.Histogram;
+
+// Per-stage timing of engine steps. The engine calls begin(stage) / end() around each stage of
+// runSimulationStep; every stage costs two System.nanoTime() calls and a histogram update.
+// When a JFR recording has TickStageEvent enabled, each stage is also emitted as a JFR event.
+//
+// Single-threaded by design: only the tick thread calls begin/end. Histograms can be read anywhere.
+public final class TickProfiler {
+
+    private static final TickStage[] STAGES = TickStage.values();
+    private static final EventType STAGE_EVENT_TYPE = EventType.getEventType(TickStageEvent.class);
+
+    private final Histogram[] stageNanos = new Histogram[STAGES.length];
+
+    // Current stage
+    private TickStage stage;
+    private long stageStart;
+    private TickStageEvent event;
+    private boolean jfrEnabled;
+    private long simulationTime;
+
+    public TickProfiler() {
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new Histogram();
+        }
+    }
+
+    // Called once at the start of every step
+    public void startStep(long simulationTime) {
+        this.simulationTime = simulationTime;
+        this.jfrEnabled = STAGE_EVENT_TYPE.isEnabled(); // Checked once per step, not per stage
+    }
+
+    public void begin(TickStage stage) {
+        this.stage = stage;
+        if (jfrEnabled) {
+            event = new TickStageEvent();
+            event.begin();
+        }
+        stageStart = System.nanoTime();
+    }
+
+    public void end() {
+        stageNanos[stage.ordinal()].record(System.nanoTime() - stageStart);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage.name();
+                event.simulationTime = simulationTime;
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
+    // Wall-clock nanoseconds spent in the stage, per step that ran it
+    public Histogram getStageNanos(TickStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (TickStage tickStage : STAGES) {
+            report.append(String.format("%-19s ns %s%n", tickStage, stageNanos[tickStage.ordinal()]));
+        }
+        return report.toString();
+    }
+}
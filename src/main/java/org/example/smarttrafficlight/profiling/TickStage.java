@@ -0,0 +1,11 @@
+package org.example.smarttrafficlight.profiling;
+
+// The stages of one SimulationEngine step, in the order they run. OVERRIDE and NORMAL_CYCLE are
+// exclusive: a step runs the override state machine or the normal cycle, never both.
+public enum TickStage {
+    PRIORITY_DETECTION, // Asking the emergency index for the most urgent waiting vehicle
+    OVERRIDE,           // Emergency override state machine
+    NORMAL_CYCLE,       // Signal controller deciding whether to end the green phase
+    QUEUE_DISCHARGE,    // processGreenLightQueues: letting vehicles through
+    LISTENERS           // Snapshot publication, listeners, tick hook and periodic checkpoint
+}
@@ -0,0 +1,26 @@
+package org.example.smarttrafficlight.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR event spanning one stage of an engine step. Only stages slower than 1 ms are recorded by
+// default; set the threshold to 0 ms in the recording settings to see every stage.
+@Name("org.example.smarttrafficlight.TickStage")
+@Label("Tick Stage")
+@Category({"Smart Traffic Light", "Engine"})
+@Description("One stage of a simulation engine step")
+@Threshold("1 ms")
+@StackTrace(false)
+public class TickStageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Simulation Time")
+    @Description("Simulation clock at the start of the step (ms)")
+    public long simulationTime;
+}
@@ -0,0 +1,101 @@
+package org.example.smarttrafficlight.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Writes the engine's periodic snapshots to a directory on a background thread, so the tick loop
+// only pays for copying the state, never for disk I/O. Files are named checkpoint-<time>.snap and
+// only the most recent ones are kept. If writing falls behind, the oldest pending snapshot is
+// dropped: only the latest checkpoint matters.
+//
+// Usage: engine.setCheckpointing(60_000, new Checkpointer(directory, 5));
+public final class Checkpointer implements Consumer<SimulationSnapshot>, Closeable {
+
+    private static final String PREFIX = "checkpoint-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int retained;
+    private final ThreadPoolExecutor writer;
+
+    public Checkpointer(Path directory, int retained) throws IOException {
+        if (retained < 1) {
+            throw new IllegalArgumentException("Must keep at least one checkpoint");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.retained = retained;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(2), runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    // Called by the engine on the tick thread
+    @Override
+    public void accept(SimulationSnapshot snapshot) {
+        writer.execute(() -> write(snapshot));
+    }
+
+    private void write(SimulationSnapshot snapshot) {
+        try {
+            snapshot.save(directory.resolve(PREFIX + snapshot.getTime() + SUFFIX));
+            List<Path> checkpoints = list(directory);
+            for (int i = 0; i < checkpoints.size() - retained; i++) {
+                Files.deleteIfExists(checkpoints.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("Checkpoint at " + snapshot.getTime() + " failed: " + e.getMessage());
+        }
+    }
+
+    // Most recent checkpoint in the directory, or null if there is none
+    public static Path latest(Path directory) throws IOException {
+        List<Path> checkpoints = list(directory);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    // Checkpoint files, oldest first
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> checkpoints = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return checkpoints;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                checkpoints.add(path);
+            }
+        }
+        checkpoints.sort((a, b) -> Long.compare(timeOf(a), timeOf(b)));
+        return checkpoints;
+    }
+
+    private static long timeOf(Path checkpoint) {
+        String name = checkpoint.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE; // Foreign file matching the pattern: treat as oldest
+        }
+    }
+
+    // Waits for pending checkpoints to be written
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
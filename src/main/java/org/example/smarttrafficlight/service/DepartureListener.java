@@ -0,0 +1,12 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+
+// Called for every vehicle that leaves an intersection. Takes the vehicle's fields rather than a
+// Vehicle object so the departure path does not have to allocate.
+@FunctionalInterface
+public interface DepartureListener {
+
+    void vehicleDeparted(Direction direction, int vehicleId, VehicleType type, long arrivalTime);
+}
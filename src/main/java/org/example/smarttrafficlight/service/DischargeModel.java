@@ -0,0 +1,102 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.VehicleType;
+
+// How fast a queue empties while its light is green. Immutable, like SignalTimings.
+//
+// Saturation-flow model: once a light turns green, the first vehicle crosses after the start-up
+// lost time; after that vehicles follow each other at the saturation headway (3600 s / saturation
+// flow), scaled per VehicleType (a bus takes about as long as two cars, a motorcycle half a car).
+// A vehicle never crosses before it has arrived, so an empty green does not bank capacity.
+// As many vehicles as fit in the elapsed time cross in one engine step, however long the tick.
+public final class DischargeModel {
+
+    // Typical single-lane values: 1800 veh/h (a car every 2 s) and 2 s start-up lost time
+    public static final DischargeModel DEFAULT = saturationFlow(1800, 2000);
+
+    // The engine's original behaviour: one vehicle per direction per step, regardless of tick length
+    public static final DischargeModel ONE_PER_STEP = new DischargeModel(0, 0, new long[VehicleType.values().length], 1);
+
+    // The engine releases nobody by itself; departures come from SimulationEngine.releaseVehicle()
+    // (vehicle-level lanes that decide when a vehicle crosses the stop line)
+    public static final DischargeModel EXTERNAL = new DischargeModel(0, 0, new long[VehicleType.values().length], 0);
+
+    private final double saturationFlowPerHour;
+    private final long startupLostTimeMs;
+    private final long[] headwaysMs; // Indexed by VehicleType ordinal
+    private final int maxVehiclesPerStep;
+
+    private DischargeModel(double saturationFlowPerHour, long startupLostTimeMs, long[] headwaysMs, int maxVehiclesPerStep) {
+        this.saturationFlowPerHour = saturationFlowPerHour;
+        this.startupLostTimeMs = startupLostTimeMs;
+        this.headwaysMs = headwaysMs;
+        this.maxVehiclesPerStep = maxVehiclesPerStep;
+    }
+
+    // Default passenger-car equivalents: car 1, motorcycle 0.5, bus and truck 2, emergency vehicles 1
+    public static DischargeModel saturationFlow(double vehiclesPerHour, long startupLostTimeMs) {
+        double[] factors = new double[VehicleType.values().length];
+        for (VehicleType type : VehicleType.values()) {
+            factors[type.ordinal()] = defaultHeadwayFactor(type);
+        }
+        return saturationFlow(vehiclesPerHour, startupLostTimeMs, factors);
+    }
+
+    // headwayFactors: per VehicleType ordinal, multiplier of the saturation headway
+    public static DischargeModel saturationFlow(double vehiclesPerHour, long startupLostTimeMs, double[] headwayFactors) {
+        if (vehiclesPerHour <= 0 || startupLostTimeMs < 0) {
+            throw new IllegalArgumentException("Saturation flow must be positive and lost time non-negative: flow="
+                    + vehiclesPerHour + ", lost=" + startupLostTimeMs);
+        }
+        if (headwayFactors.length != VehicleType.values().length) {
+            throw new IllegalArgumentException("Need one headway factor per vehicle type");
+        }
+        double baseHeadwayMs = 3_600_000.0 / vehiclesPerHour;
+        long[] headways = new long[headwayFactors.length];
+        for (int i = 0; i < headways.length; i++) {
+            if (headwayFactors[i] <= 0) {
+                throw new IllegalArgumentException("Headway factors must be positive");
+            }
+            headways[i] = Math.max(1, Math.round(baseHeadwayMs * headwayFactors[i]));
+        }
+        return new DischargeModel(vehiclesPerHour, startupLostTimeMs, headways, Integer.MAX_VALUE);
+    }
+
+    private static double defaultHeadwayFactor(VehicleType type) {
+        switch (type) {
+            case MOTORCYCLE:
+                return 0.5;
+            case BUS:
+            case TRUCK:
+                return 2.0;
+            default:
+                return 1.0;
+        }
+    }
+
+    // Time between this vehicle crossing and the next one being able to follow
+    public long getHeadwayMs(VehicleType type) {
+        return headwaysMs[type.ordinal()];
+    }
+
+    public long getStartupLostTimeMs() {
+        return startupLostTimeMs;
+    }
+
+    public int getMaxVehiclesPerStep() {
+        return maxVehiclesPerStep;
+    }
+
+    // True for EXTERNAL: vehicles only leave through SimulationEngine.releaseVehicle()
+    public boolean isExternal() {
+        return this == EXTERNAL;
+    }
+
+    @Override
+    public String toString() {
+        if (saturationFlowPerHour == 0) {
+            return isExternal() ? "DischargeModel[external]" : "DischargeModel[one per step]";
+        }
+        return "DischargeModel[" + Math.round(saturationFlowPerHour) + " veh/h, lost=" + startupLostTimeMs + "ms]";
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.notification.Notifier;
+
+import java.util.PriorityQueue;
+
+// Event-driven runner for a single intersection on a virtual clock.
+//
+// Instead of waking up every tick, the clock jumps straight to the next interesting instant:
+// a scheduled vehicle arrival, the end of the current phase, or the next tick on which the engine
+// has vehicles to discharge. Engine steps stay aligned to the tick grid, so the outcome is the same
+// as stepping every tick, just without the idle ones. Same arrivals in, same results out.
+public class DiscreteEventSimulation {
+
+    private final ManualClock clock;
+    private final Intersection intersection;
+    private final SimulationEngine engine;
+    private final long tickMillis;
+
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+    private long nextSequence;
+    private SimulationEvent pendingWakeUp; // At most one live engine wake-up in the queue
+    private long endTime;
+
+    // --- Run statistics ---
+    private long eventsProcessed;
+    private long stepsRun;
+
+    public DiscreteEventSimulation(long tickMillis) {
+        this(new ManualClock(), tickMillis);
+    }
+
+    // Virtual time starts at startTimeMillis instead of 0 (e.g. to replay a wall-clock journal)
+    public DiscreteEventSimulation(long startTimeMillis, long tickMillis) {
+        this(new ManualClock(startTimeMillis), tickMillis);
+    }
+
+    private DiscreteEventSimulation(ManualClock clock, long tickMillis) {
+        this(new Intersection(clock), clock, null, tickMillis);
+    }
+
+    public DiscreteEventSimulation(Intersection intersection, ManualClock clock,
+                                   Notifier notifier, long tickMillis) {
+        if (intersection.getClock() != clock) {
+            throw new IllegalArgumentException("Intersection must use the simulation's virtual clock");
+        }
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive");
+        }
+        this.clock = clock;
+        this.intersection = intersection;
+        this.tickMillis = tickMillis;
+        this.engine = new SimulationEngine(intersection, notifier, new EventDriver(), clock);
+    }
+
+    // --- Scheduling ---
+
+    public void scheduleArrival(long time, VehicleType type, Direction direction) {
+        if (time < clock.currentTimeMillis()) {
+            throw new IllegalArgumentException("Arrival at " + time + " is in the past (now " + clock.currentTimeMillis() + ")");
+        }
+        events.add(new SimulationEvent(time, SimulationEvent.Type.VEHICLE_ARRIVAL, nextSequence++, direction, type));
+    }
+
+    // Arrival of a vehicle whose id is already known (journal replay), so departures can be matched up
+    public void scheduleArrival(long time, int vehicleId, VehicleType type, Direction direction) {
+        if (time < clock.currentTimeMillis()) {
+            throw new IllegalArgumentException("Arrival at " + time + " is in the past (now " + clock.currentTimeMillis() + ")");
+        }
+        if (vehicleId < 0) {
+            throw new IllegalArgumentException("Vehicle id cannot be negative: " + vehicleId);
+        }
+        events.add(new SimulationEvent(time, SimulationEvent.Type.VEHICLE_ARRIVAL, nextSequence++, direction, type, vehicleId));
+    }
+
+    // Runs the simulation for the given amount of simulated time. Returns once done.
+    public void run(long durationMillis) {
+        endTime = clock.currentTimeMillis() + durationMillis;
+        engine.startSimulation(); // Drives the event loop below through EventDriver
+    }
+
+    // Like run(), but continues from the current engine state instead of restarting the signal cycle
+    // (a previous run, or a restored snapshot)
+    public void resume(long durationMillis) {
+        endTime = clock.currentTimeMillis() + durationMillis;
+        engine.resumeSimulation();
+    }
+
+    // New simulation starting from a snapshot; call resume() to continue it. Each call gives an
+    // independent branch, so one snapshot can seed several what-if runs (even in parallel).
+    public static DiscreteEventSimulation fromSnapshot(SimulationSnapshot snapshot, long tickMillis) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(snapshot.getTime(), tickMillis);
+        simulation.engine.restoreSnapshot(snapshot);
+        return simulation;
+    }
+
+    // --- Accessors ---
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public Intersection getIntersection() {
+        return intersection;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public long getStepsRun() {
+        return stepsRun;
+    }
+
+    // --- Event Loop ---
+
+    private void scheduleWakeUp(long runStart, long lastStep) {
+        long now = clock.currentTimeMillis();
+        long wakeUp = engine.getNextWakeUpTime(now);
+        if (wakeUp == Long.MAX_VALUE) {
+            cancelWakeUp(); // Nothing will happen until the next arrival
+            return;
+        }
+
+        // Steps only happen on the tick grid, strictly after the previous step and never in the past
+        // (a deadline may already have passed while the engine had nothing to do)
+        long earliest = Math.max(Math.max(wakeUp, now), lastStep + tickMillis);
+        long ticks = (earliest - runStart + tickMillis - 1) / tickMillis;
+        long stepTime = runStart + ticks * tickMillis;
+
+        if (pendingWakeUp != null && pendingWakeUp.getTime() == stepTime) {
+            return; // Already scheduled
+        }
+        cancelWakeUp();
+
+        SimulationEvent.Type type;
+        if (wakeUp <= now) {
+            type = SimulationEvent.Type.QUEUE_SERVICE;
+        } else if (engine.isPriorityOverrideActive()) {
+            type = SimulationEvent.Type.EMERGENCY_TIMEOUT;
+        } else {
+            type = SimulationEvent.Type.PHASE_END;
+        }
+        pendingWakeUp = new SimulationEvent(stepTime, type, nextSequence++, null, null);
+        events.add(pendingWakeUp);
+    }
+
+    private void cancelWakeUp() {
+        if (pendingWakeUp != null) {
+            pendingWakeUp.cancel(); // Lazily dropped when it reaches the head of the queue
+            pendingWakeUp = null;
+        }
+    }
+
+    // Tick driver that runs the event loop synchronously inside engine.startSimulation()
+    private class EventDriver implements TickDriver {
+
+        private volatile boolean running;
+
+        @Override
+        public void start(Runnable tick) {
+            running = true;
+            long runStart = clock.currentTimeMillis();
+            long lastStep = runStart;
+            try {
+                while (running) {
+                    scheduleWakeUp(runStart, lastStep);
+
+                    SimulationEvent event = events.peek();
+                    if (event == null || event.getTime() > endTime) {
+                        break;
+                    }
+                    events.poll();
+                    if (event.isCancelled()) {
+                        continue;
+                    }
+
+                    clock.setTime(event.getTime());
+                    eventsProcessed++;
+                    if (event.getType() == SimulationEvent.Type.VEHICLE_ARRIVAL) {
+                        if (event.getVehicleId() >= 0) {
+                            intersection.addVehicle(event.getVehicleId(), event.getVehicleType(),
+                                    event.getDirection(), event.getTime());
+                        } else {
+                            intersection.addVehicle(event.getVehicleType(), event.getDirection());
+                        }
+                    } else {
+                        pendingWakeUp = null;
+                        tick.run();
+                        lastStep = event.getTime();
+                        stepsRun++;
+                    }
+                }
+                if (running && clock.currentTimeMillis() < endTime) {
+                    clock.setTime(endTime); // Nothing left to do: the rest of the run is idle
+                }
+            } finally {
+                running = false;
+            }
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+    }
+}
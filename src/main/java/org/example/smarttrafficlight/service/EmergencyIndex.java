@@ -0,0 +1,129 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Which emergency vehicles are waiting where, kept up to date by the VehicleQueues as vehicles
+// are added and removed, so "is there an emergency anywhere?" is one volatile read instead of a
+// locked peek at every queue on every tick. Every queued emergency vehicle counts, not only the
+// ones at the head of their queue (VehicleQueue sorts them first anyway, but detection does not
+// depend on that).
+//
+// One bit per (emergency priority level, direction), highest level in the lowest bits, so the
+// lowest set bit is the most urgent request (ties go to the first Direction, like the old scan).
+// Counts for one direction only change under that direction's queue lock; the mask is shared
+// between directions and updated atomically.
+final class EmergencyIndex {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    // Rank of each emergency type's priority level (0 = most urgent), -1 for regular vehicles
+    private static final int[] RANK_OF_TYPE = new int[TYPES.length];
+    private static final int RANK_COUNT;
+    private static final int[] DIRECTION_BITS = new int[DIRECTIONS.length]; // All of a direction's bits
+
+    static {
+        int[] levels = Arrays.stream(TYPES).filter(VehicleType::isEmergency).mapToInt(VehicleType::getPriorityLevel)
+                .distinct().map(level -> -level).sorted().map(level -> -level).toArray(); // Descending
+        RANK_COUNT = levels.length;
+        if (RANK_COUNT * DIRECTIONS.length > Integer.SIZE) {
+            throw new IllegalStateException("Too many emergency levels for the index mask");
+        }
+        for (VehicleType type : TYPES) {
+            RANK_OF_TYPE[type.ordinal()] = -1;
+            for (int rank = 0; rank < levels.length && type.isEmergency(); rank++) {
+                if (levels[rank] == type.getPriorityLevel()) {
+                    RANK_OF_TYPE[type.ordinal()] = rank;
+                }
+            }
+        }
+        for (Direction dir : DIRECTIONS) {
+            for (int rank = 0; rank < RANK_COUNT; rank++) {
+                DIRECTION_BITS[dir.ordinal()] |= 1 << bit(rank, dir);
+            }
+        }
+    }
+
+    private final AtomicInteger mask = new AtomicInteger();
+    private final AtomicIntegerArray typeCounts = new AtomicIntegerArray(DIRECTIONS.length * TYPES.length);
+    private final int[] levelCounts = new int[RANK_COUNT * DIRECTIONS.length]; // Guarded by the direction's queue
+
+    // --- Updates (called by VehicleQueue, under its lock) ---
+
+    void added(Direction direction, VehicleType type) {
+        int rank = RANK_OF_TYPE[type.ordinal()];
+        if (rank < 0) {
+            return;
+        }
+        typeCounts.incrementAndGet(direction.ordinal() * TYPES.length + type.ordinal());
+        int bit = bit(rank, direction);
+        if (levelCounts[bit]++ == 0) {
+            mask.getAndAccumulate(1 << bit, (current, set) -> current | set);
+        }
+    }
+
+    void removed(Direction direction, VehicleType type) {
+        int rank = RANK_OF_TYPE[type.ordinal()];
+        if (rank < 0) {
+            return;
+        }
+        typeCounts.decrementAndGet(direction.ordinal() * TYPES.length + type.ordinal());
+        int bit = bit(rank, direction);
+        if (--levelCounts[bit] == 0) {
+            mask.getAndAccumulate(~(1 << bit), (current, keep) -> current & keep);
+        }
+    }
+
+    // Forgets everything queued on one approach (queue cleared or restored)
+    void clear(Direction direction) {
+        for (VehicleType type : TYPES) {
+            typeCounts.set(direction.ordinal() * TYPES.length + type.ordinal(), 0);
+        }
+        for (int rank = 0; rank < RANK_COUNT; rank++) {
+            levelCounts[bit(rank, direction)] = 0;
+        }
+        mask.getAndAccumulate(~DIRECTION_BITS[direction.ordinal()], (current, keep) -> current & keep);
+    }
+
+    private static int bit(int rank, Direction direction) {
+        return rank * DIRECTIONS.length + direction.ordinal();
+    }
+
+    // --- Reads (any thread, lock-free) ---
+
+    boolean isEmpty() {
+        return mask.get() == 0;
+    }
+
+    boolean contains(Direction direction) {
+        return (mask.get() & DIRECTION_BITS[direction.ordinal()]) != 0;
+    }
+
+    // Direction with the most urgent waiting emergency vehicle, or null if there is none
+    Direction mostUrgentDirection() {
+        int bits = mask.get();
+        return bits == 0 ? null : DIRECTIONS[Integer.numberOfTrailingZeros(bits) % DIRECTIONS.length];
+    }
+
+    // Most urgent emergency type waiting on the approach, or null if there is none
+    VehicleType mostUrgentType(Direction direction) {
+        VehicleType best = null;
+        for (VehicleType type : TYPES) {
+            int rank = RANK_OF_TYPE[type.ordinal()];
+            if (rank >= 0 && typeCounts.get(direction.ordinal() * TYPES.length + type.ordinal()) > 0
+                    && (best == null || rank < RANK_OF_TYPE[best.ordinal()])) {
+                best = type;
+            }
+        }
+        return best;
+    }
+
+    int count(Direction direction, VehicleType type) {
+        return typeCounts.get(direction.ordinal() * TYPES.length + type.ordinal());
+    }
+}
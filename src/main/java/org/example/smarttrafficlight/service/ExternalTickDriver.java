@@ -0,0 +1,24 @@
+package org.example.smarttrafficlight.service;
+
+// Driver for engines that are stepped from outside (e.g. by a TrafficNetwork that steps
+// many intersections per tick). start() only marks the engine as running; the owner calls
+// SimulationEngine.runSimulationStep() itself.
+public class ExternalTickDriver implements TickDriver {
+
+    private volatile boolean running;
+
+    @Override
+    public void start(Runnable tick) {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.topology.JunctionTopology;
+
+// The engine's view of its junction: each Direction is a leg of JunctionTopology.fourWay(), and
+// the pairs the engine switches together are that topology's phases. Everything is looked up
+// from tables computed once, indexed by Direction ordinal. Public so the signal controllers
+// (service.control.Phases) derive their phase tables from the same topology as the engine.
+public final class FourWayPhases {
+
+    static final JunctionTopology TOPOLOGY = JunctionTopology.fourWay();
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Direction[] OPPOSING = new Direction[DIRECTIONS.length];   // Other leg of the same phase
+    private static final Direction[] ORTHOGONAL = new Direction[DIRECTIONS.length]; // First leg of the other phase
+    private static final long[] MOVEMENTS = new long[DIRECTIONS.length];            // Movements entering from the leg
+    private static final long[] CONFLICTS = new long[DIRECTIONS.length];            // Movements they conflict with
+    private static final int[] PHASE_OF = new int[DIRECTIONS.length];                // Topology phase serving the leg
+
+    static {
+        for (Direction dir : DIRECTIONS) {
+            int leg = TOPOLOGY.legIndex(dir.name());
+            MOVEMENTS[dir.ordinal()] = TOPOLOGY.getLegMovements(leg);
+            CONFLICTS[dir.ordinal()] = TOPOLOGY.conflictsOf(MOVEMENTS[dir.ordinal()]);
+            PHASE_OF[dir.ordinal()] = phaseServing(MOVEMENTS[dir.ordinal()]);
+        }
+        for (Direction dir : DIRECTIONS) {
+            for (Direction other : DIRECTIONS) {
+                if (other == dir) {
+                    continue;
+                }
+                if (PHASE_OF[other.ordinal()] == PHASE_OF[dir.ordinal()]) {
+                    OPPOSING[dir.ordinal()] = other;
+                } else if (ORTHOGONAL[dir.ordinal()] == null) {
+                    ORTHOGONAL[dir.ordinal()] = other;
+                }
+            }
+        }
+    }
+
+    private FourWayPhases() {
+    }
+
+    private static int phaseServing(long movements) {
+        for (int p = 0; p < TOPOLOGY.getPhaseCount(); p++) {
+            if ((TOPOLOGY.getPhaseMovements(p) & movements) == movements) {
+                return p;
+            }
+        }
+        throw new IllegalStateException("No phase serves " + TOPOLOGY.describe(movements));
+    }
+
+    public static int getPhaseCount() {
+        return TOPOLOGY.getPhaseCount();
+    }
+
+    // Index of the topology phase that serves the approach (NORTH/SOUTH -> 0, EAST/WEST -> 1)
+    public static int phaseOf(Direction dir) {
+        return PHASE_OF[dir.ordinal()];
+    }
+
+    // Approach served together with the given one (NORTH <-> SOUTH, EAST <-> WEST)
+    static Direction opposing(Direction dir) {
+        return OPPOSING[dir.ordinal()];
+    }
+
+    // Primary approach of the other phase (NORTH/SOUTH -> EAST, EAST/WEST -> NORTH)
+    static Direction orthogonal(Direction dir) {
+        return ORTHOGONAL[dir.ordinal()];
+    }
+
+    static boolean samePhase(Direction a, Direction b) {
+        return a == b || a == OPPOSING[b.ordinal()];
+    }
+
+    static long movements(Direction dir) {
+        return MOVEMENTS[dir.ordinal()];
+    }
+
+    // Movements that must not have green or yellow while the approach gets green
+    static long conflicts(Direction dir) {
+        return CONFLICTS[dir.ordinal()];
+    }
+}
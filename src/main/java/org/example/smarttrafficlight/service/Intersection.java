@@ -1,66 +1,167 @@
 package org.example.smarttrafficlight.service;
 
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.eventlog.SimulationEventType;
 import org.example.smarttrafficlight.model.Direction;
 import org.example.smarttrafficlight.model.TrafficLight;
 import org.example.smarttrafficlight.model.TrafficLightState;
 import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.profiling.LightTransitionEvent;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue; // Thread-safe PriorityQueue
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Intersection {
 
     // Map Direction -> Traffic Light for that direction
     private final Map<Direction, TrafficLight> trafficLights;
 
-    // Map Direction -> Queue of vehicles waiting from that direction
-    // Using PriorityBlockingQueue for thread safety if accessed from multiple threads (e.g., GUI + simulation)
-    private final Map<Direction, PriorityBlockingQueue<Vehicle>> vehicleQueues;
+    // Queue of vehicles waiting from each direction, indexed by Direction.ordinal()
+    // Primitive columns per priority level, thread safe (GUI + simulation may both touch them)
+    private final VehicleQueue[] vehicleQueues;
 
-    // HashMap to potentially store wait times or other stats (optional for now)
-    private final Map<Direction, Long> maxWaitTimes; // Example use of HashMap
+    // Where emergency vehicles are waiting, maintained by the queues (lock-free priority detection)
+    private final EmergencyIndex emergencyIndex = new EmergencyIndex();
+
+    // Time source used to stamp arrivals (wall clock for the GUI, virtual clock for headless runs)
+    private final SimulationClock clock;
+
+    // Where this intersection and its engine log events: the process-wide log, or a private one
+    // (e.g. SimulationEventLog.disabled() for sweep runs that must not touch the global log)
+    private final SimulationEventLog eventLog;
+
+    // Journals, metrics... Copy-on-write: the hot path only reads the array
+    private static final IntersectionObserver[] NO_OBSERVERS = new IntersectionObserver[0];
+    private volatile IntersectionObserver[] observers = NO_OBSERVERS;
+
+    // Latest published IntersectionSnapshot; replaced with compare-and-set, never modified
+    private final AtomicReference<IntersectionSnapshot> snapshot = new AtomicReference<>();
 
     public Intersection() {
+        this(SystemClock.INSTANCE);
+    }
+
+    public Intersection(SimulationClock clock) {
+        this(clock, SimulationEventLog.get());
+    }
+
+    public Intersection(SimulationClock clock, SimulationEventLog eventLog) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.eventLog = Objects.requireNonNull(eventLog, "Event log cannot be null");
         trafficLights = new EnumMap<>(Direction.class);
-        vehicleQueues = new EnumMap<>(Direction.class);
-        maxWaitTimes = new ConcurrentHashMap<>(); // Thread-safe HashMap
+        vehicleQueues = new VehicleQueue[Direction.values().length];
 
         for (Direction dir : Direction.values()) {
             trafficLights.put(dir, new TrafficLight(dir));
-            // Initialize with a thread-safe PriorityQueue for each direction
-            vehicleQueues.put(dir, new PriorityBlockingQueue<>());
-            maxWaitTimes.put(dir, 0L); // Initialize wait times
+            vehicleQueues[dir.ordinal()] = new VehicleQueue(dir, emergencyIndex, this::notifyDeparted);
         }
 
         // Initial state: North/South Green, East/West Red (example)
         trafficLights.get(Direction.NORTH).setState(TrafficLightState.GREEN);
         trafficLights.get(Direction.SOUTH).setState(TrafficLightState.GREEN);
+        eventLog.lightChanged(clock.currentTimeMillis(), Direction.NORTH, TrafficLightState.GREEN);
+        eventLog.lightChanged(clock.currentTimeMillis(), Direction.SOUTH, TrafficLightState.GREEN);
+        publishSnapshot();
     }
 
     // --- Vehicle Management ---
 
     public void addVehicle(Vehicle vehicle) {
-        Direction dir = vehicle.getOriginDirection();
-        if (vehicleQueues.containsKey(dir)) {
-            vehicleQueues.get(dir).put(vehicle); // Use put for BlockingQueue
-            System.out.println("Added " + vehicle + " to " + dir + " queue. Size: " + getQueueSize(dir));
-            updateMaxWaitTime(dir, vehicle); // Update stats
+        addVehicle(vehicle.getId(), vehicle.getType(), vehicle.getOriginDirection(), vehicle.getArrivalTime());
+    }
+
+    // Object-free variant: queues a vehicle by its fields
+    public void addVehicle(int vehicleId, VehicleType type, Direction dir, long arrivalTime) {
+        VehicleQueue queue = vehicleQueues[dir.ordinal()];
+        queue.add(vehicleId, type, arrivalTime);
+        SimulationEventLog log = eventLog;
+        if (log.isEnabled(SimulationEventType.VEHICLE_ADDED)) { // Skip the clock read and size() when disabled
+            log.vehicleAdded(clock.currentTimeMillis(), dir, vehicleId, type, queue.size());
         }
+        for (IntersectionObserver observer : observers) {
+            observer.vehicleArrived(arrivalTime, dir, vehicleId, type);
+        }
+    }
+
+    // Bulk arrivals for one approach (traffic generators): one id reservation and one queue lock
+    // for the whole batch, and a single log line instead of one per vehicle.
+    // Arrival times should be non-decreasing so vehicles of equal priority keep arrival order.
+    public void addVehicles(Direction dir, VehicleType[] types, long[] arrivalTimes, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int firstId = Vehicle.reserveIds(count);
+        VehicleQueue queue = vehicleQueues[dir.ordinal()];
+        queue.addAll(firstId, types, arrivalTimes, count);
+        eventLog.vehiclesAdded(clock.currentTimeMillis(), dir, count);
+        for (IntersectionObserver observer : observers) {
+            for (int i = 0; i < count; i++) {
+                observer.vehicleArrived(arrivalTimes[i], dir, firstId + i, types[i]);
+            }
+        }
+    }
+
+    // Creates a vehicle arriving "now" according to this intersection's clock and queues it
+    public Vehicle addVehicle(VehicleType type, Direction direction) {
+        Vehicle vehicle = new Vehicle(type, direction, clock.currentTimeMillis());
+        addVehicle(vehicle);
+        return vehicle;
     }
 
     public Optional<Vehicle> getNextVehicle(Direction direction) {
-        // Retrieves and removes the head of the queue (highest priority vehicle)
-        return Optional.ofNullable(vehicleQueues.get(direction).poll());
+        // Retrieves and removes the head of the queue (highest priority vehicle); the queue tells the observers
+        return Optional.ofNullable(vehicleQueues[direction.ordinal()].pollVehicle(clock.currentTimeMillis()));
     }
 
     public Optional<Vehicle> peekNextVehicle(Direction direction) {
         // Looks at the head of the queue without removing it
-        return Optional.ofNullable(vehicleQueues.get(direction).peek());
+        return Optional.ofNullable(vehicleQueues[direction.ordinal()].peekVehicle());
+    }
+
+    // --- Allocation-free Queue Access (simulation hot path) ---
+
+    // Removes the head vehicle and reports it to the listener; false if the queue was empty
+    public boolean pollNextVehicle(Direction direction, DepartureListener listener) {
+        VehicleQueue queue = vehicleQueues[direction.ordinal()];
+        return queue.poll(listener, clock.currentTimeMillis()); // Waits are measured on departure
+    }
+
+    // Bulk discharge for one green approach (see VehicleQueue.drain); returns the next release time
+    public long dischargeVehicles(Direction direction, long nextRelease, DischargeModel model, boolean emergencies,
+                                  DepartureListener listener) {
+        VehicleQueue queue = vehicleQueues[direction.ordinal()];
+        return queue.drain(clock.currentTimeMillis(), nextRelease, model, emergencies, listener);
+    }
+
+    // Removes one specific vehicle, wherever it is queued, and reports it like pollNextVehicle();
+    // false if no vehicle on the approach has that id
+    public boolean removeVehicle(Direction direction, int vehicleId, DepartureListener listener) {
+        VehicleQueue queue = vehicleQueues[direction.ordinal()];
+        return queue.remove(vehicleId, listener, clock.currentTimeMillis());
+    }
+
+    // Type of the head vehicle, or null if the queue is empty
+    public VehicleType peekNextVehicleType(Direction direction) {
+        return vehicleQueues[direction.ordinal()].peekType();
+    }
+
+    // Arrival time of the head vehicle, or Long.MIN_VALUE if the queue is empty
+    public long peekNextArrivalTime(Direction direction) {
+        return vehicleQueues[direction.ordinal()].peekArrivalTime();
     }
 
     public int getQueueSize(Direction direction) {
-        return vehicleQueues.get(direction).size();
+        return vehicleQueues[direction.ordinal()].size();
+    }
+
+    // Changes whenever the approach's queue does (see IntersectionSnapshot)
+    public long getQueueVersion(Direction direction) {
+        return vehicleQueues[direction.ordinal()].getVersion();
+    }
+
+    int copyQueueHead(Direction direction, int[] ids, byte[] types, long[] arrivalTimes) {
+        return vehicleQueues[direction.ordinal()].copyHead(ids, types, arrivalTimes);
     }
 
     public Map<Direction, Integer> getAllQueueSizes() {
@@ -83,46 +184,167 @@ public class Intersection {
 
     public void setLightState(Direction direction, TrafficLightState state) {
         if (trafficLights.containsKey(direction)) {
-            trafficLights.get(direction).setState(state);
+            TrafficLight light = trafficLights.get(direction);
+            TrafficLightState previous = light.getState();
+            long now = clock.currentTimeMillis();
+            light.setState(state);
+            eventLog.lightChanged(now, direction, state); // Structured, no formatting here
+            if (previous == state) {
+                return; // Observers only see actual transitions
+            }
+            LightTransitionEvent event = new LightTransitionEvent(); // Free when JFR is not recording it
+            if (event.isEnabled()) {
+                event.direction = direction.name();
+                event.from = previous.name();
+                event.to = state.name();
+                event.simulationTime = now;
+                event.commit();
+            }
+            for (IntersectionObserver observer : observers) {
+                observer.lightChanged(now, direction, state);
+            }
+        }
+    }
+
+    // --- Observers ---
+
+    public synchronized void addObserver(IntersectionObserver observer) {
+        Objects.requireNonNull(observer, "Observer cannot be null");
+        IntersectionObserver[] current = observers;
+        IntersectionObserver[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = observer;
+        observers = updated;
+    }
+
+    public synchronized void removeObserver(IntersectionObserver observer) {
+        IntersectionObserver[] current = observers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == observer) {
+                IntersectionObserver[] updated = new IntersectionObserver[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                observers = current.length == 1 ? NO_OBSERVERS : updated;
+                return;
+            }
+        }
+    }
+
+    // Every queue's departures, observers or not (see VehicleQueue); a single read when there are none
+    private void notifyDeparted(Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+        IntersectionObserver[] current = observers;
+        if (current.length == 0) {
+            return;
+        }
+        long now = clock.currentTimeMillis();
+        for (IntersectionObserver observer : current) {
+            observer.vehicleDeparted(now, direction, vehicleId, type, arrivalTime);
         }
     }
 
     // --- Priority Check ---
 
+    // Direction of the most urgent waiting emergency vehicle (highest priority level, then
+    // Direction order), wherever it is in its queue. One read of the emergency index, no queue locks.
+    // A pure query: detection (logging, observers) is left to the engine's PreemptionScheduler.
     public Optional<Direction> checkForPriorityVehicle() {
+        return Optional.ofNullable(emergencyIndex.mostUrgentDirection());
+    }
+
+    // Logs a newly detected emergency vehicle and tells the observers (see PreemptionScheduler)
+    void priorityDetected(Direction direction, VehicleType type, long now) {
+        eventLog.priorityDetected(now, direction, type);
+        for (IntersectionObserver observer : observers) {
+            observer.priorityDetected(now, direction, type);
+        }
+    }
+
+    public boolean hasEmergencyVehicles() {
+        return !emergencyIndex.isEmpty();
+    }
+
+    public boolean hasEmergencyVehicle(Direction direction) {
+        return emergencyIndex.contains(direction);
+    }
+
+    // Most urgent emergency type waiting on the approach, or null if there is none
+    public VehicleType getWaitingEmergencyType(Direction direction) {
+        return emergencyIndex.mostUrgentType(direction);
+    }
+
+    // Emergency vehicles of the given type waiting on the approach (0 for regular types)
+    public int getEmergencyVehicleCount(Direction direction, VehicleType type) {
+        return emergencyIndex.count(direction, type);
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    // Longest wait (arrival to departure) of any vehicle that has left, per direction.
+    // Detailed distributions: see metrics.TrafficMetrics
+    public Map<Direction, Long> getMaxWaitTimes() {
+        Map<Direction, Long> maxWaits = new EnumMap<>(Direction.class);
         for (Direction dir : Direction.values()) {
-            Optional<Vehicle> nextVehicle = peekNextVehicle(dir);
-            if (nextVehicle.isPresent() && nextVehicle.get().isEmergencyVehicle()) {
-                // Check if it's near the front (e.g., first few positions) - simplistic check
-                if(getQueueSize(dir) > 0) { // Or more complex logic like checking position
-                    System.out.println("PRIORITY: Emergency vehicle detected in " + dir + " queue: " + nextVehicle.get());
-                    return Optional.of(dir);
-                }
+            maxWaits.put(dir, vehicleQueues[dir.ordinal()].getMaxWait());
+        }
+        return Collections.unmodifiableMap(maxWaits);
+    }
+
+    // --- State Publication (IntersectionSnapshot) ---
+
+    // Latest published state; safe to read from any thread, never null
+    public IntersectionSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    // Publishes the current lights and queues. Call from the thread that changes the lights (the
+    // engine, between steps), so the light states all belong to the same phase.
+    public IntersectionSnapshot publishSnapshot() {
+        return publish(true);
+    }
+
+    // Publishes queue changes made from another thread (vehicles added by the GUI or the bot),
+    // keeping the light states of the last full publication
+    public IntersectionSnapshot publishQueueChanges() {
+        return publish(false);
+    }
+
+    // Lock-free: a publisher that loses the race rebuilds on top of the winner's snapshot
+    private IntersectionSnapshot publish(boolean lights) {
+        long now = clock.currentTimeMillis();
+        while (true) {
+            IntersectionSnapshot previous = snapshot.get();
+            IntersectionSnapshot next = IntersectionSnapshot.capture(this, previous, now, lights);
+            if (next == previous || snapshot.compareAndSet(previous, next)) {
+                return next;
             }
         }
-        return Optional.empty();
     }
 
-    // --- Example HashMap Usage ---
-    private void updateMaxWaitTime(Direction dir, Vehicle vehicle) {
-        // This is a simple example; real wait time tracking would be more complex
-        long currentWait = System.currentTimeMillis() - vehicle.getArrivalTime();
-        maxWaitTimes.compute(dir, (key, currentMax) -> Math.max(currentMax == null ? 0 : currentMax, currentWait));
+    // --- Checkpoint Support (SimulationSnapshot) ---
+
+    // Copy of one queue, or 'previous' itself if that queue has not changed since it was taken
+    VehicleQueue.Columns copyQueue(Direction direction, VehicleQueue.Columns previous) {
+        return vehicleQueues[direction.ordinal()].copyColumns(previous);
     }
 
-    public Map<Direction, Long> getMaxWaitTimes() {
-        return Collections.unmodifiableMap(maxWaitTimes);
+    // Puts the intersection back into a checkpointed state. Observers are not told: nothing
+    // "happened", the state was simply reloaded.
+    void restore(TrafficLightState[] lightStates, long[] maxWaits, VehicleQueue.Columns[] queues, long timeShift) {
+        long now = clock.currentTimeMillis();
+        for (Direction dir : Direction.values()) {
+            trafficLights.get(dir).setState(lightStates[dir.ordinal()]);
+            eventLog.lightChanged(now, dir, lightStates[dir.ordinal()]);
+            vehicleQueues[dir.ordinal()].restore(queues[dir.ordinal()], maxWaits[dir.ordinal()], timeShift);
+        }
+    }
+
+    public SimulationEventLog getEventLog() {
+        return eventLog;
     }
 
     public List<Vehicle> getQueuePreview(Direction direction, int count) {
-        // Get a snapshot for display, without modifying the queue
-        List<Vehicle> preview = new ArrayList<>();
-        Iterator<Vehicle> iterator = vehicleQueues.get(direction).iterator();
-        int i = 0;
-        while (iterator.hasNext() && i < count) {
-            preview.add(iterator.next());
-            i++;
-        }
-        return preview;
+        // Get a snapshot for display, in departure order, without modifying the queue
+        return vehicleQueues[direction.ordinal()].preview(count);
     }
 }
@@ -0,0 +1,25 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+
+// Receives every state change of an Intersection: arrivals, departures, light transitions and
+// emergency detections.
+// Called synchronously on the thread that made the change, so implementations must be quick and
+// must not call back into the intersection. Times come from the intersection's clock.
+public interface IntersectionObserver {
+
+    default void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+    }
+
+    default void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+    }
+
+    default void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+    }
+
+    // An emergency vehicle is waiting (anywhere in its queue) and the engine is about to start an override
+    default void priorityDetected(long timeMillis, Direction direction, VehicleType type) {
+    }
+}
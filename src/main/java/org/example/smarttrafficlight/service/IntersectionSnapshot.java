@@ -0,0 +1,155 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable view of what the intersection looks like after a step: light states, queue sizes and
+// the first few queued vehicles per approach. The intersection publishes it through a single
+// atomic reference (Intersection.getSnapshot()), so any number of readers on any thread (GUI,
+// metrics, the bot's /status) see one consistent state without locks and without slowing the
+// engine down, and a renderer can pick up the newest one however many steps ran in between.
+//
+// Versioned for cheap change detection:
+//  - getVersion() grows by one with every published snapshot that differs from the previous one;
+//  - each Approach carries the snapshot version in which it last changed, so a reader that skipped
+//    any number of snapshots can still tell which directions it needs to redraw (isChangedSince).
+// Unchanged approaches are shared with the previous snapshot, so publishing after a step that only
+// touched one queue copies one preview.
+public final class IntersectionSnapshot {
+
+    public static final int PREVIEW_LENGTH = 5; // Head vehicles kept per approach
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private final long version;
+    private final long time;
+    private final Approach[] approaches; // Indexed by Direction ordinal
+
+    private IntersectionSnapshot(long version, long time, Approach[] approaches) {
+        this.version = version;
+        this.time = time;
+        this.approaches = approaches;
+    }
+
+    // Snapshot of the intersection's current state; returns 'previous' itself if nothing changed.
+    // Without 'lights' the light states are taken over from 'previous' (see Intersection.publishQueueChanges)
+    static IntersectionSnapshot capture(Intersection intersection, IntersectionSnapshot previous, long now,
+                                        boolean lights) {
+        long version = previous == null ? 1 : previous.version + 1;
+        Approach[] approaches = new Approach[DIRECTIONS.length];
+        boolean changed = false;
+        for (Direction dir : DIRECTIONS) {
+            Approach old = previous == null ? null : previous.approaches[dir.ordinal()];
+            TrafficLightState light = lights || old == null ? intersection.getLight(dir).getState() : old.light;
+            long queueVersion = intersection.getQueueVersion(dir); // Read before copying: a later change shows up next time
+            if (old != null && old.light == light && old.queueVersion == queueVersion) {
+                approaches[dir.ordinal()] = old;
+            } else {
+                approaches[dir.ordinal()] = Approach.capture(intersection, dir, light, queueVersion, version);
+                changed = true;
+            }
+        }
+        return changed ? new IntersectionSnapshot(version, now, approaches) : previous;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Clock time of the step that produced this snapshot
+    public long getTime() {
+        return time;
+    }
+
+    public Approach getApproach(Direction direction) {
+        return approaches[direction.ordinal()];
+    }
+
+    public TrafficLightState getLightState(Direction direction) {
+        return approaches[direction.ordinal()].light;
+    }
+
+    public int getQueueSize(Direction direction) {
+        return approaches[direction.ordinal()].queueSize;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Intersection v").append(version).append(" @").append(time).append(':');
+        for (Approach approach : approaches) {
+            text.append(' ').append(approach.direction).append('=').append(approach.light)
+                    .append('/').append(approach.queueSize);
+        }
+        return text.toString();
+    }
+
+    // State of one approach; immutable and shared between snapshots while it does not change
+    public static final class Approach {
+        private final Direction direction;
+        private final long version; // Snapshot version in which this approach last changed
+        private final long queueVersion;
+        private final TrafficLightState light;
+        private final int queueSize;
+        private final int[] previewIds;
+        private final byte[] previewTypes;
+        private final long[] previewArrivals;
+
+        private Approach(Direction direction, long version, long queueVersion, TrafficLightState light,
+                         int queueSize, int[] previewIds, byte[] previewTypes, long[] previewArrivals) {
+            this.direction = direction;
+            this.version = version;
+            this.queueVersion = queueVersion;
+            this.light = light;
+            this.queueSize = queueSize;
+            this.previewIds = previewIds;
+            this.previewTypes = previewTypes;
+            this.previewArrivals = previewArrivals;
+        }
+
+        static Approach capture(Intersection intersection, Direction dir, TrafficLightState light,
+                                long queueVersion, long version) {
+            int[] ids = new int[PREVIEW_LENGTH];
+            byte[] types = new byte[PREVIEW_LENGTH];
+            long[] arrivals = new long[PREVIEW_LENGTH];
+            int size = intersection.copyQueueHead(dir, ids, types, arrivals);
+            return new Approach(dir, version, queueVersion, light, size, ids, types, arrivals);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        // True if this approach changed after the snapshot with the given version
+        public boolean isChangedSince(long snapshotVersion) {
+            return version > snapshotVersion;
+        }
+
+        public TrafficLightState getLightState() {
+            return light;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public int getPreviewSize() {
+            return Math.min(queueSize, PREVIEW_LENGTH);
+        }
+
+        // Head vehicles in departure order, as objects (allocates; meant for display)
+        public List<Vehicle> getPreview() {
+            int count = getPreviewSize();
+            List<Vehicle> preview = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                preview.add(Vehicle.withId(previewIds[i], TYPES[previewTypes[i]], direction, previewArrivals[i]));
+            }
+            return preview;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.smarttrafficlight.service;
+
+// Clock that only moves when told to. Used by headless drivers so simulated time
+// can run as fast as the CPU allows instead of being tied to the wall clock.
+public class ManualClock implements SimulationClock {
+
+    private volatile long now;
+
+    public ManualClock() {
+        this(0L);
+    }
+
+    public ManualClock(long startTimeMillis) {
+        this.now = startTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Cannot move the clock backwards: " + millis);
+        }
+        now += millis; // Single writer (the driver thread), readers only need visibility
+    }
+
+    public void setTime(long timeMillis) {
+        if (timeMillis < now) {
+            throw new IllegalArgumentException("Cannot move the clock backwards to " + timeMillis + " (now " + now + ")");
+        }
+        now = timeMillis;
+    }
+}
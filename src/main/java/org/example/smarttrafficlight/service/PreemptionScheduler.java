@@ -0,0 +1,121 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.util.Arrays;
+
+// Pending emergency overrides for one intersection, and the order in which the engine serves them.
+//
+// There is at most one request per approach: however many emergency vehicles queue on it, they
+// are served by the same green. Requests are ranked by
+//  1. the highest VehicleType priority level waiting on the phase (both approaches of a pair count),
+//  2. no clearance needed: the phase that is already green (or being switched to) goes first,
+//     since serving it costs no yellow,
+//  3. the earliest request, i.e. the emergency vehicle that has been waiting longest.
+// The opposing approach of the chosen one is served by the same override (N and S together).
+//
+// State is a fixed array per Direction, filled from the intersection's EmergencyIndex, so
+// refreshing and choosing cost O(directions) no matter how many vehicles are pending, and
+// nothing is allocated. Only used from the tick thread. Not part of SimulationSnapshot: after a
+// restore the requests are simply detected again. Public for the detection benchmark.
+public final class PreemptionScheduler {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long[] requestedAt = new long[DIRECTIONS.length]; // NONE = no request
+    private final int[] levels = new int[DIRECTIONS.length];
+    private int pending;
+
+    public PreemptionScheduler() {
+        Arrays.fill(requestedAt, NONE);
+    }
+
+    // Syncs the requests with the emergency vehicles waiting now. New requests are reported to the
+    // intersection's log and observers; approaches whose emergency vehicles have left are dropped.
+    public void refresh(Intersection intersection, long now) {
+        if (pending == 0 && !intersection.hasEmergencyVehicles()) {
+            return; // Common case: a single volatile read
+        }
+        for (Direction dir : DIRECTIONS) {
+            int d = dir.ordinal();
+            VehicleType type = intersection.getWaitingEmergencyType(dir);
+            if (type == null) {
+                if (requestedAt[d] != NONE) {
+                    requestedAt[d] = NONE;
+                    pending--;
+                }
+            } else {
+                if (requestedAt[d] == NONE) {
+                    requestedAt[d] = now;
+                    pending++;
+                    intersection.priorityDetected(dir, type, now);
+                }
+                levels[d] = type.getPriorityLevel();
+            }
+        }
+    }
+
+    // True if an emergency vehicle waits on an approach that has no request yet, i.e. the next
+    // refresh() would report a new one
+    boolean hasUndetected(Intersection intersection) {
+        if (!intersection.hasEmergencyVehicles()) {
+            return false;
+        }
+        for (Direction dir : DIRECTIONS) {
+            if (requestedAt[dir.ordinal()] == NONE && intersection.hasEmergencyVehicle(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Highest priority level requested on the direction's phase, or Integer.MIN_VALUE if none
+    int phaseLevel(Direction direction) {
+        return Math.max(level(direction), level(opposing(direction)));
+    }
+
+    // Approach to serve next, or null if nothing is pending. 'currentPhase' is the phase that is
+    // green or about to be (null if none), and wins ties because it needs no clearance.
+    public Direction next(Direction currentPhase) {
+        Direction best = null;
+        for (Direction dir : DIRECTIONS) {
+            if (requestedAt[dir.ordinal()] != NONE && (best == null || ranksBefore(dir, best, currentPhase))) {
+                best = dir;
+            }
+        }
+        return best;
+    }
+
+    private boolean ranksBefore(Direction a, Direction b, Direction currentPhase) {
+        int levelA = phaseLevel(a);
+        int levelB = phaseLevel(b);
+        if (levelA != levelB) {
+            return levelA > levelB;
+        }
+        boolean currentA = currentPhase != null && samePhase(a, currentPhase);
+        boolean currentB = currentPhase != null && samePhase(b, currentPhase);
+        if (currentA != currentB) {
+            return currentA;
+        }
+        return requestedAt[a.ordinal()] < requestedAt[b.ordinal()];
+    }
+
+    void clear() {
+        Arrays.fill(requestedAt, NONE);
+        pending = 0;
+    }
+
+    private int level(Direction direction) {
+        return requestedAt[direction.ordinal()] == NONE ? Integer.MIN_VALUE : levels[direction.ordinal()];
+    }
+
+    static boolean samePhase(Direction a, Direction b) {
+        return FourWayPhases.samePhase(a, b);
+    }
+
+    static Direction opposing(Direction dir) {
+        return FourWayPhases.opposing(dir);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.smarttrafficlight.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Ticks at a fixed rate on a dedicated background thread. No JavaFX required,
+// and the period is not limited to 1 Hz.
+public class ScheduledTickDriver implements TickDriver {
+
+    private final long periodMicros;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+
+    public ScheduledTickDriver(long period, TimeUnit unit) {
+        this.periodMicros = unit.toMicros(period);
+        if (periodMicros <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulation-tick");
+            t.setDaemon(true); // Never keep the JVM alive just for the simulation loop
+            return t;
+        });
+    }
+
+    @Override
+    public synchronized void start(Runnable tick) {
+        if (task != null) {
+            return; // Already running
+        }
+        task = executor.scheduleAtFixedRate(() -> {
+            try {
+                tick.run();
+            } catch (RuntimeException e) {
+                // An exception would silently cancel the schedule, so log it and keep ticking
+                System.err.println("Simulation tick failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, 0, periodMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    // Stops the loop and releases the tick thread. The driver cannot be restarted afterwards.
+    public synchronized void shutdown() {
+        stop();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.smarttrafficlight.service;
+
+// Phase durations used by the engine. Immutable, so a new set can be swapped in safely.
+public final class SignalTimings {
+
+    // The values the simulation has always used
+    public static final SignalTimings DEFAULT = new SignalTimings(10000, 2000, 8000);
+
+    private final long normalGreenTimeMs;      // Green time per phase in the normal cycle
+    private final long yellowTimeMs;           // Yellow (clearance) time
+    private final long priorityOverrideTimeMs; // Max green time for an emergency override
+
+    public SignalTimings(long normalGreenTimeMs, long yellowTimeMs, long priorityOverrideTimeMs) {
+        if (normalGreenTimeMs <= 0 || yellowTimeMs <= 0 || priorityOverrideTimeMs <= 0) {
+            throw new IllegalArgumentException("Signal timings must be positive: green=" + normalGreenTimeMs
+                    + ", yellow=" + yellowTimeMs + ", priority=" + priorityOverrideTimeMs);
+        }
+        this.normalGreenTimeMs = normalGreenTimeMs;
+        this.yellowTimeMs = yellowTimeMs;
+        this.priorityOverrideTimeMs = priorityOverrideTimeMs;
+    }
+
+    public long getNormalGreenTimeMs() {
+        return normalGreenTimeMs;
+    }
+
+    public long getYellowTimeMs() {
+        return yellowTimeMs;
+    }
+
+    public long getPriorityOverrideTimeMs() {
+        return priorityOverrideTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "SignalTimings[green=" + normalGreenTimeMs + "ms, yellow=" + yellowTimeMs
+                + "ms, priority=" + priorityOverrideTimeMs + "ms]";
+    }
+}
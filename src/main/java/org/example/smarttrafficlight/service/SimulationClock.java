@@ -0,0 +1,8 @@
+package org.example.smarttrafficlight.service;
+
+// Source of "now" for the simulation. The engine never reads System.currentTimeMillis() directly,
+// so the same logic can run against wall-clock time (GUI) or a virtual clock (headless / batch runs).
+public interface SimulationClock {
+
+    long currentTimeMillis();
+}
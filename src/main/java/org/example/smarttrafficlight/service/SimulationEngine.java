@@ -1,97 +1,366 @@
 package org.example.smarttrafficlight.service;
 
+import org.example.smarttrafficlight.metrics.Histogram;
 import org.example.smarttrafficlight.model.*; // Import all models
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
-import javafx.util.Duration;
-
-import java.util.Optional;
+import org.example.smarttrafficlight.notification.Notifier;
+import org.example.smarttrafficlight.profiling.TickProfiler;
+import org.example.smarttrafficlight.profiling.TickStage;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.SignalController;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer; // For callbacks
 
 public class SimulationEngine {
 
     private final Intersection intersection;
-    private final Timeline simulationLoop;
-    private final TelegramBotHandler telegramBot; // Add reference to the bot
-
-    // --- Time Constants ---
-    private static final long NORMAL_GREEN_TIME_MS = 10000; // 10 seconds
-    private static final long YELLOW_TIME_MS = 2000;      // 2 seconds
-    private static final long PRIORITY_OVERRIDE_TIME_MS = 8000; // Max Green time for emergency
+    private final TickDriver tickDriver; // Decides when steps run (FX Timeline, executor, tight loop...)
+    private final SimulationClock clock; // Source of "now" for phase timing
+    private final Notifier notifier; // Telegram (behind an AsyncNotifier) or a local stub; may be null
+
+    // --- Timing and Phase Strategy ---
+    private SignalTimings timings = SignalTimings.DEFAULT; // Green / yellow / priority override durations
+    private SignalController signalController = new FixedTimeController(); // Decides the normal cycle
+    private DischargeModel dischargeModel = DischargeModel.DEFAULT; // How fast green queues empty
+    private final long[] nextReleaseTimes = new long[Direction.values().length]; // Per direction: next vehicle may cross at
+    // Settings handed in by reconfigure() from any thread, swapped in by the tick thread at the next phase boundary
+    private final AtomicReference<Reconfiguration> pendingReconfiguration = new AtomicReference<>();
 
     // --- State Variables ---
     private Direction currentGreenDirection = Direction.NORTH; // Represents the N/S pair initially
     private long phaseStartTime;
 
     // State machine for priority override
-    private enum PriorityState { IDLE, YELLOW_TRANSITION, GREEN_ACTIVE, ENDING_YELLOW }
+    enum PriorityState { IDLE, YELLOW_TRANSITION, GREEN_ACTIVE, ENDING_YELLOW }
     private PriorityState currentPriorityState = PriorityState.IDLE;
-    private Direction priorityDirection = null; // Direction needing priority override
-
-    // Callback to notify GUI/other components of updates
-    private Consumer<Intersection> updateListener;
+    private Direction priorityDirection = null; // Direction needing priority override (its pair is served)
+    private final PreemptionScheduler preemptions = new PreemptionScheduler(); // Pending override requests
+
+    // Operator request to serve a phase next (e.g. /override from chat): set from any thread,
+    // taken over by the tick thread, served at the next phase boundary
+    private final AtomicReference<Direction> requestedPhase = new AtomicReference<>();
+    private Direction manualPhase; // Tick thread only; null if no request is pending
+
+    // Work to run on the tick thread after every step (e.g. feeding arrivals in headless runs)
+    private Runnable tickHook;
+    // Callback with the immutable state published after each step; may hand it to any thread
+    private Consumer<IntersectionSnapshot> snapshotListener;
+    // Callback for every vehicle that leaves the intersection (e.g. to hand it to the next junction)
+    private DepartureListener departureListener;
+    // Log the departure into the event ring, then forward to departureListener (no per-vehicle allocation)
+    private final DepartureListener normalPass = (dir, id, type, arrivalTime) -> onVehiclePassed(dir, id, type, arrivalTime, false);
+    private final DepartureListener priorityPass = (dir, id, type, arrivalTime) -> onVehiclePassed(dir, id, type, arrivalTime, true);
+    private final DepartureListener externalPass = (dir, id, type, arrivalTime) -> onVehiclePassed(dir, id, type, arrivalTime, type.isEmergency());
+
+    // Engine counters for monitoring (PrometheusExporter). Written by the tick thread only,
+    // readable from anywhere without locking.
+    private final AtomicLong stepsRun = new AtomicLong();
+    private final AtomicLong overridesStarted = new AtomicLong();
+    private final Histogram stepDurationsMicros = new Histogram();
+    // Phase change messages on stdout; batch runs (parameter sweeps) switch them off
+    private boolean consoleOutput = true;
+    // Per-stage timing (and JFR stage events); null unless enabled, so normal runs pay nothing
+    private volatile TickProfiler profiler = Boolean.getBoolean("traffic.profile.stages") ? new TickProfiler() : null;
+
+    // Periodic checkpoints: taken on the tick thread right after a step, written elsewhere
+    private volatile Consumer<SimulationSnapshot> checkpointSink;
+    private volatile long checkpointIntervalMs;
+    private long nextCheckpointTime = Long.MIN_VALUE;
+    private SimulationSnapshot lastCapture; // Unchanged queues share its columns (copy-on-write)
+
+    public SimulationEngine(Intersection intersection, Notifier notifier, TickDriver tickDriver) {
+        this(intersection, notifier, tickDriver, SystemClock.INSTANCE);
+    }
 
-    public SimulationEngine(Intersection intersection, TelegramBotHandler telegramBot) {
+    // The engine calls the notifier on the tick thread: give it one that does not block (AsyncNotifier)
+    public SimulationEngine(Intersection intersection, Notifier notifier,
+                            TickDriver tickDriver, SimulationClock clock) {
         this.intersection = intersection;
-        this.telegramBot = telegramBot; // Store the bot reference
+        this.notifier = notifier; // May be null when running headless
+        this.tickDriver = Objects.requireNonNull(tickDriver, "Tick driver cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    // Runs on the tick thread after every step, once its state has been published. Meant for
+    // driving the simulation from the tick loop (adding arrivals, changing timings); observers
+    // should use setSnapshotListener() or getLatestSnapshot() instead.
+    public void setTickHook(Runnable hook) {
+        this.tickHook = hook;
+    }
+
+    // Called on the tick thread after every step with the published IntersectionSnapshot (the same
+    // instance again if nothing changed). The snapshot is immutable and safe to pass anywhere.
+    public void setSnapshotListener(Consumer<IntersectionSnapshot> listener) {
+        this.snapshotListener = listener;
+    }
+
+    // Called on the tick thread, in departure order
+    public void setDepartureListener(DepartureListener listener) {
+        this.departureListener = listener;
+    }
+
+    public void setSignalTimings(SignalTimings timings) {
+        this.timings = Objects.requireNonNull(timings, "Timings cannot be null");
+    }
+
+    public SignalTimings getSignalTimings() {
+        return timings;
+    }
+
+    public void setDischargeModel(DischargeModel model) {
+        this.dischargeModel = Objects.requireNonNull(model, "Discharge model cannot be null");
+    }
+
+    public DischargeModel getDischargeModel() {
+        return dischargeModel;
+    }
 
-        // Simulation loop using JavaFX Timeline (runs on FX thread)
-        simulationLoop = new Timeline(new KeyFrame(Duration.seconds(1), event -> runSimulationStep()));
-        simulationLoop.setCycleCount(Timeline.INDEFINITE);
+    public void setConsoleOutput(boolean enabled) {
+        this.consoleOutput = enabled;
     }
 
-    public void setUpdateListener(Consumer<Intersection> listener) {
-        this.updateListener = listener;
+    public void setSignalController(SignalController controller) {
+        this.signalController = Objects.requireNonNull(controller, "Signal controller cannot be null");
+    }
+
+    public SignalController getSignalController() {
+        return signalController;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    // Replaces timings, controller and discharge model together at the next phase boundary (when
+    // the next green starts), so a running phase never mixes old and new settings. Safe from any
+    // thread, e.g. a config watcher; a newer call before the boundary replaces an older one.
+    // The setters above apply immediately and are meant for setup on the tick thread.
+    public void reconfigure(SignalTimings timings, SignalController controller, DischargeModel dischargeModel) {
+        pendingReconfiguration.set(new Reconfiguration(
+                Objects.requireNonNull(timings, "Timings cannot be null"),
+                Objects.requireNonNull(controller, "Signal controller cannot be null"),
+                Objects.requireNonNull(dischargeModel, "Discharge model cannot be null")));
+    }
+
+    // True while a reconfigure() call waits for its phase boundary
+    public boolean isReconfigurationPending() {
+        return pendingReconfiguration.get() != null;
+    }
+
+    private void applyPendingReconfiguration() {
+        Reconfiguration pending = pendingReconfiguration.getAndSet(null);
+        if (pending != null) {
+            timings = pending.timings;
+            signalController = pending.controller;
+            dischargeModel = pending.dischargeModel;
+            console("Reconfigured: " + timings + ", " + signalController.getName() + " control, " + dischargeModel + ".");
+        }
+    }
+
+    private static final class Reconfiguration {
+        final SignalTimings timings;
+        final SignalController controller;
+        final DischargeModel dischargeModel;
+
+        Reconfiguration(SignalTimings timings, SignalController controller, DischargeModel dischargeModel) {
+            this.timings = timings;
+            this.controller = controller;
+            this.dischargeModel = dischargeModel;
+        }
     }
 
     public void startSimulation() {
+        applyPendingReconfiguration();
         // Set initial state (N/S Green)
         setRedPair(Direction.EAST); // Explicitly set E/W red first
         setGreenPair(Direction.NORTH);
         currentGreenDirection = Direction.NORTH;
         currentPriorityState = PriorityState.IDLE;
         priorityDirection = null;
-        phaseStartTime = System.currentTimeMillis();
-        simulationLoop.play();
-        System.out.println("Simulation Started.");
-        if (telegramBot != null) {
-            telegramBot.sendMessage("Simulation Started. Initial state: N/S Green.");
+        preemptions.clear();
+        requestedPhase.set(null);
+        manualPhase = null;
+        phaseStartTime = clock.currentTimeMillis();
+        console("Simulation Started.");
+        if (notifier != null) {
+            notifier.sendMessage("Simulation Started. Initial state: N/S Green.");
         }
+        tickDriver.start(this::runSimulationStep); // Blocks until done for synchronous drivers
+    }
+
+    // Starts the tick driver without resetting lights and phases, e.g. after restoreSnapshot()
+    public void resumeSimulation() {
+        console("Simulation Resumed.");
+        tickDriver.start(this::runSimulationStep);
     }
 
     public void stopSimulation() {
-        simulationLoop.stop();
-        System.out.println("Simulation Stopped.");
-        if (telegramBot != null) {
-            telegramBot.sendMessage("Simulation Stopped.");
+        tickDriver.stop();
+        console("Simulation Stopped.");
+        if (notifier != null) {
+            notifier.sendMessage("Simulation Stopped.");
+        }
+    }
+
+    // --- Checkpoint / Restore ---
+
+    // Hands a snapshot to the sink every intervalMs of simulated time (checked after each step).
+    // Capturing copies the queues that changed since the last capture on the tick thread (unchanged
+    // ones are shared with the previous snapshot); the sink should do the slow part
+    // (serialising, writing) somewhere else, see Checkpointer. A null sink turns checkpoints off.
+    public void setCheckpointing(long intervalMs, Consumer<SimulationSnapshot> sink) {
+        if (sink != null && intervalMs <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.checkpointIntervalMs = intervalMs;
+        this.checkpointSink = sink;
+    }
+
+    // Full engine + intersection state. Call on the tick thread or while the engine is stopped.
+    public SimulationSnapshot captureSnapshot() {
+        lastCapture = SimulationSnapshot.capture(intersection, lastCapture, clock.currentTimeMillis(), timings,
+                currentGreenDirection, currentPriorityState.ordinal(), priorityDirection, phaseStartTime,
+                nextReleaseTimes);
+        return lastCapture;
+    }
+
+    // Puts the engine and its intersection back into the snapshot's state. Call while stopped,
+    // then resumeSimulation(). A ManualClock behind the snapshot is moved forward to its time;
+    // any other clock keeps its time and the snapshot is shifted, so phases and waits keep their
+    // elapsed durations. The signal controller is not part of the snapshot and stays as set.
+    public void restoreSnapshot(SimulationSnapshot snapshot) {
+        if (clock instanceof ManualClock && clock.currentTimeMillis() < snapshot.time) {
+            ((ManualClock) clock).setTime(snapshot.time);
         }
+        long timeShift = clock.currentTimeMillis() - snapshot.time;
+        intersection.restore(snapshot.lightStates, snapshot.maxWaitTimes, snapshot.queues, timeShift);
+        Vehicle.ensureIdsAbove(snapshot.lastVehicleId);
+        timings = snapshot.timings;
+        currentGreenDirection = snapshot.currentGreenDirection;
+        currentPriorityState = PriorityState.values()[snapshot.priorityState];
+        priorityDirection = snapshot.priorityDirection;
+        preemptions.clear(); // Re-detected on the next step
+        manualPhase = null; // Operator requests are not part of the snapshot
+        phaseStartTime = snapshot.phaseStartTime + timeShift;
+        for (int d = 0; d < nextReleaseTimes.length; d++) {
+            nextReleaseTimes[d] = snapshot.nextReleaseTimes[d] + timeShift;
+        }
+        nextCheckpointTime = Long.MIN_VALUE;
     }
 
-    private void runSimulationStep() {
-        long now = System.currentTimeMillis();
+    private void checkpointIfDue(long now) {
+        Consumer<SimulationSnapshot> sink = checkpointSink;
+        if (sink == null) {
+            return;
+        }
+        if (nextCheckpointTime == Long.MIN_VALUE) {
+            nextCheckpointTime = now + checkpointIntervalMs; // First step after enabling: start counting
+        } else if (now >= nextCheckpointTime) {
+            nextCheckpointTime = now + checkpointIntervalMs;
+            sink.accept(captureSnapshot());
+        }
+    }
+
+    // --- Discrete-Event Support ---
+
+    // Earliest time at which a step would change anything on its own, assuming no new arrivals.
+    // Returns 'now' when the next step already has work (vehicles at a green light, a pending
+    // emergency, an active override). Lets event-driven runners skip idle ticks entirely.
+    public long getNextWakeUpTime(long now) {
+        switch (currentPriorityState) {
+            case GREEN_ACTIVE:
+                return now; // Either the emergency vehicle passes or the override ends
+            case YELLOW_TRANSITION:
+            case ENDING_YELLOW:
+                if (preemptions.hasUndetected(intersection)) {
+                    return now; // New request: detected (and queued by arrival) on this very step
+                }
+                return phaseStartTime + timings.getYellowTimeMs(); // No light is green during these phases
+            default:
+                break;
+        }
+
+        long wakeUp = Long.MAX_VALUE;
+        TrafficLightState pairState = intersection.getLight(currentGreenDirection).getState();
+        if (requestedPhase.get() != null || (manualPhase != null && pairState == TrafficLightState.GREEN)) {
+            return now; // Operator request to take over or act on
+        }
+        if (pairState == TrafficLightState.GREEN) {
+            wakeUp = signalController.earliestGreenEnd(intersection, currentGreenDirection, phaseStartTime, timings, now);
+        } else if (pairState == TrafficLightState.YELLOW) {
+            wakeUp = phaseStartTime + timings.getYellowTimeMs();
+        }
+
+        if (intersection.hasEmergencyVehicles()) {
+            return now; // Emergency to detect
+        }
+        for (Direction dir : Direction.values()) {
+            if (intersection.getLight(dir).getState() != TrafficLightState.GREEN) {
+                continue;
+            }
+            long headArrival = intersection.peekNextArrivalTime(dir);
+            if (headArrival == Long.MIN_VALUE) {
+                continue; // Empty
+            }
+            // The head vehicle crosses once the discharge model lets it
+            long release = Math.max(nextReleaseTimes[dir.ordinal()], headArrival);
+            if (release <= now) {
+                return now;
+            }
+            wakeUp = Math.min(wakeUp, release);
+        }
+        return wakeUp;
+    }
+
+    public boolean isPriorityOverrideActive() {
+        return currentPriorityState != PriorityState.IDLE;
+    }
+
+    // One simulation step. Normally called by the tick driver, but public so headless
+    // runners and benchmarks can step the engine directly.
+    public void runSimulationStep() {
+        long stepStartNanos = System.nanoTime();
+        long now = clock.currentTimeMillis();
         long elapsedTime = now - phaseStartTime;
+        TickProfiler profiler = this.profiler;
+        if (profiler != null) {
+            profiler.startStep(now);
+            profiler.begin(TickStage.PRIORITY_DETECTION);
+        }
 
-        // --- 1. Check for New Priority Vehicles (Only if IDLE) ---
+        // --- 1. Collect Emergency and Operator Requests, Start an Override for the Most Urgent (Only if IDLE) ---
+        if (requestedPhase.get() != null) {
+            manualPhase = requestedPhase.getAndSet(null); // Newest request wins
+            console("Operator requested " + manualPhase + " pair GREEN.");
+        }
+        preemptions.refresh(intersection, now);
         if (currentPriorityState == PriorityState.IDLE) {
-            Optional<Direction> priorityRequest = intersection.checkForPriorityVehicle();
-            if (priorityRequest.isPresent()) {
+            boolean pairGreen = intersection.getLight(currentGreenDirection).getState() == TrafficLightState.GREEN;
+            Direction priorityRequest = preemptions.next(pairGreen ? currentGreenDirection : null);
+            if (priorityRequest != null) {
                 // New priority request!
-                priorityDirection = priorityRequest.get();
-                System.out.println(">>> EMERGENCY OVERRIDE ACTIVATED for " + priorityDirection + " <<<");
-                if (telegramBot != null) {
-                    telegramBot.sendMessage("🚨 Emergency vehicle detected from " + priorityDirection + "! Prioritizing traffic light.");
+                priorityDirection = priorityRequest;
+                overridesStarted.incrementAndGet();
+                console(">>> EMERGENCY OVERRIDE ACTIVATED for " + priorityDirection + " <<<");
+                if (notifier != null) {
+                    notifier.sendMessage("🚨 Emergency vehicle detected from " + priorityDirection + "! Prioritizing traffic light.");
                 }
 
-                // Start yellow transition for conflicting lights
-                boolean yellowStarted = startYellowTransitionForPriority(priorityDirection);
-
-                if (yellowStarted) {
+                if (isPairGreen(priorityDirection)) {
+                    // Already green (no clearance needed): keep the lights and the discharge clock as they are,
+                    // so the emergency vehicle leaves as soon as a car would
+                    console(priorityDirection + " pair already GREEN, priority starts immediately.");
+                    currentPriorityState = PriorityState.GREEN_ACTIVE;
+                    phaseStartTime = now; // Start GREEN timer
+                } else if (startYellowTransitionForPriority(priorityDirection)) {
+                    // Yellow transition started for the conflicting lights
                     currentPriorityState = PriorityState.YELLOW_TRANSITION;
                     phaseStartTime = now; // Start YELLOW timer
                 } else {
                     // No conflicting lights were green/yellow, can go straight to green
-                    System.out.println("No conflicting traffic, setting " + priorityDirection + " pair to GREEN immediately.");
+                    console("No conflicting traffic, setting " + priorityDirection + " pair to GREEN immediately.");
                     // Ensure others are red (might be redundant but safe)
                     setRedPair(getOrthogonalDirection(priorityDirection));
                     // Set priority direction GREEN
@@ -102,19 +371,24 @@ public class SimulationEngine {
             }
         }
 
+        if (profiler != null) {
+            profiler.end();
+            profiler.begin(currentPriorityState != PriorityState.IDLE ? TickStage.OVERRIDE : TickStage.NORMAL_CYCLE);
+        }
+
         // --- 2. Handle Active Priority Override State Machine ---
         if (currentPriorityState != PriorityState.IDLE) {
             TrafficLight priorityLight = intersection.getLight(priorityDirection); // Get the specific light instance
 
             switch (currentPriorityState) {
                 case YELLOW_TRANSITION:
-                    if (elapsedTime >= YELLOW_TIME_MS) {
-                        System.out.println("Priority Yellow phase finished for conflicting lights.");
+                    if (elapsedTime >= timings.getYellowTimeMs()) {
+                        console("Priority Yellow phase finished for conflicting lights.");
                         // Set conflicting lights to RED
                         setRedPairBasedOnPriority(priorityDirection);
                         // Set priority light pair to GREEN
                         setGreenPair(priorityDirection);
-                        System.out.println("Setting " + priorityDirection + " pair to GREEN for priority.");
+                        console("Setting " + priorityDirection + " pair to GREEN for priority.");
                         currentPriorityState = PriorityState.GREEN_ACTIVE;
                         phaseStartTime = now; // Reset timer for GREEN phase
                     }
@@ -122,59 +396,75 @@ public class SimulationEngine {
                     break;
 
                 case GREEN_ACTIVE:
-                    // Check if the specific emergency vehicle is still at the front
-                    boolean emergencyVehiclePresent = intersection.peekNextVehicle(priorityDirection)
-                            .map(Vehicle::isEmergencyVehicle)
-                            .orElse(false);
-
-                    // End priority if time is up OR the emergency vehicle is gone
-                    if (elapsedTime >= PRIORITY_OVERRIDE_TIME_MS || !emergencyVehiclePresent) {
-                        if (!emergencyVehiclePresent) {
-                            System.out.println("Emergency vehicle from " + priorityDirection + " appears to have passed.");
+                    // Check if an emergency vehicle is still waiting on either approach of the priority pair
+                    Direction opposing = getOpposingDirection(priorityDirection);
+                    boolean emergencyVehiclePresent = intersection.hasEmergencyVehicle(priorityDirection)
+                            || intersection.hasEmergencyVehicle(opposing);
+                    // A more urgent request from the conflicting pair cuts the override short
+                    Direction nextRequest = preemptions.next(priorityDirection);
+                    boolean preempted = emergencyVehiclePresent && nextRequest != null
+                            && !PreemptionScheduler.samePhase(nextRequest, priorityDirection)
+                            && preemptions.phaseLevel(nextRequest) > preemptions.phaseLevel(priorityDirection);
+
+                    // End priority if time is up, the emergency vehicles are gone OR a more urgent one waits
+                    if (elapsedTime >= timings.getPriorityOverrideTimeMs() || !emergencyVehiclePresent || preempted) {
+                        if (preempted) {
+                            console("More urgent emergency vehicle waiting on " + nextRequest + ".");
+                        } else if (!emergencyVehiclePresent) {
+                            console("Emergency vehicle from " + priorityDirection + " appears to have passed.");
                         } else {
-                            System.out.println("Priority GREEN time expired for " + priorityDirection + ".");
+                            console("Priority GREEN time expired for " + priorityDirection + ".");
+                        }
+                        console(">>> EMERGENCY OVERRIDE ENDING for " + priorityDirection + " <<<");
+
+                        // Remove the vehicles explicitly if they weren't handled by processGreenLightQueues
+                        // This ensures they're gone before we check again in IDLE state
+                        if (emergencyVehiclePresent && !preempted) {
+                            removeEmergencyHead(priorityDirection);
+                            removeEmergencyHead(opposing);
+                            preemptions.refresh(intersection, now);
+                            nextRequest = preemptions.next(priorityDirection);
                         }
-                        System.out.println(">>> EMERGENCY OVERRIDE ENDING for " + priorityDirection + " <<<");
 
                         // Start Yellow phase for the priority direction pair
                         setYellowPair(priorityDirection);
-                        currentPriorityState = PriorityState.ENDING_YELLOW;
-                        phaseStartTime = now; // Reset timer for ending yellow phase
-                        if (telegramBot != null) {
-                            telegramBot.sendMessage("✅ Emergency vehicle passed/priority time ended for " + priorityDirection + ". Resuming normal flow soon.");
+                        phaseStartTime = now; // Reset timer for the yellow phase
+                        if (nextRequest != null && !PreemptionScheduler.samePhase(nextRequest, priorityDirection)) {
+                            // Hand over: this yellow is the clearance for the next override, no normal green in between
+                            console(">>> EMERGENCY OVERRIDE HANDED OVER from " + priorityDirection + " to " + nextRequest + " <<<");
+                            priorityDirection = nextRequest;
+                            overridesStarted.incrementAndGet();
+                            currentPriorityState = PriorityState.YELLOW_TRANSITION;
+                            if (notifier != null) {
+                                notifier.sendMessage("🚨 Emergency vehicle detected from " + priorityDirection + "! Prioritizing traffic light.");
+                            }
+                        } else {
+                            currentPriorityState = PriorityState.ENDING_YELLOW;
+                            if (notifier != null) {
+                                notifier.sendMessage("✅ Emergency vehicle passed/priority time ended for " + priorityDirection + ". Resuming normal flow soon.");
+                            }
                         }
-
-                        // Remove the vehicle explicitly if it wasn't handled by processGreenLightQueues
-                        // This ensures it's gone before we check again in IDLE state
-                        intersection.peekNextVehicle(priorityDirection)
-                                .filter(Vehicle::isEmergencyVehicle)
-                                .ifPresent(v -> {
-                                    System.out.println("Explicitly removing " + v + " after priority green phase.");
-                                    intersection.getNextVehicle(priorityDirection);
-                                });
                     }
                     // else: Still in Green phase
                     break;
 
                 case ENDING_YELLOW:
-                    if (elapsedTime >= YELLOW_TIME_MS) {
-                        System.out.println("Priority ending Yellow phase finished for " + priorityDirection + " pair.");
+                    if (elapsedTime >= timings.getYellowTimeMs()) {
+                        console("Priority ending Yellow phase finished for " + priorityDirection + " pair.");
                         // Set priority direction pair to RED
                         setRedPair(priorityDirection);
                         // Reset state and potentially go back to a default light state
                         currentPriorityState = PriorityState.IDLE;
                         priorityDirection = null; // Clear the priority direction
 
-                        // Resume normal cycle - Decide which direction should be green next
-                        // For simplicity, just go back to N/S green as default after E/W priority
-                        // Or switch to the orthogonal direction of the priority one
-                        currentGreenDirection = getOrthogonalDirection(intersection.getLight(currentGreenDirection).getDirection()); // Switch to the other pair
-                        System.out.println("Resuming normal traffic flow. Setting " + currentGreenDirection + " pair to GREEN.");
+                        // Resume normal cycle - the signal controller decides which pair goes next
+                        currentGreenDirection = selectNextPhase(now);
+                        console("Resuming normal traffic flow. Setting " + currentGreenDirection + " pair to GREEN.");
                         setGreenPair(currentGreenDirection);
                         phaseStartTime = now; // Reset timer for normal green phase
 
-                        if (telegramBot != null) {
-                            telegramBot.sendMessage("🚦 Normal traffic flow resumed ("+currentGreenDirection+"/"+getOpposingDirection(currentGreenDirection)+" Green).");
+                        if (notifier != null) {
+                            notifier.sendMessage("🚦 Normal traffic flow resumed ("+currentGreenDirection+"/"+getOpposingDirection(currentGreenDirection)+" Green).");
                         }
                     }
                     // else: Still waiting for ending yellow timer
@@ -184,43 +474,189 @@ public class SimulationEngine {
             // --- 3. Normal Traffic Light Cycle (Only runs if currentPriorityState is IDLE) ---
             TrafficLight currentPairLight = intersection.getLight(currentGreenDirection); // Check one of the pair
 
-            if (currentPairLight.getState() == TrafficLightState.GREEN && elapsedTime >= NORMAL_GREEN_TIME_MS) {
-                // Time to switch, start Yellow phase for the current green pair
-                System.out.println("Normal cycle: Green time ended for " + currentGreenDirection + " pair. Starting Yellow.");
+            if (manualPhase != null && currentPairLight.getState() == TrafficLightState.GREEN
+                    && PreemptionScheduler.samePhase(manualPhase, currentGreenDirection)) {
+                manualPhase = null; // Requested pair is already green
+            }
+            if (currentPairLight.getState() == TrafficLightState.GREEN && (manualPhase != null
+                    || signalController.shouldEndGreen(intersection, currentGreenDirection, elapsedTime, timings, now))) {
+                // Time to switch (or the operator asked for the other pair), start Yellow phase for the current green pair
+                console("Normal cycle: Green time ended for " + currentGreenDirection + " pair. Starting Yellow.");
                 setYellowPair(currentGreenDirection);
                 phaseStartTime = now;
-            } else if (currentPairLight.getState() == TrafficLightState.YELLOW && elapsedTime >= YELLOW_TIME_MS) {
+            } else if (currentPairLight.getState() == TrafficLightState.YELLOW && elapsedTime >= timings.getYellowTimeMs()) {
                 // Yellow finished for the current pair
-                System.out.println("Normal cycle: Yellow time ended for " + currentGreenDirection + " pair.");
+                console("Normal cycle: Yellow time ended for " + currentGreenDirection + " pair.");
                 // Set current pair to Red
                 setRedPair(currentGreenDirection);
-                // Switch focus to the other pair
-                currentGreenDirection = getOrthogonalDirection(currentGreenDirection);
+                // Let the signal controller pick the next pair (the other one, for fixed-time control)
+                currentGreenDirection = selectNextPhase(now);
                 // Set new pair to Green
-                System.out.println("Normal cycle: Setting " + currentGreenDirection + " pair to GREEN.");
+                console("Normal cycle: Setting " + currentGreenDirection + " pair to GREEN.");
                 setGreenPair(currentGreenDirection);
                 phaseStartTime = now; // Reset timer for the new Green phase
             }
             // else: Still in Green or Red phase, just wait.
         }
 
+        if (profiler != null) {
+            profiler.end();
+            profiler.begin(TickStage.QUEUE_DISCHARGE);
+        }
+
         // --- 4. Process queues for GREEN lights (respects priority) ---
         // Pass the direction that has priority green, or null if none (normal operation)
         processGreenLightQueues(currentPriorityState == PriorityState.GREEN_ACTIVE ? priorityDirection : null);
 
-        // --- 5. Notify Listener (e.g., GUI) ---
-        if (updateListener != null) {
-            // Ensure GUI updates happen on the JavaFX Application Thread
-            final Intersection currentState = this.intersection; // Capture current state for lambda
-            Platform.runLater(() -> updateListener.accept(currentState));
+        if (profiler != null) {
+            profiler.end();
+            profiler.begin(TickStage.LISTENERS);
+        }
+
+        // --- 5. Publish the New State and Notify Listeners (e.g., GUI) ---
+        IntersectionSnapshot published = intersection.publishSnapshot();
+        if (snapshotListener != null) {
+            snapshotListener.accept(published);
+        }
+        if (tickHook != null) {
+            tickHook.run();
+        }
+
+        // --- 6. Periodic checkpoint, between two steps so the state is consistent ---
+        checkpointIfDue(now);
+
+        if (profiler != null) {
+            profiler.end();
+        }
+        stepsRun.incrementAndGet();
+        stepDurationsMicros.record((System.nanoTime() - stepStartNanos) / 1000);
+    }
+
+    // The operator's requested pair if there is one, else the signal controller's choice. Called
+    // when a green is about to start: the phase boundary where pending settings take over.
+    private Direction selectNextPhase(long now) {
+        if (pendingReconfiguration.get() != null) {
+            applyPendingReconfiguration();
+        }
+        Direction next = manualPhase != null ? manualPhase
+                : signalController.selectNextPhase(intersection, currentGreenDirection, now);
+        manualPhase = null;
+        return next;
+    }
+
+    private void removeEmergencyHead(Direction dir) {
+        if (dischargeModel.isExternal()) {
+            return; // External discharge: a vehicle only leaves by crossing (releaseVehicle); it asks again
+        }
+        VehicleType headType = intersection.peekNextVehicleType(dir);
+        if (headType != null && headType.isEmergency()) {
+            console("Explicitly removing " + headType + " from " + dir + " after priority green phase.");
+            intersection.pollNextVehicle(dir, priorityPass);
+        }
+    }
+
+    // --- External Discharge ---
+
+    // The vehicle has crossed the stop line, as decided outside the engine (with
+    // DischargeModel.EXTERNAL); it leaves the queue wherever it is, so departures, waits and
+    // emergency detection follow the vehicle that actually went. Tick thread only, between steps.
+    // False if no vehicle on the approach has that id.
+    public boolean releaseVehicle(Direction dir, int vehicleId) {
+        return intersection.removeVehicle(dir, vehicleId, externalPass);
+    }
+
+    // --- Operator Control ---
+
+    // Asks for the direction's pair to be served next: the current green ends right away (still
+    // through its yellow) and the pair gets green instead of the controller's choice. Emergency
+    // overrides keep precedence; the request waits until they end. Safe from any thread.
+    public void requestPhase(Direction direction) {
+        requestedPhase.set(Objects.requireNonNull(direction, "Direction cannot be null"));
+    }
+
+    // --- State Publication ---
+
+    // Newest state published by the intersection (after each step); lock-free, any thread
+    public IntersectionSnapshot getLatestSnapshot() {
+        return intersection.getSnapshot();
+    }
+
+    // --- Monitoring ---
+
+    public long getStepsRun() {
+        return stepsRun.get();
+    }
+
+    public long getOverridesStarted() {
+        return overridesStarted.get();
+    }
+
+    // Wall-clock time spent in runSimulationStep(), in microseconds
+    public Histogram getStepDurations() {
+        return stepDurationsMicros;
+    }
+
+    // Turns per-stage timing on or off (also on at startup with -Dtraffic.profile.stages=true).
+    // Takes effect from the next step; turning it on again starts with fresh histograms.
+    public void setStageProfilingEnabled(boolean enabled) {
+        profiler = enabled ? (profiler != null ? profiler : new TickProfiler()) : null;
+    }
+
+    // Per-stage timings, or null when stage profiling is off
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    private void console(String message) {
+        if (consoleOutput) {
+            System.out.println(message);
         }
     }
 
     // --- Helper Methods for Light Changes ---
 
     private void setGreenPair(Direction dir) {
+        startGreen(dir);
+        startGreen(getOpposingDirection(dir));
+    }
+
+    private void startGreen(Direction dir) {
+        if (intersection.getLight(dir).getState() != TrafficLightState.GREEN) {
+            // Phase safety: nothing that conflicts with this approach's movements may still be green or yellow
+            if ((FourWayPhases.conflicts(dir) & activeMovements()) != 0) {
+                forceConflictsRed(dir);
+            }
+            // Queue starts moving after the start-up lost time
+            nextReleaseTimes[dir.ordinal()] = clock.currentTimeMillis() + dischargeModel.getStartupLostTimeMs();
+        }
         intersection.setLightState(dir, TrafficLightState.GREEN);
-        intersection.setLightState(getOpposingDirection(dir), TrafficLightState.GREEN);
+    }
+
+    // Movements of every approach whose light is not red (bitmask over FourWayPhases.TOPOLOGY)
+    private long activeMovements() {
+        long active = 0;
+        for (Direction dir : Direction.values()) {
+            if (intersection.getLight(dir).getState() != TrafficLightState.RED) {
+                active |= FourWayPhases.movements(dir);
+            }
+        }
+        return active;
+    }
+
+    private void forceConflictsRed(Direction dir) {
+        for (Direction other : Direction.values()) {
+            if ((FourWayPhases.movements(other) & FourWayPhases.conflicts(dir)) != 0
+                    && intersection.getLight(other).getState() != TrafficLightState.RED) {
+                console("Warning: " + other + " was " + intersection.getLight(other).getState()
+                        + " while " + dir + " got GREEN. Forced RED.");
+                intersection.setLightState(other, TrafficLightState.RED);
+            }
+        }
+    }
+
+    private boolean isPairGreen(Direction dir) {
+        return intersection.getLight(dir).getState() == TrafficLightState.GREEN
+                && intersection.getLight(getOpposingDirection(dir)).getState() == TrafficLightState.GREEN;
     }
 
     private void setYellowPair(Direction dir) {
@@ -238,35 +674,15 @@ public class SimulationEngine {
         intersection.setLightState(getOpposingDirection(dir), TrafficLightState.RED);
     }
 
+    // The other approach of the direction's phase, from the junction topology (NORTH <-> SOUTH...)
     private Direction getOpposingDirection(Direction dir) {
-        switch (dir) {
-            case NORTH:
-                return Direction.SOUTH;
-            case SOUTH:
-                return Direction.NORTH;
-            case EAST:
-                return Direction.WEST;
-            case WEST:
-                return Direction.EAST;
-            default:
-                throw new IllegalArgumentException();
-        }
-        // Default case removed as Direction enum should cover all possibilities
+        return FourWayPhases.opposing(dir);
     }
 
     // Gets the primary direction of the pair orthogonal to the given direction's pair
     // e.g., NORTH/SOUTH -> EAST, EAST/WEST -> NORTH
     private Direction getOrthogonalDirection(Direction dir) {
-        switch (dir) {
-            case NORTH:
-            case SOUTH:
-                return Direction.EAST;
-            case EAST:
-            case WEST:
-                return Direction.NORTH;
-            default:
-                throw new IllegalArgumentException();
-        }
+        return FourWayPhases.orthogonal(dir);
     }
 
 
@@ -281,11 +697,11 @@ public class SimulationEngine {
         TrafficLight light2 = intersection.getLight(getOpposingDirection(orthogonalDir));
 
         if (light1.getState() == TrafficLightState.GREEN || light2.getState() == TrafficLightState.GREEN) {
-            System.out.println("Starting Yellow phase for conflicting pair: " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir));
+            console("Starting Yellow phase for conflicting pair: " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir));
             setYellowPair(orthogonalDir); // This helper now correctly checks if they are green before setting yellow
             yellowStarted = true;
         } else if (light1.getState() == TrafficLightState.YELLOW || light2.getState() == TrafficLightState.YELLOW) {
-            System.out.println("Conflicting pair " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir) + " already Yellow.");
+            console("Conflicting pair " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir) + " already Yellow.");
             yellowStarted = true; // Already in yellow transition
         }
 
@@ -293,7 +709,7 @@ public class SimulationEngine {
         if(intersection.getLight(priorityDir).getState() != TrafficLightState.RED ||
                 intersection.getLight(getOpposingDirection(priorityDir)).getState() != TrafficLightState.RED) {
             setRedPair(priorityDir);
-            System.out.println("Warning: Priority direction pair wasn't RED. Forced RED.");
+            console("Warning: Priority direction pair wasn't RED. Forced RED.");
         }
         return yellowStarted;
     }
@@ -301,54 +717,43 @@ public class SimulationEngine {
     // Helper to set the lights (that were yellowing for priority) to red
     private void setRedPairBasedOnPriority(Direction priorityDir) {
         Direction orthogonalDir = getOrthogonalDirection(priorityDir);
-        System.out.println("Setting conflicting pair " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir) + " to RED.");
+        console("Setting conflicting pair " + orthogonalDir + "/" + getOpposingDirection(orthogonalDir) + " to RED.");
         setRedPair(orthogonalDir);
     }
 
 
     // Modified processGreenLightQueues to handle priority
+    // Discharges every green approach in one bulk call per direction, as far as the discharge model allows
     private void processGreenLightQueues(Direction activePriorityDirection) {
-        // Simple model: Allow one vehicle per step if conditions met
         for (Direction dir : Direction.values()) {
-            if (intersection.getLight(dir).getState() == TrafficLightState.GREEN) {
-                Optional<Vehicle> vehicleOpt = intersection.peekNextVehicle(dir);
-                if (vehicleOpt.isPresent()) {
-                    Vehicle vehicle = vehicleOpt.get();
-                    boolean isEmergency = vehicle.isEmergencyVehicle();
-                    boolean canPass = false;
-
-                    if (activePriorityDirection != null) {
-                        // --- Priority is ACTIVE ---
-                        // Only let the emergency vehicle from the *specific* priority direction pass
-                        if (dir == activePriorityDirection && isEmergency) {
-                            canPass = true;
-                            System.out.println("PRIORITY PASS: Allowing " + vehicle);
-                        } else if (dir == activePriorityDirection /* && !isEmergency */) {
-                            // Optional: Block regular cars even if light is green in priority direction? Yes.
-                            // System.out.println("PRIORITY BLOCK: Normal vehicle " + vehicle + " waiting during priority GREEN for " + dir);
-                        } else {
-                            // Other green lights (shouldn't happen if logic is right, but safety)
-                            // System.out.println("PRIORITY BLOCK: Vehicle " + vehicle + " waiting at other GREEN light " + dir);
-                        }
-                    } else {
-                        // --- Normal Operation (No active priority) ---
-                        // Let non-emergency vehicles pass
-                        if (!isEmergency) {
-                            canPass = true;
-                            System.out.println("NORMAL PASS: Allowing " + vehicle);
-                        } else {
-                            // Emergency vehicle waiting at a normal green light - it should trigger priority soon
-                            System.out.println("NORMAL BLOCK: Emergency vehicle " + vehicle + " detected at GREEN light " + dir + ", waiting for priority trigger.");
-                        }
-                    }
-
-                    if (canPass) {
-                        Vehicle passedVehicle = intersection.getNextVehicle(dir).orElse(null);
-                        // Log is now done before removal check for clarity
-                        // if (passedVehicle != null) { System.out.println("Vehicle passed: " + passedVehicle); }
-                    }
+            if (intersection.getLight(dir).getState() != TrafficLightState.GREEN) {
+                continue;
+            }
+            int d = dir.ordinal();
+            if (activePriorityDirection != null) {
+                // --- Priority is ACTIVE ---
+                // Only emergency vehicles from the priority pair pass (N and S share one override); everybody else waits
+                if (PreemptionScheduler.samePhase(dir, activePriorityDirection)) {
+                    nextReleaseTimes[d] = intersection.dischargeVehicles(dir, nextReleaseTimes[d], dischargeModel, true, priorityPass);
+                }
+            } else {
+                // --- Normal Operation (No active priority) ---
+                // Regular vehicles pass; an emergency vehicle at the head stops the batch
+                nextReleaseTimes[d] = intersection.dischargeVehicles(dir, nextReleaseTimes[d], dischargeModel, false, normalPass);
+                VehicleType headType = intersection.getWaitingEmergencyType(dir);
+                if (headType != null) {
+                    // Emergency vehicle waiting at a normal green light - it should trigger priority soon
+                    intersection.getEventLog().emergencyBlocked(clock.currentTimeMillis(), dir, headType);
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    private void onVehiclePassed(Direction dir, int id, VehicleType type, long arrivalTime, boolean priority) {
+        intersection.getEventLog().vehiclePassed(clock.currentTimeMillis(), dir, id, type, priority);
+        DepartureListener listener = departureListener;
+        if (listener != null) {
+            listener.vehicleDeparted(dir, id, type, arrivalTime);
+        }
+    }
+}
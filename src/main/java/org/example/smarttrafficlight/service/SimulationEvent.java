@@ -0,0 +1,82 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+
+// A timestamped entry in the discrete-event queue.
+// Ordered by time, then by type (arrivals are applied before the engine steps at the same instant),
+// then by scheduling order, so two runs with the same input always process events identically.
+public final class SimulationEvent implements Comparable<SimulationEvent> {
+
+    public enum Type {
+        VEHICLE_ARRIVAL,    // A vehicle joins a queue
+        QUEUE_SERVICE,      // The engine has vehicles to discharge or an emergency to handle
+        PHASE_END,          // A normal green/yellow phase expires
+        EMERGENCY_TIMEOUT   // A priority override phase expires
+    }
+
+    private final long time;
+    private final Type type;
+    private final long sequence;
+    private final Direction direction; // Only set for arrivals
+    private final VehicleType vehicleType; // Only set for arrivals
+    private final int vehicleId; // Arrivals replayed with a known id; -1 = assign a fresh one
+    private boolean cancelled;
+
+    SimulationEvent(long time, Type type, long sequence, Direction direction, VehicleType vehicleType) {
+        this(time, type, sequence, direction, vehicleType, -1);
+    }
+
+    SimulationEvent(long time, Type type, long sequence, Direction direction, VehicleType vehicleType, int vehicleId) {
+        this.time = time;
+        this.type = type;
+        this.sequence = sequence;
+        this.direction = direction;
+        this.vehicleType = vehicleType;
+        this.vehicleId = vehicleId;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        if (time != other.time) {
+            return Long.compare(time, other.time);
+        }
+        if (type != other.type) {
+            return type.compareTo(other.type);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + time + (direction != null ? " " + vehicleType + " from " + direction : "");
+    }
+}
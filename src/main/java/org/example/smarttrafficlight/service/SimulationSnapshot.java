@@ -0,0 +1,212 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+// Complete, immutable state of one intersection and its engine at a point in simulated time:
+// queues, lights, max wait times, phase state machine, signal timings and the vehicle id counter.
+//
+// Taken with SimulationEngine.captureSnapshot() between two steps (see also Checkpointer), saved in
+// a compact binary format, and restored with SimulationEngine.restoreSnapshot(). Because a snapshot
+// never changes, the same one can be restored into any number of simulations, e.g. to fork a long
+// scenario at some point and explore several branches in parallel (DiscreteEventSimulation.fromSnapshot).
+//
+// Format (big-endian): magic "STLS", version, time, last vehicle id, timings (3 longs),
+// engine phase (green direction, priority state, priority direction or -1, phase start),
+// then per direction: light state, max wait, next discharge release time, queue length and the
+// queued vehicles (id, type, arrival). Version 1 files (no release times) can still be read.
+public final class SimulationSnapshot {
+
+    private static final int MAGIC = 0x53544C53; // "STLS"
+    private static final int VERSION = 2; // 2: discharge release times
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final TrafficLightState[] LIGHT_STATES = TrafficLightState.values();
+    private static final int PRIORITY_STATE_COUNT = SimulationEngine.PriorityState.values().length;
+    private static final int TYPE_COUNT = VehicleType.values().length;
+
+    final long time;
+    final int lastVehicleId;
+    final SignalTimings timings;
+    final Direction currentGreenDirection;
+    final int priorityState; // SimulationEngine.PriorityState ordinal
+    final Direction priorityDirection; // null when no override is active
+    final long phaseStartTime;
+    final TrafficLightState[] lightStates; // Indexed by Direction ordinal
+    final long[] maxWaitTimes;
+    final long[] nextReleaseTimes; // Discharge model state per direction
+    final VehicleQueue.Columns[] queues;
+
+    SimulationSnapshot(long time, int lastVehicleId, SignalTimings timings, Direction currentGreenDirection,
+                       int priorityState, Direction priorityDirection, long phaseStartTime,
+                       TrafficLightState[] lightStates, long[] maxWaitTimes, long[] nextReleaseTimes,
+                       VehicleQueue.Columns[] queues) {
+        this.time = time;
+        this.lastVehicleId = lastVehicleId;
+        this.timings = timings;
+        this.currentGreenDirection = currentGreenDirection;
+        this.priorityState = priorityState;
+        this.priorityDirection = priorityDirection;
+        this.phaseStartTime = phaseStartTime;
+        this.lightStates = lightStates;
+        this.maxWaitTimes = maxWaitTimes;
+        this.nextReleaseTimes = nextReleaseTimes;
+        this.queues = queues;
+    }
+
+    // Captures the intersection part; the engine fills in its own fields. Queues that have not
+    // changed since 'previous' (the engine's last capture, may be null) share its columns, so a
+    // checkpoint only copies the approaches that moved in between.
+    static SimulationSnapshot capture(Intersection intersection, SimulationSnapshot previous, long time,
+                                      SignalTimings timings, Direction currentGreenDirection, int priorityState,
+                                      Direction priorityDirection, long phaseStartTime, long[] nextReleaseTimes) {
+        TrafficLightState[] lightStates = new TrafficLightState[DIRECTIONS.length];
+        long[] maxWaits = new long[DIRECTIONS.length];
+        VehicleQueue.Columns[] queues = new VehicleQueue.Columns[DIRECTIONS.length];
+        Map<Direction, Long> maxWaitTimes = intersection.getMaxWaitTimes();
+        for (Direction dir : DIRECTIONS) {
+            lightStates[dir.ordinal()] = intersection.getLight(dir).getState();
+            maxWaits[dir.ordinal()] = maxWaitTimes.get(dir);
+            queues[dir.ordinal()] = intersection.copyQueue(dir, previous == null ? null : previous.queues[dir.ordinal()]);
+        }
+        return new SimulationSnapshot(time, Vehicle.lastIssuedId(), timings, currentGreenDirection, priorityState,
+                priorityDirection, phaseStartTime, lightStates, maxWaits, nextReleaseTimes.clone(), queues);
+    }
+
+    // --- Accessors ---
+
+    // Simulation time at which the snapshot was taken
+    public long getTime() {
+        return time;
+    }
+
+    public int getQueueSize(Direction direction) {
+        return queues[direction.ordinal()].ids.length;
+    }
+
+    public TrafficLightState getLightState(Direction direction) {
+        return lightStates[direction.ordinal()];
+    }
+
+    public SignalTimings getTimings() {
+        return timings;
+    }
+
+    // --- Binary Format ---
+
+    public void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(time);
+        out.writeInt(lastVehicleId);
+        out.writeLong(timings.getNormalGreenTimeMs());
+        out.writeLong(timings.getYellowTimeMs());
+        out.writeLong(timings.getPriorityOverrideTimeMs());
+        out.writeByte(currentGreenDirection.ordinal());
+        out.writeByte(priorityState);
+        out.writeByte(priorityDirection == null ? -1 : priorityDirection.ordinal());
+        out.writeLong(phaseStartTime);
+        for (Direction dir : DIRECTIONS) {
+            VehicleQueue.Columns queue = queues[dir.ordinal()];
+            out.writeByte(lightStates[dir.ordinal()].ordinal());
+            out.writeLong(maxWaitTimes[dir.ordinal()]);
+            out.writeLong(nextReleaseTimes[dir.ordinal()]);
+            out.writeInt(queue.ids.length);
+            for (int i = 0; i < queue.ids.length; i++) {
+                out.writeInt(queue.ids[i]);
+                out.writeByte(queue.types[i]);
+                out.writeLong(queue.arrivalTimes[i]);
+            }
+        }
+        out.flush();
+    }
+
+    public static SimulationSnapshot readFrom(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a simulation snapshot");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        long time = in.readLong();
+        int lastVehicleId = in.readInt();
+        SignalTimings timings = new SignalTimings(in.readLong(), in.readLong(), in.readLong());
+        Direction currentGreenDirection = DIRECTIONS[checkIndex(in.readByte(), DIRECTIONS.length)];
+        int priorityState = checkIndex(in.readByte(), PRIORITY_STATE_COUNT);
+        int priorityOrdinal = in.readByte();
+        Direction priorityDirection = priorityOrdinal < 0 ? null : DIRECTIONS[checkIndex(priorityOrdinal, DIRECTIONS.length)];
+        long phaseStartTime = in.readLong();
+
+        TrafficLightState[] lightStates = new TrafficLightState[DIRECTIONS.length];
+        long[] maxWaits = new long[DIRECTIONS.length];
+        long[] nextReleaseTimes = new long[DIRECTIONS.length];
+        VehicleQueue.Columns[] queues = new VehicleQueue.Columns[DIRECTIONS.length];
+        for (Direction dir : DIRECTIONS) {
+            lightStates[dir.ordinal()] = LIGHT_STATES[checkIndex(in.readByte(), LIGHT_STATES.length)];
+            maxWaits[dir.ordinal()] = in.readLong();
+            nextReleaseTimes[dir.ordinal()] = version >= 2 ? in.readLong() : time; // v1: queues may move at once
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Corrupt snapshot: negative queue size " + size);
+            }
+            VehicleQueue.Columns queue = new VehicleQueue.Columns(size);
+            for (int i = 0; i < size; i++) {
+                queue.ids[i] = in.readInt();
+                queue.types[i] = (byte) checkIndex(in.readByte(), TYPE_COUNT);
+                queue.arrivalTimes[i] = in.readLong();
+            }
+            queues[dir.ordinal()] = queue;
+        }
+        return new SimulationSnapshot(time, lastVehicleId, timings, currentGreenDirection, priorityState,
+                priorityDirection, phaseStartTime, lightStates, maxWaits, nextReleaseTimes, queues);
+    }
+
+    private static int checkIndex(int index, int length) throws IOException {
+        if (index < 0 || index >= length) {
+            throw new IOException("Corrupt snapshot: value " + index + " out of range");
+        }
+        return index;
+    }
+
+    // Writes to a temporary file first and moves it into place, so a crash mid-write never
+    // leaves a truncated checkpoint under the final name
+    public void save(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            writeTo(out);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static SimulationSnapshot load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return readFrom(in);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder queued = new StringBuilder();
+        for (Direction dir : DIRECTIONS) {
+            queued.append(queued.length() == 0 ? "" : ", ").append(dir).append('=').append(getQueueSize(dir));
+        }
+        return "Snapshot@" + time + "[green=" + currentGreenDirection + ", queues={" + queued + "}]";
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.smarttrafficlight.service;
+
+// Runs ticks back-to-back on the calling thread, advancing a ManualClock by a fixed
+// simulated step before each one. Simulated time is decoupled from wall-clock time,
+// so a batch run goes as fast as the engine can step.
+//
+// start() blocks until maxTicks have run or stop() is called (e.g. from inside a tick).
+public class SteppingTickDriver implements TickDriver {
+
+    private final ManualClock clock;
+    private final long stepMillis;
+    private final long maxTicks;
+    private volatile boolean running;
+    private long ticksRun;
+
+    public SteppingTickDriver(ManualClock clock, long stepMillis, long maxTicks) {
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("Step must be positive");
+        }
+        this.clock = clock;
+        this.stepMillis = stepMillis;
+        this.maxTicks = maxTicks;
+    }
+
+    @Override
+    public void start(Runnable tick) {
+        running = true;
+        ticksRun = 0;
+        try {
+            while (running && ticksRun < maxTicks) {
+                clock.advance(stepMillis);
+                tick.run();
+                ticksRun++;
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getTicksRun() {
+        return ticksRun;
+    }
+}
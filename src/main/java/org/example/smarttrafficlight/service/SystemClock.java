@@ -0,0 +1,15 @@
+package org.example.smarttrafficlight.service;
+
+// Wall-clock time, used when the simulation runs in real time (e.g. behind the GUI).
+public final class SystemClock implements SimulationClock {
+
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    private SystemClock() {
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
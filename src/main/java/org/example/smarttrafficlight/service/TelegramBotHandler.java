@@ -1,5 +1,8 @@
 package org.example.smarttrafficlight.service;
 
+import org.example.smarttrafficlight.command.CommandServer;
+import org.example.smarttrafficlight.notification.NotificationException;
+import org.example.smarttrafficlight.notification.Notifier;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
@@ -7,11 +10,12 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
-public class TelegramBotHandler extends TelegramLongPollingBot {
+public class TelegramBotHandler extends TelegramLongPollingBot implements Notifier {
 
     private final String botUsername;
     private final String botToken;
     private final String chatId; // The chat ID to send messages to
+    private volatile CommandServer commandServer; // Answers operator commands; null if not attached
 
     // Constructor to receive bot credentials and chat ID
     public TelegramBotHandler(String botUsername, String botToken, String chatId) {
@@ -31,9 +35,8 @@ public class TelegramBotHandler extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
-        // We are primarily using this bot for sending output,
-        // but you could handle incoming commands here if needed.
-        // Example: Respond to a /status command
+        // Called on the library's polling thread: commands are handed to the CommandServer, which
+        // answers on its own threads, so slow replies never hold up the next update
         if (update.hasMessage() && update.getMessage().hasText()) {
             String messageText = update.getMessage().getText();
             long receivedChatId = update.getMessage().getChatId();
@@ -41,23 +44,33 @@ public class TelegramBotHandler extends TelegramLongPollingBot {
             System.out.println("Received message: '" + messageText + "' from chat ID: " + receivedChatId);
 
 
-            if (messageText.equals("/start")) {
-                sendMessage(receivedChatId, "Smart Traffic Light Bot started. I will send updates here.");
-            } else if (messageText.equals("/help")) {
-                sendMessage(receivedChatId, "I send automatic updates about traffic simulation events (e.g., emergencies). No commands needed for that.");
+            CommandServer server = commandServer;
+            try {
+                if (server != null) {
+                    server.submit(receivedChatId, messageText);
+                } else if (messageText.equals("/start")) {
+                    sendMessage(receivedChatId, "Smart Traffic Light Bot started. I will send updates here.");
+                } else if (messageText.equals("/help")) {
+                    sendMessage(receivedChatId, "I send automatic updates about traffic simulation events (e.g., emergencies). No commands needed for that.");
+                }
+            } catch (NotificationException e) {
+                System.err.println(e.getMessage()); // Nothing to retry on the polling thread
             }
-            // Add more command handling here if desired
         }
     }
 
     // Method to send messages TO the configured chat ID
+    // Blocks on a network round trip: wrap in an AsyncNotifier when calling from the simulation
+    @Override
     public void sendMessage(String messageText) {
         sendMessage(Long.parseLong(this.chatId), messageText); // Send to the pre-configured chat
     }
 
 
-    // Internal method to send message to any chat ID
-    private void sendMessage(long targetChatId, String messageText) {
+    // Method to send message to any chat ID
+    // Throws NotificationException if Telegram did not take the message, so the outbox counts it as failed
+    @Override
+    public void sendMessage(long targetChatId, String messageText) {
         SendMessage message = new SendMessage();
         message.setChatId(String.valueOf(targetChatId)); // Set target chat
         message.setText(messageText);
@@ -65,11 +78,15 @@ public class TelegramBotHandler extends TelegramLongPollingBot {
             execute(message); // Send the message
             System.out.println("Sent message to Telegram: " + messageText);
         } catch (TelegramApiException e) {
-            System.err.println("Failed to send message: " + e.getMessage());
-            e.printStackTrace();
+            throw new NotificationException("Failed to send message to chat " + targetChatId + ": " + e.getMessage(), e);
         }
     }
 
+    // Handles /status, /queues, /metrics, /override... once the simulation is set up
+    public void setCommandServer(CommandServer server) {
+        this.commandServer = server;
+    }
+
     // Method to register the bot
     public void registerBot() {
         try {
@@ -77,6 +94,8 @@ public class TelegramBotHandler extends TelegramLongPollingBot {
             botsApi.registerBot(this);
             System.out.println("Telegram Bot '" + getBotUsername() + "' registered successfully!");
             sendMessage("Bot is online and connected to the simulation.");
+        } catch (NotificationException e) {
+            System.err.println(e.getMessage()); // Registered; only the greeting did not go out
         } catch (TelegramApiException e) {
             System.err.println("Error registering Telegram bot: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,13 @@
+package org.example.smarttrafficlight.service;
+
+// Decides *when* the engine ticks. The engine only knows how to perform one step;
+// a driver (JavaFX Timeline, scheduled executor, tight loop, ...) calls it.
+public interface TickDriver {
+
+    // Starts calling the given tick. Synchronous drivers may only return once they are done.
+    void start(Runnable tick);
+
+    void stop();
+
+    boolean isRunning();
+}
@@ -0,0 +1,471 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Queue of vehicles waiting on one approach, stored as primitive columns instead of Vehicle objects.
+//
+// VehicleType only has a handful of priority levels, so instead of a binary heap there is one FIFO
+// ring buffer per level: the head of the queue is the head of the highest non-empty level. Within a
+// level vehicles leave in the order they were added (i.e. arrival order), as before.
+// Each queued vehicle costs 13 bytes (id, type ordinal, arrival time) and no object header.
+//
+// All methods synchronize on the queue; there is one queue per direction, so contention is limited
+// to the engine and whoever adds vehicles to that same approach.
+// If the queue belongs to an Intersection, every emergency vehicle added or removed is also
+// reported to the intersection's EmergencyIndex (under the queue lock, so the two always agree),
+// and every departure to the intersection's observers (after the lock, just before the caller's
+// listener) through one listener fixed at construction, so departures allocate nothing.
+public final class VehicleQueue {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final int INITIAL_CAPACITY = 16; // Per level, must be a power of two
+
+    // Ring index for each VehicleType ordinal; ring 0 holds the highest priority level
+    private static final int[] RING_OF_TYPE = new int[TYPES.length];
+    private static final int LEVEL_COUNT;
+
+    static {
+        int[] levels = Arrays.stream(TYPES).mapToInt(VehicleType::getPriorityLevel).distinct()
+                .map(level -> -level).sorted().map(level -> -level).toArray(); // Distinct levels, descending
+        LEVEL_COUNT = levels.length;
+        for (VehicleType type : TYPES) {
+            for (int ring = 0; ring < levels.length; ring++) {
+                if (levels[ring] == type.getPriorityLevel()) {
+                    RING_OF_TYPE[type.ordinal()] = ring;
+                }
+            }
+        }
+    }
+
+    private final Direction direction;
+    private final EmergencyIndex emergencyIndex; // May be null
+    private final DepartureListener observers;   // May be null; told about every departure first
+    private final Ring[] rings = new Ring[LEVEL_COUNT];
+    private int size;
+    private long maxWait; // Longest wait of a departed vehicle (ms)
+    private volatile long version; // Bumped (under the lock) on every change; readable without it
+
+    // Vehicles released by the current drain(), reported to the listener after the lock is released.
+    // Only the engine's tick thread drains, so one scratch buffer per queue is enough.
+    private int[] drainedIds = new int[INITIAL_CAPACITY];
+    private byte[] drainedTypes = new byte[INITIAL_CAPACITY];
+    private long[] drainedArrivals = new long[INITIAL_CAPACITY];
+
+    public VehicleQueue(Direction direction) {
+        this(direction, null, null);
+    }
+
+    VehicleQueue(Direction direction, EmergencyIndex emergencyIndex) {
+        this(direction, emergencyIndex, null);
+    }
+
+    VehicleQueue(Direction direction, EmergencyIndex emergencyIndex, DepartureListener observers) {
+        this.direction = direction;
+        this.emergencyIndex = emergencyIndex;
+        this.observers = observers;
+        for (int i = 0; i < LEVEL_COUNT; i++) {
+            rings[i] = new Ring(INITIAL_CAPACITY);
+        }
+    }
+
+    // --- Writes ---
+
+    public synchronized void add(int vehicleId, VehicleType type, long arrivalTime) {
+        rings[RING_OF_TYPE[type.ordinal()]].add(vehicleId, (byte) type.ordinal(), arrivalTime);
+        size++;
+        version++;
+        if (emergencyIndex != null) {
+            emergencyIndex.added(direction, type);
+        }
+    }
+
+    // Adds a batch under a single lock acquisition; ids are firstId, firstId + 1, ...
+    public synchronized void addAll(int firstId, VehicleType[] types, long[] arrivalTimes, int count) {
+        for (int i = 0; i < count; i++) {
+            VehicleType type = types[i];
+            rings[RING_OF_TYPE[type.ordinal()]].add(firstId + i, (byte) type.ordinal(), arrivalTimes[i]);
+            if (emergencyIndex != null) {
+                emergencyIndex.added(direction, type);
+            }
+        }
+        size += count;
+        version++;
+    }
+
+    // Removes the head vehicle and reports it to the listener (outside the lock).
+    // Returns false if the queue was empty.
+    public boolean poll(DepartureListener listener) {
+        return poll(listener, Long.MIN_VALUE);
+    }
+
+    // Same, and records the vehicle's wait (now - arrival) towards getMaxWait()
+    public boolean poll(DepartureListener listener, long now) {
+        int id;
+        int typeOrdinal;
+        long arrivalTime;
+        synchronized (this) {
+            Ring ring = headRing();
+            if (ring == null) {
+                return false;
+            }
+            id = ring.ids[ring.head];
+            typeOrdinal = ring.types[ring.head];
+            arrivalTime = ring.arrivalTimes[ring.head];
+            ring.removeHead();
+            size--;
+            version++;
+            if (emergencyIndex != null) {
+                emergencyIndex.removed(direction, TYPES[typeOrdinal]);
+            }
+            if (now != Long.MIN_VALUE && now - arrivalTime > maxWait) {
+                maxWait = now - arrivalTime;
+            }
+        }
+        departed(listener, id, TYPES[typeOrdinal], arrivalTime);
+        return true;
+    }
+
+    // Bulk discharge: releases head vehicles under a single lock acquisition, as long as
+    //  - the head's kind matches (emergency vehicles only, or regular vehicles only),
+    //  - its release time max(nextRelease, its arrival) is not after 'now',
+    //  - and fewer than the model's per-step maximum have crossed.
+    // Each release pushes nextRelease back by the vehicle's headway. Returns the updated nextRelease;
+    // the listener hears about every released vehicle, in order, once the lock is released.
+    public long drain(long now, long nextRelease, DischargeModel model, boolean emergencies,
+                      DepartureListener listener) {
+        int released = 0;
+        synchronized (this) {
+            int limit = model.getMaxVehiclesPerStep();
+            while (released < limit) {
+                Ring ring = headRing();
+                if (ring == null) {
+                    break;
+                }
+                int index = ring.head;
+                VehicleType type = TYPES[ring.types[index]];
+                if (type.isEmergency() != emergencies) {
+                    break;
+                }
+                long arrivalTime = ring.arrivalTimes[index];
+                long releaseTime = Math.max(nextRelease, arrivalTime);
+                if (releaseTime > now) {
+                    break;
+                }
+                if (released == drainedIds.length) {
+                    growDrainBuffer();
+                }
+                drainedIds[released] = ring.ids[index];
+                drainedTypes[released] = ring.types[index];
+                drainedArrivals[released] = arrivalTime;
+                released++;
+                ring.removeHead();
+                size--;
+                if (emergencyIndex != null) {
+                    emergencyIndex.removed(direction, type);
+                }
+                if (now - arrivalTime > maxWait) {
+                    maxWait = now - arrivalTime;
+                }
+                nextRelease = releaseTime + model.getHeadwayMs(type);
+            }
+            if (released > 0) {
+                version++;
+            }
+        }
+        for (int i = 0; i < released; i++) {
+            departed(listener, drainedIds[i], TYPES[drainedTypes[i]], drainedArrivals[i]);
+        }
+        return nextRelease;
+    }
+
+    private void growDrainBuffer() {
+        int capacity = drainedIds.length * 2;
+        drainedIds = Arrays.copyOf(drainedIds, capacity);
+        drainedTypes = Arrays.copyOf(drainedTypes, capacity);
+        drainedArrivals = Arrays.copyOf(drainedArrivals, capacity);
+    }
+
+    // Removes a specific vehicle wherever it is in the queue and reports it to the listener (outside
+    // the lock), recording its wait like poll(). For departures decided outside the queue order, e.g.
+    // the vehicle that physically crossed the stop line; that is normally the head of its level, so
+    // the search stops after a few entries. Returns false if no vehicle has that id.
+    public boolean remove(int vehicleId, DepartureListener listener, long now) {
+        int typeOrdinal = -1;
+        long arrivalTime = 0;
+        synchronized (this) {
+            for (Ring ring : rings) {
+                int offset = ring.indexOf(vehicleId);
+                if (offset >= 0) {
+                    int index = (ring.head + offset) & (ring.ids.length - 1);
+                    typeOrdinal = ring.types[index];
+                    arrivalTime = ring.arrivalTimes[index];
+                    ring.removeAt(offset);
+                    break;
+                }
+            }
+            if (typeOrdinal < 0) {
+                return false;
+            }
+            size--;
+            version++;
+            if (emergencyIndex != null) {
+                emergencyIndex.removed(direction, TYPES[typeOrdinal]);
+            }
+            if (now != Long.MIN_VALUE && now - arrivalTime > maxWait) {
+                maxWait = now - arrivalTime;
+            }
+        }
+        departed(listener, vehicleId, TYPES[typeOrdinal], arrivalTime);
+        return true;
+    }
+
+    // Reports one departure, outside the lock: the intersection's observers first, then the caller
+    private void departed(DepartureListener listener, int id, VehicleType type, long arrivalTime) {
+        if (observers != null) {
+            observers.vehicleDeparted(direction, id, type, arrivalTime);
+        }
+        if (listener != null) {
+            listener.vehicleDeparted(direction, id, type, arrivalTime);
+        }
+    }
+
+    public synchronized void clear() {
+        for (Ring ring : rings) {
+            ring.head = 0;
+            ring.count = 0;
+        }
+        size = 0;
+        version++;
+        if (emergencyIndex != null) {
+            emergencyIndex.clear(direction);
+        }
+    }
+
+    // --- Allocation-free Reads ---
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getMaxWait() {
+        return maxWait;
+    }
+
+    // Changes whenever the queue does; equal versions mean equal contents (render/snapshot caching)
+    public long getVersion() {
+        return version;
+    }
+
+    // Copies up to ids.length head vehicles, in departure order, into the given columns and
+    // returns the queue size, both taken under one lock acquisition
+    public synchronized int copyHead(int[] ids, byte[] types, long[] arrivalTimes) {
+        int copied = 0;
+        for (Ring ring : rings) {
+            for (int i = 0; i < ring.count && copied < ids.length; i++, copied++) {
+                int index = (ring.head + i) & (ring.ids.length - 1);
+                ids[copied] = ring.ids[index];
+                types[copied] = ring.types[index];
+                arrivalTimes[copied] = ring.arrivalTimes[index];
+            }
+        }
+        return size;
+    }
+
+    // Type of the head vehicle, or null if the queue is empty
+    public synchronized VehicleType peekType() {
+        Ring ring = headRing();
+        return ring == null ? null : TYPES[ring.types[ring.head]];
+    }
+
+    // Arrival time of the head vehicle, or Long.MIN_VALUE if the queue is empty
+    public synchronized long peekArrivalTime() {
+        Ring ring = headRing();
+        return ring == null ? Long.MIN_VALUE : ring.arrivalTimes[ring.head];
+    }
+
+    // --- Object Views (GUI, convenience API; these allocate) ---
+
+    public synchronized Vehicle peekVehicle() {
+        Ring ring = headRing();
+        return ring == null ? null : ring.vehicleAt(0, direction);
+    }
+
+    public Vehicle pollVehicle() {
+        return pollVehicle(Long.MIN_VALUE);
+    }
+
+    public Vehicle pollVehicle(long now) {
+        Vehicle[] polled = new Vehicle[1];
+        poll((dir, id, type, arrivalTime) -> polled[0] = Vehicle.withId(id, type, dir, arrivalTime), now);
+        return polled[0];
+    }
+
+    // The first 'count' vehicles in departure order
+    public synchronized List<Vehicle> preview(int count) {
+        List<Vehicle> preview = new ArrayList<>(Math.min(count, size));
+        for (Ring ring : rings) {
+            for (int i = 0; i < ring.count && preview.size() < count; i++) {
+                preview.add(ring.vehicleAt(i, direction));
+            }
+        }
+        return preview;
+    }
+
+    // --- Checkpoint Support ---
+
+    // Copy of the queued vehicles in departure order: a couple of array copies per ring under the
+    // lock, so a checkpoint only holds up the engine for as long as it takes to copy the live columns.
+    // Copy-on-write between checkpoints: if the queue has not changed since 'previous' was copied
+    // from it, 'previous' itself is returned (Columns are never modified once taken).
+    synchronized Columns copyColumns(Columns previous) {
+        if (previous != null && previous.version == version) {
+            return previous;
+        }
+        Columns columns = new Columns(size, version);
+        int offset = 0;
+        for (Ring ring : rings) {
+            offset = ring.copyTo(columns, offset);
+        }
+        return columns;
+    }
+
+    // Replaces the queue contents with the given vehicles (in departure order), arrival times shifted by 'timeShift'
+    synchronized void restore(Columns columns, long maxWait, long timeShift) {
+        clear();
+        this.maxWait = maxWait;
+        for (int i = 0; i < columns.ids.length; i++) {
+            byte type = columns.types[i];
+            rings[RING_OF_TYPE[type]].add(columns.ids[i], type, columns.arrivalTimes[i] + timeShift);
+            if (emergencyIndex != null) {
+                emergencyIndex.added(direction, TYPES[type]);
+            }
+        }
+        size = columns.ids.length;
+    }
+
+    // Queue contents as three parallel arrays, in departure order
+    static final class Columns {
+        final int[] ids;
+        final byte[] types; // VehicleType ordinals
+        final long[] arrivalTimes;
+        final long version; // Queue version the copy was taken at; -1 if not copied from a live queue
+
+        Columns(int size) {
+            this(size, -1);
+        }
+
+        private Columns(int size, long version) {
+            ids = new int[size];
+            types = new byte[size];
+            arrivalTimes = new long[size];
+            this.version = version;
+        }
+    }
+
+    private Ring headRing() {
+        for (Ring ring : rings) {
+            if (ring.count > 0) {
+                return ring;
+            }
+        }
+        return null;
+    }
+
+    // FIFO ring buffer of primitive columns for one priority level
+    private static final class Ring {
+        int[] ids;
+        byte[] types;
+        long[] arrivalTimes;
+        int head;
+        int count;
+
+        Ring(int capacity) {
+            ids = new int[capacity];
+            types = new byte[capacity];
+            arrivalTimes = new long[capacity];
+        }
+
+        void add(int id, byte type, long arrivalTime) {
+            if (count == ids.length) {
+                grow();
+            }
+            int tail = (head + count) & (ids.length - 1);
+            ids[tail] = id;
+            types[tail] = type;
+            arrivalTimes[tail] = arrivalTime;
+            count++;
+        }
+
+        void removeHead() {
+            head = (head + 1) & (ids.length - 1);
+            count--;
+        }
+
+        // Offset from the head of the vehicle with this id, or -1
+        int indexOf(int id) {
+            int mask = ids.length - 1;
+            for (int i = 0; i < count; i++) {
+                if (ids[(head + i) & mask] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Removes the vehicle at 'offset' from the head; the ones behind it move up one place
+        void removeAt(int offset) {
+            int mask = ids.length - 1;
+            for (int i = offset; i < count - 1; i++) {
+                int to = (head + i) & mask;
+                int from = (head + i + 1) & mask;
+                ids[to] = ids[from];
+                types[to] = types[from];
+                arrivalTimes[to] = arrivalTimes[from];
+            }
+            count--;
+        }
+
+        // Copies this ring's vehicles into the columns at 'offset' (at most two segments: before and after the wrap)
+        int copyTo(Columns columns, int offset) {
+            int firstPart = Math.min(count, ids.length - head);
+            System.arraycopy(ids, head, columns.ids, offset, firstPart);
+            System.arraycopy(types, head, columns.types, offset, firstPart);
+            System.arraycopy(arrivalTimes, head, columns.arrivalTimes, offset, firstPart);
+            int secondPart = count - firstPart;
+            System.arraycopy(ids, 0, columns.ids, offset + firstPart, secondPart);
+            System.arraycopy(types, 0, columns.types, offset + firstPart, secondPart);
+            System.arraycopy(arrivalTimes, 0, columns.arrivalTimes, offset + firstPart, secondPart);
+            return offset + count;
+        }
+
+        Vehicle vehicleAt(int offset, Direction direction) {
+            int index = (head + offset) & (ids.length - 1);
+            return Vehicle.withId(ids[index], TYPES[types[index]], direction, arrivalTimes[index]);
+        }
+
+        // Doubles the capacity and unwraps the ring so the head is at index 0
+        private void grow() {
+            int capacity = ids.length;
+            int[] newIds = new int[capacity * 2];
+            byte[] newTypes = new byte[capacity * 2];
+            long[] newArrivalTimes = new long[capacity * 2];
+            int firstPart = capacity - head;
+            System.arraycopy(ids, head, newIds, 0, firstPart);
+            System.arraycopy(ids, 0, newIds, firstPart, head);
+            System.arraycopy(types, head, newTypes, 0, firstPart);
+            System.arraycopy(types, 0, newTypes, firstPart, head);
+            System.arraycopy(arrivalTimes, head, newArrivalTimes, 0, firstPart);
+            System.arraycopy(arrivalTimes, 0, newArrivalTimes, firstPart, head);
+            ids = newIds;
+            types = newTypes;
+            arrivalTimes = newArrivalTimes;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.SignalTimings;
+
+// Vehicle-actuated control: a green lasts at least minGreen, is extended while its approaches still
+// have queued vehicles, "gaps out" as soon as they are empty, and never exceeds maxGreen.
+// Phases without demand are skipped.
+public class ActuatedController implements SignalController {
+
+    private final long minGreenMs;
+    private final long maxGreenMs;
+
+    public ActuatedController(long minGreenMs, long maxGreenMs) {
+        if (minGreenMs <= 0 || maxGreenMs < minGreenMs) {
+            throw new IllegalArgumentException("Need 0 < minGreen <= maxGreen, got " + minGreenMs + "/" + maxGreenMs);
+        }
+        this.minGreenMs = minGreenMs;
+        this.maxGreenMs = maxGreenMs;
+    }
+
+    @Override
+    public boolean shouldEndGreen(Intersection intersection, Direction phase, long greenElapsedMs,
+                                  SignalTimings timings, long now) {
+        if (greenElapsedMs < minGreenMs) {
+            return false;
+        }
+        if (greenElapsedMs >= maxGreenMs) {
+            return true;
+        }
+        int phaseIndex = Phases.indexOf(phase);
+        // Gap out only if someone else is waiting; otherwise keep the green (no point cycling empty phases)
+        return Phases.demand(intersection, phaseIndex) == 0 && Phases.demand(intersection, 1 - phaseIndex) > 0;
+    }
+
+    @Override
+    public long earliestGreenEnd(Intersection intersection, Direction phase, long phaseStartTime,
+                                 SignalTimings timings, long now) {
+        int phaseIndex = Phases.indexOf(phase);
+        if (Phases.demand(intersection, phaseIndex) == 0 && Phases.demand(intersection, 1 - phaseIndex) > 0) {
+            return phaseStartTime + minGreenMs;
+        }
+        return phaseStartTime + maxGreenMs;
+    }
+
+    @Override
+    public Direction selectNextPhase(Intersection intersection, Direction endingPhase, long now) {
+        Direction other = Phases.other(endingPhase);
+        // Skip the other phase only if it has nobody waiting and this one still does
+        if (Phases.demand(intersection, Phases.indexOf(other)) == 0
+                && Phases.demand(intersection, Phases.indexOf(endingPhase)) > 0) {
+            return Phases.ALL[Phases.indexOf(endingPhase)];
+        }
+        return other;
+    }
+
+    @Override
+    public String getName() {
+        return "actuated(" + minGreenMs + "-" + maxGreenMs + "ms)";
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.SignalTimings;
+
+// The classic cycle: every phase gets the configured green time, phases strictly alternate.
+public class FixedTimeController implements SignalController {
+
+    @Override
+    public boolean shouldEndGreen(Intersection intersection, Direction phase, long greenElapsedMs,
+                                  SignalTimings timings, long now) {
+        return greenElapsedMs >= timings.getNormalGreenTimeMs();
+    }
+
+    @Override
+    public long earliestGreenEnd(Intersection intersection, Direction phase, long phaseStartTime,
+                                 SignalTimings timings, long now) {
+        return phaseStartTime + timings.getNormalGreenTimeMs();
+    }
+
+    @Override
+    public Direction selectNextPhase(Intersection intersection, Direction endingPhase, long now) {
+        return Phases.other(endingPhase);
+    }
+
+    @Override
+    public String getName() {
+        return "fixed-time";
+    }
+}
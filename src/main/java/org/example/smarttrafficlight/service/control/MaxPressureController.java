@@ -0,0 +1,138 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.SignalTimings;
+
+// Max-pressure control for an isolated junction. The pressure of a phase is the weighted sum, over
+// its approaches, of the queue length and of how long the head vehicle has been waiting:
+//
+//   pressure = queueWeight * queued + waitWeight * headWaitSeconds
+//
+// After minGreen the green moves to another phase as soon as that phase's pressure exceeds the
+// current one by more than switchMargin; maxGreen bounds the green regardless.
+// Each decision reads two queue sizes and two head arrival times per phase: O(phases), no allocation.
+public class MaxPressureController implements SignalController {
+
+    private final long minGreenMs;
+    private final long maxGreenMs;
+    private final long queueWeight;
+    private final long waitWeight;
+    private final long switchMargin;
+
+    public MaxPressureController(long minGreenMs, long maxGreenMs) {
+        this(minGreenMs, maxGreenMs, 10, 1, 10); // One queued vehicle ~ ten seconds of head wait
+    }
+
+    public MaxPressureController(long minGreenMs, long maxGreenMs, long queueWeight, long waitWeight, long switchMargin) {
+        if (minGreenMs <= 0 || maxGreenMs < minGreenMs) {
+            throw new IllegalArgumentException("Need 0 < minGreen <= maxGreen, got " + minGreenMs + "/" + maxGreenMs);
+        }
+        this.minGreenMs = minGreenMs;
+        this.maxGreenMs = maxGreenMs;
+        this.queueWeight = queueWeight;
+        this.waitWeight = waitWeight;
+        this.switchMargin = switchMargin;
+    }
+
+    @Override
+    public boolean shouldEndGreen(Intersection intersection, Direction phase, long greenElapsedMs,
+                                  SignalTimings timings, long now) {
+        if (greenElapsedMs < minGreenMs) {
+            return false;
+        }
+        if (greenElapsedMs >= maxGreenMs) {
+            return true;
+        }
+        int current = Phases.indexOf(phase);
+        return pressure(intersection, 1 - current, now) > pressure(intersection, current, now) + switchMargin;
+    }
+
+    // Without arrivals or departures, the pressure difference (other phase minus this one) only
+    // changes when a head wait passes a whole second. Within any second it changes at most once per
+    // approach, and a second later every value is the same plus a fixed drift (waitWeight times the
+    // number of waiting approaches of the other phase minus this one's). So the difference at the
+    // start of the first decision second and at each of its change instants, extended by the drift,
+    // gives the exact first time it exceeds switchMargin.
+    @Override
+    public long earliestGreenEnd(Intersection intersection, Direction phase, long phaseStartTime,
+                                 SignalTimings timings, long now) {
+        long maxGreenEnd = phaseStartTime + maxGreenMs;
+        long from = Math.max(now, phaseStartTime + minGreenMs);
+        if (from >= maxGreenEnd) {
+            return maxGreenEnd;
+        }
+        int current = Phases.indexOf(phase);
+        long drift = 0;
+        for (int p = 0; p < Phases.ALL.length; p++) {
+            for (Direction approach : Phases.approaches(p)) {
+                if (intersection.getQueueSize(approach) == 0) {
+                    continue;
+                }
+                if (intersection.peekNextArrivalTime(approach) > from) {
+                    return from; // Head arrives in the future (shifted restore): just check again then
+                }
+                drift += p == current ? -waitWeight : waitWeight;
+            }
+        }
+
+        long earliest = firstExceeding(intersection, current, from, drift);
+        for (int p = 0; p < Phases.ALL.length; p++) {
+            for (Direction approach : Phases.approaches(p)) {
+                long headArrival = intersection.peekNextArrivalTime(approach);
+                if (headArrival == Long.MIN_VALUE) {
+                    continue; // Empty
+                }
+                long intoSecond = (from - headArrival) % 1000;
+                if (intoSecond != 0) { // Otherwise its next step is a whole second away: covered by the drift
+                    earliest = Math.min(earliest, firstExceeding(intersection, current, from + 1000 - intoSecond, drift));
+                }
+            }
+        }
+        return Math.min(earliest, maxGreenEnd);
+    }
+
+    // First of time, time + 1s, time + 2s... at which the other phase's pressure exceeds the current
+    // one's by more than switchMargin, or Long.MAX_VALUE if that never happens
+    private long firstExceeding(Intersection intersection, int current, long time, long drift) {
+        long lead = pressure(intersection, 1 - current, time) - pressure(intersection, current, time);
+        if (lead > switchMargin) {
+            return time;
+        }
+        if (drift <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long seconds = (switchMargin - lead) / drift + 1;
+        return time + seconds * 1000;
+    }
+
+    @Override
+    public Direction selectNextPhase(Intersection intersection, Direction endingPhase, long now) {
+        int ending = Phases.indexOf(endingPhase);
+        int other = 1 - ending;
+        // Give the ending phase another green only if it strictly dominates (avoids starving the other one)
+        if (Phases.demand(intersection, other) == 0 && Phases.demand(intersection, ending) > 0) {
+            return Phases.ALL[ending];
+        }
+        return Phases.ALL[other];
+    }
+
+    // Weighted pressure of one phase
+    long pressure(Intersection intersection, int phaseIndex, long now) {
+        long pressure = 0;
+        for (Direction approach : Phases.approaches(phaseIndex)) {
+            int queued = intersection.getQueueSize(approach);
+            if (queued > 0) {
+                long headArrival = intersection.peekNextArrivalTime(approach);
+                long headWaitSeconds = headArrival == Long.MIN_VALUE ? 0 : Math.max(0, now - headArrival) / 1000;
+                pressure += queueWeight * queued + waitWeight * headWaitSeconds;
+            }
+        }
+        return pressure;
+    }
+
+    @Override
+    public String getName() {
+        return "max-pressure(" + minGreenMs + "-" + maxGreenMs + "ms)";
+    }
+}
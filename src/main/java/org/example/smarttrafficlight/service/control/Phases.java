@@ -0,0 +1,62 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.service.FourWayPhases;
+import org.example.smarttrafficlight.service.Intersection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The two phases of the four-way junction and their approaches, as lookup tables derived from
+// the engine's topology (FourWayPhases), so controllers and engine always agree on the pairing.
+final class Phases {
+
+    // First approach of each phase (the one the engine names the phase by), indexed by phase index
+    static final Direction[] ALL;
+
+    // Approaches served by each phase, indexed by phase index
+    private static final Direction[][] APPROACHES;
+
+    static {
+        int count = FourWayPhases.getPhaseCount();
+        if (count != 2) {
+            throw new IllegalStateException("Controllers expect two phases, the topology has " + count);
+        }
+        ALL = new Direction[count];
+        APPROACHES = new Direction[count][];
+        for (int p = 0; p < count; p++) {
+            List<Direction> approaches = new ArrayList<>();
+            for (Direction dir : Direction.values()) {
+                if (FourWayPhases.phaseOf(dir) == p) {
+                    approaches.add(dir);
+                }
+            }
+            APPROACHES[p] = approaches.toArray(new Direction[0]);
+            ALL[p] = APPROACHES[p][0];
+        }
+    }
+
+    private Phases() {
+    }
+
+    static int indexOf(Direction phase) {
+        return FourWayPhases.phaseOf(phase);
+    }
+
+    static Direction other(Direction phase) {
+        return ALL[1 - indexOf(phase)];
+    }
+
+    static Direction[] approaches(int phaseIndex) {
+        return APPROACHES[phaseIndex];
+    }
+
+    // Total vehicles waiting on the phase's approaches
+    static int demand(Intersection intersection, int phaseIndex) {
+        int demand = 0;
+        for (Direction approach : APPROACHES[phaseIndex]) {
+            demand += intersection.getQueueSize(approach);
+        }
+        return demand;
+    }
+}
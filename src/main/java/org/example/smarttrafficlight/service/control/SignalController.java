@@ -0,0 +1,29 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.SignalTimings;
+
+// Strategy deciding the normal (non-emergency) signal cycle.
+//
+// A phase is identified by the first direction of its pair: NORTH (N/S green) or EAST (E/W green).
+// The engine still owns the light transitions, yellow clearance and emergency overrides; it asks the
+// controller when the current green should end and which phase goes next. shouldEndGreen() runs on
+// every tick of a normal green (earliestGreenEnd() whenever an event-driven run plans its next wake-up),
+// so those must be O(phases) and should not allocate; selectNextPhase() only runs at phase boundaries.
+public interface SignalController {
+
+    // True once the green of 'phase' should end (the engine then starts the yellow)
+    boolean shouldEndGreen(Intersection intersection, Direction phase, long greenElapsedMs,
+                           SignalTimings timings, long now);
+
+    // Earliest time at which shouldEndGreen() could return true if no vehicles arrive or leave.
+    // Lets the discrete-event runner sleep through an idle green.
+    long earliestGreenEnd(Intersection intersection, Direction phase, long phaseStartTime,
+                          SignalTimings timings, long now);
+
+    // The phase to turn green after 'endingPhase' has gone red
+    Direction selectNextPhase(Intersection intersection, Direction endingPhase, long now);
+
+    String getName();
+}
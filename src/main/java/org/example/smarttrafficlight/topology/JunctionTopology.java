@@ -0,0 +1,484 @@
+package org.example.smarttrafficlight.topology;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Layout of a signalised junction: its legs (approaches) with their lanes, the movements through
+// it (from one leg's lane to another leg's exit), which movements conflict, and the phases (groups
+// of movements that get green together). Immutable; build one with a Builder or a preset.
+//
+// Movements are numbered 0..63 and sets of them are long bitmasks, so safety checks are single
+// bitwise operations on precomputed masks, whatever the number of legs and lanes:
+//   (getConflictMask(m) & active) == 0          movement m may start next to the active ones
+//   (getPhaseConflicts(p) & active) == 0         phase p may start
+// The per-tick cost of a larger junction is therefore a few more bits, not more work.
+//
+// Conflicts are derived from geometry. Legs are listed clockwise; each leg has an entry point and,
+// next to it clockwise, an exit point on the junction's boundary (right-hand traffic). A movement
+// is the chord from its entry point to its exit point. Two movements conflict when their chords
+// cross, or when they end in the same exit (merging); movements from the same leg diverge and do
+// not conflict. So right turns conflict only with traffic merging into their exit, and opposing
+// through movements run together. Conflicts a signal plan resolves by yielding (a permissive left
+// turn giving way to oncoming traffic) can be declared as such and are then left out.
+public final class JunctionTopology {
+
+    public static final int MAX_MOVEMENTS = Long.SIZE;
+
+    private final String name;
+    private final String[] legNames;
+    private final int[] laneCounts;
+    private final String[] movementNames;
+    private final int[] movementFrom; // Leg index
+    private final int[] movementTo;   // Leg index
+    private final int[] movementLane; // Lane of the 'from' leg
+    private final long[] conflicts;   // Per movement: movements it must not share the junction with
+    private final long[] legMovements;
+    private final long[] phaseMovements;
+    private final long[] phaseConflicts;
+    private final String[] phaseNames;
+
+    private JunctionTopology(Builder builder, long[] conflicts, long[] phaseMovements) {
+        this.name = builder.name;
+        this.legNames = builder.legNames.toArray(new String[0]);
+        this.laneCounts = builder.laneCounts.stream().mapToInt(Integer::intValue).toArray();
+        int movementCount = builder.movementFrom.size();
+        this.movementNames = new String[movementCount];
+        this.movementFrom = new int[movementCount];
+        this.movementTo = new int[movementCount];
+        this.movementLane = new int[movementCount];
+        for (int m = 0; m < movementCount; m++) {
+            movementFrom[m] = builder.movementFrom.get(m);
+            movementTo[m] = builder.movementTo.get(m);
+            movementLane[m] = builder.movementLane.get(m);
+            movementNames[m] = movementName(legNames[movementFrom[m]], legNames[movementTo[m]]);
+        }
+        this.conflicts = conflicts;
+        this.legMovements = new long[legNames.length];
+        for (int m = 0; m < movementCount; m++) {
+            legMovements[movementFrom[m]] |= 1L << m;
+        }
+        this.phaseMovements = phaseMovements;
+        this.phaseConflicts = new long[phaseMovements.length];
+        for (int p = 0; p < phaseMovements.length; p++) {
+            phaseConflicts[p] = conflictsOf(phaseMovements[p]);
+        }
+        this.phaseNames = builder.phaseNames.toArray(new String[0]);
+    }
+
+    // --- Presets ---
+
+    // The simulation's junction: four single-lane legs, two phases (north/south, east/west) that
+    // each serve every movement of their legs; left turns are permissive (they yield)
+    public static JunctionTopology fourWay() {
+        Builder builder = new Builder("four-way").legs(1, "NORTH", "EAST", "SOUTH", "WEST");
+        builder.allMovements(0);
+        permitLeftTurns(builder, "NORTH", "SOUTH");
+        permitLeftTurns(builder, "EAST", "WEST");
+        return builder.phaseOfLegs("NORTH/SOUTH", "NORTH", "SOUTH")
+                .phaseOfLegs("EAST/WEST", "EAST", "WEST")
+                .build();
+    }
+
+    // Four legs with a separate left-turn lane (lane 1) and protected left-turn phases:
+    // north/south through, north/south left, east/west through, east/west left
+    public static JunctionTopology fourWayProtectedLefts() {
+        Builder builder = new Builder("four-way, protected lefts").legs(2, "NORTH", "EAST", "SOUTH", "WEST");
+        String[][] pairs = {{"NORTH", "SOUTH"}, {"EAST", "WEST"}};
+        for (String[] pair : pairs) {
+            for (String leg : pair) {
+                builder.movement(leg, builder.straightAhead(leg), 0)
+                        .movement(leg, builder.rightOf(leg), 0)
+                        .movement(leg, builder.leftOf(leg), 1);
+            }
+        }
+        for (String[] pair : pairs) {
+            builder.phase(pair[0] + "/" + pair[1] + " through",
+                    movementName(pair[0], builder.straightAhead(pair[0])), movementName(pair[0], builder.rightOf(pair[0])),
+                    movementName(pair[1], builder.straightAhead(pair[1])), movementName(pair[1], builder.rightOf(pair[1])));
+            builder.phase(pair[0] + "/" + pair[1] + " left",
+                    movementName(pair[0], builder.leftOf(pair[0])), movementName(pair[1], builder.leftOf(pair[1])));
+        }
+        return builder.build();
+    }
+
+    // T-junction: an east-west main road and a stem to the south. Phase 1 serves the main road
+    // (left turns into the stem yield), phase 2 the stem, with the west leg's right turn overlapping
+    public static JunctionTopology tJunction() {
+        Builder builder = new Builder("T-junction").legs(1, "EAST", "SOUTH", "WEST");
+        builder.allMovements(0)
+                .permissive("EAST->SOUTH", "WEST->EAST")   // Left into the stem yields to oncoming traffic
+                .permissive("EAST->SOUTH", "WEST->SOUTH"); // ... and to the right turn into the stem
+        return builder.phaseOfLegs("EAST/WEST", "EAST", "WEST")
+                .phase("SOUTH", "SOUTH->EAST", "SOUTH->WEST", "WEST->SOUTH")
+                .build();
+    }
+
+    // Roundabout-style junction with 3 to 6 legs, LEG1..LEGn clockwise, every movement between
+    // different legs. One phase per leg, plus whatever movements of other legs can run alongside
+    // without conflict (typically right turns).
+    public static JunctionTopology multiLeg(int legs) {
+        if (legs < 3 || legs > 6) {
+            throw new IllegalArgumentException("Multi-leg junctions have 3 to 6 legs: " + legs);
+        }
+        String[] names = new String[legs];
+        for (int i = 0; i < legs; i++) {
+            names[i] = "LEG" + (i + 1);
+        }
+        Builder builder = new Builder(legs + "-leg").legs(1, names).allMovements(0);
+        for (String leg : names) {
+            builder.phaseOfLegs(leg, leg);
+        }
+        return builder.extendPhases(true).build();
+    }
+
+    private static void permitLeftTurns(Builder builder, String a, String b) {
+        // Each left turn yields to the oncoming through and right-turning traffic
+        builder.permissive(movementName(a, builder.leftOf(a)), movementName(b, builder.straightAhead(b)))
+                .permissive(movementName(a, builder.leftOf(a)), movementName(b, builder.rightOf(b)))
+                .permissive(movementName(b, builder.leftOf(b)), movementName(a, builder.straightAhead(a)))
+                .permissive(movementName(b, builder.leftOf(b)), movementName(a, builder.rightOf(a)));
+    }
+
+    static String movementName(String from, String to) {
+        return from + "->" + to;
+    }
+
+    // --- Safety Checks ---
+
+    // True if the two movements must not have green at the same time
+    public boolean conflicts(int movementA, int movementB) {
+        return (conflicts[movementA] & (1L << movementB)) != 0;
+    }
+
+    // Every movement conflicting with at least one of the given ones; O(movements in the mask)
+    public long conflictsOf(long movements) {
+        long union = 0;
+        for (long rest = movements; rest != 0; rest &= rest - 1) {
+            union |= conflicts[Long.numberOfTrailingZeros(rest)];
+        }
+        return union;
+    }
+
+    // True if no two of the given movements conflict
+    public boolean isSafe(long movements) {
+        for (long rest = movements; rest != 0; rest &= rest - 1) {
+            if ((conflicts[Long.numberOfTrailingZeros(rest)] & movements) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True if the phase may get green while 'activeMovements' still have green or yellow
+    public boolean canStartPhase(int phase, long activeMovements) {
+        return (phaseConflicts[phase] & activeMovements) == 0;
+    }
+
+    // --- Getters ---
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLegCount() {
+        return legNames.length;
+    }
+
+    public String getLegName(int leg) {
+        return legNames[leg];
+    }
+
+    // Index of the leg with that name, or -1
+    public int legIndex(String legName) {
+        for (int i = 0; i < legNames.length; i++) {
+            if (legNames[i].equals(legName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getLaneCount(int leg) {
+        return laneCounts[leg];
+    }
+
+    public int getMovementCount() {
+        return movementFrom.length;
+    }
+
+    public String getMovementName(int movement) {
+        return movementNames[movement];
+    }
+
+    public int getMovementFrom(int movement) {
+        return movementFrom[movement];
+    }
+
+    public int getMovementTo(int movement) {
+        return movementTo[movement];
+    }
+
+    public int getMovementLane(int movement) {
+        return movementLane[movement];
+    }
+
+    public long getConflictMask(int movement) {
+        return conflicts[movement];
+    }
+
+    // All movements entering from the leg
+    public long getLegMovements(int leg) {
+        return legMovements[leg];
+    }
+
+    public int getPhaseCount() {
+        return phaseMovements.length;
+    }
+
+    public String getPhaseName(int phase) {
+        return phaseNames[phase];
+    }
+
+    public long getPhaseMovements(int phase) {
+        return phaseMovements[phase];
+    }
+
+    // Movements that must be red (and cleared) before the phase can start
+    public long getPhaseConflicts(int phase) {
+        return phaseConflicts[phase];
+    }
+
+    // Names of the movements in the mask, e.g. for logging
+    public List<String> describe(long movements) {
+        List<String> names = new ArrayList<>(Long.bitCount(movements));
+        for (long rest = movements; rest != 0; rest &= rest - 1) {
+            names.add(movementNames[Long.numberOfTrailingZeros(rest)]);
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(name).append(": ").append(legNames.length).append(" legs, ")
+                .append(movementFrom.length).append(" movements");
+        for (int p = 0; p < phaseMovements.length; p++) {
+            text.append(System.lineSeparator()).append("  phase ").append(phaseNames[p]).append(": ")
+                    .append(describe(phaseMovements[p]));
+        }
+        return text.toString();
+    }
+
+    // Collects legs, movements and phases by name; build() derives the conflict matrix and checks
+    // that every phase is conflict-free
+    public static final class Builder {
+        private final String name;
+        private final List<String> legNames = new ArrayList<>();
+        private final List<Integer> laneCounts = new ArrayList<>();
+        private final List<Integer> movementFrom = new ArrayList<>();
+        private final List<Integer> movementTo = new ArrayList<>();
+        private final List<Integer> movementLane = new ArrayList<>();
+        private final Map<String, Integer> movementIndex = new HashMap<>();
+        private final List<String[]> permissive = new ArrayList<>();
+        private final List<String> phaseNames = new ArrayList<>();
+        private final List<String[]> phases = new ArrayList<>(); // Movement names
+        private boolean extendPhases;
+
+        public Builder(String name) {
+            this.name = name;
+        }
+
+        // Legs in clockwise order, each with the given number of lanes
+        public Builder legs(int lanes, String... names) {
+            for (String legName : names) {
+                leg(legName, lanes);
+            }
+            return this;
+        }
+
+        public Builder leg(String legName, int lanes) {
+            if (legNames.contains(legName)) {
+                throw new IllegalArgumentException("Duplicate leg: " + legName);
+            }
+            if (lanes <= 0) {
+                throw new IllegalArgumentException("Leg " + legName + " needs at least one lane");
+            }
+            legNames.add(legName);
+            laneCounts.add(lanes);
+            return this;
+        }
+
+        public Builder movement(String from, String to, int lane) {
+            int fromLeg = requireLeg(from);
+            int toLeg = requireLeg(to);
+            if (fromLeg == toLeg) {
+                throw new IllegalArgumentException("U-turns are not modelled: " + from);
+            }
+            if (lane < 0 || lane >= laneCounts.get(fromLeg)) {
+                throw new IllegalArgumentException("Leg " + from + " has no lane " + lane);
+            }
+            String movementName = movementName(from, to);
+            if (movementIndex.containsKey(movementName)) {
+                throw new IllegalArgumentException("Duplicate movement: " + movementName);
+            }
+            if (movementFrom.size() == MAX_MOVEMENTS) {
+                throw new IllegalArgumentException("At most " + MAX_MOVEMENTS + " movements per junction");
+            }
+            movementIndex.put(movementName, movementFrom.size());
+            movementFrom.add(fromLeg);
+            movementTo.add(toLeg);
+            movementLane.add(lane);
+            return this;
+        }
+
+        // Every leg to every other leg, on the given lane
+        public Builder allMovements(int lane) {
+            for (String from : legNames) {
+                for (String to : legNames) {
+                    if (!from.equals(to)) {
+                        movement(from, to, lane);
+                    }
+                }
+            }
+            return this;
+        }
+
+        // The two movements may share a green: one of them yields (e.g. a permissive left turn)
+        public Builder permissive(String movementA, String movementB) {
+            permissive.add(new String[]{movementA, movementB});
+            return this;
+        }
+
+        public Builder phase(String phaseName, String... movementNames) {
+            phaseNames.add(phaseName);
+            phases.add(movementNames);
+            return this;
+        }
+
+        // A phase serving every movement entering from the given legs
+        public Builder phaseOfLegs(String phaseName, String... legs) {
+            List<String> movements = new ArrayList<>();
+            for (String leg : legs) {
+                int legIndex = requireLeg(leg);
+                for (int m = 0; m < movementFrom.size(); m++) {
+                    if (movementFrom.get(m) == legIndex) {
+                        movements.add(movementName(leg, legNames.get(movementTo.get(m))));
+                    }
+                }
+            }
+            return phase(phaseName, movements.toArray(new String[0]));
+        }
+
+        // Whether build() adds to every phase all other movements that fit without conflict
+        public Builder extendPhases(boolean extend) {
+            this.extendPhases = extend;
+            return this;
+        }
+
+        // Leg reached by driving straight on (opposite the leg), on a four-leg junction
+        String straightAhead(String leg) {
+            return legNames.get((requireLeg(leg) + 2) % legNames.size());
+        }
+
+        // Exit of a right turn from the leg: the previous leg counter-clockwise
+        String rightOf(String leg) {
+            return legNames.get((requireLeg(leg) + legNames.size() - 1) % legNames.size());
+        }
+
+        // Exit of a left turn from the leg: the next leg clockwise
+        String leftOf(String leg) {
+            return legNames.get((requireLeg(leg) + 1) % legNames.size());
+        }
+
+        public JunctionTopology build() {
+            if (legNames.size() < 2 || movementFrom.isEmpty()) {
+                throw new IllegalArgumentException("A junction needs at least two legs and one movement");
+            }
+            int count = movementFrom.size();
+            long[] conflicts = new long[count];
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    if (geometricConflict(a, b)) {
+                        conflicts[a] |= 1L << b;
+                        conflicts[b] |= 1L << a;
+                    }
+                }
+            }
+            for (String[] pair : permissive) {
+                int a = requireMovement(pair[0]);
+                int b = requireMovement(pair[1]);
+                conflicts[a] &= ~(1L << b);
+                conflicts[b] &= ~(1L << a);
+            }
+
+            long[] phaseMasks = new long[phases.size()];
+            for (int p = 0; p < phaseMasks.length; p++) {
+                for (String movement : phases.get(p)) {
+                    phaseMasks[p] |= 1L << requireMovement(movement);
+                }
+                checkConflictFree(phaseNames.get(p), phaseMasks[p], conflicts);
+                if (extendPhases) {
+                    for (int m = 0; m < count; m++) {
+                        if ((conflicts[m] & phaseMasks[p]) == 0) {
+                            phaseMasks[p] |= 1L << m;
+                        }
+                    }
+                }
+            }
+            return new JunctionTopology(this, conflicts, phaseMasks);
+        }
+
+        // Chords between boundary points: leg k enters at 2k and exits at 2k + 1 (clockwise)
+        private boolean geometricConflict(int a, int b) {
+            int entryA = 2 * movementFrom.get(a);
+            int exitA = 2 * movementTo.get(a) + 1;
+            int entryB = 2 * movementFrom.get(b);
+            int exitB = 2 * movementTo.get(b) + 1;
+            if (entryA == entryB) {
+                return false; // Diverging from the same leg
+            }
+            if (exitA == exitB) {
+                return true;  // Merging into the same exit
+            }
+            int points = 2 * legNames.size();
+            return between(entryA, exitA, entryB, points) != between(entryA, exitA, exitB, points);
+        }
+
+        // True if x lies strictly inside the clockwise arc from 'from' to 'to'
+        private static boolean between(int from, int to, int x, int points) {
+            int arc = Math.floorMod(to - from, points);
+            int offset = Math.floorMod(x - from, points);
+            return offset > 0 && offset < arc;
+        }
+
+        private void checkConflictFree(String phaseName, long mask, long[] conflicts) {
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                int m = Long.numberOfTrailingZeros(rest);
+                long clash = conflicts[m] & mask;
+                if (clash != 0) {
+                    int other = Long.numberOfTrailingZeros(clash);
+                    throw new IllegalArgumentException("Phase " + phaseName + " is unsafe: "
+                            + movementName(legNames.get(movementFrom.get(m)), legNames.get(movementTo.get(m))) + " conflicts with "
+                            + movementName(legNames.get(movementFrom.get(other)), legNames.get(movementTo.get(other))));
+                }
+            }
+        }
+
+        private int requireLeg(String leg) {
+            int index = legNames.indexOf(leg);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown leg: " + leg);
+            }
+            return index;
+        }
+
+        private int requireMovement(String movement) {
+            Integer index = movementIndex.get(movement);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown movement: " + movement);
+            }
+            return index;
+        }
+    }
+}
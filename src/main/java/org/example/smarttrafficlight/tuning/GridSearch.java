@@ -0,0 +1,37 @@
+package org.example.smarttrafficlight.tuning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Exhaustive: every candidate of the parameter grid, in order, until the budget runs out
+public class GridSearch implements SearchStrategy {
+
+    private final List<TimingCandidate> grid;
+    private int next;
+
+    public GridSearch(ParameterSpace space) {
+        this.grid = space.grid();
+    }
+
+    @Override
+    public List<TimingCandidate> nextBatch(Map<TimingCandidate, SweepResult> evaluated, int batchSize) {
+        List<TimingCandidate> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && next < grid.size()) {
+            TimingCandidate candidate = grid.get(next++);
+            if (!evaluated.containsKey(candidate)) {
+                batch.add(candidate);
+            }
+        }
+        return batch;
+    }
+
+    public int size() {
+        return grid.size();
+    }
+
+    @Override
+    public String getName() {
+        return "grid(" + grid.size() + ")";
+    }
+}
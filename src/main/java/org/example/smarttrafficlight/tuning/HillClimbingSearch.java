@@ -0,0 +1,62 @@
+package org.example.smarttrafficlight.tuning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Steepest-descent hill climbing with random restarts. Each batch holds the unevaluated
+// neighbours of the best candidate found so far (all of them are run in parallel); when a
+// neighbourhood is exhausted without improvement, the climb restarts from a random point.
+public class HillClimbingSearch implements SearchStrategy {
+
+    private final ParameterSpace space;
+    private final Random random;
+    private TimingCandidate current; // Centre of the current climb
+
+    public HillClimbingSearch(ParameterSpace space, long seed) {
+        this.space = space;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public List<TimingCandidate> nextBatch(Map<TimingCandidate, SweepResult> evaluated, int batchSize) {
+        if (current == null) {
+            current = space.random(random);
+            return List.of(current);
+        }
+        List<TimingCandidate> batch = new ArrayList<>(batchSize);
+        // Move to the best evaluated neighbour if it beats the current point
+        SweepResult best = evaluated.get(current);
+        for (TimingCandidate neighbour : space.neighbours(current)) {
+            SweepResult result = evaluated.get(neighbour);
+            if (result != null && (best == null || result.compareTo(best) < 0)) {
+                best = result;
+            }
+        }
+        if (best != null) {
+            current = best.getCandidate();
+        }
+        for (TimingCandidate neighbour : space.neighbours(current)) {
+            if (batch.size() < batchSize && !evaluated.containsKey(neighbour)) {
+                batch.add(neighbour);
+            }
+        }
+        if (batch.isEmpty()) {
+            // Local optimum: restart somewhere new
+            for (int attempts = 0; attempts < 100 && batch.isEmpty(); attempts++) {
+                TimingCandidate restart = space.random(random);
+                if (!evaluated.containsKey(restart)) {
+                    current = restart;
+                    batch.add(restart);
+                }
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public String getName() {
+        return "hill-climbing";
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.smarttrafficlight.tuning;
+
+import org.example.smarttrafficlight.tuning.TimingCandidate.ControllerKind;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// The ranges a sweep searches: one stepped range per timing parameter, plus the controller kinds.
+// Strategies only ever produce candidates on this grid, so neighbours and duplicates are exact.
+public final class ParameterSpace {
+
+    // Ranges are in ms: {min, max, step}
+    private final long[] green;
+    private final long[] yellow;
+    private final long[] priority;
+    private final long[] minGreen;
+    private final long[] maxGreen;
+    private final ControllerKind[] kinds;
+
+    public ParameterSpace(long[] green, long[] yellow, long[] priority, long[] minGreen, long[] maxGreen,
+                          ControllerKind... kinds) {
+        this.green = checkRange("green", green);
+        this.yellow = checkRange("yellow", yellow);
+        this.priority = checkRange("priority", priority);
+        this.minGreen = checkRange("minGreen", minGreen);
+        this.maxGreen = checkRange("maxGreen", maxGreen);
+        if (kinds.length == 0) {
+            throw new IllegalArgumentException("Need at least one controller kind");
+        }
+        this.kinds = kinds.clone();
+    }
+
+    // Green 5-60 s, yellow 3-5 s (shorter is unsafe), override 5-30 s, adaptive min 5-20 s / max 20-90 s
+    public static ParameterSpace defaults() {
+        return new ParameterSpace(
+                new long[]{5_000, 60_000, 5_000},
+                new long[]{3_000, 5_000, 1_000},
+                new long[]{5_000, 30_000, 5_000},
+                new long[]{5_000, 20_000, 5_000},
+                new long[]{20_000, 90_000, 10_000},
+                ControllerKind.values());
+    }
+
+    private static long[] checkRange(String name, long[] range) {
+        if (range.length != 3 || range[0] <= 0 || range[1] < range[0] || range[2] <= 0) {
+            throw new IllegalArgumentException("Range for " + name + " must be {min > 0, max >= min, step > 0}");
+        }
+        return range.clone();
+    }
+
+    // --- Generation ---
+
+    // Every candidate on the grid (duplicates from ignored parameters removed), in a stable order
+    public List<TimingCandidate> grid() {
+        Set<TimingCandidate> all = new LinkedHashSet<>();
+        for (ControllerKind kind : kinds) {
+            for (long g : values(green)) {
+                for (long y : values(yellow)) {
+                    for (long p : values(priority)) {
+                        for (long min : values(minGreen)) {
+                            for (long max : values(maxGreen)) {
+                                if (kind == ControllerKind.FIXED || max >= min) {
+                                    all.add(new TimingCandidate(kind, g, y, p, min, max));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(all);
+    }
+
+    public TimingCandidate random(Random random) {
+        ControllerKind kind = kinds[random.nextInt(kinds.length)];
+        long min = pick(minGreen, random);
+        long max = Math.max(min, pick(maxGreen, random));
+        return new TimingCandidate(kind, pick(green, random), pick(yellow, random), pick(priority, random), min, max);
+    }
+
+    // Candidates one step away in a single parameter, or with another controller kind
+    public List<TimingCandidate> neighbours(TimingCandidate c) {
+        List<TimingCandidate> result = new ArrayList<>();
+        for (int sign = -1; sign <= 1; sign += 2) {
+            long g = clamp(green, c.getGreenMs() + sign * green[2]);
+            long y = clamp(yellow, c.getYellowMs() + sign * yellow[2]);
+            long p = clamp(priority, c.getPriorityMs() + sign * priority[2]);
+            if (c.getKind() == ControllerKind.FIXED) {
+                addIfNew(result, c, new TimingCandidate(c.getKind(), g, c.getYellowMs(), c.getPriorityMs(), 0, 0));
+            } else {
+                long min = clamp(minGreen, c.getMinGreenMs() + sign * minGreen[2]);
+                long max = clamp(maxGreen, c.getMaxGreenMs() + sign * maxGreen[2]);
+                if (min <= c.getMaxGreenMs()) {
+                    addIfNew(result, c, new TimingCandidate(c.getKind(), 0, c.getYellowMs(), c.getPriorityMs(), min, c.getMaxGreenMs()));
+                }
+                if (max >= c.getMinGreenMs()) {
+                    addIfNew(result, c, new TimingCandidate(c.getKind(), 0, c.getYellowMs(), c.getPriorityMs(), c.getMinGreenMs(), max));
+                }
+            }
+            addIfNew(result, c, with(c, c.getKind(), y, c.getPriorityMs()));
+            addIfNew(result, c, with(c, c.getKind(), c.getYellowMs(), p));
+        }
+        for (ControllerKind kind : kinds) {
+            if (kind != c.getKind()) {
+                long min = c.getKind() == ControllerKind.FIXED ? minGreen[0] : c.getMinGreenMs();
+                long max = c.getKind() == ControllerKind.FIXED ? maxGreen[1] : c.getMaxGreenMs();
+                addIfNew(result, c, new TimingCandidate(kind, c.getGreenMs(), c.getYellowMs(), c.getPriorityMs(), min, max));
+            }
+        }
+        return result;
+    }
+
+    private static TimingCandidate with(TimingCandidate c, ControllerKind kind, long yellowMs, long priorityMs) {
+        return new TimingCandidate(kind, c.getGreenMs(), yellowMs, priorityMs, c.getMinGreenMs(), c.getMaxGreenMs());
+    }
+
+    private static void addIfNew(List<TimingCandidate> result, TimingCandidate origin, TimingCandidate candidate) {
+        if (!candidate.equals(origin) && !result.contains(candidate)) {
+            result.add(candidate);
+        }
+    }
+
+    // --- Geometry (for model-based search) ---
+
+    // Each parameter scaled to 0-1 over its range, plus one coordinate per controller kind
+    double[] normalise(TimingCandidate c) {
+        double[] point = new double[5 + kinds.length];
+        point[0] = scale(green, c.getGreenMs());
+        point[1] = scale(yellow, c.getYellowMs());
+        point[2] = scale(priority, c.getPriorityMs());
+        point[3] = c.getKind() == ControllerKind.FIXED ? 0 : scale(minGreen, c.getMinGreenMs());
+        point[4] = c.getKind() == ControllerKind.FIXED ? 0 : scale(maxGreen, c.getMaxGreenMs());
+        for (int i = 0; i < kinds.length; i++) {
+            point[5 + i] = kinds[i] == c.getKind() ? 1 : 0;
+        }
+        return point;
+    }
+
+    private static double scale(long[] range, long value) {
+        return range[1] == range[0] ? 0 : (double) (value - range[0]) / (range[1] - range[0]);
+    }
+
+    private static long[] values(long[] range) {
+        int count = (int) ((range[1] - range[0]) / range[2]) + 1;
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = range[0] + i * range[2];
+        }
+        return values;
+    }
+
+    private static long pick(long[] range, Random random) {
+        long[] values = values(range);
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long clamp(long[] range, long value) {
+        long top = range[0] + (range[1] - range[0]) / range[2] * range[2]; // Largest value on the grid
+        return Math.max(range[0], Math.min(top, value));
+    }
+}
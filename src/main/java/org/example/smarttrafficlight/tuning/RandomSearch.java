@@ -0,0 +1,38 @@
+package org.example.smarttrafficlight.tuning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Uniform samples from the parameter grid. Often as good as a grid for the same budget when
+// only a few parameters matter, because every sample tries a new value of each of them.
+public class RandomSearch implements SearchStrategy {
+
+    private static final int MAX_ATTEMPTS_PER_CANDIDATE = 100; // Small spaces run out of unseen points
+
+    private final ParameterSpace space;
+    private final Random random;
+
+    public RandomSearch(ParameterSpace space, long seed) {
+        this.space = space;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public List<TimingCandidate> nextBatch(Map<TimingCandidate, SweepResult> evaluated, int batchSize) {
+        List<TimingCandidate> batch = new ArrayList<>(batchSize);
+        for (int attempts = 0; batch.size() < batchSize && attempts < batchSize * MAX_ATTEMPTS_PER_CANDIDATE; attempts++) {
+            TimingCandidate candidate = space.random(random);
+            if (!evaluated.containsKey(candidate) && !batch.contains(candidate)) {
+                batch.add(candidate);
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.smarttrafficlight.tuning;
+
+import org.example.smarttrafficlight.generator.PoissonArrivals;
+import org.example.smarttrafficlight.generator.TrafficGenerator;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+
+import java.util.Arrays;
+
+// A fixed arrival trace that every candidate is run against (common random numbers: differences
+// in the results come from the timings, not from luck). Recorded once from a TrafficGenerator, so
+// sweeps can use any of its arrival models (Poisson, rush-hour profiles, platoons, emergency
+// injection). Stored as primitive columns and only read afterwards, so any number of sweep threads
+// can share one instance.
+//
+// Vehicles get scenario-local ids (0, 1, 2...) instead of ids from the global Vehicle counter,
+// so parallel runs do not contend on it.
+public final class Scenario {
+
+    // One Poisson stream per entry: cars make up half of the regular traffic
+    private static final VehicleType[] REGULAR = {VehicleType.CAR, VehicleType.CAR, VehicleType.CAR,
+            VehicleType.BUS, VehicleType.TRUCK, VehicleType.MOTORCYCLE};
+    private static final VehicleType[] EMERGENCY = {VehicleType.AMBULANCE, VehicleType.FIRE_TRUCK, VehicleType.POLICE};
+    private static final double EMERGENCY_SHARE = 0.02;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private final String name;
+    private final long durationMs;
+    private final long[] times;
+    private final byte[] types;      // VehicleType ordinals
+    private final byte[] directions; // Direction ordinals
+
+    private Scenario(String name, long durationMs, long[] times, byte[] types, byte[] directions) {
+        this.name = name;
+        this.durationMs = durationMs;
+        this.times = times;
+        this.types = types;
+        this.directions = directions;
+    }
+
+    // Poisson arrivals per approach with about 2% emergency vehicles, as in SignalControllerComparison
+    public static Scenario poisson(long seed, long durationMs, double northSouthPerMinute, double eastWestPerMinute) {
+        TrafficGenerator generator = new TrafficGenerator(seed);
+        for (Direction dir : DIRECTIONS) {
+            double perMinute = (dir == Direction.NORTH || dir == Direction.SOUTH) ? northSouthPerMinute : eastWestPerMinute;
+            for (VehicleType type : REGULAR) {
+                generator.addStream(dir, type, new PoissonArrivals(perMinute * (1 - EMERGENCY_SHARE) / REGULAR.length));
+            }
+            for (VehicleType type : EMERGENCY) {
+                generator.addStream(dir, type, new PoissonArrivals(perMinute * EMERGENCY_SHARE / EMERGENCY.length));
+            }
+        }
+        String name = "poisson(seed=" + seed + ", " + northSouthPerMinute + "/" + eastWestPerMinute + " per min)";
+        return record(name, generator, durationMs);
+    }
+
+    // TrafficGenerator.rushHour() traffic from 'startOfDayMs' on (e.g. 7 h for the morning peak)
+    public static Scenario rushHour(long seed, long startOfDayMs, long durationMs, double carsPerMinute) {
+        String name = "rushHour(seed=" + seed + ", from " + startOfDayMs / 60_000 + " min, " + carsPerMinute + " per min)";
+        return record(name, TrafficGenerator.rushHour(seed, carsPerMinute, startOfDayMs), durationMs);
+    }
+
+    // Records 'durationMs' of a freshly set up generator's traffic as a trace. Times are relative
+    // to the generator's start time; ids are assigned in recording order.
+    public static Scenario record(String name, TrafficGenerator generator, long durationMs) {
+        if (generator.getGeneratedUntil() != generator.getStartTimeMs()) {
+            throw new IllegalArgumentException("Generator has already produced traffic");
+        }
+        long start = generator.getStartTimeMs();
+        Columns columns = new Columns();
+        generator.generateInto((time, type, direction) -> columns.add(time - start, type, direction), start + durationMs);
+        return new Scenario(name, durationMs, Arrays.copyOf(columns.times, columns.count),
+                Arrays.copyOf(columns.types, columns.count), Arrays.copyOf(columns.directions, columns.count));
+    }
+
+    // Queues the whole trace into a fresh simulation
+    public void scheduleInto(DiscreteEventSimulation simulation) {
+        long start = simulation.getClock().currentTimeMillis();
+        for (int i = 0; i < times.length; i++) {
+            simulation.scheduleArrival(start + times[i], i, TYPES[types[i]], DIRECTIONS[directions[i]]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getVehicleCount() {
+        return times.length;
+    }
+
+    @Override
+    public String toString() {
+        return name + ", " + times.length + " vehicles in " + durationMs / 60_000 + " min";
+    }
+
+    // Growable trace columns while recording
+    private static final class Columns {
+        long[] times = new long[1024];
+        byte[] types = new byte[1024];
+        byte[] directions = new byte[1024];
+        int count;
+
+        void add(long time, VehicleType type, Direction direction) {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                types = Arrays.copyOf(types, count * 2);
+                directions = Arrays.copyOf(directions, count * 2);
+            }
+            times[count] = time;
+            types[count] = (byte) type.ordinal();
+            directions[count] = (byte) direction.ordinal();
+            count++;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.smarttrafficlight.tuning;
+
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.metrics.Histogram;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many independent headless simulations in parallel to score signal timings.
+//
+// Every candidate is simulated against the same scenarios (event-driven, virtual clock), one
+// candidate per task on a pool with one thread per core. Runs share nothing mutable: scenarios
+// are read-only traces, each run builds its own Intersection and engine, and the per-run
+// accumulators (a Histogram and a few counters) live in a ThreadLocal and are reset, not
+// reallocated, between runs. Each run has console output off and its own disabled event log, so
+// nothing serialises the threads on a shared stream and the process-wide log (a GUI running in
+// the same JVM, another sweep) is left alone.
+//
+//   ScenarioSweep sweep = new ScenarioSweep(scenarios, Runtime.getRuntime().availableProcessors());
+//   List<SweepResult> ranked = sweep.search(new SurrogateSearch(space, 1), 500);
+public final class ScenarioSweep implements AutoCloseable {
+
+    private static final long TICK_MS = 1000;
+
+    private final List<Scenario> scenarios;
+    private final int threads;
+    private final ExecutorService executor;
+    private final ThreadLocal<RunAccumulator> accumulators = ThreadLocal.withInitial(RunAccumulator::new);
+
+    public ScenarioSweep(List<Scenario> scenarios, int threads) {
+        if (scenarios.isEmpty() || threads <= 0) {
+            throw new IllegalArgumentException("Need at least one scenario and one thread");
+        }
+        this.scenarios = List.copyOf(scenarios);
+        this.threads = threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sweep-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs the strategy until it stops proposing candidates or 'budget' candidates were evaluated.
+    // Returns all results, best first.
+    public List<SweepResult> search(SearchStrategy strategy, int budget) {
+        Map<TimingCandidate, SweepResult> evaluated = new LinkedHashMap<>();
+        int batchSize = Math.max(threads * 2, 8); // Enough tasks to keep every core busy
+        while (evaluated.size() < budget) {
+            List<TimingCandidate> batch = strategy.nextBatch(Collections.unmodifiableMap(evaluated),
+                    Math.min(batchSize, budget - evaluated.size()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (SweepResult result : evaluate(batch)) {
+                evaluated.put(result.getCandidate(), result);
+            }
+        }
+        List<SweepResult> ranked = new ArrayList<>(evaluated.values());
+        Collections.sort(ranked);
+        return ranked;
+    }
+
+    // Evaluates the candidates in parallel; results in the same order
+    public List<SweepResult> evaluate(List<TimingCandidate> candidates) {
+        List<Callable<SweepResult>> tasks = new ArrayList<>(candidates.size());
+        for (TimingCandidate candidate : candidates) {
+            tasks.add(() -> evaluate(candidate));
+        }
+        try {
+            List<SweepResult> results = new ArrayList<>(candidates.size());
+            for (Future<SweepResult> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    // One candidate over all scenarios, on the calling thread
+    private SweepResult evaluate(TimingCandidate candidate) {
+        RunAccumulator accumulator = accumulators.get();
+        accumulator.reset();
+        long totalDurationMs = 0;
+        for (Scenario scenario : scenarios) {
+            ManualClock clock = new ManualClock();
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(
+                    new Intersection(clock, SimulationEventLog.disabled()), clock, null, TICK_MS);
+            simulation.getEngine().setConsoleOutput(false);
+            simulation.getEngine().setSignalTimings(candidate.timings());
+            simulation.getEngine().setSignalController(candidate.newController());
+            simulation.getEngine().setDepartureListener(accumulator);
+            accumulator.clock = simulation.getClock();
+            scenario.scheduleInto(simulation);
+            simulation.run(scenario.getDurationMs());
+
+            // Whoever is still waiting has waited until the end of the run
+            long end = simulation.getClock().currentTimeMillis();
+            for (Direction dir : Direction.values()) {
+                for (Vehicle vehicle : simulation.getIntersection().getQueuePreview(dir, Integer.MAX_VALUE)) {
+                    accumulator.record(vehicle.getType(), end - vehicle.getArrivalTime());
+                    accumulator.unserved++;
+                }
+            }
+            totalDurationMs += scenario.getDurationMs();
+        }
+        return accumulator.toResult(candidate, totalDurationMs);
+    }
+
+    // Pretty-printed ranking of the best 'limit' results
+    public static String formatTable(List<SweepResult> ranked, int limit) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%4s  %-48s %8s %9s %9s %9s %10s %9s%n",
+                "rank", "candidate", "score", "veh/hour", "wait (s)", "p95 (s)", "emerg (s)", "unserved"));
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            SweepResult r = ranked.get(i);
+            table.append(String.format("%4d  %-48s %8.1f %9.0f %9.1f %9.1f %10.1f %9d%n", i + 1, r.getCandidate(),
+                    r.getScore(), r.getVehiclesPerHour(), r.getMeanWaitSeconds(), r.getP95WaitSeconds(),
+                    r.getEmergencyMeanWaitSeconds(), r.getUnserved()));
+        }
+        return table.toString();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Per-thread wait statistics for the runs of one candidate; reused across candidates
+    private static final class RunAccumulator implements DepartureListener {
+        final Histogram waits = new Histogram();
+        SimulationClock clock;
+        long departed;
+        long emergencyCount;
+        long emergencyWaitMs;
+        long unserved;
+
+        void reset() {
+            waits.reset();
+            departed = 0;
+            emergencyCount = 0;
+            emergencyWaitMs = 0;
+            unserved = 0;
+        }
+
+        @Override
+        public void vehicleDeparted(Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+            departed++;
+            record(type, clock.currentTimeMillis() - arrivalTime);
+        }
+
+        void record(VehicleType type, long waitMs) {
+            waits.record(waitMs);
+            if (type.isEmergency()) {
+                emergencyCount++;
+                emergencyWaitMs += waitMs;
+            }
+        }
+
+        SweepResult toResult(TimingCandidate candidate, long totalDurationMs) {
+            double perHour = departed * 3_600_000.0 / totalDurationMs;
+            double emergencyMean = emergencyCount == 0 ? 0 : emergencyWaitMs / 1000.0 / emergencyCount;
+            return new SweepResult(candidate, perHour, waits.getMean() / 1000.0,
+                    waits.getValueAtPercentile(95) / 1000.0, emergencyMean, unserved);
+        }
+    }
+}
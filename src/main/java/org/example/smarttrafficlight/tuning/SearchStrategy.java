@@ -0,0 +1,14 @@
+package org.example.smarttrafficlight.tuning;
+
+import java.util.List;
+import java.util.Map;
+
+// Decides which candidates a sweep evaluates next. Called between batches on the sweep's own
+// thread with everything evaluated so far; the batch is then run in parallel.
+public interface SearchStrategy {
+
+    // Up to 'batchSize' candidates not yet in 'evaluated'; an empty list ends the search
+    List<TimingCandidate> nextBatch(Map<TimingCandidate, SweepResult> evaluated, int batchSize);
+
+    String getName();
+}
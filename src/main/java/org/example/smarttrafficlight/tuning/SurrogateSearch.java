@@ -0,0 +1,100 @@
+package org.example.smarttrafficlight.tuning;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// "Bayesian-lite": a cheap surrogate model picks which candidates are worth simulating.
+//
+// The first batch is random. After that, many random candidates are scored by the surrogate
+// (a kernel-weighted average of the scores evaluated so far, Nadaraya-Watson style) minus an
+// exploration bonus that grows with the distance to anything already evaluated, and only the
+// most promising are simulated. Scoring a candidate costs O(evaluated), so even thousands of
+// results keep the planning step far cheaper than one simulation.
+public class SurrogateSearch implements SearchStrategy {
+
+    private static final int POOL_PER_CANDIDATE = 32; // Random proposals scored per batch slot
+    private static final double BANDWIDTH = 0.15;     // Kernel width in normalised parameter units
+    private static final double EXPLORATION = 1.0;    // Weight of the uncertainty bonus
+
+    private final ParameterSpace space;
+    private final Random random;
+
+    public SurrogateSearch(ParameterSpace space, long seed) {
+        this.space = space;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public List<TimingCandidate> nextBatch(Map<TimingCandidate, SweepResult> evaluated, int batchSize) {
+        Set<TimingCandidate> proposals = new LinkedHashSet<>();
+        for (int i = 0; i < batchSize * POOL_PER_CANDIDATE; i++) {
+            TimingCandidate candidate = space.random(random);
+            if (!evaluated.containsKey(candidate)) {
+                proposals.add(candidate);
+            }
+        }
+        List<TimingCandidate> pool = new ArrayList<>(proposals);
+        if (evaluated.isEmpty() || pool.size() <= batchSize) {
+            return pool.size() <= batchSize ? pool : pool.subList(0, batchSize);
+        }
+
+        // Surrogate inputs: normalised points and scores of everything evaluated
+        double[][] points = new double[evaluated.size()][];
+        double[] scores = new double[evaluated.size()];
+        double minScore = Double.MAX_VALUE;
+        double maxScore = -Double.MAX_VALUE;
+        int n = 0;
+        for (SweepResult result : evaluated.values()) {
+            points[n] = space.normalise(result.getCandidate());
+            scores[n] = result.getScore();
+            minScore = Math.min(minScore, scores[n]);
+            maxScore = Math.max(maxScore, scores[n]);
+            n++;
+        }
+        double spread = Math.max(maxScore - minScore, 1e-9);
+
+        double[] acquisition = new double[pool.size()];
+        for (int i = 0; i < pool.size(); i++) {
+            double[] x = space.normalise(pool.get(i));
+            double weightSum = 0;
+            double weighted = 0;
+            for (int j = 0; j < n; j++) {
+                double w = Math.exp(-squaredDistance(x, points[j]) / (2 * BANDWIDTH * BANDWIDTH));
+                weightSum += w;
+                weighted += w * scores[j];
+            }
+            double predicted = weightSum > 1e-12 ? weighted / weightSum : minScore;
+            double uncertainty = 1 / (1 + weightSum); // ~1 far from data, ~0 where it is dense
+            acquisition[i] = predicted - EXPLORATION * spread * uncertainty; // Lower is more promising
+        }
+        List<Integer> order = new ArrayList<>(pool.size());
+        for (int i = 0; i < pool.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(i -> acquisition[i]));
+        List<TimingCandidate> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(pool.get(order.get(i)));
+        }
+        return batch;
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double d = a[i] - b[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public String getName() {
+        return "surrogate";
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.smarttrafficlight.tuning;
+
+// Outcome of one candidate over all scenarios of a sweep. Lower score is better.
+//
+// Waits include the vehicles still queued when a run ends (they waited until the end), so
+// starving an approach cannot look good just because its vehicles never departed.
+// score = mean wait (s) + EMERGENCY_WEIGHT * mean emergency wait (s)
+public final class SweepResult implements Comparable<SweepResult> {
+
+    public static final double EMERGENCY_WEIGHT = 5.0;
+
+    private final TimingCandidate candidate;
+    private final double vehiclesPerHour;
+    private final double meanWaitSeconds;
+    private final double p95WaitSeconds;
+    private final double emergencyMeanWaitSeconds;
+    private final long unserved; // Still queued at the end, summed over scenarios
+
+    SweepResult(TimingCandidate candidate, double vehiclesPerHour, double meanWaitSeconds, double p95WaitSeconds,
+                double emergencyMeanWaitSeconds, long unserved) {
+        this.candidate = candidate;
+        this.vehiclesPerHour = vehiclesPerHour;
+        this.meanWaitSeconds = meanWaitSeconds;
+        this.p95WaitSeconds = p95WaitSeconds;
+        this.emergencyMeanWaitSeconds = emergencyMeanWaitSeconds;
+        this.unserved = unserved;
+    }
+
+    public double getScore() {
+        return meanWaitSeconds + EMERGENCY_WEIGHT * emergencyMeanWaitSeconds;
+    }
+
+    public TimingCandidate getCandidate() {
+        return candidate;
+    }
+
+    public double getVehiclesPerHour() {
+        return vehiclesPerHour;
+    }
+
+    public double getMeanWaitSeconds() {
+        return meanWaitSeconds;
+    }
+
+    public double getP95WaitSeconds() {
+        return p95WaitSeconds;
+    }
+
+    public double getEmergencyMeanWaitSeconds() {
+        return emergencyMeanWaitSeconds;
+    }
+
+    public long getUnserved() {
+        return unserved;
+    }
+
+    @Override
+    public int compareTo(SweepResult other) {
+        return Double.compare(getScore(), other.getScore());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: score=%.1f veh/h=%.0f wait=%.1fs p95=%.1fs emergency=%.1fs unserved=%d",
+                candidate, getScore(), vehiclesPerHour, meanWaitSeconds, p95WaitSeconds, emergencyMeanWaitSeconds, unserved);
+    }
+}
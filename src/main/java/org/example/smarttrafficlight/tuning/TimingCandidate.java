@@ -0,0 +1,103 @@
+package org.example.smarttrafficlight.tuning;
+
+import org.example.smarttrafficlight.service.SignalTimings;
+import org.example.smarttrafficlight.service.control.ActuatedController;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.example.smarttrafficlight.service.control.SignalController;
+
+import java.util.Objects;
+
+// One point of the search space: a signal controller and the timings it runs with. Immutable,
+// with value equality so a sweep never evaluates the same settings twice.
+//
+// Parameters a controller does not use are normalised (fixed-time ignores min/max green, the
+// adaptive controllers ignore the fixed green time), so equivalent settings compare equal.
+public final class TimingCandidate {
+
+    public enum ControllerKind { FIXED, ACTUATED, MAX_PRESSURE }
+
+    private final ControllerKind kind;
+    private final long greenMs;    // Fixed-time green per phase
+    private final long yellowMs;
+    private final long priorityMs; // Max emergency override green
+    private final long minGreenMs; // Adaptive controllers only
+    private final long maxGreenMs;
+
+    public TimingCandidate(ControllerKind kind, long greenMs, long yellowMs, long priorityMs,
+                           long minGreenMs, long maxGreenMs) {
+        this.kind = Objects.requireNonNull(kind, "Controller kind cannot be null");
+        boolean fixed = kind == ControllerKind.FIXED;
+        this.greenMs = fixed ? greenMs : SignalTimings.DEFAULT.getNormalGreenTimeMs();
+        this.yellowMs = yellowMs;
+        this.priorityMs = priorityMs;
+        this.minGreenMs = fixed ? 0 : minGreenMs;
+        this.maxGreenMs = fixed ? 0 : Math.max(minGreenMs, maxGreenMs);
+        timings(); // Validates the timings early
+        if (!fixed && minGreenMs <= 0) {
+            throw new IllegalArgumentException("Min green must be positive: " + minGreenMs);
+        }
+    }
+
+    public SignalTimings timings() {
+        return new SignalTimings(greenMs, yellowMs, priorityMs);
+    }
+
+    // A fresh controller for one run (controllers may keep per-run state)
+    public SignalController newController() {
+        switch (kind) {
+            case ACTUATED:
+                return new ActuatedController(minGreenMs, maxGreenMs);
+            case MAX_PRESSURE:
+                return new MaxPressureController(minGreenMs, maxGreenMs);
+            default:
+                return new FixedTimeController();
+        }
+    }
+
+    public ControllerKind getKind() {
+        return kind;
+    }
+
+    public long getGreenMs() {
+        return greenMs;
+    }
+
+    public long getYellowMs() {
+        return yellowMs;
+    }
+
+    public long getPriorityMs() {
+        return priorityMs;
+    }
+
+    public long getMinGreenMs() {
+        return minGreenMs;
+    }
+
+    public long getMaxGreenMs() {
+        return maxGreenMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimingCandidate)) return false;
+        TimingCandidate other = (TimingCandidate) o;
+        return kind == other.kind && greenMs == other.greenMs && yellowMs == other.yellowMs
+                && priorityMs == other.priorityMs && minGreenMs == other.minGreenMs && maxGreenMs == other.maxGreenMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, greenMs, yellowMs, priorityMs, minGreenMs, maxGreenMs);
+    }
+
+    @Override
+    public String toString() {
+        String controller = kind == ControllerKind.FIXED
+                ? "fixed green=" + greenMs / 1000 + "s"
+                : kind.name().toLowerCase() + " " + minGreenMs / 1000 + "-" + maxGreenMs / 1000 + "s";
+        return controller + " yellow=" + yellowMs / 1000 + "s priority=" + priorityMs / 1000 + "s";
+    }
+}
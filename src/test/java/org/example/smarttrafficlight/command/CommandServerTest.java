@@ -0,0 +1,99 @@
+package org.example.smarttrafficlight.command;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.notification.RecordingNotifier;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandServerTest {
+
+    private static final long OPERATOR = 1L;
+
+    private final ManualClock clock = new ManualClock();
+    private final Intersection intersection = new Intersection(clock);
+    private final SimulationEngine engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+    private final RecordingNotifier replies = new RecordingNotifier();
+    private CommandServer server;
+
+    @AfterEach
+    void closeServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void operatorGetsStatusReply() {
+        engine.setConsoleOutput(false);
+        engine.startSimulation();
+        intersection.addVehicle(VehicleType.CAR, Direction.EAST);
+        clock.advance(1000);
+        engine.runSimulationStep(); // Publishes the snapshot commands read
+        LocalUpdateSource chat = new LocalUpdateSource(server = new CommandServer(engine, null, replies, Set.of(OPERATOR)));
+
+        String reply = chat.send(OPERATOR, "/status@SomeBot").join();
+
+        assertTrue(reply.contains("EAST  RED    queue 1"), reply);
+        assertEquals(List.of(reply), replies.getMessages());
+        assertEquals(List.of(OPERATOR), replies.getChatIds());
+        assertEquals(1, server.getHandled());
+    }
+
+    @Test
+    void strangersAreNeverAnswered() {
+        LocalUpdateSource chat = new LocalUpdateSource(server = new CommandServer(engine, null, replies, Set.of(OPERATOR)));
+
+        assertEquals(CommandServer.NOT_AUTHORISED_REPLY, chat.send(99, "/override east").join());
+        assertEquals(CommandServer.NOT_AUTHORISED_REPLY, chat.send(99, "/start").join());
+        for (CompletableFuture<String> reply : chat.flood(100, "/help", 50)) {
+            assertEquals(CommandServer.NOT_AUTHORISED_REPLY, reply.join());
+        }
+
+        assertEquals(52, server.getUnauthorised());
+        assertEquals(0, server.getHandled());
+        assertTrue(replies.getMessages().isEmpty());
+    }
+
+    @Test
+    void overrideRequestsThePhase() {
+        engine.setConsoleOutput(false);
+        engine.startSimulation();
+        server = new CommandServer(engine, null, replies, Set.of(OPERATOR));
+
+        String reply = server.handle(OPERATOR, "/override w");
+        clock.advance(1000);
+        engine.runSimulationStep(); // N/S turns yellow for the requested pair
+
+        assertTrue(reply.startsWith("Override requested: WEST"), reply);
+        assertEquals(Direction.WEST, CommandServer.parseDirection("West"));
+        assertNull(CommandServer.parseDirection("up"));
+        assertTrue(server.handle(OPERATOR, "/queues up").startsWith("Usage"));
+        assertEquals("YELLOW", intersection.getLight(Direction.NORTH).getState().name());
+    }
+
+    @Test
+    void rejectsBeyondMaxInFlight() {
+        RecordingNotifier slowReplies = new RecordingNotifier(300);
+        LocalUpdateSource chat = new LocalUpdateSource(server = new CommandServer(engine, null, slowReplies, Set.of(OPERATOR), 1));
+
+        CompletableFuture<String> first = chat.send(OPERATOR, "/help");
+        String second = chat.send(OPERATOR, "/help").join();
+
+        assertEquals(CommandServer.BUSY_REPLY, second);
+        assertTrue(first.join().startsWith("Smart Traffic Light Bot"));
+        assertEquals(1, server.getRejected());
+    }
+}
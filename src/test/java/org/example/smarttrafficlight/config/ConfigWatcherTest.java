@@ -0,0 +1,71 @@
+package org.example.smarttrafficlight.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigWatcherTest {
+
+    @TempDir
+    Path dir;
+
+    private final BlockingQueue<TrafficConfig> applied = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+
+    @Test
+    void reloadsWhenTheFileChanges() throws IOException, InterruptedException {
+        Path file = dir.resolve("traffic.properties");
+        Files.writeString(file, "timing.greenMs=10000\n");
+        Map<String, String> environment = Map.of("TRAFFIC_TIMING_YELLOW_MS", "4000");
+
+        try (ConfigWatcher watcher = ConfigWatcher.start(file, environment, applied::add, errors::add)) {
+            assertEquals(10000, watcher.getCurrent().getTimings().getNormalGreenTimeMs());
+
+            Files.writeString(file, "timing.greenMs=25000\ntiming.yellowMs=3000\n");
+            TrafficConfig reloaded = applied.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull(reloaded, "no reload after the file changed");
+            assertEquals(25000, reloaded.getTimings().getNormalGreenTimeMs());
+            assertEquals(4000, reloaded.getTimings().getYellowTimeMs()); // The environment still wins
+            assertSame(reloaded, watcher.getCurrent());
+        }
+    }
+
+    @Test
+    void anInvalidFileKeepsTheRunningConfiguration() throws IOException, InterruptedException {
+        Path file = dir.resolve("traffic.properties");
+        Files.writeString(file, "controller.type=actuated\n");
+
+        try (ConfigWatcher watcher = ConfigWatcher.start(file, Map.of(), applied::add, errors::add)) {
+            TrafficConfig initial = watcher.getCurrent();
+            Files.writeString(file, "controller.type=psychic\n");
+
+            String error = errors.poll(10, TimeUnit.SECONDS);
+            assertNotNull(error, "no error reported for an invalid file");
+            assertTrue(error.contains("controller.type"), error);
+            assertSame(initial, watcher.getCurrent());
+            assertTrue(applied.isEmpty());
+        }
+    }
+
+    @Test
+    void anInvalidFileFailsAtStartup() throws IOException {
+        Path file = dir.resolve("traffic.properties");
+        Files.writeString(file, "metrics.port=-1\n");
+
+        assertThrows(IllegalArgumentException.class, () -> ConfigWatcher.start(file, Map.of(), applied::add, errors::add));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.smarttrafficlight.config;
+
+import org.example.smarttrafficlight.service.DischargeModel;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficConfigTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void environmentNamesSplitDotsAndCamelCase() {
+        assertEquals("TRAFFIC_TELEGRAM_BOT_TOKEN", TrafficConfig.environmentName("telegram.botToken"));
+        assertEquals("TRAFFIC_DISCHARGE_SATURATION_FLOW_PER_HOUR",
+                TrafficConfig.environmentName("discharge.saturationFlowPerHour"));
+        assertEquals("TRAFFIC_METRICS_PORT", TrafficConfig.environmentName("metrics.port"));
+    }
+
+    @Test
+    void environmentOverridesTheFile() throws IOException {
+        Path file = dir.resolve("traffic.properties");
+        Files.writeString(file, "timing.greenMs=20000\ncontroller.type=max-pressure\ntelegram.botToken=from-file\n");
+
+        TrafficConfig config = TrafficConfig.load(file, Map.of(
+                "TRAFFIC_TELEGRAM_BOT_TOKEN", "from-env",
+                "TRAFFIC_CONTROLLER_MAX_GREEN_MS", "45000",
+                "UNRELATED", "ignored"));
+
+        assertEquals(20000, config.getTimings().getNormalGreenTimeMs());
+        assertEquals("from-env", config.getBotToken());
+        assertEquals(45000, config.getMaxGreenMs());
+        assertInstanceOf(MaxPressureController.class, config.newController());
+        assertEquals(TrafficConfig.DEFAULT.getTimings().getYellowTimeMs(), config.getTimings().getYellowTimeMs());
+    }
+
+    @Test
+    void missingFileKeepsTheDefaults() throws IOException {
+        TrafficConfig config = TrafficConfig.load(dir.resolve("absent.properties"), Map.of());
+
+        assertEquals(TrafficConfig.DEFAULT.toString(), config.toString());
+        assertFalse(config.hasTelegramCredentials());
+        assertEquals(9464, config.getMetricsPort());
+    }
+
+    @Test
+    void invalidValuesNameTheirKey() {
+        assertMessageContains("Unknown configuration key: timing.greenMS", "timing.greenMS", "1000");
+        assertMessageContains("timing.yellowMs", "timing.yellowMs", "soon");
+        assertMessageContains("controller.type", "controller.type", "random");
+        assertMessageContains("controller.minGreenMs", "controller.maxGreenMs", "1000");
+        assertMessageContains("metrics.port", "metrics.port", "70000");
+        assertMessageContains("telegram.operatorChatIds", "telegram.operatorChatIds", "12,abc");
+    }
+
+    private static void assertMessageContains(String expected, String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TrafficConfig.fromProperties(properties));
+        assertTrue(e.getMessage().contains(expected), e.getMessage());
+    }
+
+    @Test
+    void operatorChatsIncludeTheDefaultChat() {
+        Properties properties = new Properties();
+        properties.setProperty("telegram.chatId", "42");
+        properties.setProperty("telegram.operatorChatIds", " 7, -100123 ,,");
+
+        assertEquals(Set.of(42L, 7L, -100123L), TrafficConfig.fromProperties(properties).getOperatorChatIds());
+    }
+
+    @Test
+    void zeroSaturationFlowMeansOnePerStep() {
+        Properties properties = new Properties();
+        properties.setProperty("discharge.saturationFlowPerHour", "0");
+
+        assertEquals(DischargeModel.ONE_PER_STEP, TrafficConfig.fromProperties(properties).getDischargeModel());
+    }
+
+    @Test
+    void onlyStartupSettingsNeedARestart() {
+        Properties timing = new Properties();
+        timing.setProperty("timing.greenMs", "15000");
+        Properties port = new Properties();
+        port.setProperty("metrics.port", "0");
+        Properties token = new Properties();
+        token.setProperty("telegram.botToken", "secret-token");
+
+        assertFalse(TrafficConfig.fromProperties(timing).needsRestartComparedTo(TrafficConfig.DEFAULT));
+        assertTrue(TrafficConfig.fromProperties(port).needsRestartComparedTo(TrafficConfig.DEFAULT));
+        assertTrue(TrafficConfig.fromProperties(token).needsRestartComparedTo(TrafficConfig.DEFAULT));
+        assertFalse(TrafficConfig.fromProperties(token).toString().contains("secret-token"));
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.smarttrafficlight.eventlog;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationEventLogTest {
+
+    // Events as "time type direction detail vehicleId value"
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private final EventSink recorder = (time, type, direction, detail, vehicleId, value) ->
+            events.add(time + " " + type + " " + direction + " " + detail + " " + vehicleId + " " + value);
+
+    @Test
+    void recordsNothingWithoutADrainer() {
+        SimulationEventLog log = new SimulationEventLog(16, LogLevel.DEBUG, 0);
+        log.lightChanged(1, Direction.NORTH, TrafficLightState.GREEN);
+        log.vehicleAdded(2, Direction.EAST, 8, VehicleType.CAR, 1);
+
+        assertEquals(0, log.getRecordedCount());
+        assertEquals(0, log.getDroppedCount());
+        assertEquals(LogLevel.DEBUG, log.getLevel());
+    }
+
+    @Test
+    void drainerDeliversEventsInOrder() {
+        SimulationEventLog log = new SimulationEventLog(16, LogLevel.DEBUG, 0);
+        log.startDrainer(recorder);
+        log.lightChanged(1, Direction.NORTH, TrafficLightState.GREEN);
+        log.vehicleAdded(2, Direction.EAST, 8, VehicleType.BUS, 3);
+        log.vehiclePassed(3, Direction.EAST, 8, VehicleType.BUS, true);
+        log.vehiclesAdded(4, Direction.WEST, 5);
+        log.stopDrainer(); // Flushes whatever is left
+
+        assertEquals(List.of(
+                "1 LIGHT_CHANGED NORTH " + TrafficLightState.GREEN.ordinal() + " -1 0",
+                "2 VEHICLE_ADDED EAST " + VehicleType.BUS.ordinal() + " 8 3",
+                "3 PRIORITY_VEHICLE_PASSED EAST " + VehicleType.BUS.ordinal() + " 8 0",
+                "4 VEHICLES_ADDED WEST 0 -1 5"), events);
+
+        log.lightChanged(5, Direction.SOUTH, TrafficLightState.RED); // Stopped: not recorded
+        assertEquals(4, log.getRecordedCount());
+    }
+
+    @Test
+    void levelAndSamplingFilterOnTheProducerSide() {
+        SimulationEventLog log = new SimulationEventLog(64, LogLevel.INFO, 2);
+        log.startDrainer(recorder);
+        log.vehicleAdded(1, Direction.NORTH, 4, VehicleType.CAR, 1); // DEBUG event at INFO level
+        log.priorityDetected(2, Direction.NORTH, VehicleType.AMBULANCE);
+        log.setLevel(LogLevel.DEBUG);
+        for (int id = 0; id < 8; id++) {
+            log.vehiclePassed(10 + id, Direction.SOUTH, id, VehicleType.CAR, false); // Only ids 0 and 4
+        }
+        log.stopDrainer();
+
+        assertEquals(3, events.size());
+        assertTrue(events.get(0).startsWith("2 PRIORITY_DETECTED"));
+        assertTrue(events.get(1).startsWith("10 VEHICLE_PASSED SOUTH"));
+        assertTrue(events.get(2).startsWith("14 VEHICLE_PASSED SOUTH"));
+    }
+
+    @Test
+    void aFailingSinkCostsOnlyTheEventItWasHanded() {
+        SimulationEventLog log = new SimulationEventLog(16, LogLevel.INFO, 0);
+        log.startDrainer((time, type, direction, detail, vehicleId, value) -> {
+            if (time == 1) {
+                throw new IllegalStateException("disk full");
+            }
+            recorder.onEvent(time, type, direction, detail, vehicleId, value);
+        });
+        log.lightChanged(1, Direction.NORTH, TrafficLightState.YELLOW);
+        log.lightChanged(2, Direction.NORTH, TrafficLightState.RED);
+        log.lightChanged(3, Direction.EAST, TrafficLightState.GREEN);
+        log.stopDrainer();
+
+        assertEquals(1, log.getSinkFailures());
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).startsWith("2 LIGHT_CHANGED"));
+        assertTrue(events.get(1).startsWith("3 LIGHT_CHANGED"));
+    }
+
+    @Test
+    void dropsInsteadOfBlockingWhenTheRingIsFull() throws InterruptedException {
+        CountDownLatch inSink = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SimulationEventLog log = new SimulationEventLog(4, LogLevel.INFO, 0);
+        log.startDrainer((time, type, direction, detail, vehicleId, value) -> {
+            inSink.countDown();
+            try {
+                release.await(); // A stalled sink
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recorder.onEvent(time, type, direction, detail, vehicleId, value);
+        });
+        log.lightChanged(0, Direction.NORTH, TrafficLightState.GREEN);
+        assertTrue(inSink.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 10; i++) {
+            log.lightChanged(i, Direction.NORTH, TrafficLightState.GREEN); // Returns at once, full or not
+        }
+        release.countDown();
+        log.stopDrainer();
+
+        assertEquals(6, log.getDroppedCount()); // The ring holds four more behind the stalled one
+        assertEquals(5, events.size());
+        assertTrue(events.get(4).startsWith("4 LIGHT_CHANGED"));
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.smarttrafficlight.generator;
+
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficGeneratorTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    @Test
+    void sameSeedProducesTheSameTraffic() {
+        Map<Direction, List<String>> first = generate(TrafficGenerator.rushHour(42, 20), 7 * HOUR_MS, 9 * HOUR_MS);
+        Map<Direction, List<String>> second = generate(TrafficGenerator.rushHour(42, 20), 7 * HOUR_MS, 9 * HOUR_MS);
+
+        assertTrue(first.get(Direction.NORTH).size() > 1000, "Rush hour should produce traffic");
+        assertEquals(first, second);
+    }
+
+    @Test
+    void eachApproachIsInTimeOrder() {
+        TrafficGenerator generator = TrafficGenerator.rushHour(7, 30);
+        Recorder recorder = new Recorder();
+        Intersection intersection = newIntersection(recorder);
+
+        for (long until = HOUR_MS; until <= 4 * HOUR_MS; until += HOUR_MS) {
+            generator.generateInto(intersection, until);
+        }
+
+        for (Direction dir : Direction.values()) {
+            List<Long> times = recorder.times.get(dir);
+            for (int i = 1; i < times.size(); i++) {
+                assertTrue(times.get(i - 1) <= times.get(i), dir + " arrival " + i + " out of order");
+            }
+            assertTrue(times.get(times.size() - 1) < 4 * HOUR_MS);
+        }
+    }
+
+    @Test
+    void windowsNeitherLoseNorDuplicateArrivals() {
+        Map<Direction, List<String>> whole = generate(TrafficGenerator.rushHour(3, 25), 2 * HOUR_MS);
+        Map<Direction, List<String>> split = generate(TrafficGenerator.rushHour(3, 25), HOUR_MS / 3, HOUR_MS, 2 * HOUR_MS);
+
+        assertEquals(whole, split);
+    }
+
+    @Test
+    void anArrivalAtTheWindowEndBelongsToTheNextWindow() {
+        // One vehicle every 1000 ms, so window ends at whole seconds hit an arrival exactly
+        ArrivalModel everySecond = (start, random) -> new ArrivalModel.Process() {
+            private long time = start;
+
+            @Override
+            public long next() {
+                return time += 1000;
+            }
+        };
+        TrafficGenerator generator = new TrafficGenerator(1).addStream(Direction.EAST, VehicleType.CAR, everySecond);
+        Recorder recorder = new Recorder();
+        Intersection intersection = newIntersection(recorder);
+
+        assertEquals(4, generator.generateInto(intersection, 5000)); // 1000..4000, not 5000
+        assertEquals(5, generator.generateInto(intersection, 10_000)); // 5000..9000
+
+        assertEquals(List.of(1000L, 2000L, 3000L, 4000L, 5000L, 6000L, 7000L, 8000L, 9000L),
+                recorder.times.get(Direction.EAST));
+        assertEquals(9, generator.getTotalGenerated());
+        assertEquals(10_000, generator.getGeneratedUntil());
+    }
+
+    @Test
+    void platoonsNeverShareAnArrivalTime() {
+        // Platoons due more often than they take to pass, so consecutive platoons are clamped
+        ArrivalModel.Process process = new PlatoonArrivals(30, 2, 6, 2500).start(0, new SplittableRandom(5));
+        long previous = process.next();
+        for (int i = 1; i < 100_000; i++) {
+            long next = process.next();
+            assertTrue(next > previous, "Arrival " + i + " at " + next + " after " + previous);
+            previous = next;
+        }
+    }
+
+    // Runs the generator window by window and returns each approach's arrivals as "time type"
+    private static Map<Direction, List<String>> generate(TrafficGenerator generator, long... windowEnds) {
+        Recorder recorder = new Recorder();
+        Intersection intersection = newIntersection(recorder);
+        for (long until : windowEnds) {
+            generator.generateInto(intersection, until);
+        }
+        return recorder.arrivals;
+    }
+
+    private static Intersection newIntersection(IntersectionObserver observer) {
+        Intersection intersection = new Intersection(new ManualClock(), SimulationEventLog.disabled());
+        intersection.addObserver(observer);
+        return intersection;
+    }
+
+    // Arrivals in the order the generator queued them; ids are global, so only time and type are kept
+    private static final class Recorder implements IntersectionObserver {
+        final Map<Direction, List<String>> arrivals = new EnumMap<>(Direction.class);
+        final Map<Direction, List<Long>> times = new EnumMap<>(Direction.class);
+
+        Recorder() {
+            for (Direction dir : Direction.values()) {
+                arrivals.put(dir, new ArrayList<>());
+                times.put(dir, new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+            arrivals.get(direction).add(timeMillis + " " + type);
+            times.get(direction).add(timeMillis);
+        }
+    }
+}
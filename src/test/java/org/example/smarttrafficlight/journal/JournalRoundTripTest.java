@@ -0,0 +1,89 @@
+package org.example.smarttrafficlight.journal;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalRoundTripTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path path = dir.resolve("round-trip.journal");
+        try (JournalWriter writer = new JournalWriter(path, 5_000, 250)) {
+            writer.lightChanged(5_000, Direction.NORTH, TrafficLightState.GREEN);
+            writer.vehicleArrived(5_250, Direction.EAST, 17, VehicleType.BUS);
+            writer.vehicleDeparted(9_000, Direction.EAST, 17, VehicleType.BUS, 5_250);
+            assertEquals(3, writer.getRecordCount());
+        }
+
+        try (JournalReader reader = new JournalReader(path)) {
+            assertEquals(5_000, reader.getStartTime());
+            assertEquals(250, reader.getTickMillis());
+
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.LIGHT_CHANGE, reader.getType());
+            assertEquals(5_000, reader.getTime());
+            assertEquals(-1, reader.getVehicleId());
+            assertEquals(Direction.NORTH, reader.getDirection());
+            assertEquals(TrafficLightState.GREEN, reader.getLightState());
+
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.ARRIVAL, reader.getType());
+            assertEquals(5_250, reader.getTime());
+            assertEquals(17, reader.getVehicleId());
+            assertEquals(Direction.EAST, reader.getDirection());
+            assertEquals(VehicleType.BUS, reader.getVehicleType());
+
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.DEPARTURE, reader.getType());
+            assertEquals(9_000, reader.getTime());
+            assertEquals(17, reader.getVehicleId());
+
+            assertFalse(reader.next());
+            assertEquals(3, reader.getRecordsRead());
+        }
+    }
+
+    @Test
+    void recordsEveryEventOfAnAttachedIntersection() throws IOException {
+        Path path = dir.resolve("run.journal");
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(1000);
+        simulation.getEngine().setConsoleOutput(false);
+        JournalWriter writer = JournalWriter.attach(simulation.getIntersection(), path, 1000);
+        for (int i = 0; i < 40; i++) {
+            simulation.scheduleArrival(i * 1500L, VehicleType.CAR, Direction.values()[i % 4]);
+        }
+        simulation.run(120_000);
+        writer.close();
+
+        long arrivals = 0;
+        long departures = 0;
+        long lightChanges = 0;
+        try (JournalReader reader = new JournalReader(path)) {
+            while (reader.next()) {
+                switch (reader.getType()) {
+                    case ARRIVAL: arrivals++; break;
+                    case DEPARTURE: departures++; break;
+                    default: lightChanges++; break;
+                }
+            }
+            assertEquals(writer.getRecordCount(), reader.getRecordsRead());
+        }
+        assertEquals(40, arrivals);
+        assertEquals(40, departures);
+        assertTrue(lightChanges > Direction.values().length); // Initial states plus the cycle
+    }
+}
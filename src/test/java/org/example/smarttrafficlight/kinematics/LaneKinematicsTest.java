@@ -0,0 +1,113 @@
+package org.example.smarttrafficlight.kinematics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DepartureListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaneKinematicsTest {
+
+    private static final double DT = 0.1;
+
+    private final List<Integer> crossed = new ArrayList<>();
+    private final List<Double> crossedAt = new ArrayList<>();
+    private double time;
+    private final DepartureListener recorder = (dir, id, type, arrivalTime) -> {
+        crossed.add(id);
+        crossedAt.add(time);
+    };
+
+    private void run(LaneKinematics lane, double seconds) {
+        for (int i = 0; i < Math.round(seconds / DT); i++) {
+            time += DT;
+            lane.advance(DT, recorder);
+        }
+    }
+
+    @Test
+    void stopsAtARedLightWithoutOverlapping() {
+        LaneKinematics lane = new LaneKinematics(Direction.NORTH, 200, IdmParameters.URBAN);
+        for (int id = 1; id <= 8; id++) {
+            lane.enter(id, id % 3 == 0 ? VehicleType.BUS : VehicleType.CAR, 0);
+            run(lane, 2);
+        }
+        run(lane, 60);
+
+        assertEquals(List.of(), crossed);
+        assertEquals(8, lane.getVehicleCount());
+        assertTrue(lane.getPosition(0) <= lane.getLength());
+        for (int k = 0; k < lane.getVehicleCount(); k++) {
+            assertTrue(lane.getVelocity(k) < 0.1, "vehicle " + k + " still moving");
+            if (k > 0) {
+                assertTrue(lane.getPosition(k) < lane.getPosition(k - 1), "vehicle " + k + " overtook");
+            }
+        }
+        assertEquals(8, lane.countSlowerThan(0.5));
+    }
+
+    @Test
+    void aStandingQueueLeavesInOrderAtSaturationHeadways() {
+        LaneKinematics lane = new LaneKinematics(Direction.EAST, 200, IdmParameters.URBAN);
+        for (int id = 1; id <= 6; id++) {
+            lane.enter(id, VehicleType.CAR, 0);
+            run(lane, 2);
+        }
+        run(lane, 60);
+
+        lane.setSignal(TrafficLightState.GREEN);
+        run(lane, 60);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), crossed);
+        assertEquals(0, lane.getVehicleCount());
+        for (int i = 2; i < crossedAt.size(); i++) {
+            double headway = crossedAt.get(i) - crossedAt.get(i - 1);
+            assertTrue(headway > 1.0 && headway < 4.0, "headway " + headway + " s");
+        }
+    }
+
+    @Test
+    void yellowStopsOnlyVehiclesThatCanStopComfortably() {
+        LaneKinematics lane = new LaneKinematics(Direction.SOUTH, 100, IdmParameters.URBAN);
+        lane.setSignal(TrafficLightState.GREEN);
+        lane.enter(1, VehicleType.CAR, 0);
+        while (lane.getPosition(0) < 95) {
+            run(lane, DT);
+        }
+        lane.enter(2, VehicleType.CAR, 0); // Far back, plenty of room to stop
+        lane.setSignal(TrafficLightState.YELLOW);
+        run(lane, 30);
+
+        assertEquals(List.of(1), crossed); // Too close to stop: it goes
+        assertEquals(1, lane.getVehicleCount());
+        assertTrue(lane.getVelocity(0) < 0.1);
+    }
+
+    @Test
+    void vehiclesWaitUpstreamWhileTheLaneIsFull() {
+        LaneKinematics lane = new LaneKinematics(Direction.WEST, 30, IdmParameters.URBAN);
+        for (int id = 1; id <= 10; id++) {
+            lane.enter(id, VehicleType.CAR, 0);
+        }
+        run(lane, 30);
+        int onLane = lane.getVehicleCount();
+        assertTrue(lane.getWaitingCount() > 0);
+        assertEquals(10, onLane + lane.getWaitingCount());
+
+        assertTrue(lane.remove(10)); // Still waiting
+        assertTrue(lane.remove(lane.getVehicleId(1)));
+        assertFalse(lane.remove(10));
+
+        lane.setSignal(TrafficLightState.GREEN);
+        run(lane, 120);
+        assertEquals(8, crossed.size());
+        assertEquals(0, lane.getVehicleCount() + lane.getWaitingCount());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.smarttrafficlight.kinematics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroscopicSimulationTest {
+
+    private final MicroscopicSimulation simulation = new MicroscopicSimulation(1000, 10, 150, IdmParameters.URBAN);
+    private final List<String> departed = new ArrayList<>();
+
+    MicroscopicSimulationTest() {
+        simulation.getEngine().setConsoleOutput(false);
+        simulation.getEngine().setDepartureListener((dir, id, type, arrivalTime) -> departed.add(dir + " " + type));
+        simulation.start();
+    }
+
+    @Test
+    void crossingsReleaseVehiclesFromTheEngineQueue() {
+        for (int i = 0; i < 5; i++) {
+            simulation.addVehicle(VehicleType.CAR, Direction.NORTH);
+            simulation.addVehicle(VehicleType.CAR, Direction.EAST);
+        }
+        for (int tick = 0; tick < 180; tick++) {
+            simulation.step();
+            for (Direction dir : Direction.values()) {
+                LaneKinematics lane = simulation.getLane(dir);
+                assertEquals(lane.getVehicleCount() + lane.getWaitingCount(),
+                        simulation.getIntersection().getQueueSize(dir), dir + " at tick " + tick);
+            }
+        }
+
+        assertEquals(10, simulation.getCrossings());
+        assertEquals(10, departed.size());
+        assertEquals(180, simulation.getStepsRun());
+    }
+
+    @Test
+    void theVehicleThatCrossesIsTheOneReleased() {
+        simulation.addVehicle(VehicleType.CAR, Direction.EAST);       // First on the lane
+        simulation.addVehicle(VehicleType.AMBULANCE, Direction.EAST); // First in the engine's priority queue
+
+        simulation.run(120_000);
+
+        assertEquals(List.of("EAST CAR", "EAST AMBULANCE"), departed);
+        assertEquals(0, simulation.getIntersection().getQueueSize(Direction.EAST));
+        assertTrue(simulation.getEngine().getOverridesStarted() > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.smarttrafficlight.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void smallValuesHaveABucketEach() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(value, Histogram.bucketOf(value));
+            assertEquals(value, Histogram.highestValueIn((int) value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndWithinPrecision() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < Histogram.BUCKET_COUNT; bucket++) {
+            long highest = Histogram.highestValueIn(bucket);
+            long lowest = previousHighest + 1;
+            assertEquals(bucket, Histogram.bucketOf(lowest), "lowest value of bucket " + bucket);
+            assertEquals(bucket, Histogram.bucketOf(highest), "highest value of bucket " + bucket);
+            assertTrue(highest - lowest <= Math.max(0, lowest / 64), "bucket " + bucket + " too wide");
+            previousHighest = highest;
+        }
+        assertEquals((1L << 32) - 1, previousHighest);
+    }
+
+    @Test
+    void percentilesAndCounts() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5); // Counted as zero
+
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500_500, histogram.getSum());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(Math.abs(median - 500) <= 500 / 64, "median " + median);
+        assertEquals(128, histogram.getCountAtOrBelow(127));
+        assertEquals(0, histogram.getCountAtOrBelow(-1));
+    }
+
+    @Test
+    void hugeValuesAreClampedToTheTopBucket() {
+        Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertEquals(Long.MAX_VALUE / 2, histogram.getMax());
+        assertEquals((1L << 32) - 1, histogram.getValueAtPercentile(50)); // Top bucket
+        assertEquals(1, histogram.getCountAtOrBelow(Long.MAX_VALUE));
+    }
+
+    @Test
+    void resetEmptiesIt() {
+        Histogram histogram = new Histogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.smarttrafficlight.metrics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.notification.AsyncNotifier;
+import org.example.smarttrafficlight.notification.RecordingNotifier;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrometheusExporterTest {
+
+    private static final Pattern SAMPLE = Pattern.compile(
+            "([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\"(,[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\")*})? (\\S+)");
+    private static final Pattern TYPE = Pattern.compile("# TYPE ([a-zA-Z_:][a-zA-Z0-9_:]*) (counter|gauge|summary)");
+
+    private final ManualClock clock = new ManualClock();
+    private final Intersection intersection = new Intersection(clock);
+    private final TrafficMetrics metrics = TrafficMetrics.attach(intersection);
+    private final SimulationEngine engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+    private final AsyncNotifier notifier = new AsyncNotifier(new RecordingNotifier());
+    private PrometheusExporter exporter;
+
+    @BeforeEach
+    void runSomeTraffic() throws IOException {
+        engine.setConsoleOutput(false);
+        engine.startSimulation();
+        for (int i = 0; i < 5; i++) {
+            intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+            intersection.addVehicle(VehicleType.BUS, Direction.EAST);
+        }
+        for (int step = 0; step < 30; step++) {
+            clock.advance(1000);
+            engine.runSimulationStep();
+        }
+        exporter = PrometheusExporter.start(0, engine, metrics, notifier);
+    }
+
+    @AfterEach
+    void stop() {
+        exporter.close();
+        notifier.close();
+    }
+
+    @Test
+    void everyLineIsValidExpositionFormat() {
+        Map<String, String> types = new HashMap<>(); // Family name -> TYPE
+        for (String line : exporter.scrape().split("\n")) {
+            if (line.startsWith("# HELP ")) {
+                continue;
+            }
+            Matcher type = TYPE.matcher(line);
+            if (type.matches()) {
+                assertNull(types.put(type.group(1), type.group(2)), "second TYPE line for " + type.group(1));
+                continue;
+            }
+            Matcher sample = SAMPLE.matcher(line);
+            assertTrue(sample.matches(), "not a sample: " + line);
+            Double.parseDouble(sample.group(4));
+            String family = sample.group(1).replaceFirst("_(sum|count)$", "");
+            String name = "summary".equals(types.get(family)) ? family : sample.group(1);
+            assertTrue(types.containsKey(name), "sample before its TYPE line: " + line);
+        }
+        assertEquals("counter", types.get("traffic_engine_ticks_total"));
+        assertEquals("summary", types.get("traffic_wait_seconds"));
+    }
+
+    @Test
+    void valuesComeFromTheEngineAndMetrics() {
+        List<String> lines = List.of(exporter.scrape().split("\n"));
+
+        assertTrue(lines.contains("traffic_engine_ticks_total " + engine.getStepsRun()), lines.toString());
+        assertTrue(lines.contains("traffic_departures_total{direction=\"NORTH\"} " + metrics.getDepartures(Direction.NORTH)));
+        assertTrue(lines.contains("traffic_queue_depth{direction=\"EAST\"} " + metrics.getQueueLength(Direction.EAST)));
+        assertTrue(lines.contains("traffic_light_green{direction=\"NORTH\"} 1"));
+        assertTrue(lines.contains("traffic_light_green{direction=\"EAST\"} 0"));
+        assertTrue(lines.contains("traffic_wait_seconds_count{direction=\"NORTH\",type=\"CAR\"} "
+                + metrics.getWaitTimes(Direction.NORTH, VehicleType.CAR).getCount()));
+        assertTrue(lines.contains("traffic_notifier_messages_total{outcome=\"dropped\"} 0"));
+        assertTrue(metrics.getDepartures(Direction.NORTH) > 0);
+    }
+
+    @Test
+    void servesGetAndRejectsOtherMethods() throws IOException {
+        URL url = new URL("http://localhost:" + exporter.getPort() + "/metrics");
+        HttpURLConnection get = (HttpURLConnection) url.openConnection();
+        assertEquals(200, get.getResponseCode());
+        assertTrue(get.getContentType().startsWith("text/plain; version=0.0.4"));
+        try (InputStream body = get.getInputStream()) {
+            assertTrue(new String(body.readAllBytes(), StandardCharsets.UTF_8).contains("# TYPE traffic_engine_ticks_total counter"));
+        }
+
+        HttpURLConnection post = (HttpURLConnection) url.openConnection();
+        post.setRequestMethod("POST");
+        assertEquals(405, post.getResponseCode());
+    }
+}
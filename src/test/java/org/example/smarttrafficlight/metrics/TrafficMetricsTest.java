@@ -0,0 +1,69 @@
+package org.example.smarttrafficlight.metrics;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DischargeModel;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.PreemptionScheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrafficMetricsTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final Intersection intersection = new Intersection(clock);
+    private final TrafficMetrics metrics = TrafficMetrics.attach(intersection);
+
+    @Test
+    void everyDeparturePathIsRecordedOnce() {
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        Vehicle removed = intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        assertEquals(4, metrics.getQueueLength(Direction.NORTH));
+
+        clock.advance(3_000);
+        intersection.pollNextVehicle(Direction.NORTH, null);
+        intersection.removeVehicle(Direction.NORTH, removed.getId(), null);
+        intersection.getNextVehicle(Direction.NORTH);
+        intersection.dischargeVehicles(Direction.NORTH, 0, DischargeModel.ONE_PER_STEP, false, null);
+
+        assertEquals(4, metrics.getDepartures(Direction.NORTH));
+        assertEquals(0, metrics.getQueueLength(Direction.NORTH));
+        Histogram waits = metrics.getWaitTimes(Direction.NORTH, VehicleType.CAR);
+        assertEquals(4, waits.getCount());
+        assertEquals(3_000, waits.getMax());
+        assertEquals(0, metrics.getWaitTimes(Direction.NORTH, VehicleType.BUS).getCount());
+    }
+
+    @Test
+    void departuresAndQueueLengthPerMinute() {
+        intersection.addVehicle(VehicleType.BUS, Direction.EAST);
+        intersection.addVehicle(VehicleType.BUS, Direction.EAST);
+        clock.advance(60_000);
+        intersection.pollNextVehicle(Direction.EAST, null);
+
+        assertArrayEquals(new long[] {0, 1}, metrics.getDeparturesPerMinute(clock.currentTimeMillis(), Direction.EAST, 2));
+        assertArrayEquals(new long[] {2, 1}, metrics.getMaxQueueLengthPerMinute(clock.currentTimeMillis(), Direction.EAST, 2));
+    }
+
+    @Test
+    void phaseUtilizationAndOverrideLatency() {
+        intersection.addVehicle(VehicleType.AMBULANCE, Direction.EAST);
+        new PreemptionScheduler().refresh(intersection, clock.currentTimeMillis()); // Detected at 0 while EAST is red
+        clock.advance(4_000);
+        intersection.setLightState(Direction.EAST, TrafficLightState.GREEN);
+        clock.advance(6_000);
+
+        assertEquals(1, metrics.getOverrideLatency().getCount());
+        assertEquals(4_000, metrics.getOverrideLatency().getMax());
+        assertEquals(4_000, metrics.getStateMillis(Direction.EAST, TrafficLightState.RED, clock.currentTimeMillis()));
+        assertEquals(0.6, metrics.getGreenShare(Direction.EAST, clock.currentTimeMillis()), 1e-9);
+        assertEquals(1.0, metrics.getGreenShare(Direction.NORTH, clock.currentTimeMillis()), 1e-9);
+    }
+}
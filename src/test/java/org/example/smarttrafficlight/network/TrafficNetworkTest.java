@@ -0,0 +1,137 @@
+package org.example.smarttrafficlight.network;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficNetworkTest {
+
+    private static final long TICK_MS = 1000;
+
+    @Test
+    void boundaryVehicleRoundTripsInTenBytes() throws IOException {
+        BoundaryVehicle sent = new BoundaryVehicle(65_535, 7,
+                Vehicle.withId(Integer.MAX_VALUE, VehicleType.FIRE_TRUCK, Direction.WEST, 123));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sent.writeTo(new DataOutputStream(bytes));
+        assertEquals(10, bytes.size());
+
+        BoundaryVehicle received = BoundaryVehicle.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(65_535, received.getTargetRow());
+        assertEquals(7, received.getTargetCol());
+        Vehicle vehicle = received.toVehicle(5_000);
+        assertEquals(Integer.MAX_VALUE, vehicle.getId());
+        assertEquals(VehicleType.FIRE_TRUCK, vehicle.getType());
+        assertEquals(Direction.WEST, vehicle.getOriginDirection());
+        assertEquals(5_000, vehicle.getArrivalTime());
+    }
+
+    @Test
+    void coordinatesBeyondTheWireFormatAreRejected() {
+        Vehicle car = Vehicle.withId(1, VehicleType.CAR, Direction.NORTH, 0);
+        assertThrows(IllegalArgumentException.class, () -> new BoundaryVehicle(65_536, 0, car));
+        assertThrows(IllegalArgumentException.class, () -> new BoundaryVehicle(0, 65_536, car));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrafficNetwork(65_537, 1, TICK_MS, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrafficNetwork(1, 65_537, TICK_MS, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void departuresJoinTheDownstreamJunction() {
+        TrafficNetwork network = new TrafficNetwork(2, 1, TICK_MS, ForkJoinPool.commonPool());
+        network.start();
+        network.getNode(0, 0).getIntersection().addVehicle(VehicleType.CAR, Direction.NORTH); // Heads south
+
+        for (int tick = 0; tick < 60 && network.getHandoffs() == 0; tick++) {
+            network.step();
+        }
+
+        assertEquals(1, network.getHandoffs());
+        assertEquals(0, network.getNode(0, 0).getIntersection().getQueueSize(Direction.NORTH));
+        assertEquals(1, network.getNode(1, 0).getIntersection().getQueueSize(Direction.NORTH));
+    }
+
+    @Test
+    void partitionsExchangeBoundaryVehicles() {
+        TrafficNetwork top = new TrafficNetwork(2, 1, 0, 1, TICK_MS, ForkJoinPool.commonPool());
+        TrafficNetwork bottom = new TrafficNetwork(2, 1, 1, 2, TICK_MS, ForkJoinPool.commonPool());
+        top.start();
+        bottom.start();
+        top.getNode(0, 0).getIntersection().addVehicle(VehicleType.BUS, Direction.NORTH);
+
+        List<BoundaryVehicle> outbox = List.of();
+        for (int tick = 0; tick < 60 && outbox.isEmpty(); tick++) {
+            top.step();
+            outbox = top.drainBoundaryOutbox();
+        }
+
+        assertEquals(1, outbox.size());
+        List<BoundaryVehicle> crossing = outbox;
+        assertEquals(1, crossing.get(0).getTargetRow());
+        assertEquals(0, top.getHandoffs()); // Counted by the receiving partition
+        assertThrows(IllegalArgumentException.class, () -> top.acceptBoundaryVehicles(crossing));
+
+        bottom.acceptBoundaryVehicles(crossing);
+        assertEquals(1, bottom.getHandoffs());
+        assertEquals(VehicleType.BUS, bottom.getNode(1, 0).getIntersection().peekNextVehicleType(Direction.NORTH));
+    }
+
+    @Test
+    void partitionedRunMatchesTheWholeGrid() {
+        TrafficNetwork whole = new TrafficNetwork(4, 3, TICK_MS, ForkJoinPool.commonPool());
+        TrafficNetwork top = new TrafficNetwork(4, 3, 0, 2, TICK_MS, ForkJoinPool.commonPool());
+        TrafficNetwork bottom = new TrafficNetwork(4, 3, 2, 4, TICK_MS, ForkJoinPool.commonPool());
+        for (TrafficNetwork network : List.of(whole, top, bottom)) {
+            network.start();
+        }
+        for (int row = 0; row < 4; row++) {
+            TrafficNetwork partition = row < 2 ? top : bottom;
+            for (int col = 0; col < 3; col++) {
+                for (Direction dir : Direction.values()) {
+                    for (int i = 0; i < (row + col + dir.ordinal()) % 4; i++) {
+                        whole.getNode(row, col).getIntersection().addVehicle(VehicleType.CAR, dir);
+                        partition.getNode(row, col).getIntersection().addVehicle(VehicleType.CAR, dir);
+                    }
+                }
+            }
+        }
+
+        for (int tick = 0; tick < 120; tick++) {
+            whole.step();
+            top.step();
+            bottom.step();
+            List<BoundaryVehicle> down = top.drainBoundaryOutbox();
+            List<BoundaryVehicle> up = bottom.drainBoundaryOutbox();
+            bottom.acceptBoundaryVehicles(down);
+            top.acceptBoundaryVehicles(up);
+        }
+
+        assertTrue(whole.getHandoffs() > 0);
+        assertEquals(whole.getHandoffs(), top.getHandoffs() + bottom.getHandoffs());
+        assertEquals(whole.getExits(), top.getExits() + bottom.getExits());
+        for (int row = 0; row < 4; row++) {
+            TrafficNetwork partition = row < 2 ? top : bottom;
+            for (int col = 0; col < 3; col++) {
+                for (Direction dir : Direction.values()) {
+                    assertEquals(whole.getNode(row, col).getIntersection().getQueueSize(dir),
+                            partition.getNode(row, col).getIntersection().getQueueSize(dir),
+                            "queue " + dir + " at [" + row + "," + col + "]");
+                }
+            }
+        }
+    }
+}
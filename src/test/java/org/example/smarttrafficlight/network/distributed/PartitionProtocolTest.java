@@ -0,0 +1,49 @@
+package org.example.smarttrafficlight.network.distributed;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.network.BoundaryVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PartitionProtocolTest {
+
+    @Test
+    void idRangesAreDisjointAndContiguous() {
+        assertEquals(0, PartitionProtocol.idRangeStart(0));
+        assertEquals((1 << 24) - 1, PartitionProtocol.idRangeEnd(0));
+        for (int worker = 1; worker < PartitionProtocol.MAX_WORKERS; worker++) {
+            assertEquals(PartitionProtocol.idRangeEnd(worker - 1), PartitionProtocol.idRangeStart(worker) - 1);
+        }
+        assertEquals(Integer.MAX_VALUE, PartitionProtocol.idRangeEnd(PartitionProtocol.MAX_WORKERS - 1));
+    }
+
+    @Test
+    void vehicleListsRoundTrip() throws IOException {
+        List<BoundaryVehicle> sent = List.of(
+                new BoundaryVehicle(3, 0, Vehicle.withId(17, VehicleType.CAR, Direction.NORTH, 0)),
+                new BoundaryVehicle(2, 5, Vehicle.withId(1 << 24, VehicleType.AMBULANCE, Direction.SOUTH, 0)));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PartitionProtocol.DONE);
+        PartitionProtocol.writeVehicles(out, sent);
+        out.writeByte(PartitionProtocol.STOP);
+        assertEquals(1 + 4 + 2 * 10 + 1, bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        PartitionProtocol.expect(in, PartitionProtocol.DONE);
+        List<BoundaryVehicle> received = PartitionProtocol.readVehicles(in);
+        assertEquals(sent.toString(), received.toString());
+        assertThrows(IOException.class, () -> PartitionProtocol.expect(in, PartitionProtocol.STATS));
+    }
+}
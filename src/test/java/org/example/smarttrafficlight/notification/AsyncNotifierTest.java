@@ -0,0 +1,150 @@
+package org.example.smarttrafficlight.notification;
+
+import org.example.smarttrafficlight.notification.AsyncNotifier.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncNotifierTest {
+
+    @Test
+    void coalescesABurstIntoOneDigestPerChat() {
+        RecordingNotifier recorder = new RecordingNotifier();
+        try (AsyncNotifier notifier = new AsyncNotifier(recorder, 16, OverflowPolicy.DROP_NEWEST, 300, 100, 10)) {
+            notifier.sendMessage(1, "a");
+            notifier.sendMessage(2, "only");
+            notifier.sendMessage(1, "b");
+            notifier.sendMessage("default");
+        }
+
+        assertEquals(List.of("Simulation updates:\n• a\n• b", "only", "default"), recorder.getMessages());
+        assertEquals(List.of(1L, 2L, RecordingNotifier.DEFAULT_CHAT), recorder.getChatIds());
+    }
+
+    @Test
+    void dropNewestRefusesMessagesWhileTheOutboxIsFull() throws InterruptedException {
+        StalledNotifier delegate = new StalledNotifier();
+        AsyncNotifier notifier = new AsyncNotifier(delegate, 2, OverflowPolicy.DROP_NEWEST, 0, 100, 10);
+        fillBehindAStalledSend(notifier, delegate);
+        notifier.close();
+
+        assertEquals(1, notifier.getDroppedCount());
+        assertEquals(3, notifier.getAcceptedCount());
+        assertEquals(List.of("a", "Simulation updates:\n• b\n• c"), delegate.sent);
+    }
+
+    @Test
+    void dropOldestMakesRoomForTheNewestMessage() throws InterruptedException {
+        StalledNotifier delegate = new StalledNotifier();
+        AsyncNotifier notifier = new AsyncNotifier(delegate, 2, OverflowPolicy.DROP_OLDEST, 0, 100, 10);
+        fillBehindAStalledSend(notifier, delegate);
+        notifier.close();
+
+        assertEquals(1, notifier.getDroppedCount());
+        assertEquals(4, notifier.getAcceptedCount());
+        assertEquals(List.of("a", "Simulation updates:\n• c\n• d"), delegate.sent);
+    }
+
+    // "a" is being sent (and stuck) while b, c and d arrive at an outbox of two
+    private static void fillBehindAStalledSend(AsyncNotifier notifier, StalledNotifier delegate) throws InterruptedException {
+        notifier.sendMessage(1, "a");
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+        notifier.sendMessage(1, "b");
+        notifier.sendMessage(1, "c");
+        notifier.sendMessage(1, "d"); // Returns at once
+        assertEquals(2, notifier.getQueueDepth());
+        delegate.release.countDown();
+    }
+
+    @Test
+    void rateLimitsEachChatSeparately() {
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        List<Long> chats = Collections.synchronizedList(new ArrayList<>());
+        Notifier timed = new Notifier() {
+            @Override
+            public void sendMessage(String text) {
+                sendMessage(RecordingNotifier.DEFAULT_CHAT, text);
+            }
+
+            @Override
+            public void sendMessage(long chatId, String text) {
+                sentAt.add(System.nanoTime());
+                chats.add(chatId);
+            }
+        };
+        String long3000 = "x".repeat(3000); // Two of these never fit in one digest
+        long start = System.nanoTime();
+        try (AsyncNotifier notifier = new AsyncNotifier(timed, 16, OverflowPolicy.DROP_NEWEST, 100, 5, 1)) {
+            notifier.sendMessage(1, long3000);
+            notifier.sendMessage(1, long3000);
+            notifier.sendMessage(1, long3000);
+            notifier.sendMessage(2, "other chat");
+        }
+
+        assertEquals(List.of(1L, 1L, 1L, 2L), chats);
+        // One token up front, then one every 200 ms for chat 1; chat 2 has its own full bucket
+        assertTrue(sentAt.get(2) - sentAt.get(0) >= TimeUnit.MILLISECONDS.toNanos(390),
+                "third message after " + (sentAt.get(2) - sentAt.get(0)) / 1_000_000 + " ms");
+        assertTrue(sentAt.get(3) - sentAt.get(2) < TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(sentAt.get(0) - start < TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test
+    void aFailedDeliveryDoesNotStopTheSender() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        Notifier flaky = new Notifier() {
+            @Override
+            public void sendMessage(String text) {
+                sendMessage(0, text);
+            }
+
+            @Override
+            public void sendMessage(long chatId, String text) {
+                if (chatId == 1) {
+                    throw new NotificationException("chat not found", null);
+                }
+                sent.add(text);
+            }
+        };
+        AsyncNotifier notifier = new AsyncNotifier(flaky, 16, OverflowPolicy.DROP_NEWEST, 100, 100, 10);
+        notifier.sendMessage(1, "lost");
+        notifier.sendMessage(2, "delivered");
+        notifier.close();
+        notifier.sendMessage(2, "after close");
+
+        assertEquals(List.of("delivered"), sent);
+        assertEquals(1, notifier.getFailedCount());
+        assertEquals(1, notifier.getDeliveredCount());
+        assertEquals(1, notifier.getDroppedCount());
+    }
+
+    // Blocks inside the first send until released
+    private static final class StalledNotifier implements Notifier {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void sendMessage(String text) {
+            sendMessage(0, text);
+        }
+
+        @Override
+        public void sendMessage(long chatId, String text) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(text);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.smarttrafficlight.profiling;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.ExternalTickDriver;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SimulationEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickProfilerTest {
+
+    private static final long TICK_MS = 1000;
+
+    @TempDir
+    Path directory;
+
+    private final ManualClock clock = new ManualClock();
+    private final Intersection intersection = new Intersection(clock, SimulationEventLog.disabled());
+    private final SimulationEngine engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+
+    @Test
+    void everyStepCountsEachStageOnceAndOnlyOneOfOverrideAndNormalCycle() {
+        engine.setConsoleOutput(false);
+        engine.setStageProfilingEnabled(true);
+        TickProfiler profiler = engine.getProfiler();
+        engine.startSimulation();
+
+        int steps = 60;
+        for (int step = 1; step <= steps; step++) {
+            clock.advance(TICK_MS);
+            if (step == 15) {
+                intersection.addVehicle(VehicleType.AMBULANCE, Direction.EAST); // Red approach: a full override
+            }
+            long overrides = profiler.getStageNanos(TickStage.OVERRIDE).getCount();
+            long normalCycles = profiler.getStageNanos(TickStage.NORMAL_CYCLE).getCount();
+            engine.runSimulationStep();
+            long overrideDelta = profiler.getStageNanos(TickStage.OVERRIDE).getCount() - overrides;
+            long normalDelta = profiler.getStageNanos(TickStage.NORMAL_CYCLE).getCount() - normalCycles;
+            assertEquals(1, overrideDelta + normalDelta, "step " + step);
+        }
+
+        assertEquals(steps, profiler.getStageNanos(TickStage.PRIORITY_DETECTION).getCount());
+        assertEquals(steps, profiler.getStageNanos(TickStage.QUEUE_DISCHARGE).getCount());
+        assertEquals(steps, profiler.getStageNanos(TickStage.LISTENERS).getCount());
+        assertTrue(profiler.getStageNanos(TickStage.OVERRIDE).getCount() > 0);
+        assertTrue(profiler.getStageNanos(TickStage.NORMAL_CYCLE).getCount() > 0);
+    }
+
+    @Test
+    void jfrRecordingSeesStagesAndLightTransitions() throws IOException {
+        engine.setConsoleOutput(false);
+        engine.setStageProfilingEnabled(true);
+        engine.startSimulation();
+
+        Path file = directory.resolve("engine.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TickStageEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(LightTransitionEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            for (int step = 1; step <= 12; step++) {
+                clock.advance(TICK_MS);
+                engine.runSimulationStep();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Set<String> stagesAt5000 = new HashSet<>();
+        List<String> transitions = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.equals("org.example.smarttrafficlight.TickStage")) {
+                long time = event.getLong("simulationTime");
+                assertTrue(time >= TICK_MS && time <= 12 * TICK_MS && time % TICK_MS == 0, "stage at " + time);
+                if (time == 5000) {
+                    stagesAt5000.add(event.getString("stage"));
+                }
+            } else if (name.equals("org.example.smarttrafficlight.LightTransition")) {
+                transitions.add(event.getLong("simulationTime") + " " + event.getString("direction") + " "
+                        + event.getString("from") + "->" + event.getString("to"));
+            }
+        }
+
+        assertEquals(Set.of("PRIORITY_DETECTION", "NORMAL_CYCLE", "QUEUE_DISCHARGE", "LISTENERS"), stagesAt5000);
+        // Default timings: north/south green for 10 s from the start
+        assertTrue(transitions.contains("10000 NORTH GREEN->YELLOW"), transitions.toString());
+        assertTrue(transitions.contains("10000 SOUTH GREEN->YELLOW"), transitions.toString());
+    }
+}
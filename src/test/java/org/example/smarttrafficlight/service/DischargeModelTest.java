@@ -0,0 +1,108 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DischargeModelTest {
+
+    private final List<Integer> departed = new ArrayList<>();
+    private final DepartureListener recorder = (dir, id, type, arrivalTime) -> departed.add(id);
+
+    @Test
+    void headwaysScaleWithVehicleType() {
+        DischargeModel model = DischargeModel.saturationFlow(1800, 2000);
+        assertEquals(2000, model.getHeadwayMs(VehicleType.CAR));
+        assertEquals(1000, model.getHeadwayMs(VehicleType.MOTORCYCLE));
+        assertEquals(4000, model.getHeadwayMs(VehicleType.BUS));
+        assertEquals(4000, model.getHeadwayMs(VehicleType.TRUCK));
+        assertEquals(2000, model.getHeadwayMs(VehicleType.AMBULANCE));
+        assertEquals(2000, model.getStartupLostTimeMs());
+        assertEquals(Integer.MAX_VALUE, model.getMaxVehiclesPerStep());
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.saturationFlow(0, 2000));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.saturationFlow(1800, -1));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.saturationFlow(1800, 0, new double[1]));
+    }
+
+    @Test
+    void onlyExternalIsExternal() {
+        assertTrue(DischargeModel.EXTERNAL.isExternal());
+        assertFalse(DischargeModel.ONE_PER_STEP.isExternal());
+        assertFalse(DischargeModel.DEFAULT.isExternal());
+    }
+
+    @Test
+    void releasesOneVehiclePerHeadwayAfterTheLostTime() {
+        VehicleQueue queue = new VehicleQueue(Direction.NORTH);
+        queue.add(1, VehicleType.CAR, 0);
+        queue.add(2, VehicleType.BUS, 0);
+        queue.add(3, VehicleType.CAR, 0);
+        queue.add(4, VehicleType.CAR, 0);
+        DischargeModel model = DischargeModel.DEFAULT; // Green at 10 s: first car crosses at 12 s
+
+        long nextRelease = queue.drain(11_999, 12_000, model, false, recorder);
+        assertEquals(List.of(), departed);
+
+        nextRelease = queue.drain(16_000, nextRelease, model, false, recorder);
+        assertEquals(List.of(2, 1), departed); // Bus first (higher level), the car a bus headway later
+        assertEquals(18_000, nextRelease);
+
+        queue.drain(20_000, nextRelease, model, false, recorder);
+        assertEquals(List.of(2, 1, 3, 4), departed);
+    }
+
+    @Test
+    void anEmptyGreenDoesNotBankCapacity() {
+        VehicleQueue queue = new VehicleQueue(Direction.EAST);
+        long nextRelease = queue.drain(60_000, 2_000, DischargeModel.DEFAULT, false, recorder);
+        assertEquals(2_000, nextRelease);
+
+        queue.add(1, VehicleType.CAR, 59_000);
+        queue.add(2, VehicleType.CAR, 59_000);
+        queue.add(3, VehicleType.CAR, 59_000);
+        queue.drain(60_000, nextRelease, DischargeModel.DEFAULT, false, recorder);
+
+        assertEquals(List.of(1), departed); // Not all three at once
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void drainsOnlyTheRequestedKind() {
+        VehicleQueue queue = new VehicleQueue(Direction.SOUTH);
+        queue.add(1, VehicleType.AMBULANCE, 0);
+        queue.add(2, VehicleType.CAR, 0);
+
+        queue.drain(100_000, 0, DischargeModel.DEFAULT, false, recorder);
+        assertEquals(List.of(), departed); // Emergency head blocks a regular pass
+
+        queue.drain(100_000, 0, DischargeModel.DEFAULT, true, recorder);
+        assertEquals(List.of(1), departed); // And a priority pass stops at the first regular vehicle
+    }
+
+    @Test
+    void perStepLimits() {
+        VehicleQueue queue = new VehicleQueue(Direction.WEST);
+        for (int id = 1; id <= 3; id++) {
+            queue.add(id, VehicleType.CAR, 0);
+        }
+
+        queue.drain(100_000, 0, DischargeModel.EXTERNAL, false, recorder);
+        assertEquals(List.of(), departed);
+
+        queue.drain(100_000, 0, DischargeModel.ONE_PER_STEP, false, recorder);
+        queue.drain(100_000, 0, DischargeModel.ONE_PER_STEP, false, recorder);
+        assertEquals(List.of(1, 2), departed);
+    }
+}
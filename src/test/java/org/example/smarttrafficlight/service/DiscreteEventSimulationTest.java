@@ -0,0 +1,123 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.control.ActuatedController;
+import org.example.smarttrafficlight.service.control.FixedTimeController;
+import org.example.smarttrafficlight.service.control.MaxPressureController;
+import org.example.smarttrafficlight.service.control.SignalController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The event-driven runner must give exactly the results of stepping every tick
+class DiscreteEventSimulationTest {
+
+    private static final long TICKS = 3600;
+    private static final long TICK_MS = 1000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fixed", "actuated", "max-pressure"})
+    void matchesSteppedModeForTheSameSeed(String controller) {
+        for (long seed = 1; seed <= 20; seed++) {
+            List<String> stepped = runStepped(seed, controller(controller));
+            List<String> eventDriven = runEventDriven(seed, controller(controller));
+
+            assertTrue(stepped.size() > 100, "Run should produce departures");
+            assertEquals(stepped, eventDriven, controller + ", seed " + seed);
+        }
+    }
+
+    @Test
+    void skipsIdleTicks() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(TICK_MS);
+        simulation.getEngine().setConsoleOutput(false);
+        simulation.scheduleArrival(5_000, VehicleType.CAR, Direction.NORTH);
+        simulation.run(TICKS * TICK_MS);
+
+        assertEquals(TICKS * TICK_MS, simulation.getClock().currentTimeMillis());
+        assertTrue(simulation.getStepsRun() < TICKS / 2, "steps run: " + simulation.getStepsRun());
+    }
+
+    // Every tick: advance the clock, let that tick's arrival (if any) join its queue, run one step.
+    // (The engine's tick hook would be too late: it runs after the step, so the vehicle
+    // would only be seen a tick later than its arrival time.)
+    private static List<String> runStepped(long seed, SignalController controller) {
+        ManualClock clock = new ManualClock();
+        Intersection intersection = new Intersection(clock);
+        Recorder recorder = new Recorder();
+        intersection.addObserver(recorder);
+        SimulationEngine engine = new SimulationEngine(intersection, null, new ExternalTickDriver(), clock);
+        engine.setConsoleOutput(false);
+        engine.setSignalController(controller);
+
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        VehicleType[] types = VehicleType.values();
+        engine.startSimulation();
+        for (long tick = 1; tick <= TICKS; tick++) {
+            clock.advance(TICK_MS);
+            if (random.nextInt(4) == 0) {
+                intersection.addVehicle(types[random.nextInt(types.length)], directions[random.nextInt(directions.length)]);
+            }
+            engine.runSimulationStep();
+        }
+        return recorder.events;
+    }
+
+    // Same arrivals, scheduled up front
+    private static List<String> runEventDriven(long seed, SignalController controller) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(TICK_MS);
+        simulation.getEngine().setConsoleOutput(false);
+        simulation.getEngine().setSignalController(controller);
+        Recorder recorder = new Recorder();
+        simulation.getIntersection().addObserver(recorder);
+
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        VehicleType[] types = VehicleType.values();
+        for (long tick = 1; tick <= TICKS; tick++) {
+            if (random.nextInt(4) == 0) {
+                simulation.scheduleArrival(tick * TICK_MS, types[random.nextInt(types.length)],
+                        directions[random.nextInt(directions.length)]);
+            }
+        }
+        simulation.run(TICKS * TICK_MS);
+        return recorder.events;
+    }
+
+    private static SignalController controller(String name) {
+        switch (name) {
+            case "actuated":
+                return new ActuatedController(5_000, 40_000);
+            case "max-pressure":
+                return new MaxPressureController(5_000, 40_000);
+            default:
+                return new FixedTimeController();
+        }
+    }
+
+    // Departures and light changes in order. Vehicle ids are process-wide, so departures are
+    // identified by arrival time, approach and type instead.
+    private static final class Recorder implements IntersectionObserver {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+            events.add(timeMillis + " depart " + direction + " " + type + " arrived " + arrivalTime);
+        }
+
+        @Override
+        public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+            events.add(timeMillis + " light " + direction + " " + state);
+        }
+    }
+}
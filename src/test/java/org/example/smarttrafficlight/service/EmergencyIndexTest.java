@@ -0,0 +1,68 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmergencyIndexTest {
+
+    private final EmergencyIndex index = new EmergencyIndex();
+
+    @Test
+    void countsFollowAddsAndRemoves() {
+        index.added(Direction.NORTH, VehicleType.AMBULANCE);
+        index.added(Direction.NORTH, VehicleType.AMBULANCE);
+        index.added(Direction.NORTH, VehicleType.CAR); // Not an emergency vehicle: ignored
+
+        assertEquals(2, index.count(Direction.NORTH, VehicleType.AMBULANCE));
+        assertEquals(0, index.count(Direction.NORTH, VehicleType.CAR));
+        assertTrue(index.contains(Direction.NORTH));
+
+        index.removed(Direction.NORTH, VehicleType.AMBULANCE);
+        assertEquals(1, index.count(Direction.NORTH, VehicleType.AMBULANCE));
+        assertTrue(index.contains(Direction.NORTH));
+
+        index.removed(Direction.NORTH, VehicleType.AMBULANCE);
+        assertEquals(0, index.count(Direction.NORTH, VehicleType.AMBULANCE));
+        assertFalse(index.contains(Direction.NORTH));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void reportsTheMostUrgentRequest() {
+        index.added(Direction.EAST, VehicleType.POLICE);
+        assertEquals(Direction.EAST, index.mostUrgentDirection());
+        assertEquals(VehicleType.POLICE, index.mostUrgentType(Direction.EAST));
+
+        index.added(Direction.WEST, VehicleType.FIRE_TRUCK); // Higher level than POLICE
+        assertEquals(Direction.WEST, index.mostUrgentDirection());
+
+        index.added(Direction.EAST, VehicleType.AMBULANCE);
+        assertEquals(VehicleType.AMBULANCE, index.mostUrgentType(Direction.EAST));
+
+        index.clear(Direction.WEST);
+        assertEquals(Direction.EAST, index.mostUrgentDirection());
+        assertNull(index.mostUrgentType(Direction.WEST));
+    }
+
+    @Test
+    void queueKeepsTheIndexUpToDate() {
+        VehicleQueue queue = new VehicleQueue(Direction.SOUTH, index);
+        queue.add(1, VehicleType.CAR, 0);
+        queue.add(2, VehicleType.FIRE_TRUCK, 0);
+        queue.add(3, VehicleType.FIRE_TRUCK, 0);
+        assertEquals(2, index.count(Direction.SOUTH, VehicleType.FIRE_TRUCK));
+
+        queue.poll(null);
+        assertEquals(1, index.count(Direction.SOUTH, VehicleType.FIRE_TRUCK));
+
+        queue.remove(3, null, 0);
+        assertEquals(0, index.count(Direction.SOUTH, VehicleType.FIRE_TRUCK));
+        assertTrue(index.isEmpty());
+    }
+}
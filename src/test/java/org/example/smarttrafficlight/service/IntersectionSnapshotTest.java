@@ -0,0 +1,87 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntersectionSnapshotTest {
+
+    private final Intersection intersection = new Intersection(new ManualClock(), SimulationEventLog.disabled());
+
+    @Test
+    void unchangedIntersectionKeepsItsSnapshot() {
+        IntersectionSnapshot first = intersection.publishSnapshot();
+
+        IntersectionSnapshot second = intersection.publishSnapshot();
+        IntersectionSnapshot third = intersection.publishQueueChanges();
+
+        assertSame(first, second);
+        assertSame(first, third);
+        assertEquals(first.getVersion(), third.getVersion());
+        assertSame(first, intersection.getSnapshot());
+    }
+
+    @Test
+    void unchangedApproachesAreShared() {
+        IntersectionSnapshot before = intersection.publishSnapshot();
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+
+        IntersectionSnapshot after = intersection.publishSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertNotSame(before.getApproach(Direction.NORTH), after.getApproach(Direction.NORTH));
+        assertEquals(1, after.getQueueSize(Direction.NORTH));
+        for (Direction dir : new Direction[]{Direction.SOUTH, Direction.EAST, Direction.WEST}) {
+            assertSame(before.getApproach(dir), after.getApproach(dir), dir.toString());
+        }
+    }
+
+    @Test
+    void readerThatSkippedVersionsSeesEveryChangedApproach() {
+        long seen = intersection.publishSnapshot().getVersion();
+
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+        intersection.publishSnapshot();
+        intersection.setLightState(Direction.EAST, TrafficLightState.GREEN);
+        long eastChanged = intersection.publishSnapshot().getVersion();
+        intersection.addVehicle(VehicleType.BUS, Direction.NORTH);
+        IntersectionSnapshot latest = intersection.publishSnapshot();
+
+        assertEquals(seen + 3, latest.getVersion());
+        assertTrue(latest.getApproach(Direction.NORTH).isChangedSince(seen));
+        assertTrue(latest.getApproach(Direction.EAST).isChangedSince(seen));
+        assertFalse(latest.getApproach(Direction.SOUTH).isChangedSince(seen));
+        assertFalse(latest.getApproach(Direction.WEST).isChangedSince(seen));
+
+        // A reader that caught up after the east change only needs the north redraw
+        assertTrue(latest.getApproach(Direction.NORTH).isChangedSince(eastChanged));
+        assertFalse(latest.getApproach(Direction.EAST).isChangedSince(eastChanged));
+        assertFalse(latest.getApproach(Direction.NORTH).isChangedSince(latest.getVersion()));
+    }
+
+    @Test
+    void queueChangesKeepTheLastPublishedLights() {
+        intersection.publishSnapshot();
+        intersection.setLightState(Direction.NORTH, TrafficLightState.YELLOW); // Engine mid-step
+        intersection.addVehicle(VehicleType.CAR, Direction.NORTH);
+
+        IntersectionSnapshot queued = intersection.publishQueueChanges();
+
+        assertEquals(1, queued.getQueueSize(Direction.NORTH));
+        assertEquals(TrafficLightState.GREEN, queued.getLightState(Direction.NORTH));
+        assertEquals(TrafficLightState.GREEN, queued.getLightState(Direction.SOUTH));
+
+        IntersectionSnapshot full = intersection.publishSnapshot();
+
+        assertEquals(TrafficLightState.YELLOW, full.getLightState(Direction.NORTH));
+        assertEquals(queued.getVersion() + 1, full.getVersion());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PreemptionSchedulerTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final Intersection intersection = new Intersection(clock);
+    private final PreemptionScheduler scheduler = new PreemptionScheduler();
+
+    @Test
+    void higherLevelWinsOverEarlierRequest() {
+        intersection.addVehicle(VehicleType.POLICE, Direction.NORTH);
+        scheduler.refresh(intersection, 1_000);
+        intersection.addVehicle(VehicleType.AMBULANCE, Direction.EAST);
+        scheduler.refresh(intersection, 2_000);
+
+        assertEquals(Direction.EAST, scheduler.next(null));
+    }
+
+    @Test
+    void currentPhaseWinsTiesThenEarliestRequest() {
+        intersection.addVehicle(VehicleType.AMBULANCE, Direction.EAST);
+        scheduler.refresh(intersection, 1_000);
+        intersection.addVehicle(VehicleType.FIRE_TRUCK, Direction.NORTH);
+        scheduler.refresh(intersection, 2_000);
+
+        assertEquals(Direction.EAST, scheduler.next(null));
+        assertEquals(Direction.NORTH, scheduler.next(Direction.SOUTH)); // No clearance needed
+    }
+
+    @Test
+    void requestIsDroppedOnceItsVehiclesHaveLeft() {
+        intersection.addVehicle(VehicleType.AMBULANCE, Direction.WEST);
+        scheduler.refresh(intersection, 1_000);
+        intersection.pollNextVehicle(Direction.WEST, null);
+        scheduler.refresh(intersection, 2_000);
+
+        assertNull(scheduler.next(null));
+    }
+
+    @Test
+    void onlyRefreshReportsDetections() {
+        List<String> detections = new ArrayList<>();
+        intersection.addObserver(new IntersectionObserver() {
+            @Override
+            public void priorityDetected(long timeMillis, Direction direction, VehicleType type) {
+                detections.add(timeMillis + " " + direction);
+            }
+        });
+        intersection.addVehicle(VehicleType.AMBULANCE, Direction.SOUTH);
+
+        assertEquals(Direction.SOUTH, intersection.checkForPriorityVehicle().orElse(null));
+        assertEquals(Direction.SOUTH, intersection.checkForPriorityVehicle().orElse(null));
+        assertEquals(List.of(), detections);
+
+        scheduler.refresh(intersection, 1_000);
+        scheduler.refresh(intersection, 2_000);
+        assertEquals(List.of("1000 SOUTH"), detections);
+    }
+
+    // Regression: an event-driven run used to sleep through an override's yellow, so a second
+    // emergency vehicle arriving during it was only detected when the yellow ended
+    @Test
+    void eventDrivenRunDetectsRequestsArrivingDuringYellow() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(1000);
+        simulation.getEngine().setConsoleOutput(false);
+        List<String> detections = new ArrayList<>();
+        simulation.getIntersection().addObserver(new IntersectionObserver() {
+            @Override
+            public void priorityDetected(long timeMillis, Direction direction, VehicleType type) {
+                detections.add(timeMillis + " " + direction);
+            }
+        });
+        simulation.scheduleArrival(3_000, VehicleType.FIRE_TRUCK, Direction.NORTH); // Green already: crosses at 3000, yellow 4000-6000
+        simulation.scheduleArrival(5_000, VehicleType.POLICE, Direction.WEST);      // During that yellow
+
+        simulation.run(20_000);
+
+        assertEquals(List.of("3000 NORTH", "5000 WEST"), detections);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.TrafficLightState;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationEngineTest {
+
+    private static final long TICK_MS = 1000;
+
+    @Test
+    void emergencyOnAGreenApproachLeavesWithoutALightChange() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(TICK_MS);
+        simulation.getEngine().setConsoleOutput(false);
+        Recorder recorder = new Recorder();
+        simulation.getIntersection().addObserver(recorder);
+        simulation.scheduleArrival(4_000, VehicleType.AMBULANCE, Direction.SOUTH); // North/south green from the start
+
+        simulation.run(6_000);
+
+        assertEquals(List.of("4000 depart SOUTH AMBULANCE arrived 4000"), recorder.departures);
+        // No forced red before the override, only the ending yellow once the ambulance has passed
+        assertEquals(List.of("5000 light SOUTH YELLOW", "5000 light NORTH YELLOW"), recorder.lightChanges);
+        assertTrue(simulation.getEngine().isPriorityOverrideActive());
+    }
+
+    @Test
+    void greenOverrideAddsNoStartUpLostTime() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(TICK_MS);
+        simulation.getEngine().setConsoleOutput(false);
+        Recorder recorder = new Recorder();
+        simulation.getIntersection().addObserver(recorder);
+        simulation.scheduleArrival(4_000, VehicleType.CAR, Direction.NORTH);
+        simulation.scheduleArrival(4_000, VehicleType.POLICE, Direction.NORTH);
+
+        simulation.run(6_000);
+
+        // The police car goes first and no start-up lost time is added in the middle of the green
+        assertTrue(recorder.departures.contains("4000 depart NORTH POLICE arrived 4000"), recorder.departures.toString());
+        assertEquals(List.of("5000 light NORTH YELLOW", "5000 light SOUTH YELLOW"), recorder.lightChanges);
+    }
+
+    private static final class Recorder implements IntersectionObserver {
+        final List<String> departures = new ArrayList<>();
+        final List<String> lightChanges = new ArrayList<>();
+
+        @Override
+        public void vehicleDeparted(long timeMillis, Direction direction, int vehicleId, VehicleType type, long arrivalTime) {
+            departures.add(timeMillis + " depart " + direction + " " + type + " arrived " + arrivalTime);
+        }
+
+        @Override
+        public void lightChanged(long timeMillis, Direction direction, TrafficLightState state) {
+            lightChanges.add(timeMillis + " light " + direction + " " + state);
+        }
+    }
+}
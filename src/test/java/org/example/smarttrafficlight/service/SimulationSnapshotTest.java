@@ -0,0 +1,103 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationSnapshotTest {
+
+    private static final long TICK_MS = 500;
+
+    @Test
+    void restoredSnapshotCapturesIdentically() throws IOException {
+        SimulationSnapshot snapshot = busySimulation().getEngine().captureSnapshot();
+
+        DiscreteEventSimulation restored = DiscreteEventSimulation.fromSnapshot(snapshot, TICK_MS);
+
+        assertArrayEquals(bytes(snapshot), bytes(restored.getEngine().captureSnapshot()));
+    }
+
+    @Test
+    void binaryFormatRoundTrips() throws IOException {
+        SimulationSnapshot snapshot = busySimulation().getEngine().captureSnapshot();
+
+        SimulationSnapshot read = SimulationSnapshot.readFrom(new ByteArrayInputStream(bytes(snapshot)));
+
+        assertArrayEquals(bytes(snapshot), bytes(read));
+    }
+
+    @Test
+    void branchesFromOneSnapshotEvolveIdentically() throws IOException {
+        SimulationSnapshot snapshot = busySimulation().getEngine().captureSnapshot();
+
+        DiscreteEventSimulation first = DiscreteEventSimulation.fromSnapshot(snapshot, TICK_MS);
+        first.getEngine().setConsoleOutput(false);
+        first.resume(60_000);
+        DiscreteEventSimulation second = DiscreteEventSimulation.fromSnapshot(snapshot, TICK_MS);
+        second.getEngine().setConsoleOutput(false);
+        second.resume(60_000);
+
+        assertArrayEquals(bytes(first.getEngine().captureSnapshot()), bytes(second.getEngine().captureSnapshot()));
+    }
+
+    @Test
+    void unchangedQueuesAreSharedWithThePreviousCapture() {
+        DiscreteEventSimulation simulation = busySimulation();
+        SimulationSnapshot first = simulation.getEngine().captureSnapshot();
+        simulation.getIntersection().addVehicle(VehicleType.CAR, Direction.EAST);
+
+        SimulationSnapshot second = simulation.getEngine().captureSnapshot();
+
+        assertNotSame(first.queues[Direction.EAST.ordinal()], second.queues[Direction.EAST.ordinal()]);
+        assertEquals(first.getQueueSize(Direction.EAST) + 1, second.getQueueSize(Direction.EAST));
+        for (Direction dir : new Direction[]{Direction.NORTH, Direction.SOUTH, Direction.WEST}) {
+            assertSame(first.queues[dir.ordinal()], second.queues[dir.ordinal()], dir.toString());
+        }
+    }
+
+    @Test
+    void corruptPriorityStateIsAnIOException() throws IOException {
+        byte[] data = bytes(busySimulation().getEngine().captureSnapshot());
+        data[45] = 17; // magic, version, time, last id, 3 timings, green direction, then the priority state
+
+        assertThrows(IOException.class, () -> SimulationSnapshot.readFrom(new ByteArrayInputStream(data)));
+    }
+
+    // A run stopped mid-cycle with vehicles (emergency ones included) still queued
+    private static DiscreteEventSimulation busySimulation() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(TICK_MS);
+        simulation.getEngine().setConsoleOutput(false);
+        Random random = new Random(7);
+        VehicleType[] types = VehicleType.values();
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 300; i++) {
+            simulation.scheduleArrival(i * 200L, types[random.nextInt(types.length)],
+                    directions[random.nextInt(directions.length)]);
+        }
+        simulation.run(43_250);
+        int queued = 0;
+        for (Direction dir : directions) {
+            queued += simulation.getIntersection().getQueueSize(dir);
+        }
+        assertTrue(queued > 0, "Snapshot should have queued vehicles");
+        return simulation;
+    }
+
+    private static byte[] bytes(SimulationSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.smarttrafficlight.service;
+
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleQueueTest {
+
+    private final List<Integer> departed = new ArrayList<>();
+    private final DepartureListener recorder = (dir, id, type, arrivalTime) -> departed.add(id);
+
+    @Test
+    void higherPriorityLevelsLeaveFirst() {
+        VehicleQueue queue = new VehicleQueue(Direction.NORTH);
+        queue.add(1, VehicleType.CAR, 0);
+        queue.add(2, VehicleType.BUS, 0);
+        queue.add(3, VehicleType.POLICE, 0);
+        queue.add(4, VehicleType.AMBULANCE, 0);
+
+        drain(queue);
+
+        assertEquals(List.of(4, 3, 2, 1), departed);
+    }
+
+    @Test
+    void sameLevelLeavesInArrivalOrder() {
+        VehicleQueue queue = new VehicleQueue(Direction.EAST);
+        queue.add(1, VehicleType.CAR, 0);
+        queue.add(2, VehicleType.MOTORCYCLE, 10); // Same level as CAR
+        queue.add(3, VehicleType.BUS, 20);
+        queue.add(4, VehicleType.TRUCK, 30);      // Same level as BUS
+        queue.add(5, VehicleType.CAR, 40);
+
+        drain(queue);
+
+        assertEquals(List.of(3, 4, 1, 2, 5), departed);
+    }
+
+    @Test
+    void growsPastItsInitialCapacityAcrossTheWrap() {
+        VehicleQueue queue = new VehicleQueue(Direction.SOUTH);
+        for (int id = 0; id < 10; id++) {
+            queue.add(id, VehicleType.CAR, id);
+        }
+        for (int i = 0; i < 6; i++) {
+            queue.poll(recorder); // Move the head so the ring wraps before it grows
+        }
+        for (int id = 10; id < 1000; id++) {
+            queue.add(id, VehicleType.CAR, id);
+        }
+        assertEquals(994, queue.size());
+
+        departed.clear();
+        drain(queue);
+
+        assertEquals(994, departed.size());
+        for (int i = 0; i < departed.size(); i++) {
+            assertEquals(i + 6, departed.get(i));
+        }
+    }
+
+    @Test
+    void removesAVehicleFromTheMiddle() {
+        VehicleQueue queue = new VehicleQueue(Direction.WEST);
+        for (int id = 1; id <= 5; id++) {
+            queue.add(id, VehicleType.CAR, 0);
+        }
+
+        assertTrue(queue.remove(3, recorder, 0));
+        assertFalse(queue.remove(3, recorder, 0));
+        assertEquals(List.of(3), departed);
+
+        departed.clear();
+        drain(queue);
+        assertEquals(List.of(1, 2, 4, 5), departed);
+    }
+
+    private void drain(VehicleQueue queue) {
+        while (queue.poll(recorder)) {
+            // Keep polling until empty
+        }
+        assertEquals(0, queue.size());
+    }
+}
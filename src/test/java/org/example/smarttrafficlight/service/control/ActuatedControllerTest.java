@@ -0,0 +1,64 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SignalTimings;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActuatedControllerTest {
+
+    private static final SignalTimings TIMINGS = SignalTimings.DEFAULT;
+
+    private final Intersection intersection = new Intersection(new ManualClock(), SimulationEventLog.disabled());
+    private final ActuatedController controller = new ActuatedController(5_000, 40_000);
+
+    @Test
+    void extendsUpToMaxGreenWhileDemandContinues() {
+        queue(Direction.NORTH, 2);
+        queue(Direction.EAST, 3);
+
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 6_000, TIMINGS, 6_000));
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 39_999, TIMINGS, 39_999));
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 40_000, TIMINGS, 40_000));
+        assertEquals(40_000, controller.earliestGreenEnd(intersection, Direction.NORTH, 0, TIMINGS, 6_000));
+    }
+
+    @Test
+    void gapsOutOnceTheGreenApproachesAreEmpty() {
+        queue(Direction.WEST, 1);
+
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 4_999, TIMINGS, 4_999)); // minGreen first
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 5_000, TIMINGS, 5_000));
+        assertEquals(5_000, controller.earliestGreenEnd(intersection, Direction.NORTH, 0, TIMINGS, 1_000));
+    }
+
+    @Test
+    void keepsTheGreenWhenNobodyElseIsWaiting() {
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 20_000, TIMINGS, 20_000));
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 40_000, TIMINGS, 40_000));
+    }
+
+    @Test
+    void skipsThePhaseWithoutDemand() {
+        queue(Direction.SOUTH, 1);
+        assertEquals(Direction.NORTH, controller.selectNextPhase(intersection, Direction.NORTH, 0));
+
+        queue(Direction.EAST, 1);
+        assertEquals(Direction.EAST, controller.selectNextPhase(intersection, Direction.NORTH, 0));
+        assertEquals(Direction.NORTH, controller.selectNextPhase(intersection, Direction.EAST, 0));
+    }
+
+    private void queue(Direction direction, int count) {
+        for (int i = 0; i < count; i++) {
+            intersection.addVehicle(Vehicle.nextId(), VehicleType.CAR, direction, 0L);
+        }
+    }
+}
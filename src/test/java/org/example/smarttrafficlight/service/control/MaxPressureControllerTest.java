@@ -0,0 +1,71 @@
+package org.example.smarttrafficlight.service.control;
+
+import org.example.smarttrafficlight.eventlog.SimulationEventLog;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.Vehicle;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.Intersection;
+import org.example.smarttrafficlight.service.ManualClock;
+import org.example.smarttrafficlight.service.SignalTimings;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Default weights: 10 per queued vehicle, 1 per second of head wait, switch margin 10
+class MaxPressureControllerTest {
+
+    private static final SignalTimings TIMINGS = SignalTimings.DEFAULT;
+    private static final long NOW = 60_000;
+
+    private final Intersection intersection = new Intersection(new ManualClock(), SimulationEventLog.disabled());
+    private final MaxPressureController controller = new MaxPressureController(5_000, 40_000);
+
+    @Test
+    void switchesToTheHeavierPairAfterMinGreen() {
+        queue(Direction.NORTH, 1, NOW);
+        queue(Direction.EAST, 2, NOW);
+        queue(Direction.WEST, 1, NOW);
+
+        assertEquals(10, controller.pressure(intersection, 0, NOW));
+        assertEquals(30, controller.pressure(intersection, 1, NOW));
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 4_999, TIMINGS, NOW)); // minGreen first
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 5_000, TIMINGS, NOW));
+        assertFalse(controller.shouldEndGreen(intersection, Direction.EAST, 5_000, TIMINGS, NOW)); // Already the heavier one
+    }
+
+    @Test
+    void headWaitCountsTowardsPressure() {
+        queue(Direction.NORTH, 2, NOW);                  // 20
+        queue(Direction.EAST, 1, NOW - 25_000);          // 10 + 25 s waiting
+
+        assertEquals(35, controller.pressure(intersection, 1, NOW));
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 10_000, TIMINGS, NOW));
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 10_000, TIMINGS, NOW - 10_000));
+    }
+
+    @Test
+    void keepsTheGreenWithinTheMarginUntilMaxGreen() {
+        queue(Direction.NORTH, 1, NOW);
+        queue(Direction.EAST, 2, NOW); // Lead of exactly the margin: not enough
+
+        assertFalse(controller.shouldEndGreen(intersection, Direction.NORTH, 39_999, TIMINGS, NOW));
+        assertTrue(controller.shouldEndGreen(intersection, Direction.NORTH, 40_000, TIMINGS, NOW));
+    }
+
+    @Test
+    void nextPhaseGoesToTheOtherPairUnlessOnlyTheEndingOneHasDemand() {
+        queue(Direction.SOUTH, 3, NOW);
+        assertEquals(Direction.NORTH, controller.selectNextPhase(intersection, Direction.NORTH, NOW));
+
+        queue(Direction.WEST, 1, NOW);
+        assertEquals(Direction.EAST, controller.selectNextPhase(intersection, Direction.NORTH, NOW));
+    }
+
+    private void queue(Direction direction, int count, long arrivalTime) {
+        for (int i = 0; i < count; i++) {
+            intersection.addVehicle(Vehicle.nextId(), VehicleType.CAR, direction, arrivalTime);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.smarttrafficlight.topology;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class JunctionTopologyTest {
+
+    private final JunctionTopology fourWay = JunctionTopology.fourWay();
+
+    @Test
+    void fourWayHasEveryMovementBetweenDifferentLegs() {
+        assertEquals(4, fourWay.getLegCount());
+        assertEquals(12, fourWay.getMovementCount());
+        assertEquals(2, fourWay.getPhaseCount());
+        for (int leg = 0; leg < fourWay.getLegCount(); leg++) {
+            assertEquals(3, Long.bitCount(fourWay.getLegMovements(leg)));
+        }
+    }
+
+    @Test
+    void throughMovementConflictsWithTheCrossStreet() {
+        assertEquals(mask("EAST->SOUTH", "EAST->WEST", "WEST->NORTH", "WEST->EAST", "WEST->SOUTH"),
+                fourWay.getConflictMask(movement("NORTH->SOUTH")));
+        assertFalse(fourWay.conflicts(movement("NORTH->SOUTH"), movement("SOUTH->NORTH"))); // Opposing throughs
+    }
+
+    @Test
+    void rightTurnOnlyConflictsWithTrafficMergingIntoItsExit() {
+        assertEquals(mask("EAST->WEST"), fourWay.getConflictMask(movement("NORTH->WEST")));
+        assertEquals(mask("WEST->EAST"), fourWay.getConflictMask(movement("SOUTH->EAST")));
+    }
+
+    @Test
+    void permissiveLeftTurnDoesNotConflictWithOncomingTraffic() {
+        assertEquals(mask("EAST->SOUTH", "EAST->WEST", "WEST->NORTH", "WEST->EAST"),
+                fourWay.getConflictMask(movement("NORTH->EAST")));
+        assertFalse(fourWay.conflicts(movement("NORTH->EAST"), movement("SOUTH->NORTH")));
+    }
+
+    @Test
+    void conflictMasksAreSymmetric() {
+        for (int a = 0; a < fourWay.getMovementCount(); a++) {
+            for (int b = 0; b < fourWay.getMovementCount(); b++) {
+                assertEquals(fourWay.conflicts(a, b), fourWay.conflicts(b, a),
+                        fourWay.getMovementName(a) + " / " + fourWay.getMovementName(b));
+            }
+        }
+    }
+
+    @Test
+    void phasesAreSafeOnTheirOwnButNotTogether() {
+        long northSouth = fourWay.getPhaseMovements(0);
+        long eastWest = fourWay.getPhaseMovements(1);
+        assertEquals(fourWay.getLegMovements(fourWay.legIndex("NORTH")) | fourWay.getLegMovements(fourWay.legIndex("SOUTH")),
+                northSouth);
+        assertTrue(fourWay.isSafe(northSouth));
+        assertTrue(fourWay.isSafe(eastWest));
+        assertFalse(fourWay.isSafe(northSouth | eastWest));
+        assertNotEquals(0, fourWay.getPhaseConflicts(0) & eastWest);
+        assertTrue(fourWay.canStartPhase(1, 0));
+        assertFalse(fourWay.canStartPhase(1, northSouth));
+    }
+
+    private int movement(String name) {
+        for (int m = 0; m < fourWay.getMovementCount(); m++) {
+            if (fourWay.getMovementName(m).equals(name)) {
+                return m;
+            }
+        }
+        return fail("No movement " + name);
+    }
+
+    private long mask(String... names) {
+        long mask = 0;
+        for (String name : names) {
+            mask |= 1L << movement(name);
+        }
+        return mask;
+    }
+}
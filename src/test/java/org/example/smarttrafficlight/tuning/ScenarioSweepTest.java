@@ -0,0 +1,131 @@
+package org.example.smarttrafficlight.tuning;
+
+import org.example.smarttrafficlight.generator.TrafficGenerator;
+import org.example.smarttrafficlight.model.Direction;
+import org.example.smarttrafficlight.model.VehicleType;
+import org.example.smarttrafficlight.service.DiscreteEventSimulation;
+import org.example.smarttrafficlight.service.IntersectionObserver;
+import org.example.smarttrafficlight.tuning.TimingCandidate.ControllerKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenarioSweepTest {
+
+    private static final ParameterSpace SMALL = new ParameterSpace(
+            new long[]{10_000, 30_000, 10_000},
+            new long[]{3_000, 4_000, 1_000},
+            new long[]{10_000, 10_000, 5_000},
+            new long[]{5_000, 10_000, 5_000},
+            new long[]{20_000, 30_000, 10_000},
+            ControllerKind.values());
+
+    private static List<Scenario> scenarios() {
+        return List.of(Scenario.poisson(1, 600_000, 8, 5), Scenario.poisson(2, 600_000, 5, 8));
+    }
+
+    @Test
+    void ignoredParametersAreNormalisedAway() {
+        assertEquals(new TimingCandidate(ControllerKind.FIXED, 20_000, 3_000, 10_000, 5_000, 20_000),
+                new TimingCandidate(ControllerKind.FIXED, 20_000, 3_000, 10_000, 10_000, 30_000));
+        assertEquals(new TimingCandidate(ControllerKind.ACTUATED, 10_000, 3_000, 10_000, 5_000, 20_000),
+                new TimingCandidate(ControllerKind.ACTUATED, 30_000, 3_000, 10_000, 5_000, 20_000));
+    }
+
+    @Test
+    void gridHasNoDuplicatesAndNeighboursStayOnIt() {
+        List<TimingCandidate> grid = SMALL.grid();
+        Set<TimingCandidate> unique = new HashSet<>(grid);
+        assertEquals(grid.size(), unique.size());
+        // Fixed: 3 greens x 2 yellows; adaptive: 2 yellows x 2 min x 2 max, for two kinds
+        assertEquals(6 + 2 * 8, grid.size());
+        for (TimingCandidate candidate : grid) {
+            for (TimingCandidate neighbour : SMALL.neighbours(candidate)) {
+                assertTrue(unique.contains(neighbour), neighbour + " (from " + candidate + ") is off the grid");
+                assertFalse(neighbour.equals(candidate));
+            }
+        }
+    }
+
+    @Test
+    void resultsDoNotDependOnTheThreadCount() {
+        List<TimingCandidate> candidates = SMALL.grid();
+        List<SweepResult> sequential;
+        List<SweepResult> parallel;
+        try (ScenarioSweep sweep = new ScenarioSweep(scenarios(), 1)) {
+            sequential = sweep.evaluate(candidates);
+        }
+        try (ScenarioSweep sweep = new ScenarioSweep(scenarios(), 4)) {
+            parallel = sweep.evaluate(candidates);
+        }
+        assertEquals(candidates.size(), parallel.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(candidates.get(i), parallel.get(i).getCandidate());
+            assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+        }
+    }
+
+    @Test
+    void strategiesRespectTheBudgetAndNeverRepeatACandidate() {
+        List<SearchStrategy> strategies = List.of(new GridSearch(SMALL), new RandomSearch(SMALL, 1),
+                new HillClimbingSearch(SMALL, 1), new SurrogateSearch(SMALL, 1));
+        try (ScenarioSweep sweep = new ScenarioSweep(scenarios(), 2)) {
+            for (SearchStrategy strategy : strategies) {
+                List<SweepResult> ranked = sweep.search(strategy, 12);
+                assertEquals(12, ranked.size(), strategy.getName());
+                Set<TimingCandidate> seen = new HashSet<>();
+                for (int i = 0; i < ranked.size(); i++) {
+                    assertTrue(seen.add(ranked.get(i).getCandidate()), strategy.getName() + " repeated a candidate");
+                    if (i > 0) {
+                        assertTrue(ranked.get(i - 1).getScore() <= ranked.get(i).getScore(), strategy.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void scenariosRecordGeneratorTrafficRelativeToItsStart() {
+        Scenario first = Scenario.rushHour(5, 7 * 3_600_000L, 600_000, 20);
+        Scenario second = Scenario.rushHour(5, 7 * 3_600_000L, 600_000, 20);
+        assertTrue(first.getVehicleCount() > 500, first.toString());
+        assertEquals(first.getVehicleCount(), second.getVehicleCount());
+
+        // Recorded from 07:00, but scheduled from the simulation's own start
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(1000);
+        simulation.getEngine().setConsoleOutput(false);
+        Set<Integer> ids = new HashSet<>();
+        simulation.getIntersection().addObserver(new IntersectionObserver() {
+            @Override
+            public void vehicleArrived(long timeMillis, Direction direction, int vehicleId, VehicleType type) {
+                assertTrue(timeMillis < first.getDurationMs());
+                ids.add(vehicleId);
+            }
+        });
+        first.scheduleInto(simulation);
+        simulation.run(first.getDurationMs());
+        assertEquals(first.getVehicleCount(), ids.size());
+        for (int id : ids) {
+            assertTrue(id >= 0 && id < first.getVehicleCount(), "id " + id + " is not scenario-local");
+        }
+
+        TrafficGenerator used = TrafficGenerator.rushHour(5, 20);
+        used.generateInto((time, type, direction) -> { }, 60_000);
+        assertThrows(IllegalArgumentException.class, () -> Scenario.record("used", used, 60_000));
+    }
+
+    @Test
+    void gridSearchStopsWhenTheGridIsExhausted() {
+        GridSearch grid = new GridSearch(SMALL);
+        try (ScenarioSweep sweep = new ScenarioSweep(scenarios(), 2)) {
+            assertEquals(grid.size(), sweep.search(grid, 1000).size());
+        }
+    }
+}